@@ -0,0 +1,175 @@
+package com.deliverytech.delivery.address;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base de CEPs compilada por {@link CompiladorBaseCep} e mapeada em memória.
+ * Registros de tamanho fixo ordenados pelo CEP: a busca binária lê direto do
+ * arquivo mapeado, sem alocar no heap e sem rede. Só a leitura dos textos
+ * (logradouro, bairro, cidade) cria objetos.
+ */
+public final class BaseCep {
+
+    static final int MAGICO = 0x43455031; // "CEP1"
+    static final int VERSAO = 3;
+    // mágico, versão, quantidade, tamanho do registro, impressão, tamanho e modificação da fonte (8 bytes cada), reservado
+    static final int CABECALHO = 48;
+    static final int OFF_IMPRESSAO = 16;
+    static final int OFF_TAMANHO_FONTE = 24;
+    static final int OFF_MODIFICACAO_FONTE = 32;
+
+    static final int TAMANHO_REGISTRO = 128;
+    static final int OFF_CEP = 0;
+    static final int OFF_LATITUDE = 4;
+    static final int OFF_LONGITUDE = 8;
+    static final int OFF_UF = 12;
+    static final int OFF_LOGRADOURO = 14;
+    static final int TAM_LOGRADOURO = 50;
+    static final int OFF_BAIRRO = OFF_LOGRADOURO + TAM_LOGRADOURO;
+    static final int TAM_BAIRRO = 32;
+    static final int OFF_CIDADE = OFF_BAIRRO + TAM_BAIRRO;
+    static final int TAM_CIDADE = 32;
+
+    public static final int NAO_ENCONTRADO = -1;
+
+    private final ByteBuffer dados;
+    private final int quantidade;
+    private final long impressaoFonte;
+    private final long tamanhoFonte;
+    private final long modificacaoFonte;
+
+    private BaseCep(ByteBuffer dados) {
+        if (dados.capacity() < CABECALHO || dados.getInt(0) != MAGICO || dados.getInt(4) != VERSAO
+                || dados.getInt(12) != TAMANHO_REGISTRO
+                || dados.capacity() < CABECALHO + (long) dados.getInt(8) * TAMANHO_REGISTRO) {
+            throw new IllegalStateException("Arquivo de CEP em formato desconhecido ou incompleto");
+        }
+        this.dados = dados;
+        this.quantidade = dados.getInt(8);
+        this.impressaoFonte = dados.getLong(OFF_IMPRESSAO);
+        this.tamanhoFonte = dados.getLong(OFF_TAMANHO_FONTE);
+        this.modificacaoFonte = dados.getLong(OFF_MODIFICACAO_FONTE);
+    }
+
+    public static BaseCep mapear(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois que o canal é fechado
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return new BaseCep(mapa);
+        }
+    }
+
+    public int quantidade() {
+        return quantidade;
+    }
+
+    /** Impressão do CSV de que o arquivo foi compilado; outra fonte pede recompilação. */
+    public long impressaoFonte() {
+        return impressaoFonte;
+    }
+
+    /** Tamanho em bytes do CSV na compilação, ou 0 se não era conhecido. */
+    public long tamanhoFonte() {
+        return tamanhoFonte;
+    }
+
+    /** Última modificação do CSV (epoch millis) na compilação, ou 0 se não era conhecida. */
+    public long modificacaoFonte() {
+        return modificacaoFonte;
+    }
+
+    /**
+     * @return índice do registro ou {@link #NAO_ENCONTRADO}
+     */
+    public int buscar(int cep) {
+        int baixo = 0;
+        int alto = quantidade - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int atual = dados.getInt(posicao(meio) + OFF_CEP);
+            if (atual < cep) {
+                baixo = meio + 1;
+            } else if (atual > cep) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return NAO_ENCONTRADO;
+    }
+
+    public int cep(int indice) {
+        return dados.getInt(posicao(indice) + OFF_CEP);
+    }
+
+    public double latitude(int indice) {
+        return dados.getFloat(posicao(indice) + OFF_LATITUDE);
+    }
+
+    public double longitude(int indice) {
+        return dados.getFloat(posicao(indice) + OFF_LONGITUDE);
+    }
+
+    public String uf(int indice) {
+        return texto(indice, OFF_UF, 2);
+    }
+
+    public String logradouro(int indice) {
+        return texto(indice, OFF_LOGRADOURO, TAM_LOGRADOURO);
+    }
+
+    public String bairro(int indice) {
+        return texto(indice, OFF_BAIRRO, TAM_BAIRRO);
+    }
+
+    public String cidade(int indice) {
+        return texto(indice, OFF_CIDADE, TAM_CIDADE);
+    }
+
+    private String texto(int indice, int deslocamento, int tamanho) {
+        int inicio = posicao(indice) + deslocamento;
+        int comprimento = 0;
+        while (comprimento < tamanho && dados.get(inicio + comprimento) != 0) {
+            comprimento++;
+        }
+        byte[] bytes = new byte[comprimento];
+        dados.get(inicio, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int posicao(int indice) {
+        return CABECALHO + indice * TAMANHO_REGISTRO;
+    }
+
+    /**
+     * Converte um CEP com ou sem máscara para inteiro, ou -1 se inválido.
+     */
+    public static int normalizar(String cep) {
+        if (cep == null) {
+            return -1;
+        }
+        int digitos = 0;
+        int valor = 0;
+        for (int i = 0; i < cep.length(); i++) {
+            char c = cep.charAt(i);
+            if (c >= '0' && c <= '9') {
+                valor = valor * 10 + (c - '0');
+                digitos++;
+            } else if (c != '-' && c != '.' && c != ' ') {
+                return -1;
+            }
+        }
+        return digitos == 8 ? valor : -1;
+    }
+
+    public static String formatar(int cep) {
+        String digitos = String.format("%08d", cep);
+        return digitos.substring(0, 5) + "-" + digitos.substring(5);
+    }
+}
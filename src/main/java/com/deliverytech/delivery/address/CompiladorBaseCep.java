@@ -0,0 +1,153 @@
+package com.deliverytech.delivery.address;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Gera o arquivo binário lido por {@link BaseCep} a partir de um CSV
+ * {@code cep;logradouro;bairro;cidade;uf;latitude;longitude}.
+ * Uso offline: {@code java CompiladorBaseCep entrada.csv saida.bin}.
+ */
+public final class CompiladorBaseCep {
+
+    private CompiladorBaseCep() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: CompiladorBaseCep <entrada.csv> <saida.bin>");
+            System.exit(1);
+        }
+        Path fonte = Path.of(args[0]);
+        long impressao;
+        try (InputStream entrada = Files.newInputStream(fonte)) {
+            impressao = impressao(entrada);
+        }
+        try (Reader leitor = Files.newBufferedReader(fonte, StandardCharsets.UTF_8)) {
+            int total = compilar(leitor, Path.of(args[1]), impressao, Files.size(fonte),
+                    Files.getLastModifiedTime(fonte).toMillis());
+            System.out.println(total + " CEPs gravados em " + args[1]);
+        }
+    }
+
+    /** Primeiros 8 bytes do SHA-256 do conteúdo: gravados no cabeçalho para detectar fonte trocada. */
+    public static long impressao(InputStream csv) throws IOException {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] bloco = new byte[64 * 1024];
+        int lidos;
+        while ((lidos = csv.read(bloco)) > 0) {
+            sha.update(bloco, 0, lidos);
+        }
+        return ByteBuffer.wrap(sha.digest()).getLong();
+    }
+
+    public static int compilar(Reader csv, Path destino, long impressaoFonte) throws IOException {
+        return compilar(csv, destino, impressaoFonte, 0, 0);
+    }
+
+    /**
+     * Com o tamanho e a modificação da fonte no cabeçalho, quem mapeia o
+     * arquivo pode conferir a fonte sem ler o CSV inteiro (0 quando não se
+     * sabe: a impressão continua sendo a referência).
+     */
+    public static int compilar(Reader csv, Path destino, long impressaoFonte, long tamanhoFonte,
+            long modificacaoFonte) throws IOException {
+        List<Linha> linhas = new ArrayList<>();
+        BufferedReader leitor = new BufferedReader(csv);
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+            String[] campos = linha.split(";", -1);
+            int cep = BaseCep.normalizar(campos[0]);
+            if (cep < 0 || campos.length < 7) {
+                continue;
+            }
+            linhas.add(new Linha(cep, campos[1].trim(), campos[2].trim(), campos[3].trim(),
+                    campos[4].trim(), Float.parseFloat(campos[5].trim()), Float.parseFloat(campos[6].trim())));
+        }
+        linhas.sort(Comparator.comparingInt(Linha::cep));
+
+        // Grava em arquivo temporário e troca de forma atômica, sem expor arquivo pela metade
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        if (destino.getParent() != null) {
+            Files.createDirectories(destino.getParent());
+        }
+        int gravados = 0;
+        try (OutputStream saida = Files.newOutputStream(temporario)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BaseCep.CABECALHO).order(ByteOrder.BIG_ENDIAN);
+            long contagem = linhas.stream().map(Linha::cep).distinct().count();
+            buffer.putInt(BaseCep.MAGICO).putInt(BaseCep.VERSAO).putInt((int) contagem).putInt(BaseCep.TAMANHO_REGISTRO)
+                    .putLong(impressaoFonte).putLong(tamanhoFonte).putLong(modificacaoFonte);
+            saida.write(buffer.array());
+
+            int anterior = -1;
+            for (Linha l : linhas) {
+                if (l.cep() == anterior) {
+                    continue;
+                }
+                anterior = l.cep();
+                ByteBuffer registro = ByteBuffer.allocate(BaseCep.TAMANHO_REGISTRO);
+                registro.putInt(BaseCep.OFF_CEP, l.cep());
+                registro.putFloat(BaseCep.OFF_LATITUDE, l.latitude());
+                registro.putFloat(BaseCep.OFF_LONGITUDE, l.longitude());
+                escrever(registro, BaseCep.OFF_UF, 2, l.uf());
+                escrever(registro, BaseCep.OFF_LOGRADOURO, BaseCep.TAM_LOGRADOURO, l.logradouro());
+                escrever(registro, BaseCep.OFF_BAIRRO, BaseCep.TAM_BAIRRO, l.bairro());
+                escrever(registro, BaseCep.OFF_CIDADE, BaseCep.TAM_CIDADE, l.cidade());
+                saida.write(registro.array());
+                gravados++;
+            }
+        }
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return gravados;
+    }
+
+    /** Regrava o tamanho e a modificação da fonte no cabeçalho de um arquivo já compilado dela. */
+    public static void carimbar(Path arquivo, long tamanhoFonte, long modificacaoFonte) throws IOException {
+        ByteBuffer carimbo = ByteBuffer.allocate(16).order(ByteOrder.BIG_ENDIAN)
+                .putLong(tamanhoFonte).putLong(modificacaoFonte).flip();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+            while (carimbo.hasRemaining()) {
+                canal.write(carimbo, BaseCep.OFF_TAMANHO_FONTE + carimbo.position());
+            }
+        }
+    }
+
+    // Trunca sem quebrar caracteres multibyte no meio
+    private static void escrever(ByteBuffer registro, int deslocamento, int tamanho, String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        int comprimento = Math.min(bytes.length, tamanho);
+        while (comprimento > 0 && comprimento < bytes.length && (bytes[comprimento] & 0xC0) == 0x80) {
+            comprimento--;
+        }
+        registro.put(deslocamento, bytes, 0, comprimento);
+    }
+
+    private record Linha(int cep, String logradouro, String bairro, String cidade, String uf,
+            float latitude, float longitude) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.deliverytech.delivery.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tabela {@code pedido_arquivado}: só insere e lê. Cada linha é um
+ * {@link PedidoArquivado} em JSON com gzip; as colunas abertas (cliente,
+ * restaurante, data) existem só para as buscas de histórico.
+ *
+ * <p>Usa {@link JdbcTemplate} na conexão da transação corrente, então a
+ * gravação entra na mesma transação que apaga o pedido das tabelas quentes.
+ */
+@Repository
+public class ArquivoPedidos {
+
+    private static final String INSERIR = "insert into pedido_arquivado "
+            + "(id, cliente_id, restaurante_id, status, data_pedido, arquivado_em, conteudo) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String POR_ID = "select conteudo from pedido_arquivado where id = ?";
+    private static final String POR_CLIENTE = "select conteudo from pedido_arquivado where cliente_id = ? order by data_pedido desc";
+    private static final String POR_RESTAURANTE = "select conteudo from pedido_arquivado where restaurante_id = ? order by data_pedido desc";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper json;
+
+    public ArquivoPedidos(JdbcTemplate jdbc, ObjectMapper objectMapper) {
+        this.jdbc = jdbc;
+        this.json = objectMapper;
+    }
+
+    public void gravar(List<PedidoArquivado> pedidos) {
+        if (pedidos.isEmpty()) {
+            return;
+        }
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> linhas = new ArrayList<>(pedidos.size());
+        for (PedidoArquivado p : pedidos) {
+            linhas.add(new Object[] { p.id(), p.clienteId(), p.restauranteId(),
+                    p.status() == null ? null : p.status().name(),
+                    Timestamp.valueOf(p.dataPedido()), agora, comprimir(p) });
+        }
+        jdbc.batchUpdate(INSERIR, linhas);
+    }
+
+    public Optional<PedidoArquivado> buscar(Long id) {
+        return jdbc.query(POR_ID, (rs, n) -> descomprimir(rs.getBytes(1)), id).stream().findFirst();
+    }
+
+    public List<PedidoArquivado> listarPorCliente(Long clienteId) {
+        return jdbc.query(POR_CLIENTE, (rs, n) -> descomprimir(rs.getBytes(1)), clienteId);
+    }
+
+    public List<PedidoArquivado> listarPorRestaurante(Long restauranteId) {
+        return jdbc.query(POR_RESTAURANTE, (rs, n) -> descomprimir(rs.getBytes(1)), restauranteId);
+    }
+
+    private byte[] comprimir(PedidoArquivado pedido) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(256);
+        try (OutputStream gzip = new GZIPOutputStream(saida)) {
+            json.writeValue(gzip, pedido);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao serializar o pedido arquivado " + pedido.id(), e);
+        }
+        return saida.toByteArray();
+    }
+
+    private PedidoArquivado descomprimir(byte[] conteudo) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(conteudo))) {
+            return json.readValue(gzip, PedidoArquivado.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Pedido arquivado ilegível", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.deliverytech.delivery.archive;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.Endereco;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.StatusPedido;
+
+/**
+ * Fotografia de um pedido finalizado no arquivo frio. Guarda só o que
+ * {@code PedidoMapper} expõe, com os itens embutidos e o nome do produto
+ * congelado na data do arquivamento: o histórico não depende de o produto
+ * continuar existindo.
+ */
+public record PedidoArquivado(
+        Long id,
+        Long clienteId,
+        Long restauranteId,
+        BigDecimal total,
+        BigDecimal desconto,
+        StatusPedido status,
+        LocalDateTime dataPedido,
+        Endereco enderecoEntrega,
+        Long entregadorId,
+        List<Item> itens) {
+
+    public record Item(Long produtoId, String nomeProduto, Integer quantidade, BigDecimal precoUnitario) {
+    }
+
+    public static PedidoArquivado de(Pedido pedido) {
+        List<ItemPedido> origem = pedido.getItens() == null ? List.of() : pedido.getItens();
+        List<Item> itens = new ArrayList<>(origem.size());
+        for (ItemPedido item : origem) {
+            Produto produto = item.getProduto();
+            itens.add(new Item(produto == null ? null : produto.getId(), produto == null ? null : produto.getNome(),
+                    item.getQuantidade(), item.getPrecoUnitario()));
+        }
+        return new PedidoArquivado(pedido.getId(),
+                pedido.getCliente() == null ? null : pedido.getCliente().getId(),
+                pedido.getRestaurante() == null ? null : pedido.getRestaurante().getId(),
+                pedido.getTotal(), pedido.getDesconto(), pedido.getStatus(), pedido.getDataPedido(),
+                pedido.getEnderecoEntrega(), pedido.getEntregadorId(), itens);
+    }
+
+    /**
+     * Remonta um {@link Pedido} destacado, só para leitura: cliente,
+     * restaurante e produtos vêm apenas com o ID (e o nome, no produto).
+     * Não deve ser salvo; o pedido não existe mais nas tabelas quentes.
+     */
+    public Pedido paraPedido() {
+        Pedido pedido = Pedido.builder()
+                .id(id)
+                .cliente(clienteId == null ? null : Cliente.builder().id(clienteId).build())
+                .restaurante(restauranteId == null ? null : Restaurante.builder().id(restauranteId).build())
+                .total(total)
+                .desconto(desconto)
+                .status(status)
+                .dataPedido(dataPedido)
+                .enderecoEntrega(enderecoEntrega)
+                .entregadorId(entregadorId)
+                .build();
+        List<ItemPedido> itensPedido = new ArrayList<>(itens == null ? 0 : itens.size());
+        if (itens != null) {
+            for (Item item : itens) {
+                itensPedido.add(ItemPedido.builder()
+                        .pedido(pedido)
+                        .produto(item.produtoId() == null ? null
+                                : Produto.builder().id(item.produtoId()).nome(item.nomeProduto()).build())
+                        .quantidade(item.quantidade())
+                        .precoUnitario(item.precoUnitario())
+                        .build());
+            }
+        }
+        pedido.setItens(itensPedido);
+        return pedido;
+    }
+}
@@ -0,0 +1,226 @@
+package com.deliverytech.delivery.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import com.deliverytech.delivery.dto.response.RestauranteResponse;
+import com.deliverytech.delivery.mapper.ProdutoMapper;
+import com.deliverytech.delivery.mapper.RestauranteMapper;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.repository.PedidoRepository;
+import com.deliverytech.delivery.repository.PedidoRepository.VolumeRestaurante;
+import com.deliverytech.delivery.repository.ProdutoRepository;
+import com.deliverytech.delivery.repository.RestauranteRepository;
+import com.deliverytech.delivery.service.CardapioSerializadoService;
+import com.deliverytech.delivery.sharding.ShardsPedidos;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Aquece os caches antes de a instância receber tráfego. Roda como
+ * {@link ApplicationRunner}: o Spring Boot só publica
+ * {@code ReadinessState.ACCEPTING_TRAFFIC} depois que os runners terminam,
+ * então {@code /actuator/health/readiness} fica fora de serviço até o
+ * aquecimento acabar ou o orçamento de tempo estourar.
+ *
+ * <p>Restaurantes ativos são aquecidos em ordem de volume de pedidos recentes,
+ * com concorrência limitada: se o orçamento acabar, ficam de fora os menos
+ * pedidos. Para cada um, o cardápio vai para o cache {@code produtos} no
+ * Redis (sem sobrescrever o que outra instância já gravou) e para o cache de
+ * cardápios serializados deste nó, que é o que de fato começa vazio a cada
+ * deploy. Falhas em um restaurante não interrompem os demais nem o boot.
+ */
+@Component
+public class AquecimentoCache implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AquecimentoCache.class);
+
+    private final RestauranteRepository restauranteRepository;
+    private final ProdutoRepository produtoRepository;
+    private final PedidoRepository pedidoRepository;
+    private final ShardsPedidos shards;
+    private final RestauranteMapper restauranteMapper;
+    private final ProdutoMapper produtoMapper;
+    private final CacheManager cacheManager;
+    private final CacheLoteRedis cacheLote;
+    private final CardapioSerializadoService cardapioSerializadoService;
+
+    private final boolean habilitado;
+    private final boolean cacheCardapio;
+    private final int concorrencia;
+    private final Duration orcamento;
+    private final Duration janelaVolume;
+    private final int maxRestaurantes;
+
+    private final Timer duracao;
+    private final Counter aquecidos;
+    private final Counter falhas;
+
+    public AquecimentoCache(RestauranteRepository restauranteRepository,
+            ProdutoRepository produtoRepository,
+            PedidoRepository pedidoRepository,
+            ShardsPedidos shards,
+            RestauranteMapper restauranteMapper,
+            ProdutoMapper produtoMapper,
+            CacheManager cacheManager,
+            CacheLoteRedis cacheLote,
+            CardapioSerializadoService cardapioSerializadoService,
+            MeterRegistry registry,
+            @Value("${delivery.aquecimento.habilitado:true}") boolean habilitado,
+            @Value("${delivery.cardapio.cache.habilitado:true}") boolean cacheCardapio,
+            @Value("${delivery.aquecimento.concorrencia:4}") int concorrencia,
+            @Value("${delivery.aquecimento.orcamento-ms:20000}") long orcamentoMs,
+            @Value("${delivery.aquecimento.janela-volume-horas:24}") long janelaVolumeHoras,
+            @Value("${delivery.aquecimento.max-restaurantes:500}") int maxRestaurantes) {
+        this.restauranteRepository = restauranteRepository;
+        this.produtoRepository = produtoRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.shards = shards;
+        this.restauranteMapper = restauranteMapper;
+        this.produtoMapper = produtoMapper;
+        this.cacheManager = cacheManager;
+        this.cacheLote = cacheLote;
+        this.cardapioSerializadoService = cardapioSerializadoService;
+        this.habilitado = habilitado;
+        this.cacheCardapio = cacheCardapio;
+        this.concorrencia = concorrencia;
+        this.orcamento = Duration.ofMillis(orcamentoMs);
+        this.janelaVolume = Duration.ofHours(janelaVolumeHoras);
+        this.maxRestaurantes = maxRestaurantes;
+        this.duracao = Timer.builder("delivery.aquecimento.duracao")
+                .description("Tempo do aquecimento de caches no boot")
+                .register(registry);
+        this.aquecidos = Counter.builder("delivery.aquecimento.restaurantes")
+                .description("Restaurantes aquecidos no boot")
+                .tag("resultado", "ok")
+                .register(registry);
+        this.falhas = Counter.builder("delivery.aquecimento.restaurantes")
+                .description("Restaurantes aquecidos no boot")
+                .tag("resultado", "falha")
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        long prazo = inicio + orcamento.toNanos();
+        try {
+            List<Restaurante> ativos = priorizar(restauranteRepository.findByAtivoTrue());
+            aquecerRestaurantes(ativos);
+            int ok = aquecerCardapios(ativos, prazo);
+            log.info("Aquecimento de caches: {}/{} restaurantes em {} ms", ok, ativos.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        } catch (RuntimeException e) {
+            // Cache frio é lento, não incorreto: o boot segue
+            log.warn("Aquecimento de caches interrompido: {}", e.getMessage());
+        } finally {
+            duracao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Mais pedidos na janela primeiro; sem pedidos, pela ordem de ID. */
+    private List<Restaurante> priorizar(List<Restaurante> ativos) {
+        Map<Long, Long> volume = new HashMap<>();
+        LocalDateTime desde = LocalDateTime.now().minus(janelaVolume);
+        for (List<VolumeRestaurante> doShard : shards.emTodos(true, () -> pedidoRepository.contarPorRestauranteDesde(desde))) {
+            for (VolumeRestaurante v : doShard) {
+                volume.merge(v.getRestauranteId(), v.getPedidos(), Long::sum);
+            }
+        }
+        List<Restaurante> ordenados = new ArrayList<>(ativos);
+        ordenados.sort(Comparator.<Restaurante>comparingLong(r -> volume.getOrDefault(r.getId(), 0L)).reversed()
+                .thenComparing(Restaurante::getId));
+        return ordenados.size() > maxRestaurantes ? ordenados.subList(0, maxRestaurantes) : ordenados;
+    }
+
+    private void aquecerRestaurantes(List<Restaurante> ativos) {
+        Map<Long, RestauranteResponse> porId = new LinkedHashMap<>();
+        for (Restaurante restaurante : ativos) {
+            porId.put(restaurante.getId(), restauranteMapper.paraResponse(restaurante));
+        }
+        try {
+            cacheLote.gravar("restaurante", porId);
+            // Chave do @Cacheable sem parâmetros de RestauranteController#listarTodos
+            cache("restaurantes").putIfAbsent(SimpleKey.EMPTY, restauranteMapper.paraResponse(restauranteRepository.findAll()));
+        } catch (RuntimeException e) {
+            // Sem Redis ainda vale aquecer os cardápios serializados deste nó
+            log.warn("Aquecimento dos caches de restaurantes falhou: {}", e.getMessage());
+        }
+    }
+
+    private int aquecerCardapios(List<Restaurante> ativos, long prazo) {
+        Cache produtos = cache("produtos");
+        AtomicInteger sequencia = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concorrencia, r -> {
+            Thread t = new Thread(r, "aquecimento-" + sequencia.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger ok = new AtomicInteger();
+        // Enfileirados em ordem de prioridade; os que começariam depois do prazo são pulados
+        for (Restaurante restaurante : ativos) {
+            Long id = restaurante.getId();
+            executor.execute(() -> {
+                if (System.nanoTime() >= prazo) {
+                    return;
+                }
+                try {
+                    if (cacheCardapio) {
+                        cardapioSerializadoService.obter(id);
+                    }
+                    produtos.putIfAbsent(id, produtoMapper.paraResponse(produtoRepository.findByRestauranteId(id)));
+                    aquecidos.increment();
+                    ok.incrementAndGet();
+                } catch (RuntimeException e) {
+                    falhas.increment();
+                    log.debug("Falha ao aquecer cardápio do restaurante {}: {}", id, e.getMessage());
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            long restante = prazo - System.nanoTime();
+            if (restante <= 0 || !executor.awaitTermination(restante, TimeUnit.NANOSECONDS)) {
+                log.warn("Orçamento de aquecimento ({} ms) esgotado", orcamento.toMillis());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        return ok.get();
+    }
+
+    private Cache cache(String nome) {
+        Cache cache = cacheManager.getCache(nome);
+        if (cache == null) {
+            throw new IllegalStateException("Cache '" + nome + "' não configurado");
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,133 @@
+package com.deliverytech.delivery.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Leitura e escrita em lote nos caches por ID ({@code produto},
+ * {@code restaurante}) do {@link org.springframework.data.redis.cache.RedisCacheManager},
+ * usando as mesmas chaves e o mesmo serializador que {@code @Cacheable},
+ * {@code @CachePut} e {@code @CacheEvict}. Assim uma entrada gravada aqui é
+ * invalidada pelos endpoints de escrita sem nenhuma mudança neles.
+ *
+ * <p>Leitura é um único MGET; a escrita das faltas é um script com um SET NX
+ * por entrada, com o TTL configurado para o cache. O NX evita sobrescrever um
+ * valor mais novo gravado por um {@code @CachePut} enquanto o lote consultava
+ * o banco. Os dois usam a conexão compartilhada do Lettuce: um pipeline
+ * abriria uma conexão dedicada (sem pool, um connect por chamada).
+ */
+@Component
+public class CacheLoteRedis {
+
+    // Pares (TTL em ms, valor) em ARGV, um por chave; TTL "0" é entrada sem prazo
+    private static final byte[] GRAVAR_SE_AUSENTE = ("for i, chave in ipairs(KEYS) do "
+            + "if ARGV[2 * i - 1] == '0' then redis.call('set', chave, ARGV[2 * i], 'NX') "
+            + "else redis.call('set', chave, ARGV[2 * i], 'PX', ARGV[2 * i - 1], 'NX') end "
+            + "end return #KEYS").getBytes(StandardCharsets.UTF_8);
+    // Um script bloqueia o Redis enquanto roda: lotes grandes vão em vários
+    private static final int CHAVES_POR_SCRIPT = 256;
+
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory connectionFactory;
+
+    public CacheLoteRedis(CacheManager cacheManager, RedisConnectionFactory connectionFactory) {
+        this.cacheManager = cacheManager;
+        this.connectionFactory = connectionFactory;
+    }
+
+    /** Entradas encontradas no cache, por ID; IDs ausentes simplesmente não aparecem no mapa. */
+    public <T> Map<Long, T> buscar(String nomeCache, List<Long> ids, Class<T> tipo) {
+        Map<Long, T> encontrados = new HashMap<>();
+        if (ids.isEmpty()) {
+            return encontrados;
+        }
+        RedisCacheConfiguration config = configuracao(nomeCache);
+        byte[][] chaves = new byte[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            chaves[i] = chave(config, nomeCache, ids.get(i));
+        }
+
+        List<byte[]> valores;
+        try (RedisConnection conexao = connectionFactory.getConnection()) {
+            valores = conexao.stringCommands().mGet(chaves);
+        }
+        if (valores == null) {
+            return encontrados;
+        }
+        for (int i = 0; i < valores.size(); i++) {
+            byte[] bruto = valores.get(i);
+            if (bruto == null) {
+                continue;
+            }
+            Object valor = config.getValueSerializationPair().read(ByteBuffer.wrap(bruto));
+            // Entradas de outro formato (ou NullValue) contam como falta e são recarregadas
+            if (tipo.isInstance(valor)) {
+                encontrados.put(ids.get(i), tipo.cast(valor));
+            }
+        }
+        return encontrados;
+    }
+
+    /** Grava as entradas sem sobrescrever chaves existentes, em até {@value #CHAVES_POR_SCRIPT} por script. */
+    public void gravar(String nomeCache, Map<Long, ?> valores) {
+        if (valores.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = configuracao(nomeCache);
+        List<byte[]> chaves = new ArrayList<>(CHAVES_POR_SCRIPT);
+        List<byte[]> argumentos = new ArrayList<>(2 * CHAVES_POR_SCRIPT);
+        try (RedisConnection conexao = connectionFactory.getConnection()) {
+            for (Map.Entry<Long, ?> entrada : valores.entrySet()) {
+                Duration ttl = config.getTtlFunction().getTimeToLive(entrada.getKey(), entrada.getValue());
+                long ttlMillis = ttl == null || ttl.isNegative() ? 0 : ttl.toMillis();
+                chaves.add(chave(config, nomeCache, entrada.getKey()));
+                argumentos.add(Long.toString(ttlMillis).getBytes(StandardCharsets.UTF_8));
+                argumentos.add(ByteUtils.getBytes(config.getValueSerializationPair().write(entrada.getValue())));
+                if (chaves.size() == CHAVES_POR_SCRIPT) {
+                    gravarSeAusente(conexao, chaves, argumentos);
+                }
+            }
+            if (!chaves.isEmpty()) {
+                gravarSeAusente(conexao, chaves, argumentos);
+            }
+        }
+    }
+
+    private static void gravarSeAusente(RedisConnection conexao, List<byte[]> chaves, List<byte[]> argumentos) {
+        List<byte[]> todos = new ArrayList<>(chaves.size() + argumentos.size());
+        todos.addAll(chaves);
+        todos.addAll(argumentos);
+        conexao.scriptingCommands().eval(GRAVAR_SE_AUSENTE, ReturnType.INTEGER, chaves.size(),
+                todos.toArray(byte[][]::new));
+        chaves.clear();
+        argumentos.clear();
+    }
+
+    private RedisCacheConfiguration configuracao(String nomeCache) {
+        Cache cache = cacheManager.getCache(nomeCache);
+        if (!(cache instanceof RedisCache redisCache)) {
+            throw new IllegalStateException("Cache '" + nomeCache + "' não é um RedisCache");
+        }
+        return redisCache.getCacheConfiguration();
+    }
+
+    // Mesmo formato de RedisCache#createCacheKey: prefixo do cache + ID convertido em texto
+    private static byte[] chave(RedisCacheConfiguration config, String nomeCache, Long id) {
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(config.getKeyPrefixFor(nomeCache) + id));
+    }
+}
@@ -0,0 +1,297 @@
+package com.deliverytech.delivery.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+
+import com.deliverytech.delivery.sql.ContadorConsultas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link RedisCache} que limita a carga no banco quando uma entrada expira.
+ * Vale para os {@code @Cacheable(sync = true)}, que chegam por
+ * {@link #get(Object, Callable)}:
+ *
+ * <ul>
+ * <li>dentro do nó, requisições simultâneas pela mesma chave esperam uma única
+ * carga (as de chaves diferentes não se bloqueiam, ao contrário do
+ * {@code synchronized} do {@link RedisCache});</li>
+ * <li>entre nós, quem carrega segura uma trava com prazo
+ * ({@code SET NX PX}); os demais consultam o cache até o valor aparecer ou a
+ * espera acabar, quando carregam por conta própria;</li>
+ * <li>num acerto, o valor e o PTTL vêm de um único script na conexão
+ * compartilhada e a entrada pode ser renovada em segundo plano antes de
+ * expirar, com probabilidade crescente perto do fim
+ * (XFetch: {@code custo * beta * -ln(rand) >= ttlRestante});</li>
+ * <li>a renovação só grava se a entrada ainda for a que o acerto leu, para
+ * não ressuscitar um valor removido por um {@code @CacheEvict} concorrente.</li>
+ * </ul>
+ *
+ * Com isso a carga no banco fica limitada ao número de chaves distintas, não
+ * ao de requisições concorrentes.
+ */
+public class CacheRedisProtegido extends RedisCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRedisProtegido.class);
+
+    private static final byte[] SUFIXO_LEASE = ":lease".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LIBERAR_LEASE = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+    // GET e PTTL num comando só: pipeline no Lettuce abriria uma conexão dedicada a cada acerto
+    private static final byte[] LER = ("local v = redis.call('get', KEYS[1]) "
+            + "if not v then return nil end "
+            + "return {v, redis.call('pttl', KEYS[1])}").getBytes(StandardCharsets.UTF_8);
+    // SET só se o valor ainda for o lido; ARGV[3] é o TTL em ms, "0" para entrada sem prazo
+    private static final byte[] TROCAR_SE_IGUAL = ("if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end "
+            + "if ARGV[3] == '0' then redis.call('set', KEYS[1], ARGV[2]) "
+            + "else redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) end "
+            + "return 1").getBytes(StandardCharsets.UTF_8);
+    private static final long INTERVALO_ESPERA_MS = 20;
+    private static final double PESO_EWMA = 0.2;
+
+    private record Leitura(byte[] valor, long pttlMillis) {
+    }
+
+    private final RedisConnectionFactory connectionFactory;
+    private final ConfiguracaoProtecao protecao;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> emCarga = new ConcurrentHashMap<>();
+    private final Set<Object> emRenovacao = ConcurrentHashMap.newKeySet();
+
+    // Custo médio de uma carga, medido neste nó; zero até a primeira
+    private volatile double custoMillis;
+
+    private final Counter cargas;
+    private final Counter renovacoes;
+    private final Counter coalescidas;
+    private final Counter esperasLease;
+
+    public CacheRedisProtegido(String nome, RedisCacheWriter cacheWriter, RedisCacheConfiguration configuracao,
+            RedisConnectionFactory connectionFactory, ConfiguracaoProtecao protecao, MeterRegistry registry) {
+        super(nome, cacheWriter, configuracao);
+        this.connectionFactory = connectionFactory;
+        this.protecao = protecao;
+        this.cargas = contador(registry, "delivery.cache.cargas", nome, "Cargas no banco disparadas por falta");
+        this.renovacoes = contador(registry, "delivery.cache.renovacoes", nome, "Renovações antecipadas em segundo plano");
+        this.coalescidas = contador(registry, "delivery.cache.coalescidas", nome, "Faltas que esperaram uma carga já em andamento no nó");
+        this.esperasLease = contador(registry, "delivery.cache.lease.esperas", nome, "Faltas que esperaram a carga de outro nó");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        byte[] chave = serializeCacheKey(createCacheKey(key));
+        Leitura leitura = ler(chave);
+        if (leitura != null) {
+            if (renovarCedo(leitura.pttlMillis())) {
+                renovarEmSegundoPlano(key, chave, leitura.valor(), valueLoader);
+            }
+            return (T) fromStoreValue(deserializeCacheValue(leitura.valor()));
+        }
+        return (T) carregarUnico(key, chave, valueLoader);
+    }
+
+    private Object carregarUnico(Object key, byte[] chave, Callable<?> valueLoader) {
+        CompletableFuture<Object> nova = new CompletableFuture<>();
+        CompletableFuture<Object> existente = emCarga.putIfAbsent(key, nova);
+        if (existente != null) {
+            coalescidas.increment();
+            return aguardar(existente, key, valueLoader);
+        }
+        try {
+            Object valor = carregarComLease(key, chave, valueLoader);
+            nova.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emCarga.remove(key, nova);
+        }
+    }
+
+    private Object carregarComLease(Object key, byte[] chave, Callable<?> valueLoader) {
+        if (!protecao.leaseHabilitado()) {
+            return carregarEGravar(key, valueLoader);
+        }
+        byte[] chaveLease = chaveLease(chave);
+        byte[] token = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        if (adquirirLease(chaveLease, token)) {
+            try {
+                // Outro nó pode ter gravado entre a nossa leitura e a trava
+                Leitura leitura = ler(chave);
+                if (leitura != null) {
+                    return fromStoreValue(deserializeCacheValue(leitura.valor()));
+                }
+                return carregarEGravar(key, valueLoader);
+            } finally {
+                liberarLease(chaveLease, token);
+            }
+        }
+
+        esperasLease.increment();
+        long limite = System.nanoTime() + protecao.esperaLease().toNanos();
+        while (System.nanoTime() < limite) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(INTERVALO_ESPERA_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Leitura leitura = ler(chave);
+            if (leitura != null) {
+                return fromStoreValue(deserializeCacheValue(leitura.valor()));
+            }
+        }
+        // Quem tinha a trava demorou demais (ou morreu): carrega sem ela
+        return carregarEGravar(key, valueLoader);
+    }
+
+    private Object carregarEGravar(Object key, Callable<?> valueLoader) {
+        Object valor = carregar(key, valueLoader);
+        put(key, valor);
+        return valor;
+    }
+
+    private Object carregar(Object key, Callable<?> valueLoader) {
+        long inicio = System.nanoTime();
+        Object valor;
+        try {
+            valor = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        double decorrido = (System.nanoTime() - inicio) / 1_000_000.0;
+        double anterior = custoMillis;
+        custoMillis = anterior == 0 ? decorrido : anterior + PESO_EWMA * (decorrido - anterior);
+        cargas.increment();
+        return valor;
+    }
+
+    private void renovarEmSegundoPlano(Object key, byte[] chave, byte[] lido, Callable<?> valueLoader) {
+        if (emCarga.containsKey(key) || !emRenovacao.add(key)) {
+            return;
+        }
+        try {
+            protecao.renovacao().execute(ContadorConsultas.propagar(() -> {
+                try {
+                    byte[] chaveLease = chaveLease(chave);
+                    byte[] token = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+                    // Sem a trava outro nó já está renovando; a entrada atual continua valendo
+                    if (!protecao.leaseHabilitado() || adquirirLease(chaveLease, token)) {
+                        try {
+                            renovacoes.increment();
+                            Object valor = carregar(key, valueLoader);
+                            if (!trocarSeIgual(key, chave, lido, valor)) {
+                                log.debug("Renovação de '{}' em '{}' descartada: a entrada mudou ou foi removida",
+                                        key, getName());
+                            }
+                        } finally {
+                            if (protecao.leaseHabilitado()) {
+                                liberarLease(chaveLease, token);
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Renovação antecipada de '{}' em '{}' falhou: {}", key, getName(), e.getMessage());
+                } finally {
+                    emRenovacao.remove(key);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            // Fila cheia: a entrada expira normalmente e a próxima falta carrega
+            emRenovacao.remove(key);
+        }
+    }
+
+    private Object aguardar(CompletableFuture<Object> carga, Object key, Callable<?> valueLoader) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private boolean renovarCedo(long pttlMillis) {
+        double custo = custoMillis;
+        if (protecao.beta() <= 0 || custo == 0 || pttlMillis <= 0) {
+            return false;
+        }
+        double sorteio = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return custo * protecao.beta() * -Math.log(sorteio) >= pttlMillis;
+    }
+
+    private Leitura ler(byte[] chave) {
+        try (RedisConnection conexao = connectionFactory.getConnection()) {
+            List<Object> resultados = conexao.scriptingCommands().eval(LER, ReturnType.MULTI, 1, chave);
+            if (resultados == null || resultados.size() < 2 || !(resultados.get(0) instanceof byte[] valor)) {
+                return null;
+            }
+            Object pttl = resultados.get(1);
+            return new Leitura(valor, pttl instanceof Long ms ? ms : -1);
+        }
+    }
+
+    private boolean trocarSeIgual(Object key, byte[] chave, byte[] esperado, Object valor) {
+        byte[] novo = serializeCacheValue(toStoreValue(valor));
+        Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, valor);
+        long ttlMillis = ttl == null || ttl.isNegative() ? 0 : ttl.toMillis();
+        try (RedisConnection conexao = connectionFactory.getConnection()) {
+            Long trocou = conexao.scriptingCommands().eval(TROCAR_SE_IGUAL, ReturnType.INTEGER, 1, chave, esperado,
+                    novo, Long.toString(ttlMillis).getBytes(StandardCharsets.UTF_8));
+            return trocou != null && trocou == 1;
+        }
+    }
+
+    private boolean adquirirLease(byte[] chaveLease, byte[] token) {
+        try (RedisConnection conexao = connectionFactory.getConnection()) {
+            Boolean ok = conexao.stringCommands().set(chaveLease, token,
+                    Expiration.from(protecao.lease()), SetOption.SET_IF_ABSENT);
+            return Boolean.TRUE.equals(ok);
+        }
+    }
+
+    private void liberarLease(byte[] chaveLease, byte[] token) {
+        try (RedisConnection conexao = connectionFactory.getConnection()) {
+            conexao.scriptingCommands().eval(LIBERAR_LEASE, ReturnType.INTEGER, 1, chaveLease, token);
+        } catch (RuntimeException e) {
+            // A trava expira sozinha
+            log.debug("Falha ao liberar trava de carga em '{}': {}", getName(), e.getMessage());
+        }
+    }
+
+    private static byte[] chaveLease(byte[] chave) {
+        byte[] resultado = Arrays.copyOf(chave, chave.length + SUFIXO_LEASE.length);
+        System.arraycopy(SUFIXO_LEASE, 0, resultado, chave.length, SUFIXO_LEASE.length);
+        return resultado;
+    }
+
+    private static Counter contador(MeterRegistry registry, String nome, String cache, String descricao) {
+        return Counter.builder(nome).description(descricao).tag("cache", cache).register(registry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.deliverytech.delivery.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Parâmetros da proteção contra estouro de cache.
+ *
+ * @param lease        tempo de vida da trava distribuída de carga; zero desliga a trava
+ * @param esperaLease  quanto um nó sem a trava espera o valor aparecer antes de carregar por conta própria
+ * @param beta         agressividade da renovação antecipada (XFetch); zero desliga
+ * @param renovacao    executor das renovações em segundo plano
+ */
+public record ConfiguracaoProtecao(Duration lease, Duration esperaLease, double beta, ExecutorService renovacao) {
+
+    public boolean leaseHabilitado() {
+        return !lease.isZero() && !lease.isNegative();
+    }
+}
@@ -0,0 +1,37 @@
+package com.deliverytech.delivery.cache;
+
+import java.util.Map;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.lang.Nullable;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** {@link RedisCacheManager} que cria {@link CacheRedisProtegido} para todos os caches. */
+public class GerenciadorCacheProtegido extends RedisCacheManager {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final ConfiguracaoProtecao protecao;
+    private final MeterRegistry registry;
+
+    public GerenciadorCacheProtegido(RedisConnectionFactory connectionFactory,
+            RedisCacheConfiguration configuracaoPadrao,
+            Map<String, RedisCacheConfiguration> configuracoes,
+            ConfiguracaoProtecao protecao,
+            MeterRegistry registry) {
+        super(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), configuracaoPadrao, configuracoes);
+        this.connectionFactory = connectionFactory;
+        this.protecao = protecao;
+        this.registry = registry;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, @Nullable RedisCacheConfiguration cacheConfiguration) {
+        RedisCacheConfiguration configuracao = cacheConfiguration != null ? cacheConfiguration : getDefaultCacheConfiguration();
+        return new CacheRedisProtegido(name, getCacheWriter(), configuracao, connectionFactory, protecao, registry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.deliverytech.delivery.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.lang.Nullable;
+
+/**
+ * TTL sorteado em {@code [base * (1 - fração), base]}: entradas gravadas no
+ * mesmo instante (uma carga em massa, um deploy) expiram espalhadas em vez de
+ * todas juntas. O sorteio só encurta, então o TTL configurado continua sendo o
+ * limite de quanto tempo um dado velho pode ser servido.
+ */
+public class TtlComJitter implements RedisCacheWriter.TtlFunction {
+
+    private final long baseMillis;
+    private final double fracao;
+
+    public TtlComJitter(Duration base, double fracao) {
+        if (fracao < 0 || fracao >= 1) {
+            throw new IllegalArgumentException("Fração de jitter deve estar em [0, 1): " + fracao);
+        }
+        this.baseMillis = base.toMillis();
+        this.fracao = fracao;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, @Nullable Object value) {
+        long desconto = (long) (baseMillis * fracao * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(baseMillis - desconto);
+    }
+}
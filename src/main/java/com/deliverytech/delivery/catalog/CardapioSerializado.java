@@ -0,0 +1,33 @@
+package com.deliverytech.delivery.catalog;
+
+/**
+ * Cardápio de um restaurante já serializado, nas duas representações e em
+ * cada codificação. {@code versao} é a do catálogo lida antes de carregar os
+ * produtos, portanto o conteúdo é no mínimo tão novo quanto ela.
+ */
+public record CardapioSerializado(long versao, Representacao json, Representacao cbor) {
+
+    /** Bytes finais de uma representação; {@code brotli} é nulo sem o nativo. */
+    public record Representacao(byte[] identidade, byte[] gzip, byte[] brotli) {
+
+        public byte[] corpo(CodificacaoConteudo codificacao) {
+            return switch (codificacao) {
+                case GZIP -> gzip;
+                case BROTLI -> brotli != null ? brotli : gzip;
+                case IDENTIDADE -> identidade;
+            };
+        }
+
+        public long tamanhoBytes() {
+            return identidade.length + gzip.length + (brotli != null ? brotli.length : 0);
+        }
+    }
+
+    public Representacao representacao(boolean cbor) {
+        return cbor ? this.cbor : json;
+    }
+
+    public long tamanhoBytes() {
+        return json.tamanhoBytes() + cbor.tamanhoBytes();
+    }
+}
@@ -0,0 +1,7 @@
+package com.deliverytech.delivery.catalog;
+
+/**
+ * Publicado depois que a versão do catálogo de um restaurante mudou.
+ */
+public record CatalogoAlteradoEvent(Long restauranteId) {
+}
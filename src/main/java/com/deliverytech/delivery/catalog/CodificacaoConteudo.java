@@ -0,0 +1,66 @@
+package com.deliverytech.delivery.catalog;
+
+/**
+ * Content-Encoding das variantes guardadas no cache de cardápios.
+ */
+public enum CodificacaoConteudo {
+    IDENTIDADE(null),
+    GZIP("gzip"),
+    BROTLI("br");
+
+    private final String token;
+
+    CodificacaoConteudo(String token) {
+        this.token = token;
+    }
+
+    /** Valor do header Content-Encoding; {@code null} para identidade. */
+    public String token() {
+        return token;
+    }
+
+    /**
+     * Escolhe a codificação pelo {@code Accept-Encoding}: maior q vence e, no
+     * empate, brotli (menor) antes de gzip. {@code q=0} exclui a opção.
+     */
+    public static CodificacaoConteudo negociar(String acceptEncoding, boolean brotliDisponivel) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return IDENTIDADE;
+        }
+        double qGzip = -1;
+        double qBrotli = -1;
+        double qCuringa = 0;
+        for (String parte : acceptEncoding.split(",")) {
+            String[] campos = parte.trim().split(";");
+            String nome = campos[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < campos.length; i++) {
+                String parametro = campos[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(parametro.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (nome) {
+                case "gzip", "x-gzip" -> qGzip = q;
+                case "br" -> qBrotli = q;
+                case "*" -> qCuringa = q;
+                default -> { }
+            }
+        }
+        // Não citadas explicitamente herdam o q do '*'
+        if (qGzip < 0) {
+            qGzip = qCuringa;
+        }
+        if (qBrotli < 0) {
+            qBrotli = qCuringa;
+        }
+        if (brotliDisponivel && qBrotli > 0 && qBrotli >= qGzip) {
+            return BROTLI;
+        }
+        return qGzip > 0 ? GZIP : IDENTIDADE;
+    }
+}
@@ -0,0 +1,63 @@
+package com.deliverytech.delivery.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+/**
+ * Compressão feita uma vez por versão do cardápio, então usa o nível máximo
+ * dos dois algoritmos: o custo de CPU é amortizado por todos os acertos.
+ */
+public final class Compressao {
+
+    private static final boolean BROTLI_DISPONIVEL = carregarBrotli();
+    private static final Encoder.Parameters PARAMETROS_BROTLI = new Encoder.Parameters().setQuality(11);
+
+    private Compressao() {
+    }
+
+    public static boolean brotliDisponivel() {
+        return BROTLI_DISPONIVEL;
+    }
+
+    public static byte[] gzip(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, dados.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    /** Brotli qualidade 11, ou {@code null} quando o nativo não carregou. */
+    public static byte[] brotli(byte[] dados) {
+        if (!BROTLI_DISPONIVEL) {
+            return null;
+        }
+        try {
+            return Encoder.compress(dados, PARAMETROS_BROTLI);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean carregarBrotli() {
+        try {
+            Brotli4jLoader.ensureAvailability();
+            return true;
+        } catch (Throwable e) {
+            // Plataforma sem nativo (ex.: musl): o cache segue só com gzip
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.deliverytech.delivery.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.dao.QueryTimeoutException;
+
+import com.deliverytech.delivery.sql.ContadorConsultas;
+
+/**
+ * Concorrência estruturada sobre threads virtuais, no molde do
+ * {@code StructuredTaskScope.ShutdownOnFailure}, que no Java 21 ainda é
+ * preview: as subtarefas abertas com {@link #fork} rodam em paralelo e
+ * {@link #aguardar} volta quando todas terminam. A primeira falha cancela
+ * (interrompe) as demais e é relançada; estourado o prazo, todas são
+ * canceladas. Nenhuma subtarefa sobrevive ao {@link #close()}, então o escopo
+ * deve ser usado em try-with-resources.
+ *
+ * <pre>
+ * try (EscopoTarefas escopo = new EscopoTarefas("validacao", prazo)) {
+ *     Subtarefa&lt;Cliente&gt; cliente = escopo.fork(() -&gt; ...);
+ *     Subtarefa&lt;Restaurante&gt; restaurante = escopo.fork(() -&gt; ...);
+ *     escopo.aguardar();
+ *     return new Validacao(cliente.get(), restaurante.get());
+ * }
+ * </pre>
+ *
+ * Não é thread-safe: fork, aguardar e close são chamados pela thread dona.
+ */
+public final class EscopoTarefas implements AutoCloseable {
+
+    /** Resultado de uma subtarefa; só pode ser lido depois de {@link #aguardar} voltar sem erro. */
+    public interface Subtarefa<T> {
+        T get();
+    }
+
+    // Threads próprias, e não um ExecutorService: o FutureTask cancelado conta
+    // como terminado antes de a thread sair, e o close() do executor voltaria
+    // com a subtarefa ainda rodando
+    private final ThreadFactory threads;
+    private final Duration prazo;
+    private final long limite;
+    private final List<CompletableFuture<?>> resultados = new ArrayList<>();
+    private final List<Thread> execucoes = new ArrayList<>();
+    // Completa com a primeira falha; as seguintes são ignoradas
+    private final CompletableFuture<Void> falha = new CompletableFuture<>();
+    private volatile boolean cancelado;
+
+    public EscopoTarefas(String nome, Duration prazo) {
+        this.threads = Thread.ofVirtual().name(nome + "-", 0).factory();
+        this.prazo = prazo;
+        this.limite = System.nanoTime() + prazo.toNanos();
+    }
+
+    public <T> Subtarefa<T> fork(Callable<? extends T> tarefa) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        resultados.add(resultado);
+        // Os comandos SQL da subtarefa contam no escopo de quem a abriu
+        Callable<? extends T> contada = ContadorConsultas.propagar(tarefa);
+        Thread execucao = threads.newThread(() -> {
+            // Cancelada antes de começar: nem roda
+            if (cancelado) {
+                resultado.cancel(false);
+                return;
+            }
+            try {
+                resultado.complete(contada.call());
+            } catch (Throwable e) {
+                resultado.completeExceptionally(e);
+                falha.completeExceptionally(e);
+            }
+        });
+        execucoes.add(execucao);
+        execucao.start();
+        return resultado::resultNow;
+    }
+
+    /**
+     * Espera todas as subtarefas, a primeira falha ou o prazo. Exceções não
+     * verificadas das subtarefas saem como estão; o prazo vira
+     * {@link QueryTimeoutException}.
+     */
+    public void aguardar() {
+        CompletableFuture<Void> todas = CompletableFuture.allOf(resultados.toArray(CompletableFuture[]::new));
+        try {
+            CompletableFuture.anyOf(falha, todas).get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            cancelar();
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException r) {
+                throw r;
+            }
+            if (causa instanceof Error erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(causa);
+        } catch (TimeoutException e) {
+            cancelar();
+            throw new QueryTimeoutException("Subtarefas não terminaram em " + prazo.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            cancelar();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando as subtarefas", e);
+        }
+    }
+
+    private void cancelar() {
+        cancelado = true;
+        for (Thread execucao : execucoes) {
+            execucao.interrupt();
+        }
+    }
+
+    /**
+     * Cancela o que ainda roda e espera as threads terminarem. Interrompida,
+     * a thread dona continua esperando e sai com a interrupção restaurada.
+     */
+    @Override
+    public void close() {
+        cancelar();
+        boolean interrompida = false;
+        for (Thread execucao : execucoes) {
+            while (true) {
+                try {
+                    execucao.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrompida = true;
+                }
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
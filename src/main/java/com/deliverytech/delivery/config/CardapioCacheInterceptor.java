@@ -0,0 +1,66 @@
+package com.deliverytech.delivery.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.deliverytech.delivery.catalog.CardapioSerializado;
+import com.deliverytech.delivery.catalog.CodificacaoConteudo;
+import com.deliverytech.delivery.service.CardapioSerializadoService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Responde {@code GET /api/produtos/restaurante/{id}} direto do
+ * {@link CardapioSerializadoService}: escolhe representação e codificação e
+ * copia os bytes prontos para o output stream, sem passar pelo controller nem
+ * pelos message converters. Registrado depois do {@link CatalogoEtagInterceptor},
+ * que já respondeu os 304.
+ */
+public class CardapioCacheInterceptor implements HandlerInterceptor {
+
+    private final CardapioSerializadoService cardapioSerializadoService;
+
+    public CardapioCacheInterceptor(CardapioSerializadoService cardapioSerializadoService) {
+        this.cardapioSerializadoService = cardapioSerializadoService;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        Map<String, String> variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        Long restauranteId;
+        try {
+            restauranteId = Long.valueOf(variaveis.get("restauranteId"));
+        } catch (NumberFormatException | NullPointerException e) {
+            return true;
+        }
+
+        boolean cbor = CatalogoEtagInterceptor.preferCbor(request);
+        CodificacaoConteudo codificacao = CodificacaoConteudo.negociar(
+                request.getHeader(HttpHeaders.ACCEPT_ENCODING), cardapioSerializadoService.brotliDisponivel());
+        CardapioSerializado cardapio = cardapioSerializadoService.obter(restauranteId);
+        byte[] corpo = cardapio.representacao(cbor).corpo(codificacao);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cbor ? MediaType.APPLICATION_CBOR_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        if (codificacao.token() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, codificacao.token());
+        }
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        response.setContentLength(corpo.length);
+        response.getOutputStream().write(corpo);
+        return false;
+    }
+}
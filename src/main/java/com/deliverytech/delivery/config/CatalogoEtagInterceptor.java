@@ -0,0 +1,134 @@
+package com.deliverytech.delivery.config;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.deliverytech.delivery.catalog.CodificacaoConteudo;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * GET condicional para as leituras do catálogo. Roda antes do controller e,
+ * portanto, antes do {@code @Cacheable}: um {@code If-None-Match} com a
+ * versão atual é respondido com 304 sem tocar no Redis de respostas nem no
+ * banco, só comparando o contador do restaurante.
+ *
+ * <p>O ETag é lido antes do corpo ser montado, então ele nunca é mais novo
+ * que o conteúdo: uma escrita no meio do caminho só custa um 200 a mais na
+ * próxima revalidação, nunca um 304 indevido. JSON e CBOR recebem ETags
+ * diferentes, já que ETag forte promete bytes idênticos; pelo mesmo motivo,
+ * quando a rota serve variantes comprimidas a codificação entra no ETag.
+ */
+public class CatalogoEtagInterceptor implements HandlerInterceptor {
+
+    private final VersaoCatalogoService versaoCatalogoService;
+    private final String variavelRestaurante;
+    private final String cacheControl;
+    private final boolean variaPorCodificacao;
+    private final boolean brotliDisponivel;
+    private final Counter naoModificados;
+
+    public CatalogoEtagInterceptor(VersaoCatalogoService versaoCatalogoService, String variavelRestaurante,
+            long maxAgeSegundos, long sMaxAgeSegundos, MeterRegistry registry) {
+        this(versaoCatalogoService, variavelRestaurante, maxAgeSegundos, sMaxAgeSegundos, registry, false, false);
+    }
+
+    public CatalogoEtagInterceptor(VersaoCatalogoService versaoCatalogoService, String variavelRestaurante,
+            long maxAgeSegundos, long sMaxAgeSegundos, MeterRegistry registry,
+            boolean variaPorCodificacao, boolean brotliDisponivel) {
+        this.versaoCatalogoService = versaoCatalogoService;
+        this.variavelRestaurante = variavelRestaurante;
+        this.variaPorCodificacao = variaPorCodificacao;
+        this.brotliDisponivel = brotliDisponivel;
+        this.cacheControl = CacheControl.maxAge(maxAgeSegundos, TimeUnit.SECONDS)
+                .sMaxAge(sMaxAgeSegundos, TimeUnit.SECONDS)
+                .cachePublic()
+                .mustRevalidate()
+                .getHeaderValue();
+        this.naoModificados = Counter.builder("catalogo.http.nao_modificados")
+                .description("Leituras do catálogo respondidas com 304 pela versão do restaurante")
+                .register(registry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        Long restauranteId = restauranteId(request);
+        if (restauranteId == null) {
+            return true;
+        }
+
+        String sufixo = preferCbor(request) ? "-cbor" : "-json";
+        String vary = HttpHeaders.ACCEPT;
+        if (variaPorCodificacao) {
+            String token = CodificacaoConteudo.negociar(request.getHeader(HttpHeaders.ACCEPT_ENCODING), brotliDisponivel).token();
+            sufixo = token != null ? sufixo + "-" + token : sufixo;
+            vary = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+        }
+        String etag = "\"r" + restauranteId + "-v" + versaoCatalogoService.versao(restauranteId) + sufixo + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.VARY, vary);
+
+        if (corresponde(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            naoModificados.increment();
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long restauranteId(HttpServletRequest request) {
+        Map<String, String> variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variaveis == null || variaveis.get(variavelRestaurante) == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(variaveis.get(variavelRestaurante));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static boolean preferCbor(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        int cbor = accept.indexOf(MediaType.APPLICATION_CBOR_VALUE);
+        int json = accept.indexOf(MediaType.APPLICATION_JSON_VALUE);
+        return cbor >= 0 && (json < 0 || cbor < json);
+    }
+
+    // If-None-Match pode trazer uma lista ou '*'; comparação fraca conforme a RFC 9110
+    private static boolean corresponde(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,52 @@
+package com.deliverytech.delivery.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.deliverytech.delivery.service.CardapioSerializadoService;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class CatalogoHttpConfig implements WebMvcConfigurer {
+
+    private final VersaoCatalogoService versaoCatalogoService;
+    private final CardapioSerializadoService cardapioSerializadoService;
+    private final MeterRegistry registry;
+    private final long maxAgeSegundos;
+    private final long sMaxAgeSegundos;
+    private final boolean cacheCardapio;
+
+    public CatalogoHttpConfig(VersaoCatalogoService versaoCatalogoService,
+            CardapioSerializadoService cardapioSerializadoService,
+            MeterRegistry registry,
+            @Value("${delivery.cardapio.cache.habilitado:true}") boolean cacheCardapio,
+            @Value("${delivery.catalogo.http.max-age-s:0}") long maxAgeSegundos,
+            @Value("${delivery.catalogo.http.s-maxage-s:10}") long sMaxAgeSegundos) {
+        this.versaoCatalogoService = versaoCatalogoService;
+        this.cardapioSerializadoService = cardapioSerializadoService;
+        this.registry = registry;
+        this.cacheCardapio = cacheCardapio;
+        this.maxAgeSegundos = maxAgeSegundos;
+        this.sMaxAgeSegundos = sMaxAgeSegundos;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Com o cache de cardápios a resposta sai comprimida, então o ETag varia pela codificação
+        registry.addInterceptor(new CatalogoEtagInterceptor(versaoCatalogoService, "restauranteId",
+                        maxAgeSegundos, sMaxAgeSegundos, this.registry,
+                        cacheCardapio, cardapioSerializadoService.brotliDisponivel()))
+                .addPathPatterns("/api/produtos/restaurante/{restauranteId}");
+        if (cacheCardapio) {
+            registry.addInterceptor(new CardapioCacheInterceptor(cardapioSerializadoService))
+                    .addPathPatterns("/api/produtos/restaurante/{restauranteId}");
+        }
+        registry.addInterceptor(new CatalogoEtagInterceptor(versaoCatalogoService, "id",
+                        maxAgeSegundos, sMaxAgeSegundos, this.registry))
+                .addPathPatterns("/api/restaurantes/{id}");
+    }
+}
@@ -0,0 +1,26 @@
+package com.deliverytech.delivery.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.deliverytech.delivery.sql.ContagemConsultasFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class ContagemConsultasConfig {
+
+    // Antes da cadeia de segurança: o lookup do usuário no JWT também conta
+    @Bean
+    public FilterRegistrationBean<ContagemConsultasFilter> contagemConsultasFilter(MeterRegistry registry,
+            @Value("${delivery.sql.contagem.amostragem:0.01}") double amostragem,
+            @Value("${delivery.sql.contagem.limite-repeticoes:5}") int limiteRepeticoes) {
+        FilterRegistrationBean<ContagemConsultasFilter> registro = new FilterRegistrationBean<>(
+                new ContagemConsultasFilter(registry, amostragem, limiteRepeticoes));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+}
@@ -0,0 +1,23 @@
+package com.deliverytech.delivery.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+@Configuration
+public class ContentNegotiationConfig {
+
+    /**
+     * Permite que qualquer endpoint responda em CBOR quando o cliente envia
+     * {@code Accept: application/cbor}. Os DTOs de dto.response são o próprio
+     * schema (mesmos nomes de campo do JSON); clientes JSON não mudam nada.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // O builder do Boot é prototype: herda módulos (java.time) e configurações do JSON
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,39 @@
+package com.deliverytech.delivery.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.deliverytech.delivery.id.GeradorIdHibernate;
+import com.deliverytech.delivery.id.GeradorSnowflake;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Um único {@link GeradorSnowflake} por instância, compartilhado pelo
+ * Hibernate (via propriedades da fábrica de sessões, o que também garante
+ * que ele exista antes do primeiro INSERT) e por quem precisa reservar um ID
+ * antes de persistir.
+ */
+@Configuration
+public class IdConfig {
+
+    @Bean
+    public GeradorSnowflake geradorSnowflake(MeterRegistry registry,
+            @Value("${delivery.ids.no}") int no,
+            @Value("${delivery.ids.tolerancia-relogio-ms:5}") long toleranciaMs,
+            @Value("${delivery.ids.recuo-maximo-ms:1000}") long recuoMaximoMs) {
+        GeradorSnowflake gerador = new GeradorSnowflake(no, toleranciaMs, recuoMaximoMs);
+        FunctionCounter.builder("delivery.ids.esperas", gerador, GeradorSnowflake::esperas)
+                .description("Gerações de ID que esperaram o relógio alcançar o último ID emitido")
+                .register(registry);
+        return gerador;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer geradorIdHibernate(GeradorSnowflake geradorSnowflake) {
+        return propriedades -> propriedades.put(GeradorIdHibernate.PROPRIEDADE, geradorSnowflake);
+    }
+}
@@ -0,0 +1,98 @@
+package com.deliverytech.delivery.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.deliverytech.delivery.idempotency.ArmazemEmCamadas;
+import com.deliverytech.delivery.idempotency.ArmazemIdempotencia;
+import com.deliverytech.delivery.idempotency.ArmazemLocal;
+import com.deliverytech.delivery.security.IdempotenciaFilter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class IdempotenciaConfig {
+
+    private final ObjectProvider<ArmazemLocal> armazemLocal;
+
+    public IdempotenciaConfig(ObjectProvider<ArmazemLocal> armazemLocal) {
+        this.armazemLocal = armazemLocal;
+    }
+
+    @Bean
+    public ArmazemLocal armazemIdempotenciaLocal(MeterRegistry registry,
+            @Value("${delivery.idempotencia.memoria-max-bytes:16777216}") long memoriaMaxBytes,
+            @Value("${delivery.idempotencia.ttl-ms:86400000}") long ttlMs) {
+        ArmazemLocal local = new ArmazemLocal(memoriaMaxBytes, ttlMs);
+        Gauge.builder("idempotencia.armazem.bytes", local, ArmazemLocal::bytes)
+                .description("Memória estimada das respostas idempotentes guardadas localmente")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("idempotencia.armazem.entradas", local, ArmazemLocal::tamanho)
+                .description("Respostas idempotentes guardadas localmente")
+                .register(registry);
+        FunctionCounter.builder("idempotencia.armazem.remocoes", local, ArmazemLocal::expiradas)
+                .description("Respostas removidas do armazém local")
+                .tag("motivo", "ttl")
+                .register(registry);
+        FunctionCounter.builder("idempotencia.armazem.remocoes", local, ArmazemLocal::descartadas)
+                .description("Respostas removidas do armazém local")
+                .tag("motivo", "memoria")
+                .register(registry);
+        return local;
+    }
+
+    @Bean
+    @Primary
+    public ArmazemIdempotencia armazemIdempotencia(ArmazemLocal armazemIdempotenciaLocal,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            MeterRegistry registry,
+            @Value("${delivery.idempotencia.modo:local}") String modo,
+            @Value("${delivery.idempotencia.ttl-ms:86400000}") long ttlMs,
+            @Value("${delivery.idempotencia.espera-ms:10000}") long esperaMs) {
+        if ("local".equalsIgnoreCase(modo)) {
+            return armazemIdempotenciaLocal;
+        }
+        if (!"redis".equalsIgnoreCase(modo)) {
+            throw new IllegalArgumentException("delivery.idempotencia.modo deve ser 'local' ou 'redis': " + modo);
+        }
+        // A reserva dura o mesmo que a espera das duplicatas: depois disso a chave volta a ser processável
+        ArmazemEmCamadas camadas = new ArmazemEmCamadas(armazemIdempotenciaLocal, redisTemplate.getObject(),
+                "idem:", Duration.ofMillis(ttlMs), Duration.ofMillis(esperaMs));
+        FunctionCounter.builder("idempotencia.redis.falhas", camadas, ArmazemEmCamadas::falhas)
+                .description("Operações no Redis que falharam e ficaram só no tier local")
+                .register(registry);
+        return camadas;
+    }
+
+    @Bean
+    public IdempotenciaFilter idempotenciaFilter(ArmazemIdempotencia armazemIdempotencia, MeterRegistry registry,
+            @Value("${delivery.idempotencia.rotas:POST /api/pedidos;PUT /api/pedidos/{id};PATCH /api/pedidos/{id}/**}") String rotas,
+            @Value("${delivery.idempotencia.espera-ms:10000}") long esperaMs,
+            @Value("${delivery.idempotencia.corpo-max-bytes:2097152}") int corpoMaxBytes) {
+        return new IdempotenciaFilter(armazemIdempotencia, rotas, esperaMs, corpoMaxBytes, registry);
+    }
+
+    // Registrado só na cadeia do Spring Security, depois da autenticação
+    @Bean
+    public FilterRegistrationBean<IdempotenciaFilter> idempotenciaFilterRegistration(IdempotenciaFilter idempotenciaFilter) {
+        FilterRegistrationBean<IdempotenciaFilter> registro = new FilterRegistrationBean<>(idempotenciaFilter);
+        registro.setEnabled(false);
+        return registro;
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.idempotencia.expurgo-ms:60000}")
+    public void expurgarExpiradas() {
+        armazemLocal.ifAvailable(ArmazemLocal::expurgarExpiradas);
+    }
+}
@@ -0,0 +1,103 @@
+package com.deliverytech.delivery.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Adia a criação de beans não críticos para o primeiro uso, em vez de ligar
+ * {@code spring.main.lazy-initialization} para o contexto inteiro. Serviços,
+ * repositórios e segurança continuam ansiosos para que erros de configuração
+ * apareçam no boot; a geração do OpenAPI (springdoc) só roda quando alguém
+ * abre o Swagger. Com AOT a marcação fica gravada nas definições geradas.
+ *
+ * <p>Com AOT ({@code -Dspring.aot.enabled=true}, como no Dockerfile) as
+ * condições {@code @ConditionalOnProperty} também ficam gravadas: valem as
+ * propriedades do build, não as da execução. {@link #conferenciaAot} recusa
+ * subir quando as duas divergem, em vez de ignorar a configuração.
+ */
+@Configuration
+public class InicializacaoConfig {
+
+    // Propriedade que liga cada recurso condicional e o bean que só existe com ela ligada
+    private record Condicional(String propriedade, String valorEsperado, String bean) {
+    }
+
+    private static final List<Condicional> CONDICIONAIS = List.of(
+            new Condicional("delivery.shards.urls", null, "anelShards"),
+            new Condicional("delivery.shards.resharding.executar", "true", "resharding"),
+            new Condicional("delivery.replicas.urls", null, "balanceadorReplicas"),
+            new Condicional("delivery.status.write-behind.habilitado", "true", "bufferStatus"));
+
+    @Bean
+    public static BeanFactoryPostProcessor inicializacaoPreguicosa(Environment environment) {
+        String[] prefixos = environment.getProperty("delivery.inicializacao.lazy-prefixos", String[].class, new String[0]);
+        return beanFactory -> {
+            if (prefixos.length == 0) {
+                return;
+            }
+            for (String nome : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definicao = beanFactory.getBeanDefinition(nome);
+                if (definicao.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                    continue;
+                }
+                String classe = definicao.getBeanClassName();
+                // Beans de métodos @Bean não têm classe própria: herdam a da configuração
+                String fabrica = definicao.getFactoryBeanName();
+                if (classe == null && fabrica != null && beanFactory.containsBeanDefinition(fabrica)) {
+                    classe = beanFactory.getBeanDefinition(fabrica).getBeanClassName();
+                }
+                if (classe != null && comecaComAlgum(classe, prefixos)) {
+                    definicao.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public static SmartInitializingSingleton conferenciaAot(Environment environment, ListableBeanFactory beanFactory) {
+        return () -> {
+            if (!AotDetector.useGeneratedArtifacts()) {
+                return;
+            }
+            List<String> divergentes = new ArrayList<>();
+            for (Condicional condicional : CONDICIONAIS) {
+                if (ligada(environment, condicional) != beanFactory.containsBeanDefinition(condicional.bean())) {
+                    divergentes.add(condicional.propriedade());
+                }
+            }
+            if (!divergentes.isEmpty()) {
+                throw new IllegalStateException("Contexto AOT gerado no build com outro valor de " + divergentes
+                        + ": gere a imagem com as mesmas propriedades (--build-arg AOT_JVM_ARGS=\"-D...\") "
+                        + "ou rode com -Dspring.aot.enabled=false");
+            }
+        };
+    }
+
+    // Mesma regra do @ConditionalOnProperty: sem havingValue, basta existir e não ser "false"
+    private static boolean ligada(Environment environment, Condicional condicional) {
+        String valor = environment.getProperty(condicional.propriedade());
+        if (valor == null) {
+            return false;
+        }
+        return condicional.valorEsperado() == null ? !"false".equalsIgnoreCase(valor)
+                : condicional.valorEsperado().equalsIgnoreCase(valor);
+    }
+
+    private static boolean comecaComAlgum(String classe, String[] prefixos) {
+        for (String prefixo : prefixos) {
+            if (!prefixo.isBlank() && classe.startsWith(prefixo.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
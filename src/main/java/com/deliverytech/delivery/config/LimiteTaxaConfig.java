@@ -0,0 +1,87 @@
+package com.deliverytech.delivery.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.deliverytech.delivery.ratelimit.LimitadorLocal;
+import com.deliverytech.delivery.ratelimit.LimitadorRedis;
+import com.deliverytech.delivery.ratelimit.LimitadorTaxa;
+import com.deliverytech.delivery.ratelimit.PoliticaLimite;
+import com.deliverytech.delivery.ratelimit.ScriptBaldesRedis;
+import com.deliverytech.delivery.security.LimiteTaxaFilter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class LimiteTaxaConfig {
+
+    private final ObjectProvider<LimitadorTaxa> limitador;
+
+    public LimiteTaxaConfig(ObjectProvider<LimitadorTaxa> limitador) {
+        this.limitador = limitador;
+    }
+
+    @Bean
+    public List<PoliticaLimite> politicasLimite(
+            @Value("${delivery.rate-limit.habilitado:true}") boolean habilitado,
+            @Value("${delivery.rate-limit.politicas:}") String politicas) {
+        return habilitado ? PoliticaLimite.parse(politicas) : List.of();
+    }
+
+    @Bean
+    public LimitadorTaxa limitadorTaxa(List<PoliticaLimite> politicasLimite,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            MeterRegistry registry,
+            @Value("${delivery.rate-limit.modo:local}") String modo,
+            @Value("${delivery.rate-limit.listras:64}") int listras,
+            @Value("${delivery.rate-limit.slots-por-listra:1024}") int slotsPorListra,
+            @Value("${delivery.rate-limit.ociosidade-ms:600000}") long ociosidadeMs) {
+        LimitadorLocal local = new LimitadorLocal(politicasLimite, listras, slotsPorListra, ociosidadeMs);
+        Gauge.builder("ratelimit.baldes.ativos", local, LimitadorLocal::baldesAtivos)
+                .description("Baldes de clientes ocupando slots na tabela local")
+                .register(registry);
+        FunctionCounter.builder("ratelimit.tabela.sem_espaco", local, LimitadorLocal::semEspaco)
+                .description("Requisições liberadas sem checagem por falta de slot na tabela")
+                .register(registry);
+
+        if ("redis".equalsIgnoreCase(modo)) {
+            LimitadorRedis cluster = new LimitadorRedis(local, new ScriptBaldesRedis(redisTemplate.getObject()), "rl:");
+            FunctionCounter.builder("ratelimit.redis.falhas", cluster, LimitadorRedis::falhas)
+                    .description("Checagens que caíram para o limite local por erro no Redis")
+                    .register(registry);
+            return cluster;
+        }
+        if (!"local".equalsIgnoreCase(modo)) {
+            throw new IllegalArgumentException("delivery.rate-limit.modo deve ser 'local' ou 'redis': " + modo);
+        }
+        return local;
+    }
+
+    @Bean
+    public LimiteTaxaFilter limiteTaxaFilter(LimitadorTaxa limitadorTaxa, List<PoliticaLimite> politicasLimite,
+            MeterRegistry registry) {
+        return new LimiteTaxaFilter(limitadorTaxa, politicasLimite, registry);
+    }
+
+    // O filtro roda dentro da cadeia do Spring Security, depois do JWT; fora dela não teria o usuário
+    @Bean
+    public FilterRegistrationBean<LimiteTaxaFilter> limiteTaxaFilterRegistration(LimiteTaxaFilter limiteTaxaFilter) {
+        FilterRegistrationBean<LimiteTaxaFilter> registro = new FilterRegistrationBean<>(limiteTaxaFilter);
+        registro.setEnabled(false);
+        return registro;
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.rate-limit.expurgo-ms:60000}")
+    public void expurgarBaldesOciosos() {
+        limitador.ifAvailable(LimitadorTaxa::expurgar);
+    }
+}
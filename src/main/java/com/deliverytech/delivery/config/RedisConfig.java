@@ -3,46 +3,73 @@ package com.deliverytech.delivery.config;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 
+import com.deliverytech.delivery.cache.ConfiguracaoProtecao;
+import com.deliverytech.delivery.cache.GerenciadorCacheProtegido;
+import com.deliverytech.delivery.cache.TtlComJitter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class RedisConfig {
 
+    @Value("${delivery.cache.protecao.jitter:0.2}")
+    private double jitter;
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+            MeterRegistry registry,
+            @Value("${delivery.cache.protecao.lease-ms:5000}") long leaseMs,
+            @Value("${delivery.cache.protecao.espera-lease-ms:2000}") long esperaLeaseMs,
+            @Value("${delivery.cache.protecao.beta:1.0}") double beta,
+            @Value("${delivery.cache.protecao.threads:2}") int threads) {
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
 
-        cacheConfigurations.put("clientes", RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofSeconds(30)));
+        cacheConfigurations.put("clientes", comTtl(Duration.ofSeconds(30)));
 
-        cacheConfigurations.put("cliente", RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(2)));
+        cacheConfigurations.put("cliente", comTtl(Duration.ofMinutes(2)));
         
-        cacheConfigurations.put("produtos", RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofSeconds(45)));
+        cacheConfigurations.put("produtos", comTtl(Duration.ofSeconds(45)));
 
-        cacheConfigurations.put("produto", RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(2)));
+        cacheConfigurations.put("produto", comTtl(Duration.ofMinutes(2)));
 
-        cacheConfigurations.put("restaurantes", RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofSeconds(30)));
+        cacheConfigurations.put("restaurantes", comTtl(Duration.ofSeconds(30)));
 
-        cacheConfigurations.put("restaurante", RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(2)));
+        cacheConfigurations.put("restaurante", comTtl(Duration.ofMinutes(2)));
 
-        cacheConfigurations.put("pedidos", RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofSeconds(20)));
+        cacheConfigurations.put("pedidos", comTtl(Duration.ofSeconds(20)));
 
-        cacheConfigurations.put("pedido", RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(1)));
+        cacheConfigurations.put("pedido", comTtl(Duration.ofMinutes(1)));
+
+        AtomicInteger sequencia = new AtomicInteger();
+        // Fila curta: sob pressão a renovação antecipada é descartada e a entrada só expira
+        ThreadPoolExecutor renovacao = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(256), r -> {
+                    Thread t = new Thread(r, "cache-renovacao-" + sequencia.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        ConfiguracaoProtecao protecao = new ConfiguracaoProtecao(Duration.ofMillis(leaseMs),
+                Duration.ofMillis(esperaLeaseMs), beta, renovacao);
+
+        return new GerenciadorCacheProtegido(redisConnectionFactory, RedisCacheConfiguration.defaultCacheConfig(),
+                cacheConfigurations, protecao, registry);
+    }
 
-        return RedisCacheManager.builder(redisConnectionFactory)
-            .withInitialCacheConfigurations(cacheConfigurations)
-            .build();
+    // TTL configurado é o teto; cada entrada vive um pouco menos, sorteado
+    private RedisCacheConfiguration comTtl(Duration ttl) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+            .entryTtl(new TtlComJitter(ttl, jitter));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package com.deliverytech.delivery.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.deliverytech.delivery.replica.BalanceadorReplicas;
+import com.deliverytech.delivery.replica.ConsistenciaLeituraFilter;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Leituras em réplicas. Só liga com {@code delivery.replicas.urls}; sem isso
+ * o Spring Boot monta o data source de sempre.
+ *
+ * <p>O data source exposto é um {@link LazyConnectionDataSourceProxy}: a
+ * conexão física só é obtida no primeiro comando, depois que o
+ * {@code JpaTransactionManager} marcou a transação como somente leitura, e o
+ * proxy então a pede ao {@link BalanceadorReplicas} em vez do primário.
+ * Basta {@code @Transactional(readOnly = true)} no serviço.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "delivery.replicas", name = "urls")
+public class ReplicaConfig {
+
+    private final ObjectProvider<BalanceadorReplicas> balanceador;
+
+    public ReplicaConfig(ObjectProvider<BalanceadorReplicas> balanceador) {
+        this.balanceador = balanceador;
+    }
+
+    @Bean
+    public HikariDataSource dataSourcePrimario(DataSourceProperties propriedades) {
+        HikariDataSource primario = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primario.setPoolName("primario");
+        return primario;
+    }
+
+    @Bean
+    public BalanceadorReplicas balanceadorReplicas(HikariDataSource dataSourcePrimario,
+            DataSourceProperties propriedades,
+            MeterRegistry registry,
+            @Value("${delivery.replicas.urls}") List<String> urls,
+            @Value("${delivery.replicas.username:${spring.datasource.username:}}") String usuario,
+            @Value("${delivery.replicas.password:${spring.datasource.password:}}") String senha,
+            @Value("${delivery.replicas.pool-max:10}") int poolMax) {
+        List<DataSource> replicas = new ArrayList<>();
+        List<String> nomes = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(propriedades.determineDriverClassName())
+                    .url(url.trim())
+                    .username(usuario)
+                    .password(senha)
+                    .build();
+            String nome = "replica-" + (replicas.size() + 1);
+            replica.setPoolName(nome);
+            replica.setMaximumPoolSize(poolMax);
+            replica.setReadOnly(true);
+            // Réplica fora do ar não pode travar o boot: o balanceador a ejeta e segue
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+            nomes.add(nome);
+        }
+
+        BalanceadorReplicas balanceador = new BalanceadorReplicas(dataSourcePrimario, replicas, nomes);
+        Gauge.builder("delivery.replicas.saudaveis", balanceador, BalanceadorReplicas::saudaveis)
+                .description("Réplicas no rodízio de leitura")
+                .register(registry);
+        FunctionCounter.builder("delivery.replicas.leituras", balanceador, BalanceadorReplicas::leiturasReplica)
+                .description("Conexões somente leitura, por destino")
+                .tag("destino", "replica")
+                .register(registry);
+        FunctionCounter.builder("delivery.replicas.leituras", balanceador, BalanceadorReplicas::leiturasPrimario)
+                .description("Conexões somente leitura, por destino")
+                .tag("destino", "primario")
+                .register(registry);
+        FunctionCounter.builder("delivery.replicas.ejecoes", balanceador, BalanceadorReplicas::ejecoes)
+                .description("Vezes em que uma réplica saiu do rodízio")
+                .register(registry);
+        return balanceador;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource dataSourcePrimario, BalanceadorReplicas balanceadorReplicas) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(dataSourcePrimario);
+        proxy.setReadOnlyDataSource(balanceadorReplicas);
+        return proxy;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConsistenciaLeituraFilter> consistenciaLeituraFilter(
+            @Value("${delivery.replicas.janela-leitura-propria-ms:5000}") long janelaMs) {
+        FilterRegistrationBean<ConsistenciaLeituraFilter> registro =
+                new FilterRegistrationBean<>(new ConsistenciaLeituraFilter(janelaMs));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registro;
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.replicas.verificacao-ms:5000}")
+    public void verificarReplicas() {
+        balanceador.ifAvailable(BalanceadorReplicas::verificarSaude);
+    }
+}
@@ -12,7 +12,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.deliverytech.delivery.security.IdempotenciaFilter;
 import com.deliverytech.delivery.security.JwtAuthenticationFilter;
+import com.deliverytech.delivery.security.LimiteTaxaFilter;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,6 +23,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final LimiteTaxaFilter limiteTaxaFilter;
+    private final IdempotenciaFilter idempotenciaFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -35,6 +39,8 @@ public class SecurityConfig {
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .headers(headers -> headers.frameOptions(frameOptions -> frameOptions.sameOrigin()))
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(limiteTaxaFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(idempotenciaFilter, LimiteTaxaFilter.class)
                 .build();
     } 
 
@@ -0,0 +1,167 @@
+package com.deliverytech.delivery.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.deliverytech.delivery.sharding.AnelShards;
+import com.deliverytech.delivery.sharding.ReplicacaoReferencias;
+import com.deliverytech.delivery.sharding.Resharding;
+import com.deliverytech.delivery.sharding.RoteadorShards;
+import com.deliverytech.delivery.sharding.ShardsPedidos;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pedidos particionados por restaurante. Sem {@code delivery.shards.urls}
+ * há um shard só, o banco de sempre, e {@link ShardsPedidos} apenas abre a
+ * transação.
+ *
+ * <p>Com shards, o data source exposto ao JPA é um {@link RoteadorShards}:
+ * o principal continua dono das tabelas de referência (restaurante, produto,
+ * clientes, usuario, campanha) e cada shard recebe o esquema completo pelas
+ * mesmas migrações. Pedidos fazem junção com restaurante, clientes e produto,
+ * então {@link ReplicacaoReferencias} copia essas linhas para todos os shards:
+ * tudo no boot e cada escrita depois do commit. Não combina com réplicas de
+ * leitura: cada shard deve ter as suas.
+ */
+@Configuration
+public class ShardingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardingConfig.class);
+
+    @Bean
+    public ShardsPedidos shardsPedidos(ObjectProvider<AnelShards> anelShards,
+            ObjectProvider<RoteadorShards> roteadorShards,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry,
+            @Value("${delivery.shards.threads:8}") int threads,
+            @Value("${delivery.shards.timeout-ms:5000}") long timeoutMs) {
+        AnelShards anel = anelShards.getIfAvailable(() -> AnelShards.unico("principal"));
+        return new ShardsPedidos(anel, roteadorShards.getIfAvailable() != null, transactionManager,
+                threads, timeoutMs, registry);
+    }
+
+    @Bean
+    public ReplicacaoReferencias replicacaoReferencias(ObjectProvider<RoteadorShards> roteadorShards,
+            @Value("${delivery.shards.referencias.lote:500}") int lote) {
+        RoteadorShards roteador = roteadorShards.getIfAvailable();
+        return roteador == null ? ReplicacaoReferencias.desligada()
+                : new ReplicacaoReferencias(roteador.principal(), roteador.shards(), lote);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "delivery.shards", name = "urls")
+    static class Particionamento {
+
+        @Bean
+        public HikariDataSource dataSourcePrincipal(DataSourceProperties propriedades,
+                @Value("${delivery.replicas.urls:}") String replicas) {
+            if (!replicas.isBlank()) {
+                throw new IllegalStateException("delivery.shards.urls e delivery.replicas.urls não podem ser usados juntos");
+            }
+            HikariDataSource principal = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            principal.setPoolName("principal");
+            return principal;
+        }
+
+        @Bean
+        @Primary
+        public RoteadorShards dataSource(HikariDataSource dataSourcePrincipal,
+                DataSourceProperties propriedades,
+                @Value("${delivery.shards.nomes}") List<String> nomes,
+                @Value("${delivery.shards.urls}") List<String> urls,
+                @Value("${delivery.shards.username:${spring.datasource.username:}}") String usuario,
+                @Value("${delivery.shards.password:${spring.datasource.password:}}") String senha,
+                @Value("${delivery.shards.pool-max:10}") int poolMax,
+                @Value("${spring.flyway.locations:classpath:db/migration}") List<String> migracoes) {
+            if (nomes.size() != urls.size()) {
+                throw new IllegalStateException("delivery.shards.nomes e delivery.shards.urls devem ter o mesmo tamanho");
+            }
+            Map<String, DataSource> shards = new LinkedHashMap<>();
+            for (int i = 0; i < nomes.size(); i++) {
+                String nome = nomes.get(i).trim();
+                String url = urls.get(i).trim();
+                HikariDataSource shard = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .driverClassName(propriedades.determineDriverClassName())
+                        .url(url)
+                        .username(usuario)
+                        .password(senha)
+                        .build();
+                shard.setPoolName("shard-" + nome);
+                shard.setMaximumPoolSize(poolMax);
+                migrar(shard, url, migracoes);
+                shards.put(nome, shard);
+            }
+            return new RoteadorShards(dataSourcePrincipal, shards);
+        }
+
+        @Bean
+        public AnelShards anelShards(@Value("${delivery.shards.nomes}") List<String> nomes,
+                @Value("${delivery.shards.anel:${delivery.shards.nomes}}") List<String> anel,
+                @Value("${delivery.shards.nos-virtuais:128}") int nosVirtuais) {
+            List<String> membros = new ArrayList<>();
+            for (String shard : anel) {
+                if (!nomes.contains(shard.trim())) {
+                    throw new IllegalStateException("Shard do anel não configurado em delivery.shards.nomes: " + shard);
+                }
+                membros.add(shard.trim());
+            }
+            AnelShards anelShards = new AnelShards(membros, nosVirtuais);
+            log.info("Anel de shards: {}", anelShards.distribuicao());
+            return anelShards;
+        }
+
+        // Antes do resharding: os pedidos movidos precisam das referências no destino
+        @Bean
+        @Order(0)
+        public ApplicationRunner sincronizacaoReferencias(ReplicacaoReferencias replicacaoReferencias) {
+            return args -> log.info("Tabelas de referência copiadas para os shards: {} linhas",
+                    replicacaoReferencias.sincronizarTudo());
+        }
+
+        @Bean
+        @Order(1)
+        @ConditionalOnProperty(prefix = "delivery.shards.resharding", name = "executar", havingValue = "true")
+        public ApplicationRunner resharding(RoteadorShards roteadorShards, AnelShards anelShards,
+                @Value("${delivery.shards.resharding.lote:500}") int lote,
+                @Value("${delivery.shards.resharding.pausa-ms:50}") long pausaMs) {
+            return args -> {
+                Resharding.Resumo resumo = new Resharding(roteadorShards.shards(), anelShards, lote, pausaMs).executar();
+                log.info("Resharding concluído: {} restaurantes, {} pedidos, {} arquivados",
+                        resumo.restaurantes(), resumo.pedidos(), resumo.arquivados());
+            };
+        }
+
+        // As mesmas migrações do principal; o {vendor} que o Spring Boot resolve sozinho é resolvido aqui
+        private static void migrar(DataSource shard, String url, List<String> migracoes) {
+            String vendor = DatabaseDriver.fromJdbcUrl(url).getId();
+            String[] locais = new String[migracoes.size()];
+            for (int i = 0; i < locais.length; i++) {
+                locais[i] = migracoes.get(i).trim().replace("{vendor}", vendor);
+            }
+            Flyway.configure().dataSource(shard).locations(locais).load().migrate();
+        }
+    }
+}
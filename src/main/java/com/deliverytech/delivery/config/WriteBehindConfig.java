@@ -0,0 +1,139 @@
+package com.deliverytech.delivery.config;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.deliverytech.delivery.sharding.ShardsPedidos;
+import com.deliverytech.delivery.writebehind.BufferStatus;
+import com.deliverytech.delivery.writebehind.RegistroStatus;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Write-behind dos status de pedidos. Desligado, {@code atualizarStatus}
+ * continua gravando na hora. Ligado, cada mudança vai para o log local e a
+ * descarga periódica grava no banco só o último status de cada pedido, num
+ * lote de UPDATEs por shard.
+ *
+ * <p>Cada UPDATE só vale se a linha tiver {@code status_atualizado_em}
+ * anterior ao instante da mudança: um status gravado depois, por outro nó ou
+ * na hora, não é sobrescrito pelo que esperava no buffer.
+ */
+@Configuration
+public class WriteBehindConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindConfig.class);
+
+    private static final String ATUALIZAR_STATUS = "update pedido set status = ?, status_atualizado_em = ? "
+            + "where id = ? and (status_atualizado_em is null or status_atualizado_em < ?)";
+    private static final int TAMANHO_LOTE = 500;
+
+    private final ObjectProvider<BufferStatus> bufferStatus;
+    private final ObjectProvider<ShardsPedidos> shards;
+    private final ObjectProvider<JdbcTemplate> jdbc;
+    private final Timer descargas;
+
+    public WriteBehindConfig(ObjectProvider<BufferStatus> bufferStatus,
+            ObjectProvider<ShardsPedidos> shards,
+            ObjectProvider<JdbcTemplate> jdbc,
+            MeterRegistry registry) {
+        this.bufferStatus = bufferStatus;
+        this.shards = shards;
+        this.jdbc = jdbc;
+        this.descargas = Timer.builder("delivery.status.descarga")
+                .description("Gravação coalescida dos status pendentes no banco")
+                .register(registry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "delivery.status.write-behind.habilitado", havingValue = "true")
+    public BufferStatus bufferStatus(MeterRegistry registry,
+            @Value("${delivery.status.wal.diretorio:data/status-wal}") Path diretorio,
+            @Value("${delivery.status.wal.segmento-mb:16}") int segmentoMb) {
+        BufferStatus buffer = new BufferStatus(diretorio, segmentoMb * 1024 * 1024);
+        Gauge.builder("delivery.status.pendentes", buffer, BufferStatus::pendentes)
+                .description("Pedidos com status ainda não gravado no banco")
+                .register(registry);
+        FunctionCounter.builder("delivery.status.mudancas", buffer, BufferStatus::registrados)
+                .description("Mudanças de status recebidas")
+                .register(registry);
+        FunctionCounter.builder("delivery.status.gravacoes", buffer, BufferStatus::gravados)
+                .description("Linhas de status gravadas no banco depois da coalescência")
+                .register(registry);
+        FunctionCounter.builder("delivery.status.wal.fsyncs", buffer, BufferStatus::sincronizacoes)
+                .description("fsyncs do log de status; cada um confirma um lote de mudanças")
+                .register(registry);
+        return buffer;
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.status.write-behind.intervalo-ms:1000}")
+    public void descarregarStatus() {
+        bufferStatus.ifAvailable(this::descarregar);
+    }
+
+    // Antes de os beans serem destruídos: o que der para gravar agora não precisa ser relido do log
+    @EventListener(ContextClosedEvent.class)
+    public void descarregarAoEncerrar() {
+        bufferStatus.ifAvailable(this::descarregar);
+    }
+
+    private void descarregar(BufferStatus buffer) {
+        try {
+            descargas.record(() -> buffer.descarregar(this::gravar));
+        } catch (RuntimeException e) {
+            // Continua tudo no mapa e no log; a próxima descarga tenta de novo
+            log.warn("Descarga dos status pendentes falhou: {}", e.getMessage());
+        }
+    }
+
+    private void gravar(List<RegistroStatus> lote) {
+        ShardsPedidos shardsPedidos = shards.getObject();
+        JdbcTemplate jdbcTemplate = jdbc.getObject();
+        Map<String, List<RegistroStatus>> porShard = new HashMap<>();
+        for (RegistroStatus registro : lote) {
+            porShard.computeIfAbsent(shardsPedidos.shardDe(registro.restauranteId()), s -> new ArrayList<>())
+                    .add(registro);
+        }
+        for (Map.Entry<String, List<RegistroStatus>> shard : porShard.entrySet()) {
+            // JdbcTemplate na conexão da transação que noShard abriu, já no shard certo
+            int[][] atualizadas = shardsPedidos.noShard(shard.getKey(), false, () -> jdbcTemplate.batchUpdate(
+                    ATUALIZAR_STATUS, shard.getValue(), TAMANHO_LOTE, (ps, registro) -> {
+                        Timestamp instante = Timestamp.valueOf(registro.instante());
+                        ps.setString(1, registro.status().name());
+                        ps.setTimestamp(2, instante);
+                        ps.setLong(3, registro.pedidoId());
+                        ps.setTimestamp(4, instante);
+                    }));
+            int ignoradas = 0;
+            for (int[] contagens : atualizadas) {
+                for (int contagem : contagens) {
+                    if (contagem == 0) {
+                        ignoradas++;
+                    }
+                }
+            }
+            if (ignoradas > 0) {
+                log.debug("{} status pendentes em '{}' já tinham sido superados no banco", ignoradas, shard.getKey());
+            }
+        }
+    }
+}
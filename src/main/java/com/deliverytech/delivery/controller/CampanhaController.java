@@ -0,0 +1,58 @@
+package com.deliverytech.delivery.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.deliverytech.delivery.dto.request.CampanhaRequest;
+import com.deliverytech.delivery.dto.response.CampanhaResponse;
+import com.deliverytech.delivery.model.Campanha;
+import com.deliverytech.delivery.model.CoorteCliente;
+import com.deliverytech.delivery.service.PromocaoService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@Tag(name = "Campanhas", description = "Endpoint de Campanhas promocionais")
+@RestController
+@RequestMapping("/api/campanhas")
+@RequiredArgsConstructor
+public class CampanhaController {
+
+    private final PromocaoService promocaoService;
+
+    @PostMapping
+    @Operation(summary = "Cadastra uma campanha", description = "A campanha passa a valer nos novos pedidos sem reiniciar a aplicação")
+    public ResponseEntity<CampanhaResponse> cadastrar(@Valid @RequestBody CampanhaRequest request) {
+        Campanha salva = promocaoService.cadastrar(Campanha.builder()
+                .nome(request.getNome())
+                .restauranteId(request.getRestauranteId())
+                .categoria(request.getCategoria())
+                .produtoId(request.getProdutoId())
+                .coorte(request.getCoorte() == null ? CoorteCliente.TODOS : request.getCoorte())
+                .cupom(request.getCupom())
+                .tipoDesconto(request.getTipoDesconto())
+                .valor(request.getValor())
+                .inicio(request.getInicio())
+                .fim(request.getFim())
+                .ativo(true)
+                .build());
+        return ResponseEntity.status(HttpStatus.CREATED).body(new CampanhaResponse(
+                salva.getId(), salva.getNome(), salva.getTipoDesconto(), salva.getValor(),
+                salva.getInicio(), salva.getFim(), salva.getAtivo()));
+    }
+
+    @PatchMapping("/{id}/desativar")
+    @Operation(summary = "Desativa uma campanha")
+    public ResponseEntity<Void> desativar(@PathVariable Long id) {
+        promocaoService.desativar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
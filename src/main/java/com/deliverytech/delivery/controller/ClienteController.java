@@ -1,11 +1,11 @@
 package com.deliverytech.delivery.controller;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +13,7 @@ import org.springframework.security.core.Authentication;
 
 import com.deliverytech.delivery.dto.request.ClienteRequest;
 import com.deliverytech.delivery.dto.response.ClienteResponse;
+import com.deliverytech.delivery.mapper.ClienteMapper;
 import com.deliverytech.delivery.model.Cliente;
 import com.deliverytech.delivery.service.ClienteService;
 
@@ -29,24 +30,22 @@ import lombok.RequiredArgsConstructor;
 public class ClienteController {
 
     private final ClienteService clienteService;
+    private final ClienteMapper clienteMapper;
 
     @GetMapping
     @Operation(summary = "Listar todos os clientes", description = "Retorna uma lista de todos os clientes")
-    @Cacheable(value = "clientes")
+    @Cacheable(value = "clientes", sync = true)
     public ResponseEntity<List<ClienteResponse>> listarTodos(Authentication authentication) {
         System.out.println("Usuário autenticado: " + authentication.getName());
-        List<ClienteResponse> clientes = clienteService.listarAtivos().stream()
-                .map(c -> new ClienteResponse(c.getId(), c.getNome(), c.getEmail(), c.getAtivo()))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(clientes);
+        return ResponseEntity.ok(clienteMapper.paraResponse(clienteService.listarAtivos()));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Buscar cliente por ID")
-    @Cacheable(value = "cliente", key = "#id")
+    @Cacheable(value = "cliente", key = "#id", sync = true)
     public ResponseEntity<ClienteResponse> buscarPorId(@PathVariable Long id) {
         return clienteService.buscarPorId(id)
-            .map(c -> new ClienteResponse(c.getId(), c.getNome(), c.getEmail(), c.getAtivo()))
+            .map(clienteMapper::paraResponse)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
@@ -60,9 +59,9 @@ public class ClienteController {
                 .nome(request.getNome())
                 .email(request.getEmail())
                 .telefone(request.getTelefone())
+                .endereco(request.getEndereco())
                 .build());
-            ClienteResponse response = new ClienteResponse(novoCliente.getId(), novoCliente.getNome(), novoCliente.getEmail(), novoCliente.getAtivo());
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED).body(clienteMapper.paraResponse(novoCliente));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -80,8 +79,7 @@ public class ClienteController {
                 .telefone(request.getTelefone())
                 .build();
             Cliente salvo = clienteService.atualizar(id, atualizado);
-            ClienteResponse response = new ClienteResponse(salvo.getId(), salvo.getNome(), salvo.getEmail(), salvo.getAtivo());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(clienteMapper.paraResponse(salvo));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -89,8 +87,10 @@ public class ClienteController {
 
     @PatchMapping("/{id}/status")
     @Operation(summary = "Altera o status de um cliente")
-    @CacheEvict(value = "clientes", allEntries = true)
-    @CacheEvict(value = "cliente", key = "#id")
+    @Caching(evict = {
+        @CacheEvict(value = "clientes", allEntries = true),
+        @CacheEvict(value = "cliente", key = "#id")
+    })
     public ResponseEntity<Void> ativarDesativar(@PathVariable Long id) {
         clienteService.ativarDesativar(id);
         return ResponseEntity.noContent().build();
@@ -98,8 +98,10 @@ public class ClienteController {
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Deletar cliente")
-    @CacheEvict(value = "clientes", allEntries = true)
-    @CacheEvict(value = "cliente", key = "#id")
+    @Caching(evict = {
+        @CacheEvict(value = "clientes", allEntries = true),
+        @CacheEvict(value = "cliente", key = "#id")
+    })
     public ResponseEntity<?> deletar(@PathVariable Long id) {
         try {
             clienteService.deletar(id);
@@ -0,0 +1,53 @@
+package com.deliverytech.delivery.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.deliverytech.delivery.dto.request.LocalizacaoEntregadorRequest;
+import com.deliverytech.delivery.service.DespachoService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@Tag(name = "Entregadores", description = "Endpoint de Entregadores")
+@RestController
+@RequestMapping("/api/entregadores")
+@RequiredArgsConstructor
+public class EntregadorController {
+
+    private final DespachoService despachoService;
+
+    @PutMapping("/{id}/localizacao")
+    @Operation(
+        summary = "Atualiza a posição do entregador",
+        description = "Marca o entregador como disponível na posição informada para as próximas rodadas de despacho"
+    )
+    public ResponseEntity<Void> atualizarLocalizacao(@PathVariable Long id,
+            @Valid @RequestBody LocalizacaoEntregadorRequest request,
+            @AuthenticationPrincipal UserDetails usuario) {
+        despachoService.atualizarLocalizacao(id, email(usuario), request.getLatitude(), request.getLongitude());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/localizacao")
+    @Operation(summary = "Retira o entregador da fila de despacho")
+    public ResponseEntity<Void> marcarIndisponivel(@PathVariable Long id,
+            @AuthenticationPrincipal UserDetails usuario) {
+        despachoService.marcarIndisponivel(id, email(usuario));
+        return ResponseEntity.noContent().build();
+    }
+
+    // O JWT autentica pelo e-mail; sem token não há principal e o serviço recusa
+    private static String email(UserDetails usuario) {
+        return usuario == null ? null : usuario.getUsername();
+    }
+}
@@ -1,20 +1,24 @@
 package com.deliverytech.delivery.controller;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.deliverytech.delivery.dto.request.PedidoRequest;
+import com.deliverytech.delivery.dto.request.StatusPedidoRequest;
 import com.deliverytech.delivery.dto.response.PedidoResponse;
+import com.deliverytech.delivery.mapper.PedidoMapper;
 import com.deliverytech.delivery.model.Pedido;
 import com.deliverytech.delivery.service.PedidoService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -26,80 +30,64 @@ import lombok.RequiredArgsConstructor;
 public class PedidoController {
 
     private final PedidoService pedidoService;
+    private final PedidoMapper pedidoMapper;
 
     @PostMapping
     @Operation(summary = "Cria um pedido")
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key", description = "Chave para repetir a requisição sem duplicar o efeito")
     @CachePut(value = "pedido", key = "#result.body.id")
     @CacheEvict(value = "pedidos", allEntries = true)
     public ResponseEntity<PedidoResponse> criar(@Valid @RequestBody PedidoRequest request) {
         Pedido pedido = pedidoService.criar(request);
-        PedidoResponse response = new PedidoResponse(
-            pedido.getId(),
-            pedido.getCliente().getId(),
-            pedido.getRestaurante().getId(),
-            pedido.getEnderecoEntrega(),
-            pedido.getTotal(),
-            pedido.getStatus(),
-            pedido.getDataPedido(),
-            pedido.getItens() 
-        );
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(pedidoMapper.paraResponse(pedido));
     }
 
     @GetMapping
     @Operation(summary = "Lista todos os pedidos")
-    @Cacheable(value = "pedidos")
+    @Cacheable(value = "pedidos", sync = true)
     public List<PedidoResponse> listar() {
-        System.out.println("Buscando pedidos do banco de dados...");
-        return pedidoService.listarTodos().stream()
-            .map(pedido -> new PedidoResponse(
-                pedido.getId(),
-                pedido.getCliente().getId(),
-                pedido.getRestaurante().getId(),
-                pedido.getEnderecoEntrega(),
-                pedido.getTotal(),
-                pedido.getStatus(),
-                pedido.getDataPedido(),
-                pedido.getItens() 
-            ))
-            .collect(Collectors.toList());
+        return pedidoMapper.paraResponse(pedidoService.listarTodos());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Busca pedido por ID")
-    @Cacheable(value = "pedido", key = "#id")
+    @Cacheable(value = "pedido", key = "#id", sync = true)
     public ResponseEntity<PedidoResponse> buscarPorId(@PathVariable Long id) {
         return pedidoService.buscarPorId(id)
-            .map(pedido -> new PedidoResponse(
-                pedido.getId(),
-                pedido.getCliente().getId(),
-                pedido.getRestaurante().getId(),
-                pedido.getEnderecoEntrega(),
-                pedido.getTotal(),
-                pedido.getStatus(),
-                pedido.getDataPedido(),
-                pedido.getItens()
-            ))
+            .map(pedidoMapper::paraResponse)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Atualiza um pedido")
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key", description = "Chave para repetir a requisição sem duplicar o efeito")
     @CachePut(value = "pedido", key = "#id")
     @CacheEvict(value = "pedidos", allEntries = true)
     public ResponseEntity<PedidoResponse> atualizar(@PathVariable Long id, @Valid @RequestBody PedidoRequest request) {
         Pedido atualizado = pedidoService.atualizar(id, request);
-        PedidoResponse response = new PedidoResponse(
-            atualizado.getId(),
-            atualizado.getCliente().getId(),
-            atualizado.getRestaurante().getId(),
-            atualizado.getEnderecoEntrega(),
-            atualizado.getTotal(),
-            atualizado.getStatus(),
-            atualizado.getDataPedido(),
-            atualizado.getItens()
-        );
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(pedidoMapper.paraResponse(atualizado));
     }
-}
\ No newline at end of file
+
+    @PatchMapping("/{id}/status")
+    @Operation(summary = "Atualiza o status de um pedido")
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key", description = "Chave para repetir a requisição sem duplicar o efeito")
+    @CachePut(value = "pedido", key = "#id")
+    @CacheEvict(value = "pedidos", allEntries = true)
+    public ResponseEntity<PedidoResponse> atualizarStatus(@PathVariable Long id, @Valid @RequestBody StatusPedidoRequest request) {
+        Pedido atualizado = pedidoService.atualizarStatus(id, request.getStatus());
+        return ResponseEntity.ok(pedidoMapper.paraResponse(atualizado));
+    }
+
+    @PatchMapping("/{id}/cancelar")
+    @Operation(summary = "Cancela um pedido")
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key", description = "Chave para repetir a requisição sem duplicar o efeito")
+    @Caching(evict = {
+        @CacheEvict(value = "pedido", key = "#id"),
+        @CacheEvict(value = "pedidos", allEntries = true)
+    })
+    public ResponseEntity<Void> cancelar(@PathVariable Long id) {
+        pedidoService.cancelar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
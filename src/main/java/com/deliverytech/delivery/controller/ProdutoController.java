@@ -1,8 +1,8 @@
 package com.deliverytech.delivery.controller;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -14,12 +14,20 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 
+import com.deliverytech.delivery.dto.request.AjustePrecoLoteRequest;
+import com.deliverytech.delivery.dto.request.DisponibilidadeLoteRequest;
 import com.deliverytech.delivery.dto.request.ProdutoRequest;
+import com.deliverytech.delivery.dto.response.ConsultaLoteResponse;
+import com.deliverytech.delivery.dto.response.OperacaoLoteResponse;
 import com.deliverytech.delivery.dto.response.ProdutoResponse;
+import com.deliverytech.delivery.mapper.ProdutoMapper;
 import com.deliverytech.delivery.model.Produto;
 import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.service.ConsultaLoteService;
 import com.deliverytech.delivery.service.ProdutoService;
 import com.deliverytech.delivery.service.RestauranteService;
 
@@ -37,6 +45,8 @@ public class ProdutoController {
 
     private final ProdutoService produtoService;
     private final RestauranteService restauranteService;
+    private final ProdutoMapper produtoMapper;
+    private final ConsultaLoteService consultaLoteService;
 
     @PostMapping
     @Operation(summary = "Cadastra um Produto")
@@ -55,34 +65,35 @@ public class ProdutoController {
                 .build();
 
         Produto salvo = produtoService.cadastrar(produto);
-        return ResponseEntity.ok(new ProdutoResponse(
-                salvo.getId(), salvo.getNome(), salvo.getCategoria(), salvo.getDescricao(),
-                salvo.getPreco(), salvo.getDisponivel()));
+        return ResponseEntity.ok(produtoMapper.paraResponse(salvo));
     }
 
-    @GetMapping("/restaurante/{restauranteId}")
+    @GetMapping(value = "/restaurante/{restauranteId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     @Operation(
         summary = "Lista Produtos por Restaurante", 
         description = "Retorna todos os produtos a partir de um ID de restaurante"
     )
-    @Cacheable(value = "produtos", key = "#restauranteId")
+    @Cacheable(value = "produtos", key = "#restauranteId", sync = true)
     public List<ProdutoResponse> listarPorRestaurante(@PathVariable Long restauranteId) {
-        System.out.println("Buscando produtos do banco de dados...");
-        return produtoService.buscarPorRestaurante(restauranteId).stream()
-            .map(p -> new ProdutoResponse(p.getId(), p.getNome(), p.getCategoria(),
-                    p.getDescricao(), p.getPreco(), p.getDisponivel()))
-            .collect(Collectors.toList());
+        return produtoMapper.paraResponse(produtoService.buscarPorRestaurante(restauranteId));
     }
 
-    @GetMapping("/{id}")
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @Operation(
+        summary = "Busca vários Produtos por ID",
+        description = "Resolve os IDs num único MGET no cache e num único SELECT para as faltas; mantém a ordem pedida e lista os IDs inexistentes"
+    )
+    public ConsultaLoteResponse<ProdutoResponse> buscarPorIds(
+        @Parameter(description = "IDs separados por vírgula", example = "10,11,12", required = true) @RequestParam List<Long> ids) {
+        return consultaLoteService.produtos(ids);
+    }
+
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     @Operation(summary = "Busca produto por ID")
-    @Cacheable(value = "produto", key = "#id")
     public ResponseEntity<ProdutoResponse> buscarPorId(@PathVariable Long id) {
-        return produtoService.buscarPorId(id)
-            .map(p -> new ProdutoResponse(p.getId(), p.getNome(), p.getCategoria(),
-                    p.getDescricao(), p.getPreco(), p.getDisponivel()))
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+        // Mesmo caminho do lote: as entradas do cache "produto" são ProdutoResponse
+        List<ProdutoResponse> itens = consultaLoteService.produtos(List.of(id)).getItens();
+        return itens.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(itens.get(0));
     }
 
     @PutMapping("/{id}")
@@ -103,18 +114,49 @@ public class ProdutoController {
                 .preco(request.getPreco())
                 .build();
         Produto salvo = produtoService.atualizar(id, atualizado);
-        return new ProdutoResponse(salvo.getId(), salvo.getNome(), salvo.getCategoria(),
-                salvo.getDescricao(), salvo.getPreco(), salvo.getDisponivel());
+        return produtoMapper.paraResponse(salvo);
     }
 
     @PatchMapping("/{id}/disponibilidade")
     @Operation(
         summary = "Alterna a disponibilidade de um Produto"
     )
-    @CacheEvict(value = "produtos", allEntries = true)
-    @CacheEvict(value = "produto", key = "#id")
+    @Caching(evict = {
+        @CacheEvict(value = "produtos", allEntries = true),
+        @CacheEvict(value = "produto", key = "#id")
+    })
     public ResponseEntity<Void> alterarDisponibilidade(@PathVariable Long id, @RequestParam boolean disponivel){
         produtoService.alterarDisponibilidade(id, disponivel);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    @PatchMapping("/restaurante/{restauranteId}/disponibilidade")
+    @Operation(
+        summary = "Altera a disponibilidade de vários Produtos",
+        description = "Seleciona por IDs, categoria ou trecho do nome/descrição e aplica tudo num único UPDATE"
+    )
+    @Caching(evict = {
+        @CacheEvict(value = "produtos", key = "#restauranteId"),
+        @CacheEvict(value = "produto", allEntries = true)
+    })
+    public OperacaoLoteResponse alterarDisponibilidadeEmLote(@PathVariable Long restauranteId,
+            @Valid @RequestBody DisponibilidadeLoteRequest request) {
+        int afetados = produtoService.alterarDisponibilidadeEmLote(restauranteId, request);
+        return new OperacaoLoteResponse(restauranteId, "DISPONIBILIDADE", afetados);
+    }
+
+    @PatchMapping("/restaurante/{restauranteId}/precos")
+    @Operation(
+        summary = "Reajusta os preços do cardápio",
+        description = "Aplica um percentual ou valor fixo ao cardápio inteiro ou a uma categoria num único UPDATE"
+    )
+    @Caching(evict = {
+        @CacheEvict(value = "produtos", key = "#restauranteId"),
+        @CacheEvict(value = "produto", allEntries = true)
+    })
+    public OperacaoLoteResponse reajustarPrecos(@PathVariable Long restauranteId,
+            @Valid @RequestBody AjustePrecoLoteRequest request) {
+        int afetados = produtoService.reajustarPrecos(restauranteId, request);
+        return new OperacaoLoteResponse(restauranteId, "PRECO", afetados);
+    }
+}
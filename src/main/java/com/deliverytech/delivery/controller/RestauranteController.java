@@ -1,21 +1,25 @@
 package com.deliverytech.delivery.controller;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.deliverytech.delivery.dto.request.RestauranteRequest;
+import com.deliverytech.delivery.dto.response.ConsultaLoteResponse;
 import com.deliverytech.delivery.dto.response.RestauranteResponse;
 import com.deliverytech.delivery.exception.ConflictException;
+import com.deliverytech.delivery.mapper.RestauranteMapper;
 import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.service.ConsultaLoteService;
 import com.deliverytech.delivery.service.RestauranteService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +31,8 @@ import lombok.RequiredArgsConstructor;
 public class RestauranteController {
 
     private final RestauranteService restauranteService;
+    private final RestauranteMapper restauranteMapper;
+    private final ConsultaLoteService consultaLoteService;
 
     @PostMapping
     @Operation(summary = "Cadastra um Restaurante")
@@ -42,52 +48,49 @@ public class RestauranteController {
                 .categoria(request.getCategoria())
                 .taxaEntrega(request.getTaxaEntrega())
                 .tempoEntregaMinutos(request.getTempoEntregaMinutos())
+                .latitude(request.getLatitude())
+                .longitude(request.getLongitude())
                 .ativo(true)
                 .build();
         Restaurante salvo = restauranteService.cadastrar(restaurante);
-        return ResponseEntity.ok(new RestauranteResponse(
-                salvo.getId(), salvo.getNome(), salvo.getCategoria(), salvo.getTelefone(),
-                salvo.getTaxaEntrega(), salvo.getTempoEntregaMinutos(), salvo.getAtivo()));
+        return ResponseEntity.ok(restauranteMapper.paraResponse(salvo));
     }
 
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     @Operation(summary = "Lista os restaurantes cadastrados", description = "Retorna uma lista de restaurantes cadastrados no sistema")
-    @Cacheable(value = "restaurantes")
+    @Cacheable(value = "restaurantes", sync = true)
     public List<RestauranteResponse> listarTodos() {
-        System.out.println("Buscando restaurantes do banco de dados...");
-        return restauranteService.listarTodos().stream()
-                .map(r -> new RestauranteResponse(r.getId(), r.getNome(), r.getCategoria(),
-                        r.getTelefone(), r.getTaxaEntrega(), r.getTempoEntregaMinutos(), r.getAtivo()))
-                .collect(Collectors.toList());
+        return restauranteMapper.paraResponse(restauranteService.listarTodos());
     }
 
-    @GetMapping("/{id}")
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @Operation(summary = "Busca vários restaurantes por ID", description = "Resolve os IDs num único MGET no cache e num único SELECT para as faltas; mantém a ordem pedida e lista os IDs inexistentes")
+    public ConsultaLoteResponse<RestauranteResponse> buscarPorIds(
+            @Parameter(description = "IDs separados por vírgula", example = "5,7", required = true) @RequestParam List<Long> ids) {
+        return consultaLoteService.restaurantes(ids);
+    }
+
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     @Operation(summary = "Lista os restaurantes por ID", description = "Lista os dados de um restaurante a partir do ID informado")
-    @Cacheable(value = "restaurante", key = "#id")
     public ResponseEntity<RestauranteResponse> buscarPorId(@PathVariable Long id) {
-        System.out.println("Buscando restaurante por ID do banco de dados...");
-        return restauranteService.buscarPorId(id)
-                .map(r -> new RestauranteResponse(r.getId(), r.getNome(), r.getCategoria(),
-                        r.getTelefone(), r.getTaxaEntrega(), r.getTempoEntregaMinutos(), r.getAtivo()))
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        // Mesmo caminho do lote: as entradas do cache "restaurante" são RestauranteResponse
+        List<RestauranteResponse> itens = consultaLoteService.restaurantes(List.of(id)).getItens();
+        return itens.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(itens.get(0));
     }
 
-    @GetMapping("/categoria/{categoria}")
+    @GetMapping(value = "/categoria/{categoria}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     @Operation(summary = "Lista os restaurantes por categoria", description = "Lista os dados de um restaurante a partir da categoria informada")
-    @Cacheable(value = "restaurantes", key = "#categoria")
+    @Cacheable(value = "restaurantes", key = "#categoria", sync = true)
     public List<RestauranteResponse> buscarPorCategoria(@PathVariable String categoria) {
-        System.out.println("Buscando restaurantes por categoria do banco de dados...");
-        return restauranteService.buscarPorCategoria(categoria).stream()
-                .map(r -> new RestauranteResponse(r.getId(), r.getNome(), r.getCategoria(),
-                        r.getTelefone(), r.getTaxaEntrega(), r.getTempoEntregaMinutos(), r.getAtivo()))
-                .collect(Collectors.toList());
+        return restauranteMapper.paraResponse(restauranteService.buscarPorCategoria(categoria));
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Atualiza os dados de um restaurante", description = "Atualiza os dados de um restaurante a partir do ID informado")
-    @CachePut(value = "restaurante", key = "#id")
-    @CacheEvict(value = "restaurantes", allEntries = true)
+    @Caching(evict = {
+        @CacheEvict(value = "restaurante", key = "#id"),
+        @CacheEvict(value = "restaurantes", allEntries = true)
+    })
     public ResponseEntity<RestauranteResponse> atualizar(@PathVariable Long id,
             @Valid @RequestBody RestauranteRequest request) {
         Restaurante atualizado = Restaurante.builder()
@@ -96,9 +99,10 @@ public class RestauranteController {
                 .categoria(request.getCategoria())
                 .taxaEntrega(request.getTaxaEntrega())
                 .tempoEntregaMinutos(request.getTempoEntregaMinutos())
+                .latitude(request.getLatitude())
+                .longitude(request.getLongitude())
                 .build();
         Restaurante salvo = restauranteService.atualizar(id, atualizado);
-        return ResponseEntity.ok(new RestauranteResponse(salvo.getId(), salvo.getNome(), salvo.getCategoria(),
-                salvo.getTelefone(), salvo.getTaxaEntrega(), salvo.getTempoEntregaMinutos(), salvo.getAtivo()));
+        return ResponseEntity.ok(restauranteMapper.paraResponse(salvo));
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.deliverytech.delivery.controller;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.deliverytech.delivery.dto.response.TaxaEntregaResponse;
+import com.deliverytech.delivery.service.TaxaEntregaService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+
+@Tag(name = "Taxas de entrega", description = "Cotação de taxas de entrega por CEP")
+@RestController
+@RequestMapping("/api/taxas-entrega")
+@RequiredArgsConstructor
+@Validated
+public class TaxaEntregaController {
+
+    private final TaxaEntregaService taxaEntregaService;
+
+    @GetMapping("/{restauranteId}")
+    @Operation(summary = "Cota a taxa de entrega de um restaurante para um CEP")
+    public ResponseEntity<TaxaEntregaResponse> cotar(@PathVariable Long restauranteId, @RequestParam String cep) {
+        BigDecimal taxa = taxaEntregaService.cotar(restauranteId, cep).orElse(null);
+        return ResponseEntity.ok(new TaxaEntregaResponse(restauranteId, cep, taxa != null, taxa));
+    }
+
+    @GetMapping
+    @Operation(
+        summary = "Cota a taxa de entrega de vários restaurantes",
+        description = "Usado nas telas de listagem; retorna as cotações na mesma ordem dos IDs informados"
+    )
+    public List<TaxaEntregaResponse> cotarLote(@RequestParam String cep,
+            @RequestParam @Size(max = 100) List<Long> restauranteIds) {
+        Map<Long, BigDecimal> cotacoes = taxaEntregaService.cotarLote(restauranteIds, cep);
+        List<TaxaEntregaResponse> respostas = new ArrayList<>(cotacoes.size());
+        cotacoes.forEach((id, taxa) -> respostas.add(new TaxaEntregaResponse(id, cep, taxa != null, taxa)));
+        return respostas;
+    }
+}
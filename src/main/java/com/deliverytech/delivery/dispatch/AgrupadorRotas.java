@@ -0,0 +1,115 @@
+package com.deliverytech.delivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Agrupa pedidos prontos do mesmo restaurante com destinos próximos em lotes
+ * de entrega. Cada restaurante é processado em paralelo no fork/join pool.
+ */
+public class AgrupadorRotas {
+
+    private static final int LIMIAR_RESTAURANTES = 4;
+
+    private final ForkJoinPool pool;
+    private final double raioAgrupamentoKm;
+    private final int maxPedidosPorLote;
+
+    public AgrupadorRotas(ForkJoinPool pool, double raioAgrupamentoKm, int maxPedidosPorLote) {
+        this.pool = pool;
+        this.raioAgrupamentoKm = raioAgrupamentoKm;
+        this.maxPedidosPorLote = Math.max(1, maxPedidosPorLote);
+    }
+
+    public List<LoteEntrega> agrupar(List<PedidoPendente> pedidos, long orcamentoNanos) {
+        if (pedidos.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<PedidoPendente>> porRestaurante = new LinkedHashMap<>();
+        for (PedidoPendente p : pedidos) {
+            porRestaurante.computeIfAbsent(p.restauranteId(), id -> new ArrayList<>()).add(p);
+        }
+        List<List<PedidoPendente>> grupos = new ArrayList<>(porRestaurante.values());
+        long prazo = System.nanoTime() + orcamentoNanos;
+        return pool.invoke(new AgruparTarefa(grupos, 0, grupos.size(), prazo));
+    }
+
+    List<LoteEntrega> agruparRestaurante(List<PedidoPendente> pedidos, long prazoNanos) {
+        List<PedidoPendente> restantes = new ArrayList<>(pedidos);
+        // Mais antigos primeiro, para nenhum pedido ficar esperando indefinidamente
+        restantes.sort(Comparator.comparingLong(PedidoPendente::enfileiradoEm));
+
+        List<LoteEntrega> lotes = new ArrayList<>();
+        while (!restantes.isEmpty()) {
+            PedidoPendente semente = restantes.remove(0);
+            List<PedidoPendente> paradas = new ArrayList<>(maxPedidosPorLote);
+            paradas.add(semente);
+            if (semente.possuiDestino() && maxPedidosPorLote > 1) {
+                List<PedidoPendente> vizinhos = new ArrayList<>();
+                for (PedidoPendente p : restantes) {
+                    if (p.possuiDestino() && distanciaEntrega(semente, p) <= raioAgrupamentoKm) {
+                        vizinhos.add(p);
+                    }
+                }
+                vizinhos.sort(Comparator.comparingDouble(p -> distanciaEntrega(semente, p)));
+                for (int i = 0; i < vizinhos.size() && paradas.size() < maxPedidosPorLote; i++) {
+                    paradas.add(vizinhos.get(i));
+                }
+                restantes.removeAll(paradas);
+            }
+            lotes.add(montarLote(semente, paradas, prazoNanos));
+        }
+        return lotes;
+    }
+
+    private static LoteEntrega montarLote(PedidoPendente semente, List<PedidoPendente> paradas, long prazoNanos) {
+        double lat = semente.coletaLatitude();
+        double lon = semente.coletaLongitude();
+        if (!semente.possuiDestino()) {
+            return new LoteEntrega(semente.restauranteId(), lat, lon, paradas, 0);
+        }
+        List<PedidoPendente> ordenadas = OtimizadorRota.ordenar(lat, lon, paradas, prazoNanos);
+        return new LoteEntrega(semente.restauranteId(), lat, lon, ordenadas,
+                OtimizadorRota.distanciaKm(lat, lon, ordenadas));
+    }
+
+    private static double distanciaEntrega(PedidoPendente a, PedidoPendente b) {
+        return Geo.distanciaKm(a.entregaLatitude(), a.entregaLongitude(), b.entregaLatitude(), b.entregaLongitude());
+    }
+
+    private class AgruparTarefa extends RecursiveTask<List<LoteEntrega>> {
+        private final List<List<PedidoPendente>> grupos;
+        private final int inicio;
+        private final int fim;
+        private final long prazoNanos;
+
+        AgruparTarefa(List<List<PedidoPendente>> grupos, int inicio, int fim, long prazoNanos) {
+            this.grupos = grupos;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.prazoNanos = prazoNanos;
+        }
+
+        @Override
+        protected List<LoteEntrega> compute() {
+            if (fim - inicio <= LIMIAR_RESTAURANTES) {
+                List<LoteEntrega> lotes = new ArrayList<>();
+                for (int i = inicio; i < fim; i++) {
+                    lotes.addAll(agruparRestaurante(grupos.get(i), prazoNanos));
+                }
+                return lotes;
+            }
+            int meio = (inicio + fim) >>> 1;
+            AgruparTarefa esquerda = new AgruparTarefa(grupos, inicio, meio, prazoNanos);
+            esquerda.fork();
+            List<LoteEntrega> lotes = new AgruparTarefa(grupos, meio, fim, prazoNanos).compute();
+            lotes.addAll(0, esquerda.join());
+            return lotes;
+        }
+    }
+}
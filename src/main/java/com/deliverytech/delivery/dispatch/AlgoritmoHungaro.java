@@ -0,0 +1,88 @@
+package com.deliverytech.delivery.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Atribuição de custo mínimo (Hungarian / Kuhn-Munkres com potenciais), O(n² m).
+ * Custos {@code >= INVIAVEL} representam pares que não podem ser atribuídos.
+ */
+public final class AlgoritmoHungaro {
+
+    public static final double INVIAVEL = 1e9;
+
+    private AlgoritmoHungaro() {
+    }
+
+    /**
+     * @param custo matriz linhas (pedidos) x colunas (entregadores)
+     * @return para cada linha, o índice da coluna atribuída ou -1
+     */
+    public static int[] resolver(double[][] custo) {
+        int linhas = custo.length;
+        int[] resultado = new int[linhas];
+        Arrays.fill(resultado, -1);
+        if (linhas == 0) {
+            return resultado;
+        }
+        int colunasReais = custo[0].length;
+        // Colunas fictícias garantem n <= m; linhas que caem nelas ficam sem atribuição
+        int n = linhas;
+        int m = Math.max(colunasReais, linhas);
+
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] caminho = new int[m + 1];
+        double[] minimo = new double[m + 1];
+        boolean[] usado = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minimo, Double.POSITIVE_INFINITY);
+            Arrays.fill(usado, false);
+            do {
+                usado[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (usado[j]) {
+                        continue;
+                    }
+                    double c = j <= colunasReais ? custo[i0 - 1][j - 1] : INVIAVEL;
+                    double atual = c - u[i0] - v[j];
+                    if (atual < minimo[j]) {
+                        minimo[j] = atual;
+                        caminho[j] = j0;
+                    }
+                    if (minimo[j] < delta) {
+                        delta = minimo[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (usado[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minimo[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = caminho[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0 && j <= colunasReais && custo[p[j] - 1][j - 1] < INVIAVEL) {
+                resultado[p[j] - 1] = j - 1;
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,122 @@
+package com.deliverytech.delivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.deliverytech.delivery.dispatch.IndiceEspacialEntregadores.Candidato;
+
+/**
+ * Atribuição lote → entregador a partir dos candidatos de cada lote (os k
+ * mais próximos, vindos do índice). Lotes sem candidatos em comum não
+ * disputam entregador, então o problema é quebrado em componentes conexos e
+ * cada um vai para o {@link AlgoritmoHungaro} só com as suas colunas: o custo
+ * cúbico fica preso ao tamanho do componente, não ao da rodada. Um componente
+ * maior que {@code maxLotesOtimo} (centro denso no pico) é resolvido de forma
+ * gulosa, pela menor distância primeiro.
+ */
+public final class AtribuicaoLotes {
+
+    private AtribuicaoLotes() {
+    }
+
+    /**
+     * @param candidatos para cada lote, os candidatos em ordem crescente de distância
+     * @return para cada lote, o candidato escolhido ou {@code null}
+     */
+    public static Candidato[] atribuir(List<List<Candidato>> candidatos, int maxLotesOtimo) {
+        int lotes = candidatos.size();
+        Candidato[] escolhidos = new Candidato[lotes];
+
+        // Union-find: lotes que compartilham algum entregador ficam no mesmo componente
+        int[] pai = new int[lotes];
+        for (int i = 0; i < lotes; i++) {
+            pai[i] = i;
+        }
+        Map<Long, Integer> primeiroLote = new HashMap<>();
+        for (int i = 0; i < lotes; i++) {
+            for (Candidato c : candidatos.get(i)) {
+                Integer outro = primeiroLote.putIfAbsent(c.entregadorId(), i);
+                if (outro != null) {
+                    pai[raiz(pai, i)] = raiz(pai, outro);
+                }
+            }
+        }
+        Map<Integer, List<Integer>> componentes = new LinkedHashMap<>();
+        for (int i = 0; i < lotes; i++) {
+            componentes.computeIfAbsent(raiz(pai, i), r -> new ArrayList<>()).add(i);
+        }
+
+        for (List<Integer> componente : componentes.values()) {
+            if (componente.size() == 1) {
+                List<Candidato> proximos = candidatos.get(componente.get(0));
+                escolhidos[componente.get(0)] = proximos.isEmpty() ? null : proximos.get(0);
+            } else if (componente.size() <= maxLotesOtimo) {
+                otimo(candidatos, componente, escolhidos);
+            } else {
+                guloso(candidatos, componente, escolhidos);
+            }
+        }
+        return escolhidos;
+    }
+
+    private static void otimo(List<List<Candidato>> candidatos, List<Integer> componente, Candidato[] escolhidos) {
+        Map<Long, Integer> colunas = new HashMap<>();
+        for (int lote : componente) {
+            for (Candidato c : candidatos.get(lote)) {
+                colunas.putIfAbsent(c.entregadorId(), colunas.size());
+            }
+        }
+        double[][] custo = new double[componente.size()][colunas.size()];
+        for (int i = 0; i < componente.size(); i++) {
+            Arrays.fill(custo[i], AlgoritmoHungaro.INVIAVEL);
+            for (Candidato c : candidatos.get(componente.get(i))) {
+                custo[i][colunas.get(c.entregadorId())] = c.distanciaKm();
+            }
+        }
+        int[] atribuicao = AlgoritmoHungaro.resolver(custo);
+        for (int i = 0; i < componente.size(); i++) {
+            if (atribuicao[i] < 0) {
+                continue;
+            }
+            for (Candidato c : candidatos.get(componente.get(i))) {
+                if (colunas.get(c.entregadorId()) == atribuicao[i]) {
+                    escolhidos[componente.get(i)] = c;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void guloso(List<List<Candidato>> candidatos, List<Integer> componente, Candidato[] escolhidos) {
+        // {lote, posição do candidato}
+        List<int[]> arestas = new ArrayList<>();
+        for (int lote : componente) {
+            for (int k = 0; k < candidatos.get(lote).size(); k++) {
+                arestas.add(new int[] { lote, k });
+            }
+        }
+        arestas.sort(Comparator.comparingDouble(a -> candidatos.get(a[0]).get(a[1]).distanciaKm()));
+        Set<Long> ocupados = new HashSet<>();
+        for (int[] aresta : arestas) {
+            Candidato c = candidatos.get(aresta[0]).get(aresta[1]);
+            if (escolhidos[aresta[0]] == null && ocupados.add(c.entregadorId())) {
+                escolhidos[aresta[0]] = c;
+            }
+        }
+    }
+
+    private static int raiz(int[] pai, int i) {
+        while (pai[i] != i) {
+            pai[i] = pai[pai[i]];
+            i = pai[i];
+        }
+        return i;
+    }
+}
@@ -0,0 +1,145 @@
+package com.deliverytech.delivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em grade uniforme (lat/lon) com os entregadores disponíveis.
+ * Cada célula guarda os IDs presentes nela, e a busca pelos mais próximos
+ * expande anéis de células a partir do ponto de coleta, sem tocar no banco.
+ */
+public class IndiceEspacialEntregadores {
+
+    private static final double KM_POR_GRAU = 111.32;
+
+    private final double tamanhoCelula;
+    private final Map<Long, PosicaoEntregador> posicoes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> celulas = new ConcurrentHashMap<>();
+
+    public IndiceEspacialEntregadores(double tamanhoCelulaGraus) {
+        if (tamanhoCelulaGraus <= 0) {
+            throw new IllegalArgumentException("Tamanho de célula deve ser positivo");
+        }
+        this.tamanhoCelula = tamanhoCelulaGraus;
+    }
+
+    public void atualizar(Long entregadorId, double latitude, double longitude) {
+        long celula = celula(latitude, longitude);
+        PosicaoEntregador anterior = posicoes.put(entregadorId,
+                new PosicaoEntregador(entregadorId, latitude, longitude, celula));
+        if (anterior != null && anterior.celula() == celula) {
+            return;
+        }
+        if (anterior != null) {
+            removerDaCelula(anterior.celula(), entregadorId);
+        }
+        celulas.compute(celula, (c, ids) -> {
+            Set<Long> destino = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            destino.add(entregadorId);
+            return destino;
+        });
+    }
+
+    public boolean remover(Long entregadorId) {
+        return retirar(entregadorId) != null;
+    }
+
+    /** Remove e devolve a última posição, para {@link #devolver} se a atribuição não for gravada. */
+    public PosicaoEntregador retirar(Long entregadorId) {
+        PosicaoEntregador anterior = posicoes.remove(entregadorId);
+        if (anterior != null) {
+            removerDaCelula(anterior.celula(), entregadorId);
+        }
+        return anterior;
+    }
+
+    /** Recoloca um entregador retirado, a menos que ele já tenha mandado uma posição nova. */
+    public void devolver(PosicaoEntregador posicao) {
+        if (!contem(posicao.entregadorId())) {
+            atualizar(posicao.entregadorId(), posicao.latitude(), posicao.longitude());
+        }
+    }
+
+    public boolean contem(Long entregadorId) {
+        return posicoes.containsKey(entregadorId);
+    }
+
+    public int tamanho() {
+        return posicoes.size();
+    }
+
+    /**
+     * Retorna até {@code k} entregadores ordenados pela distância ao ponto,
+     * limitados a {@code raioMaximoKm}.
+     */
+    public List<Candidato> maisProximos(double latitude, double longitude, int k, double raioMaximoKm) {
+        int linhaBase = (int) Math.floor(latitude / tamanhoCelula);
+        int colunaBase = (int) Math.floor(longitude / tamanhoCelula);
+        // Lado da célula na menor dimensão (longitude encolhe com a latitude)
+        double ladoCelulaKm = tamanhoCelula * KM_POR_GRAU * Math.max(0.1, Math.cos(Math.toRadians(latitude)));
+        int anelMaximo = (int) Math.ceil(raioMaximoKm / ladoCelulaKm);
+
+        List<Candidato> encontrados = new ArrayList<>();
+        for (int anel = 0; anel <= anelMaximo; anel++) {
+            for (int dl = -anel; dl <= anel; dl++) {
+                boolean borda = dl == -anel || dl == anel;
+                for (int dc = -anel; dc <= anel; dc += borda ? 1 : 2 * anel) {
+                    coletar(chave(linhaBase + dl, colunaBase + dc), latitude, longitude, raioMaximoKm, encontrados);
+                    if (anel == 0) {
+                        break;
+                    }
+                }
+            }
+            // Qualquer célula de anéis seguintes está a pelo menos anel * lado da célula
+            if (encontrados.size() >= k && kesimaDistancia(encontrados, k) <= anel * ladoCelulaKm) {
+                break;
+            }
+        }
+        encontrados.sort(Comparator.comparingDouble(Candidato::distanciaKm));
+        return encontrados.size() > k ? new ArrayList<>(encontrados.subList(0, k)) : encontrados;
+    }
+
+    private void coletar(long chave, double latitude, double longitude, double raioMaximoKm, List<Candidato> destino) {
+        Set<Long> ids = celulas.get(chave);
+        if (ids == null) {
+            return;
+        }
+        for (Long id : ids) {
+            PosicaoEntregador p = posicoes.get(id);
+            if (p == null) {
+                continue;
+            }
+            double distancia = Geo.distanciaKm(latitude, longitude, p.latitude(), p.longitude());
+            if (distancia <= raioMaximoKm) {
+                destino.add(new Candidato(id, distancia));
+            }
+        }
+    }
+
+    private static double kesimaDistancia(List<Candidato> candidatos, int k) {
+        candidatos.sort(Comparator.comparingDouble(Candidato::distanciaKm));
+        return candidatos.get(k - 1).distanciaKm();
+    }
+
+    private void removerDaCelula(long celula, Long entregadorId) {
+        celulas.computeIfPresent(celula, (c, ids) -> {
+            ids.remove(entregadorId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private long celula(double latitude, double longitude) {
+        return chave((int) Math.floor(latitude / tamanhoCelula), (int) Math.floor(longitude / tamanhoCelula));
+    }
+
+    private static long chave(int linha, int coluna) {
+        return ((long) linha << 32) | (coluna & 0xffffffffL);
+    }
+
+    public record Candidato(Long entregadorId, double distanciaKm) {
+    }
+}
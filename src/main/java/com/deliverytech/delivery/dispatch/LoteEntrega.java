@@ -0,0 +1,15 @@
+package com.deliverytech.delivery.dispatch;
+
+import java.util.List;
+
+/**
+ * Conjunto de pedidos de um mesmo restaurante entregues em uma única viagem,
+ * com as paradas já na ordem de entrega.
+ */
+public record LoteEntrega(
+        Long restauranteId,
+        double coletaLatitude,
+        double coletaLongitude,
+        List<PedidoPendente> paradas,
+        double distanciaKm) {
+}
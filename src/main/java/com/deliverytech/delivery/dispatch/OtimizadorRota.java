@@ -0,0 +1,149 @@
+package com.deliverytech.delivery.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordem de entrega para um caminho aberto que parte da coleta:
+ * inserção mais barata (ou a ordem de chegada, se for melhor) seguida de 2-opt
+ * enquanto houver orçamento de tempo, então nunca piora a ordem recebida.
+ */
+public final class OtimizadorRota {
+
+    private OtimizadorRota() {
+    }
+
+    public static List<PedidoPendente> ordenar(double coletaLat, double coletaLon,
+            List<PedidoPendente> paradas, long prazoNanos) {
+        int n = paradas.size();
+        if (n <= 1) {
+            return new ArrayList<>(paradas);
+        }
+        // Índice 0 é a coleta; 1..n são as paradas
+        double[][] dist = matrizDistancias(coletaLat, coletaLon, paradas);
+
+        int[] rota = insercaoMaisBarata(dist, n);
+        // A inserção é heurística e às vezes perde para a ordem de chegada; o 2-opt parte da melhor das duas
+        int[] chegada = new int[n + 1];
+        for (int i = 1; i <= n; i++) {
+            chegada[i] = i;
+        }
+        if (custo(dist, chegada) < custo(dist, rota)) {
+            rota = chegada;
+        }
+        if (n >= 3) {
+            doisOpt(dist, rota, prazoNanos);
+        }
+
+        List<PedidoPendente> ordenadas = new ArrayList<>(n);
+        for (int i = 1; i < rota.length; i++) {
+            ordenadas.add(paradas.get(rota[i] - 1));
+        }
+        return ordenadas;
+    }
+
+    public static double distanciaKm(double coletaLat, double coletaLon, List<PedidoPendente> ordenadas) {
+        double total = 0;
+        double lat = coletaLat;
+        double lon = coletaLon;
+        for (PedidoPendente p : ordenadas) {
+            total += Geo.distanciaKm(lat, lon, p.entregaLatitude(), p.entregaLongitude());
+            lat = p.entregaLatitude();
+            lon = p.entregaLongitude();
+        }
+        return total;
+    }
+
+    private static double[][] matrizDistancias(double coletaLat, double coletaLon, List<PedidoPendente> paradas) {
+        int n = paradas.size() + 1;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        lat[0] = coletaLat;
+        lon[0] = coletaLon;
+        for (int i = 1; i < n; i++) {
+            lat[i] = paradas.get(i - 1).entregaLatitude();
+            lon[i] = paradas.get(i - 1).entregaLongitude();
+        }
+        double[][] dist = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                dist[i][j] = dist[j][i] = Geo.distanciaKm(lat[i], lon[i], lat[j], lon[j]);
+            }
+        }
+        return dist;
+    }
+
+    private static int[] insercaoMaisBarata(double[][] dist, int n) {
+        int[] rota = new int[n + 1];
+        boolean[] inserido = new boolean[n + 1];
+        rota[0] = 0;
+        int tamanho = 1;
+        for (int passo = 0; passo < n; passo++) {
+            int melhorParada = -1;
+            int melhorPosicao = -1;
+            double melhorCusto = Double.POSITIVE_INFINITY;
+            for (int k = 1; k <= n; k++) {
+                if (inserido[k]) {
+                    continue;
+                }
+                for (int pos = 1; pos <= tamanho; pos++) {
+                    int anterior = rota[pos - 1];
+                    double custo = dist[anterior][k];
+                    // Caminho aberto: inserir no fim não tem aresta de saída
+                    if (pos < tamanho) {
+                        int seguinte = rota[pos];
+                        custo += dist[k][seguinte] - dist[anterior][seguinte];
+                    }
+                    if (custo < melhorCusto) {
+                        melhorCusto = custo;
+                        melhorParada = k;
+                        melhorPosicao = pos;
+                    }
+                }
+            }
+            System.arraycopy(rota, melhorPosicao, rota, melhorPosicao + 1, tamanho - melhorPosicao);
+            rota[melhorPosicao] = melhorParada;
+            inserido[melhorParada] = true;
+            tamanho++;
+        }
+        return rota;
+    }
+
+    private static void doisOpt(double[][] dist, int[] rota, long prazoNanos) {
+        int ultimo = rota.length - 1;
+        boolean melhorou = true;
+        while (melhorou && System.nanoTime() < prazoNanos) {
+            melhorou = false;
+            for (int i = 1; i < ultimo; i++) {
+                for (int j = i + 1; j <= ultimo; j++) {
+                    double antes = dist[rota[i - 1]][rota[i]];
+                    double depois = dist[rota[i - 1]][rota[j]];
+                    if (j < ultimo) {
+                        antes += dist[rota[j]][rota[j + 1]];
+                        depois += dist[rota[i]][rota[j + 1]];
+                    }
+                    if (depois < antes - 1e-9) {
+                        inverter(rota, i, j);
+                        melhorou = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static double custo(double[][] dist, int[] rota) {
+        double total = 0;
+        for (int i = 1; i < rota.length; i++) {
+            total += dist[rota[i - 1]][rota[i]];
+        }
+        return total;
+    }
+
+    private static void inverter(int[] rota, int i, int j) {
+        while (i < j) {
+            int tmp = rota[i];
+            rota[i++] = rota[j];
+            rota[j--] = tmp;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.deliverytech.delivery.dispatch;
+
+/**
+ * Pedido aguardando entregador. Coordenadas de entrega ausentes ficam como NaN,
+ * e o pedido então segue sozinho, sem ser agrupado.
+ */
+public record PedidoPendente(
+        Long pedidoId,
+        Long restauranteId,
+        double coletaLatitude,
+        double coletaLongitude,
+        double entregaLatitude,
+        double entregaLongitude,
+        long enfileiradoEm) {
+
+    public boolean possuiDestino() {
+        return !Double.isNaN(entregaLatitude) && !Double.isNaN(entregaLongitude);
+    }
+}
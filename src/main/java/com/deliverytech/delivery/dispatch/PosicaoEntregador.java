@@ -0,0 +1,4 @@
+package com.deliverytech.delivery.dispatch;
+
+public record PosicaoEntregador(Long entregadorId, double latitude, double longitude, long celula) {
+}
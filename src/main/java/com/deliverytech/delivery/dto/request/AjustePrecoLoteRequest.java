@@ -0,0 +1,32 @@
+package com.deliverytech.delivery.dto.request;
+
+import java.math.BigDecimal;
+
+import com.deliverytech.delivery.model.TipoAjustePreco;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Reajuste de preços do cardápio do restaurante, inteiro ou de uma categoria",
+    example = "{\"tipo\":\"PERCENTUAL\",\"valor\":8.5,\"categoria\":\"Pizza\"}"
+)
+public class AjustePrecoLoteRequest {
+
+    @Schema(description = "PERCENTUAL aplica valor% sobre o preço; VALOR soma o valor em R$", example = "PERCENTUAL", required = true)
+    @NotNull
+    private TipoAjustePreco tipo;
+
+    @Schema(description = "Percentual ou valor em R$; negativo reduz o preço, que não fica abaixo de R$ 0,01", example = "8.5", required = true)
+    @NotNull
+    private BigDecimal valor;
+
+    @Schema(description = "Restringe o reajuste a uma categoria; vazio reajusta o cardápio inteiro", example = "Pizza")
+    private String categoria;
+}
@@ -0,0 +1,67 @@
+package com.deliverytech.delivery.dto.request;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.deliverytech.delivery.model.CoorteCliente;
+import com.deliverytech.delivery.model.TipoDesconto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Requisição para criar uma campanha promocional",
+    example = "{"
+            + "\"nome\":\"Pizza de quarta\","
+            + "\"restauranteId\":5,"
+            + "\"categoria\":\"Pizza\","
+            + "\"tipoDesconto\":\"PERCENTUAL\","
+            + "\"valor\":15.00,"
+            + "\"inicio\":\"2025-09-03T18:00:00\","
+            + "\"fim\":\"2025-09-03T23:59:00\""
+            + "}"
+)
+public class CampanhaRequest {
+
+    @Schema(description = "Nome da campanha", example = "Pizza de quarta", required = true)
+    @NotBlank
+    private String nome;
+
+    @Schema(description = "Restaurante participante (vazio para todos)", example = "5")
+    private Long restauranteId;
+
+    @Schema(description = "Categoria de produto participante (vazio para todas)", example = "Pizza")
+    private String categoria;
+
+    @Schema(description = "Produto participante (vazio para todos)", example = "10")
+    private Long produtoId;
+
+    @Schema(description = "Coorte de clientes elegível", example = "TODOS")
+    private CoorteCliente coorte;
+
+    @Schema(description = "Cupom exigido para aplicar a campanha (opcional)", example = "PIZZA15")
+    private String cupom;
+
+    @Schema(description = "Tipo do desconto", example = "PERCENTUAL", required = true)
+    @NotNull
+    private TipoDesconto tipoDesconto;
+
+    @Schema(description = "Percentual ou valor fixo por unidade em Reais (R$)", example = "15.00", required = true)
+    @NotNull
+    @Positive
+    private BigDecimal valor;
+
+    @Schema(description = "Início da vigência", example = "2025-09-03T18:00:00")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Fim da vigência", example = "2025-09-03T23:59:00")
+    private LocalDateTime fim;
+}
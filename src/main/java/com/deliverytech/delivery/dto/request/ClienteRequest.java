@@ -1,5 +1,7 @@
 package com.deliverytech.delivery.dto.request;
 
+import com.deliverytech.delivery.model.Endereco;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -32,4 +34,15 @@ public class ClienteRequest {
     @Email
     @NotBlank
     private String email;
+
+    @Schema(
+        description = "Telefone de contato do cliente (opcional)",
+        example = "(11) 99999-9999"
+    )
+    private String telefone;
+
+    @Schema(
+        description = "Endereço principal do cliente (opcional); o CEP é validado e o endereço normalizado"
+    )
+    private Endereco endereco;
 }
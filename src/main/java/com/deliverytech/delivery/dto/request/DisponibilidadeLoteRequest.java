@@ -0,0 +1,36 @@
+package com.deliverytech.delivery.dto.request;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Altera a disponibilidade de vários produtos do restaurante de uma vez. "
+            + "Informe exatamente um seletor: produtoIds, categoria ou contendo",
+    example = "{\"disponivel\":false,\"contendo\":\"camarão\"}"
+)
+public class DisponibilidadeLoteRequest {
+
+    @Schema(description = "Nova disponibilidade dos produtos selecionados", example = "false", required = true)
+    @NotNull
+    private Boolean disponivel;
+
+    @Schema(description = "IDs dos produtos", example = "[10, 11, 12]")
+    @Size(max = 1000)
+    private List<Long> produtoIds;
+
+    @Schema(description = "Categoria inteira do cardápio", example = "Frutos do mar")
+    private String categoria;
+
+    @Schema(description = "Trecho procurado no nome ou na descrição (ex.: ingrediente em falta)", example = "camarão")
+    @Size(min = 2, max = 100)
+    private String contendo;
+}
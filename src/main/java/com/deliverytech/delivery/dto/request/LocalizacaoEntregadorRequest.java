@@ -0,0 +1,39 @@
+package com.deliverytech.delivery.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Posição atual de um entregador disponível",
+    example = "{\"latitude\":-23.5613,\"longitude\":-46.6565}"
+)
+public class LocalizacaoEntregadorRequest {
+
+    @Schema(
+        description = "Latitude em graus decimais",
+        example = "-23.5613",
+        required = true
+    )
+    @NotNull
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double latitude;
+
+    @Schema(
+        description = "Longitude em graus decimais",
+        example = "-46.6565",
+        required = true
+    )
+    @NotNull
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double longitude;
+}
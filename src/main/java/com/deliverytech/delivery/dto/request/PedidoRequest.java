@@ -53,4 +53,10 @@ public class PedidoRequest {
     )
     @NotNull
     private List<ItemPedidoRequest> itens;
+
+    @Schema(
+        description = "Código de cupom promocional (opcional)",
+        example = "PRIMEIRACOMPRA"
+    )
+    private String cupom;
 }
@@ -3,6 +3,8 @@ package com.deliverytech.delivery.dto.request;
 import java.math.BigDecimal;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -66,4 +68,20 @@ public class RestauranteRequest {
     @Min(5)
     @Max(90)
     private Integer tempoEntregaMinutos;
+
+    @Schema(
+        description = "Latitude do ponto de coleta, usada no despacho de entregadores",
+        example = "-23.5613"
+    )
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double latitude;
+
+    @Schema(
+        description = "Longitude do ponto de coleta, usada no despacho de entregadores",
+        example = "-46.6565"
+    )
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double longitude;
 }
@@ -0,0 +1,27 @@
+package com.deliverytech.delivery.dto.request;
+
+import com.deliverytech.delivery.model.StatusPedido;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Novo status de um pedido",
+    example = "{\"status\":\"EM_PREPARACAO\"}"
+)
+public class StatusPedidoRequest {
+
+    @Schema(
+        description = "Status para o qual o pedido deve ir",
+        example = "EM_PREPARACAO",
+        required = true
+    )
+    @NotNull
+    private StatusPedido status;
+}
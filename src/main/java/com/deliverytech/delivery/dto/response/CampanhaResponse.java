@@ -0,0 +1,42 @@
+package com.deliverytech.delivery.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.deliverytech.delivery.model.TipoDesconto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Representa uma campanha promocional",
+    example = "{\"id\":1,\"nome\":\"Pizza de quarta\",\"tipoDesconto\":\"PERCENTUAL\",\"valor\":15.00,\"inicio\":\"2025-09-03T18:00:00\",\"fim\":\"2025-09-03T23:59:00\",\"ativo\":true}"
+)
+public class CampanhaResponse {
+
+    @Schema(description = "Identificador único da campanha", example = "1")
+    private Long id;
+
+    @Schema(description = "Nome da campanha", example = "Pizza de quarta")
+    private String nome;
+
+    @Schema(description = "Tipo do desconto", example = "PERCENTUAL")
+    private TipoDesconto tipoDesconto;
+
+    @Schema(description = "Percentual ou valor fixo do desconto", example = "15.00")
+    private BigDecimal valor;
+
+    @Schema(description = "Início da vigência", example = "2025-09-03T18:00:00")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Fim da vigência", example = "2025-09-03T23:59:00")
+    private LocalDateTime fim;
+
+    @Schema(description = "Indica se a campanha está ativa", example = "true")
+    private Boolean ativo;
+}
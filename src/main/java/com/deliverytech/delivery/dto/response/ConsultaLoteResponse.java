@@ -0,0 +1,24 @@
+package com.deliverytech.delivery.dto.response;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Resultado de uma consulta por vários IDs",
+    example = "{\"itens\":[{\"id\":10},{\"id\":12}],\"naoEncontrados\":[11]}"
+)
+public class ConsultaLoteResponse<T> {
+
+    @Schema(description = "Itens encontrados, na ordem dos IDs pedidos (repetidos aparecem uma vez)")
+    private List<T> itens;
+
+    @Schema(description = "IDs pedidos que não existem", example = "[11]")
+    private List<Long> naoEncontrados;
+}
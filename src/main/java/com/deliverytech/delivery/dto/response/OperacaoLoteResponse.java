@@ -0,0 +1,25 @@
+package com.deliverytech.delivery.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Resultado de uma operação em lote no cardápio",
+    example = "{\"restauranteId\":5,\"operacao\":\"DISPONIBILIDADE\",\"afetados\":14}"
+)
+public class OperacaoLoteResponse {
+
+    @Schema(description = "Identificador do restaurante", example = "5")
+    private Long restauranteId;
+
+    @Schema(description = "Operação executada: DISPONIBILIDADE ou PRECO", example = "DISPONIBILIDADE")
+    private String operacao;
+
+    @Schema(description = "Produtos efetivamente alterados", example = "14")
+    private Integer afetados;
+}
@@ -1,5 +1,6 @@
 package com.deliverytech.delivery.dto.response;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,7 +15,7 @@ import lombok.NoArgsConstructor;
     description = "Representa um produto do catálogo do Restaurante", 
     example = "{\"id\":1,\"nome\":\"Calabresa\",\"categoria\":2,\"descricao\":\"Linguiça Calabresa\",\"preco\":10.50,\"disponivel\":true}"
 )
-public class ProdutoResponse {
+public class ProdutoResponse implements Serializable {
     @Schema(
         description = "Identificar unico do produto",
         example = "1"
@@ -3,6 +3,7 @@ package com.deliverytech.delivery.dto.response;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,7 +15,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
     description = "Representa um restaurante disponível no sistema", 
     example = "{\"id\":5,\"nome\":\"Pizzaria Napoli\",\"categoria\":\"Italiana\",\"telefone\":\"(11) 98765-4321\",\"taxaEntrega\":7.50,\"tempoEntregaMinutos\":40,\"ativo\":true}"
 )
-public class RestauranteResponse {
+public class RestauranteResponse implements Serializable {
 
     @Schema(
         description = "Identificador único do restaurante no sistema",
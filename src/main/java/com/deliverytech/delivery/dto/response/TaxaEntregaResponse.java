@@ -0,0 +1,30 @@
+package com.deliverytech.delivery.dto.response;
+
+import java.math.BigDecimal;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+    description = "Cotação da taxa de entrega de um restaurante para um CEP",
+    example = "{\"restauranteId\":5,\"cep\":\"01310-100\",\"atende\":true,\"taxa\":9.30}"
+)
+public class TaxaEntregaResponse {
+
+    @Schema(description = "Identificador do restaurante", example = "5")
+    private Long restauranteId;
+
+    @Schema(description = "CEP de entrega consultado", example = "01310-100")
+    private String cep;
+
+    @Schema(description = "Indica se o restaurante entrega no CEP", example = "true")
+    private Boolean atende;
+
+    @Schema(description = "Taxa de entrega em Reais (R$) no horário atual", example = "9.30")
+    private BigDecimal taxa;
+}
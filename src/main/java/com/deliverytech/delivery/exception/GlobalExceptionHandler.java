@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -70,6 +71,34 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
   }
 
+  @ExceptionHandler(BusinessException.class)
+  public ResponseEntity<ErrorResponse> handleBusinessException(
+      BusinessException ex, WebRequest request) {
+
+    ErrorResponse errorResponse = new ErrorResponse(
+        HttpStatus.UNPROCESSABLE_ENTITY.value(),
+        "Regra de negócio violada",
+        ex.getMessage(),
+        request.getDescription(false).replace("uri=", ""));
+    errorResponse.setErrorCode(ex.getErrorCode());
+
+    return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+
+  @ExceptionHandler(AccessDeniedException.class)
+  public ResponseEntity<ErrorResponse> handleAccessDeniedException(
+      AccessDeniedException ex, WebRequest request) {
+
+    ErrorResponse errorResponse = new ErrorResponse(
+        HttpStatus.FORBIDDEN.value(),
+        "Acesso negado",
+        ex.getMessage(),
+        request.getDescription(false).replace("uri=", ""));
+    errorResponse.setErrorCode("ACESSO_NEGADO");
+
+    return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGenericException(
       Exception ex, WebRequest request) {
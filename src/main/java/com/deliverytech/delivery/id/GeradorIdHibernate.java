@@ -0,0 +1,58 @@
+package com.deliverytech.delivery.id;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+
+/**
+ * Ponte entre o Hibernate e o {@link GeradorSnowflake} do contexto Spring,
+ * que chega pelas propriedades da fábrica de sessões (veja
+ * {@code IdConfig}). Sem ele, como nos testes de fatia JPA, usa um gerador
+ * do nó 0.
+ *
+ * <p>Com o Spring, o Hibernate cria geradores pelo contêiner de beans, que só
+ * sabe usar o construtor sem argumentos; a configuração chega depois, em
+ * {@link #initialize}.
+ */
+public class GeradorIdHibernate implements BeforeExecutionGenerator, AnnotationBasedGenerator<IdSnowflake> {
+
+    public static final String PROPRIEDADE = "delivery.ids.gerador";
+
+    private static final GeradorSnowflake PADRAO = new GeradorSnowflake(0, 5, 1000);
+
+    private GeradorSnowflake gerador = PADRAO;
+
+    public GeradorIdHibernate() {
+    }
+
+    @Override
+    public void initialize(IdSnowflake config, Member membro, GeneratorCreationContext contexto) {
+        Object configurado = contexto.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(PROPRIEDADE);
+        this.gerador = configurado instanceof GeradorSnowflake g ? g : PADRAO;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+            EventType eventType) {
+        // ID reservado antes do persist (fluxos assíncronos) é mantido
+        return currentValue != null ? currentValue : gerador.proximo();
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
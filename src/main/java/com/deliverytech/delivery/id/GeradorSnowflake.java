@@ -0,0 +1,108 @@
+package com.deliverytech.delivery.id;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * IDs de 64 bits ordenados no tempo, no formato do Snowflake:
+ * 41 bits de milissegundos desde {@link #EPOCA}, 10 bits de nó e 12 de
+ * sequência. Dois nós com números diferentes nunca geram o mesmo ID, e IDs
+ * do mesmo nó são estritamente crescentes, o que serve para paginação por
+ * chave ({@code where id > :cursor}).
+ *
+ * <p>Sem trava: o último milissegundo usado e a sequência ficam num único
+ * {@link AtomicLong} atualizado por CAS. Quando a sequência do milissegundo
+ * estoura, o incremento já passa para o milissegundo seguinte, ou seja, o
+ * gerador "empresta" tempo do futuro em vez de esperar. O mesmo vale para um
+ * recuo pequeno do relógio (NTP): até {@code toleranciaMs} à frente do
+ * relógio o gerador segue emprestando; além disso espera o relógio alcançar,
+ * e um recuo maior que {@code recuoMaximoMs} vira erro em vez de travar
+ * inserções por tempo indefinido.
+ */
+public final class GeradorSnowflake {
+
+    /** 2024-01-01T00:00:00Z; os 41 bits de tempo duram até 2093. */
+    public static final long EPOCA = 1_704_067_200_000L;
+
+    static final int BITS_NO = 10;
+    static final int BITS_SEQUENCIA = 12;
+    public static final int MAX_NO = (1 << BITS_NO) - 1;
+    private static final long MASCARA_SEQUENCIA = (1L << BITS_SEQUENCIA) - 1;
+    private static final int DESLOCAMENTO_TEMPO = BITS_NO + BITS_SEQUENCIA;
+
+    private final long noDeslocado;
+    private final long toleranciaMs;
+    private final long recuoMaximoMs;
+    private final LongSupplier relogio;
+
+    // (ms desde a época << BITS_SEQUENCIA) | sequência do último ID emitido
+    private final AtomicLong estado = new AtomicLong();
+    private final LongAdder esperas = new LongAdder();
+
+    public GeradorSnowflake(int no, long toleranciaMs, long recuoMaximoMs) {
+        this(no, toleranciaMs, recuoMaximoMs, System::currentTimeMillis);
+    }
+
+    GeradorSnowflake(int no, long toleranciaMs, long recuoMaximoMs, LongSupplier relogio) {
+        if (no < 0 || no > MAX_NO) {
+            throw new IllegalArgumentException("Número do nó deve estar entre 0 e " + MAX_NO + ": " + no);
+        }
+        this.noDeslocado = (long) no << BITS_SEQUENCIA;
+        this.toleranciaMs = toleranciaMs;
+        this.recuoMaximoMs = Math.max(toleranciaMs, recuoMaximoMs);
+        this.relogio = relogio;
+    }
+
+    public long proximo() {
+        while (true) {
+            long atual = estado.get();
+            long ultimo = atual >>> BITS_SEQUENCIA;
+            long agora = relogio.getAsLong() - EPOCA;
+            long proximo;
+            if (agora > ultimo) {
+                proximo = agora << BITS_SEQUENCIA;
+            } else {
+                long adiante = ultimo - agora;
+                if (adiante > toleranciaMs) {
+                    aguardarRelogio(adiante);
+                    continue;
+                }
+                // Mesmo milissegundo (ou recuo tolerado): a sequência estourando leva ao ms seguinte
+                proximo = atual + 1;
+            }
+            if (estado.compareAndSet(atual, proximo)) {
+                return (proximo >>> BITS_SEQUENCIA) << DESLOCAMENTO_TEMPO | noDeslocado | (proximo & MASCARA_SEQUENCIA);
+            }
+        }
+    }
+
+    /** Vezes em que a geração esperou o relógio (recuo ou rajada acima de 4096 IDs/ms). */
+    public long esperas() {
+        return esperas.sum();
+    }
+
+    private void aguardarRelogio(long adianteMs) {
+        if (adianteMs > recuoMaximoMs) {
+            throw new IllegalStateException("Relógio recuou " + adianteMs + " ms em relação ao último ID emitido");
+        }
+        esperas.increment();
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public static Instant instante(long id) {
+        return Instant.ofEpochMilli((id >>> DESLOCAMENTO_TEMPO) + EPOCA);
+    }
+
+    public static int no(long id) {
+        return (int) (id >>> BITS_SEQUENCIA) & MAX_NO;
+    }
+
+    /** Menor ID possível no instante dado, de qualquer nó: limite de faixas por tempo em consultas por ID. */
+    public static long primeiroIdEm(Instant instante) {
+        return Math.max(0, instante.toEpochMilli() - EPOCA) << DESLOCAMENTO_TEMPO;
+    }
+}
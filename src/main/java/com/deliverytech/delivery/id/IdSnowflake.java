@@ -0,0 +1,21 @@
+package com.deliverytech.delivery.id;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Marca o {@code @Id} de uma entidade para receber um ID do
+ * {@link GeradorSnowflake} antes do INSERT. Ao contrário de
+ * {@code GenerationType.IDENTITY}, o Hibernate não precisa da resposta do
+ * banco para conhecer o ID, então os INSERTs entram em lotes JDBC
+ * ({@code hibernate.jdbc.batch_size}).
+ */
+@IdGeneratorType(GeradorIdHibernate.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface IdSnowflake {
+}
@@ -0,0 +1,86 @@
+package com.deliverytech.delivery.idempotency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Memória local na frente do Redis. Uma nova tentativa costuma cair em outra
+ * instância atrás do balanceador, por isso a resposta também vai para o
+ * Redis; o acerto remoto é copiado para o tier local. A reserva usa
+ * {@code SET NX PX} para que só uma instância processe a chave.
+ *
+ * <p>Erros do Redis não bloqueiam o pedido: o tier local continua valendo e
+ * {@link #falhas()} é incrementado.
+ */
+public class ArmazemEmCamadas implements ArmazemIdempotencia {
+
+    private final ArmazemLocal local;
+    private final StringRedisTemplate redis;
+    private final String prefixo;
+    private final Duration ttl;
+    private final Duration reserva;
+    private final LongAdder falhas = new LongAdder();
+
+    public ArmazemEmCamadas(ArmazemLocal local, StringRedisTemplate redis, String prefixo, Duration ttl, Duration reserva) {
+        this.local = local;
+        this.redis = redis;
+        this.prefixo = prefixo;
+        this.ttl = ttl;
+        this.reserva = reserva;
+    }
+
+    @Override
+    public RespostaArmazenada buscar(String chave) {
+        RespostaArmazenada resposta = local.buscar(chave);
+        if (resposta != null) {
+            return resposta;
+        }
+        try {
+            String valor = redis.opsForValue().get(prefixo + chave);
+            if (valor == null) {
+                return null;
+            }
+            resposta = RespostaArmazenada.decodificar(valor);
+            local.salvar(chave, resposta);
+            return resposta;
+        } catch (RuntimeException e) {
+            falhas.increment();
+            return null;
+        }
+    }
+
+    @Override
+    public void salvar(String chave, RespostaArmazenada resposta) {
+        local.salvar(chave, resposta);
+        try {
+            redis.opsForValue().set(prefixo + chave, resposta.codificar(), ttl);
+        } catch (RuntimeException e) {
+            falhas.increment();
+        }
+    }
+
+    @Override
+    public boolean reservar(String chave) {
+        try {
+            return !Boolean.FALSE.equals(redis.opsForValue().setIfAbsent(prefixo + "reserva:" + chave, "1", reserva));
+        } catch (RuntimeException e) {
+            falhas.increment();
+            return true;
+        }
+    }
+
+    @Override
+    public void liberar(String chave) {
+        try {
+            redis.delete(prefixo + "reserva:" + chave);
+        } catch (RuntimeException e) {
+            falhas.increment();
+        }
+    }
+
+    public long falhas() {
+        return falhas.sum();
+    }
+}
@@ -0,0 +1,24 @@
+package com.deliverytech.delivery.idempotency;
+
+/**
+ * Onde as respostas idempotentes ficam guardadas durante o TTL.
+ */
+public interface ArmazemIdempotencia {
+
+    /** Resposta guardada para a chave, ou {@code null}. */
+    RespostaArmazenada buscar(String chave);
+
+    void salvar(String chave, RespostaArmazenada resposta);
+
+    /**
+     * Reserva a chave para processamento entre instâncias. Dentro de uma
+     * instância as duplicatas já são agrupadas pelo filtro; só armazéns
+     * compartilhados precisam disto.
+     */
+    default boolean reservar(String chave) {
+        return true;
+    }
+
+    default void liberar(String chave) {
+    }
+}
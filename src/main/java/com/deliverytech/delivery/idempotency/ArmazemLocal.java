@@ -0,0 +1,119 @@
+package com.deliverytech.delivery.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Armazém em memória limitado por bytes. O TTL é igual para todas as
+ * entradas, então a ordem de inserção é também a ordem de expiração: tanto a
+ * expiração quanto o descarte por falta de espaço saem da cabeça do mapa.
+ * Chaves de idempotência quase nunca são relidas depois da janela de
+ * retentativas, então FIFO descarta o mesmo que um LRU descartaria.
+ */
+public class ArmazemLocal implements ArmazemIdempotencia {
+
+    private record Entrada(RespostaArmazenada resposta, long expiraEm, long tamanho) {
+    }
+
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+    private final long limiteBytes;
+    private final long ttlMillis;
+    private final LongSupplier relogioMillis;
+    private long bytes;
+
+    private final LongAdder expiradas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+
+    public ArmazemLocal(long limiteBytes, long ttlMillis) {
+        this(limiteBytes, ttlMillis, System::currentTimeMillis);
+    }
+
+    public ArmazemLocal(long limiteBytes, long ttlMillis, LongSupplier relogioMillis) {
+        this.limiteBytes = limiteBytes;
+        this.ttlMillis = ttlMillis;
+        this.relogioMillis = relogioMillis;
+    }
+
+    @Override
+    public synchronized RespostaArmazenada buscar(String chave) {
+        Entrada entrada = entradas.get(chave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expiraEm() <= relogioMillis.getAsLong()) {
+            entradas.remove(chave);
+            bytes -= entrada.tamanho();
+            expiradas.increment();
+            return null;
+        }
+        return entrada.resposta();
+    }
+
+    @Override
+    public synchronized void salvar(String chave, RespostaArmazenada resposta) {
+        long agora = relogioMillis.getAsLong();
+        long tamanho = resposta.tamanhoBytes() + 2L * chave.length();
+        if (tamanho > limiteBytes) {
+            descartadas.increment();
+            return;
+        }
+        Entrada anterior = entradas.remove(chave);
+        if (anterior != null) {
+            bytes -= anterior.tamanho();
+        }
+        entradas.put(chave, new Entrada(resposta, agora + ttlMillis, tamanho));
+        bytes += tamanho;
+
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Entrada cabeca = it.next().getValue();
+            if (cabeca.expiraEm() <= agora) {
+                expiradas.increment();
+            } else if (bytes > limiteBytes) {
+                descartadas.increment();
+            } else {
+                break;
+            }
+            it.remove();
+            bytes -= cabeca.tamanho();
+        }
+    }
+
+    /** Remove as entradas vencidas; chamado periodicamente para devolver memória sem tráfego. */
+    public synchronized int expurgarExpiradas() {
+        long agora = relogioMillis.getAsLong();
+        int removidas = 0;
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (it.hasNext()) {
+            Entrada cabeca = it.next();
+            if (cabeca.expiraEm() > agora) {
+                break;
+            }
+            it.remove();
+            bytes -= cabeca.tamanho();
+            removidas++;
+        }
+        expiradas.add(removidas);
+        return removidas;
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    public long expiradas() {
+        return expiradas.sum();
+    }
+
+    /** Entradas descartadas antes do TTL por causa do limite de memória. */
+    public long descartadas() {
+        return descartadas.sum();
+    }
+}
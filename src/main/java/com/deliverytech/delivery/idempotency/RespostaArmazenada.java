@@ -0,0 +1,47 @@
+package com.deliverytech.delivery.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Primeira resposta dada a uma chave de idempotência, repetida byte a byte
+ * nas novas tentativas. {@code impressao} é o hash de método, URI e corpo da
+ * requisição original: a mesma chave com outro conteúdo é rejeitada.
+ */
+public record RespostaArmazenada(int status, String contentType, String location, String impressao, byte[] corpo) {
+
+    private static final int SOBRECARGA_BYTES = 128;
+
+    /** Estimativa de memória ocupada, usada no limite do armazém local. */
+    public long tamanhoBytes() {
+        return SOBRECARGA_BYTES + corpo.length
+                + 2L * (impressao.length() + comprimento(contentType) + comprimento(location));
+    }
+
+    /** Formato de uma linha por campo, corpo em Base64, para o tier Redis. */
+    public String codificar() {
+        return status + "\n" + valorOuVazio(contentType) + "\n" + valorOuVazio(location) + "\n"
+                + impressao + "\n" + Base64.getEncoder().encodeToString(corpo);
+    }
+
+    public static RespostaArmazenada decodificar(String valor) {
+        String[] partes = valor.split("\n", -1);
+        if (partes.length != 5) {
+            throw new IllegalArgumentException("Resposta idempotente corrompida");
+        }
+        return new RespostaArmazenada(Integer.parseInt(partes[0]), vazioOuNulo(partes[1]), vazioOuNulo(partes[2]),
+                partes[3], Base64.getDecoder().decode(partes[4].getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static int comprimento(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    private static String valorOuVazio(String s) {
+        return s == null ? "" : s;
+    }
+
+    private static String vazioOuNulo(String s) {
+        return s.isEmpty() ? null : s;
+    }
+}
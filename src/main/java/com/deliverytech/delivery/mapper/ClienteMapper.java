@@ -0,0 +1,15 @@
+package com.deliverytech.delivery.mapper;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+
+import com.deliverytech.delivery.dto.response.ClienteResponse;
+import com.deliverytech.delivery.model.Cliente;
+
+@Mapper(config = MapeamentoConfig.class)
+public interface ClienteMapper {
+    ClienteResponse paraResponse(Cliente cliente);
+
+    List<ClienteResponse> paraResponse(List<Cliente> clientes);
+}
@@ -0,0 +1,12 @@
+package com.deliverytech.delivery.mapper;
+
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Configuração comum dos mappers gerados pelo MapStruct. Campo novo em um DTO
+ * de resposta sem origem mapeada quebra a compilação, em vez de sair nulo.
+ */
+@MapperConfig(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface MapeamentoConfig {
+}
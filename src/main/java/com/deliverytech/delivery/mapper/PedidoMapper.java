@@ -0,0 +1,25 @@
+package com.deliverytech.delivery.mapper;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.deliverytech.delivery.dto.response.ItemPedidoResponse;
+import com.deliverytech.delivery.dto.response.PedidoResponse;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Pedido;
+
+@Mapper(config = MapeamentoConfig.class)
+public interface PedidoMapper {
+    @Mapping(target = "clienteId", source = "cliente.id")
+    @Mapping(target = "restauranteId", source = "restaurante.id")
+    PedidoResponse paraResponse(Pedido pedido);
+
+    List<PedidoResponse> paraResponse(List<Pedido> pedidos);
+
+    // Pedido.itens vira List<ItemPedidoResponse> num laço pré-dimensionado, sem streams
+    @Mapping(target = "produtoId", source = "produto.id")
+    @Mapping(target = "nomeProduto", source = "produto.nome")
+    ItemPedidoResponse paraResponse(ItemPedido item);
+}
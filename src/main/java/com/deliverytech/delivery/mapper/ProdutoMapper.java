@@ -0,0 +1,15 @@
+package com.deliverytech.delivery.mapper;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+
+import com.deliverytech.delivery.dto.response.ProdutoResponse;
+import com.deliverytech.delivery.model.Produto;
+
+@Mapper(config = MapeamentoConfig.class)
+public interface ProdutoMapper {
+    ProdutoResponse paraResponse(Produto produto);
+
+    List<ProdutoResponse> paraResponse(List<Produto> produtos);
+}
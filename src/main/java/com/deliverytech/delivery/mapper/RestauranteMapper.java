@@ -0,0 +1,15 @@
+package com.deliverytech.delivery.mapper;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+
+import com.deliverytech.delivery.dto.response.RestauranteResponse;
+import com.deliverytech.delivery.model.Restaurante;
+
+@Mapper(config = MapeamentoConfig.class)
+public interface RestauranteMapper {
+    RestauranteResponse paraResponse(Restaurante restaurante);
+
+    List<RestauranteResponse> paraResponse(List<Restaurante> restaurantes);
+}
@@ -0,0 +1,61 @@
+package com.deliverytech.delivery.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.deliverytech.delivery.id.IdSnowflake;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Campanha {
+    @Id
+    @IdSnowflake
+    private Long id;
+
+    private String nome;
+
+    // Escopo: campos nulos valem para qualquer restaurante/categoria/produto
+    private Long restauranteId;
+    private String categoria;
+    private Long produtoId;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    private CoorteCliente coorte = CoorteCliente.TODOS;
+
+    private String cupom;
+
+    @Enumerated(EnumType.STRING)
+    private TipoDesconto tipoDesconto;
+
+    // Percentual (ex.: 15.00) ou valor fixo por unidade em Reais
+    private BigDecimal valor;
+
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+
+    @Builder.Default
+    private Boolean ativo = true;
+
+    private LocalDateTime atualizadoEm;
+
+    @PrePersist
+    @PreUpdate
+    void marcarAtualizacao() {
+        atualizadoEm = LocalDateTime.now();
+    }
+}
@@ -2,6 +2,8 @@ package com.deliverytech.delivery.model;
 
 import java.time.LocalDateTime;
 
+import com.deliverytech.delivery.id.IdSnowflake;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -19,7 +21,7 @@ import lombok.NoArgsConstructor;
 @Table(name = "clientes")
 public class Cliente {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdSnowflake
     private Long id;
 
     @NotBlank(message = "Nome é obrigatório")
@@ -40,4 +42,7 @@ public class Cliente {
 
     @Builder.Default
     private LocalDateTime dataCriacao = LocalDateTime.now();
+
+    @Embedded
+    private Endereco endereco;
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.deliverytech.delivery.model;
+
+public enum CoorteCliente {
+    TODOS,
+    NOVOS,
+    RECORRENTES
+}
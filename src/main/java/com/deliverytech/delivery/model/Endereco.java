@@ -10,7 +10,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Endereco {
     private String rua;
     private String numero;
@@ -18,4 +18,6 @@ public class Endereco {
     private String cidade;
     private String estado;
     private String cep;
+    private Double latitude;
+    private Double longitude;
 }
@@ -4,50 +4,70 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.deliverytech.delivery.id.IdSnowflake;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Pedido {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdSnowflake
+    @EqualsAndHashCode.Include
     private Long id;
 
-    @ManyToOne
+    // Lazy: as respostas só usam os IDs, que o proxy já tem sem ir ao banco
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id")
+    @ToString.Exclude
     private Cliente cliente;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "restaurante_id")
+    @ToString.Exclude
     private Restaurante restaurante;
     private BigDecimal total;
 
+    @Builder.Default
+    private BigDecimal desconto = BigDecimal.ZERO;
+
     @Enumerated(EnumType.STRING)
     private StatusPedido status;
 
+    // Guarda da descarga do write-behind: só grava sobre instantes anteriores ao da mudança
+    private LocalDateTime statusAtualizadoEm;
+
     @Builder.Default
     private LocalDateTime dataPedido = LocalDateTime.now();
     
     @OneToMany(mappedBy = "pedido", cascade = CascadeType.ALL)
+    @ToString.Exclude
     private List<ItemPedido> itens;
     
     @Embedded
     private Endereco enderecoEntrega;
+
+    private Long entregadorId;
 }
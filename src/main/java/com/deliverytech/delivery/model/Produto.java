@@ -2,25 +2,32 @@ package com.deliverytech.delivery.model;
 
 import java.math.BigDecimal;
 
+import com.deliverytech.delivery.id.IdSnowflake;
+
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Produto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdSnowflake
+    @EqualsAndHashCode.Include
     private Long id;
     private String nome;
     private String categoria;
@@ -32,5 +39,6 @@ public class Produto {
 
     @ManyToOne
     @JoinColumn(name = "restaurante_id")
+    @ToString.Exclude
     private Restaurante restaurante;
 }
@@ -3,25 +3,32 @@ package com.deliverytech.delivery.model;
 import java.math.BigDecimal;
 import java.util.List;
 
+import com.deliverytech.delivery.id.IdSnowflake;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Restaurante {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdSnowflake
+    @EqualsAndHashCode.Include
     private Long id;
 
     private String nome;
@@ -29,10 +36,14 @@ public class Restaurante {
     private String telefone;
     private BigDecimal taxaEntrega;
     private int tempoEntregaMinutos;
+
+    private Double latitude;
+    private Double longitude;
     
     @Builder.Default
     private Boolean ativo = true;
     
     @OneToMany(mappedBy = "restaurante", cascade = CascadeType.ALL)
+    @ToString.Exclude
     private List<Produto> produtos;
 }
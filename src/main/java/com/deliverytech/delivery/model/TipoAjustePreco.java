@@ -0,0 +1,6 @@
+package com.deliverytech.delivery.model;
+
+public enum TipoAjustePreco {
+    PERCENTUAL,
+    VALOR
+}
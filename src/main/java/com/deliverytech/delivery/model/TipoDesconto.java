@@ -0,0 +1,6 @@
+package com.deliverytech.delivery.model;
+
+public enum TipoDesconto {
+    PERCENTUAL,
+    VALOR_FIXO
+}
@@ -0,0 +1,158 @@
+package com.deliverytech.delivery.pricing;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matriz de taxas (centavos) por restaurante x faixa de horário x zona, em um
+ * mapa de endereçamento aberto com chaves {@code long}. Leituras são lock-free
+ * sobre um snapshot imutável; escritas (raras) copiam o snapshot, e a carga
+ * inicial monta um snapshot só com todas as linhas.
+ *
+ * <p>Cada linha guarda a versão do catálogo do restaurante de quando foi
+ * calculada, para o serviço perceber alterações feitas em outro nó.
+ */
+public final class TabelaTaxasEntrega {
+
+    public static final int NAO_ATENDE = -1;
+    public static final int NAO_CALCULADO = Integer.MIN_VALUE;
+    public static final long SEM_VERSAO = Long.MIN_VALUE;
+
+    private static final long VAZIO = Long.MIN_VALUE;
+
+    private final int zonas;
+    private volatile Snapshot snapshot = new Snapshot(16);
+
+    public TabelaTaxasEntrega(int zonas) {
+        this.zonas = zonas;
+    }
+
+    public int taxaCentavos(long restauranteId, int faixa, int zona) {
+        if (zona < 0) {
+            return NAO_ATENDE;
+        }
+        int[] matriz = snapshot.get(restauranteId);
+        return matriz == null ? NAO_CALCULADO : matriz[faixa * zonas + zona];
+    }
+
+    public boolean contem(long restauranteId) {
+        return snapshot.get(restauranteId) != null;
+    }
+
+    /** Versão do catálogo com que a linha foi calculada, ou {@link #SEM_VERSAO}. */
+    public long versao(long restauranteId) {
+        Snapshot atual = snapshot;
+        int i = atual.posicao(restauranteId);
+        return i < 0 ? SEM_VERSAO : atual.versoes[i];
+    }
+
+    public int tamanho() {
+        return snapshot.tamanho;
+    }
+
+    public synchronized void atualizar(long restauranteId, long versao, int[] matriz) {
+        Snapshot atual = snapshot;
+        boolean novo = atual.get(restauranteId) == null;
+        int capacidade = atual.chaves.length;
+        if (novo && (atual.tamanho + 1) * 4 > capacidade * 3) {
+            capacidade *= 2;
+        }
+        Snapshot copia = atual.copiar(capacidade, VAZIO);
+        copia.put(restauranteId, versao, matriz);
+        snapshot = copia;
+    }
+
+    /** Troca a tabela inteira de uma vez, sem uma cópia por linha. */
+    public synchronized void substituir(List<Linha> linhas) {
+        Snapshot novo = new Snapshot(capacidadePara(linhas.size()));
+        for (Linha linha : linhas) {
+            novo.put(linha.restauranteId(), linha.versao(), linha.matriz());
+        }
+        snapshot = novo;
+    }
+
+    public synchronized void remover(long restauranteId) {
+        Snapshot atual = snapshot;
+        if (atual.get(restauranteId) != null) {
+            snapshot = atual.copiar(atual.chaves.length, restauranteId);
+        }
+    }
+
+    // Potência de dois com ocupação de no máximo 3/4
+    private static int capacidadePara(int linhas) {
+        int capacidade = 16;
+        while (linhas * 4 > capacidade * 3) {
+            capacidade *= 2;
+        }
+        return capacidade;
+    }
+
+    public record Linha(long restauranteId, long versao, int[] matriz) {
+    }
+
+    private static final class Snapshot {
+        final long[] chaves;
+        final int[][] valores;
+        final long[] versoes;
+        int tamanho;
+
+        Snapshot(int capacidade) {
+            chaves = new long[capacidade];
+            valores = new int[capacidade][];
+            versoes = new long[capacidade];
+            Arrays.fill(chaves, VAZIO);
+        }
+
+        int[] get(long chave) {
+            int i = posicao(chave);
+            return i < 0 ? null : valores[i];
+        }
+
+        int posicao(long chave) {
+            int mascara = chaves.length - 1;
+            for (int i = indice(chave, mascara); ; i = (i + 1) & mascara) {
+                long k = chaves[i];
+                if (k == chave) {
+                    return i;
+                }
+                if (k == VAZIO) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long chave, long versao, int[] valor) {
+            int mascara = chaves.length - 1;
+            for (int i = indice(chave, mascara); ; i = (i + 1) & mascara) {
+                if (chaves[i] == chave) {
+                    valores[i] = valor;
+                    versoes[i] = versao;
+                    return;
+                }
+                if (chaves[i] == VAZIO) {
+                    chaves[i] = chave;
+                    valores[i] = valor;
+                    versoes[i] = versao;
+                    tamanho++;
+                    return;
+                }
+            }
+        }
+
+        // Reinsere tudo (exceto a chave ignorada) para não deixar lápides no endereçamento aberto
+        Snapshot copiar(int capacidade, long ignorar) {
+            Snapshot copia = new Snapshot(capacidade);
+            for (int i = 0; i < chaves.length; i++) {
+                if (chaves[i] != VAZIO && chaves[i] != ignorar) {
+                    copia.put(chaves[i], versoes[i], valores[i]);
+                }
+            }
+            return copia;
+        }
+
+        private static int indice(long chave, int mascara) {
+            long h = chave * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.deliverytech.delivery.pricing;
+
+import java.util.Arrays;
+
+/**
+ * Zonas de entrega identificadas pelos 3 primeiros dígitos do CEP, cada uma
+ * com um centróide. Prefixos sem centróide conhecido não têm zona.
+ */
+public final class ZonasCep {
+
+    public static final int PREFIXOS = 1000;
+    public static final int SEM_ZONA = -1;
+
+    private final short[] zonaPorPrefixo = new short[PREFIXOS];
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    public ZonasCep(int[] prefixos, double[] latitudes, double[] longitudes) {
+        Arrays.fill(zonaPorPrefixo, (short) SEM_ZONA);
+        for (int i = 0; i < prefixos.length; i++) {
+            zonaPorPrefixo[prefixos[i]] = (short) i;
+        }
+        this.latitudes = latitudes.clone();
+        this.longitudes = longitudes.clone();
+    }
+
+    public int quantidade() {
+        return latitudes.length;
+    }
+
+    public int zona(int prefixo) {
+        return prefixo < 0 || prefixo >= PREFIXOS ? SEM_ZONA : zonaPorPrefixo[prefixo];
+    }
+
+    public double latitude(int zona) {
+        return latitudes[zona];
+    }
+
+    public double longitude(int zona) {
+        return longitudes[zona];
+    }
+
+    /**
+     * Prefixo de zona (3 primeiros dígitos) de um CEP com ou sem máscara,
+     * ou -1 se o CEP não tiver 8 dígitos.
+     */
+    public static int prefixo(String cep) {
+        if (cep == null) {
+            return -1;
+        }
+        int digitos = 0;
+        int prefixo = 0;
+        for (int i = 0; i < cep.length(); i++) {
+            char c = cep.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digitos < 3) {
+                    prefixo = prefixo * 10 + (c - '0');
+                }
+                digitos++;
+            } else if (c != '-' && c != '.' && c != ' ') {
+                return -1;
+            }
+        }
+        return digitos == 8 ? prefixo : -1;
+    }
+}
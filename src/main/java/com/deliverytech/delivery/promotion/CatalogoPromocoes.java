@@ -0,0 +1,163 @@
+package com.deliverytech.delivery.promotion;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.deliverytech.delivery.model.Campanha;
+import com.deliverytech.delivery.model.CoorteCliente;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.TipoDesconto;
+
+/**
+ * Snapshot imutável das campanhas ativas, indexado pelo escopo mais específico
+ * de cada regra (produto, restaurante, categoria ou cupom). Avaliar um pedido
+ * consulta só os poucos buckets que podem casar com cada item, sem percorrer
+ * todas as campanhas. Itens não acumulam descontos: vale o maior.
+ */
+public final class CatalogoPromocoes {
+
+    private static final RegraPromocao[] NENHUMA = new RegraPromocao[0];
+
+    public static final CatalogoPromocoes VAZIO = compilar(List.of(), ZoneId.systemDefault());
+
+    private final Map<Long, RegraPromocao[]> porProduto;
+    private final Map<Long, RegraPromocao[]> porRestaurante;
+    private final Map<String, RegraPromocao[]> porCategoria;
+    private final Map<String, RegraPromocao[]> porCupom;
+    private final RegraPromocao[] globais;
+    private final int tamanho;
+
+    private CatalogoPromocoes(Map<Long, RegraPromocao[]> porProduto, Map<Long, RegraPromocao[]> porRestaurante,
+            Map<String, RegraPromocao[]> porCategoria, Map<String, RegraPromocao[]> porCupom,
+            RegraPromocao[] globais, int tamanho) {
+        this.porProduto = porProduto;
+        this.porRestaurante = porRestaurante;
+        this.porCategoria = porCategoria;
+        this.porCupom = porCupom;
+        this.globais = globais;
+        this.tamanho = tamanho;
+    }
+
+    public static CatalogoPromocoes compilar(List<Campanha> campanhas, ZoneId zona) {
+        Map<Long, List<RegraPromocao>> porProduto = new HashMap<>();
+        Map<Long, List<RegraPromocao>> porRestaurante = new HashMap<>();
+        Map<String, List<RegraPromocao>> porCategoria = new HashMap<>();
+        Map<String, List<RegraPromocao>> porCupom = new HashMap<>();
+        List<RegraPromocao> globais = new ArrayList<>();
+        int tamanho = 0;
+
+        for (Campanha c : campanhas) {
+            if (!Boolean.TRUE.equals(c.getAtivo()) || c.getTipoDesconto() == null || c.getValor() == null) {
+                continue;
+            }
+            RegraPromocao regra = compilar(c, zona);
+            tamanho++;
+            if (c.getCupom() != null && !c.getCupom().isBlank()) {
+                porCupom.computeIfAbsent(normalizarCupom(c.getCupom()), k -> new ArrayList<>()).add(regra);
+            } else if (c.getProdutoId() != null) {
+                porProduto.computeIfAbsent(c.getProdutoId(), k -> new ArrayList<>()).add(regra);
+            } else if (c.getRestauranteId() != null) {
+                porRestaurante.computeIfAbsent(c.getRestauranteId(), k -> new ArrayList<>()).add(regra);
+            } else if (c.getCategoria() != null) {
+                porCategoria.computeIfAbsent(c.getCategoria().toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                        .add(regra);
+            } else {
+                globais.add(regra);
+            }
+        }
+        return new CatalogoPromocoes(congelar(porProduto), congelar(porRestaurante), congelar(porCategoria),
+                congelar(porCupom), globais.toArray(NENHUMA), tamanho);
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Soma, em centavos, do melhor desconto aplicável a cada item do pedido.
+     */
+    public long descontoCentavos(Long restauranteId, CoorteCliente coorte, String cupom, long agoraMillis,
+            List<ItemPedido> itens) {
+        RegraPromocao[] regrasCupom = cupom == null ? NENHUMA : porCupom.getOrDefault(normalizarCupom(cupom), NENHUMA);
+        RegraPromocao[] regrasRestaurante = porRestaurante.getOrDefault(restauranteId, NENHUMA);
+
+        long total = 0;
+        for (int i = 0, n = itens.size(); i < n; i++) {
+            ItemPedido item = itens.get(i);
+            Produto produto = item.getProduto();
+            Long idProduto = produto.getId();
+            long produtoId = idProduto == null ? RegraPromocao.QUALQUER : idProduto;
+            String categoria = produto.getCategoria();
+            long preco = centavos(item.getPrecoUnitario());
+            int quantidade = item.getQuantidade();
+
+            long melhor = 0;
+            melhor = melhor(porProduto.getOrDefault(idProduto, NENHUMA), restauranteId, categoria, produtoId,
+                    coorte, agoraMillis, preco, quantidade, melhor);
+            melhor = melhor(regrasRestaurante, restauranteId, categoria, produtoId,
+                    coorte, agoraMillis, preco, quantidade, melhor);
+            if (categoria != null && !porCategoria.isEmpty()) {
+                melhor = melhor(porCategoria.getOrDefault(categoria.toLowerCase(Locale.ROOT), NENHUMA),
+                        restauranteId, categoria, produtoId, coorte, agoraMillis, preco, quantidade, melhor);
+            }
+            melhor = melhor(globais, restauranteId, categoria, produtoId,
+                    coorte, agoraMillis, preco, quantidade, melhor);
+            melhor = melhor(regrasCupom, restauranteId, categoria, produtoId,
+                    coorte, agoraMillis, preco, quantidade, melhor);
+            total += Math.min(melhor, preco * quantidade);
+        }
+        return total;
+    }
+
+    private static long melhor(RegraPromocao[] regras, long restauranteId, String categoria, long produtoId,
+            CoorteCliente coorte, long agoraMillis, long preco, int quantidade, long atual) {
+        for (RegraPromocao regra : regras) {
+            if (regra.aplica(restauranteId, categoria, produtoId, coorte, agoraMillis)) {
+                atual = Math.max(atual, regra.descontoCentavos(preco, quantidade));
+            }
+        }
+        return atual;
+    }
+
+    private static RegraPromocao compilar(Campanha c, ZoneId zona) {
+        boolean percentual = c.getTipoDesconto() == TipoDesconto.PERCENTUAL;
+        // Percentual vira pontos-base (15.00 -> 1500); valor fixo vira centavos
+        long valor = c.getValor().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        return new RegraPromocao(
+                c.getId() == null ? 0 : c.getId(),
+                c.getRestauranteId() == null ? RegraPromocao.QUALQUER : c.getRestauranteId(),
+                c.getCategoria(),
+                c.getProdutoId() == null ? RegraPromocao.QUALQUER : c.getProdutoId(),
+                c.getCoorte() == null ? CoorteCliente.TODOS : c.getCoorte(),
+                percentual,
+                valor,
+                millis(c.getInicio(), zona, Long.MIN_VALUE),
+                millis(c.getFim(), zona, Long.MAX_VALUE));
+    }
+
+    private static long millis(LocalDateTime data, ZoneId zona, long padrao) {
+        return data == null ? padrao : data.atZone(zona).toInstant().toEpochMilli();
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor == null ? 0 : valor.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static String normalizarCupom(String cupom) {
+        return cupom.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static <K> Map<K, RegraPromocao[]> congelar(Map<K, List<RegraPromocao>> origem) {
+        Map<K, RegraPromocao[]> destino = new HashMap<>(Math.max(16, origem.size() * 4 / 3 + 1));
+        origem.forEach((k, v) -> destino.put(k, v.toArray(NENHUMA)));
+        return destino;
+    }
+}
@@ -0,0 +1,50 @@
+package com.deliverytech.delivery.promotion;
+
+import com.deliverytech.delivery.model.CoorteCliente;
+
+/**
+ * Forma compilada de uma {@code Campanha}: valores já convertidos para
+ * centavos / pontos-base e janela de vigência em epoch millis.
+ */
+final class RegraPromocao {
+    static final long QUALQUER = -1L;
+
+    final long campanhaId;
+    final long restauranteId;
+    final String categoria;
+    final long produtoId;
+    final CoorteCliente coorte;
+    final boolean percentual;
+    // Pontos-base (1500 = 15%) quando percentual, senão centavos por unidade
+    final long valor;
+    final long inicioMillis;
+    final long fimMillis;
+
+    RegraPromocao(long campanhaId, long restauranteId, String categoria, long produtoId, CoorteCliente coorte,
+            boolean percentual, long valor, long inicioMillis, long fimMillis) {
+        this.campanhaId = campanhaId;
+        this.restauranteId = restauranteId;
+        this.categoria = categoria;
+        this.produtoId = produtoId;
+        this.coorte = coorte;
+        this.percentual = percentual;
+        this.valor = valor;
+        this.inicioMillis = inicioMillis;
+        this.fimMillis = fimMillis;
+    }
+
+    boolean aplica(long restauranteId, String categoria, long produtoId, CoorteCliente coorte, long agoraMillis) {
+        return agoraMillis >= inicioMillis && agoraMillis < fimMillis
+                && (this.restauranteId == QUALQUER || this.restauranteId == restauranteId)
+                && (this.produtoId == QUALQUER || this.produtoId == produtoId)
+                && (this.categoria == null || this.categoria.equalsIgnoreCase(categoria))
+                && (this.coorte == CoorteCliente.TODOS || this.coorte == coorte);
+    }
+
+    long descontoCentavos(long precoCentavos, int quantidade) {
+        long desconto = percentual
+                ? precoCentavos * valor / 10_000
+                : Math.min(valor, precoCentavos);
+        return desconto * quantidade;
+    }
+}
@@ -0,0 +1,72 @@
+package com.deliverytech.delivery.ratelimit;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador em memória, uma {@link TabelaBaldes} por política. Com várias
+ * instâncias cada uma aplica o limite sozinha; use {@link LimitadorRedis}
+ * quando o limite tiver de valer para o cluster.
+ *
+ * <p>Se a janela da tabela estiver cheia a requisição passa (fail-open) e
+ * {@link #semEspaco()} é incrementado: melhor deixar passar um cliente do que
+ * derrubar todos por falta de slots.
+ */
+public class LimitadorLocal implements LimitadorTaxa {
+
+    private final TabelaBaldes[] tabelas;
+    private final LongSupplier relogioMillis;
+    private final LongAdder semEspaco = new LongAdder();
+
+    public LimitadorLocal(List<PoliticaLimite> politicas, int listras, int slotsPorListra, long ociosidadeMillis) {
+        this(politicas, listras, slotsPorListra, ociosidadeMillis, relogioMonotonico());
+    }
+
+    public LimitadorLocal(List<PoliticaLimite> politicas, int listras, int slotsPorListra, long ociosidadeMillis,
+            LongSupplier relogioMillis) {
+        this.tabelas = new TabelaBaldes[politicas.size()];
+        for (PoliticaLimite politica : politicas) {
+            tabelas[politica.indice()] = new TabelaBaldes(politica, listras, slotsPorListra, ociosidadeMillis);
+        }
+        this.relogioMillis = relogioMillis;
+    }
+
+    @Override
+    public long consumir(PoliticaLimite politica, long chave) {
+        long restante = tabelas[politica.indice()].consumir(chave, relogioMillis.getAsLong());
+        if (restante == TabelaBaldes.SEM_ESPACO) {
+            semEspaco.increment();
+            return politica.capacidade();
+        }
+        return restante;
+    }
+
+    @Override
+    public int expurgar() {
+        long agora = relogioMillis.getAsLong();
+        int liberados = 0;
+        for (TabelaBaldes tabela : tabelas) {
+            liberados += tabela.expurgarOciosos(agora);
+        }
+        return liberados;
+    }
+
+    public long semEspaco() {
+        return semEspaco.sum();
+    }
+
+    public int baldesAtivos() {
+        int total = 0;
+        for (TabelaBaldes tabela : tabelas) {
+            total += tabela.ocupados();
+        }
+        return total;
+    }
+
+    // Começa em 1: instante 0 marca balde nunca usado
+    private static LongSupplier relogioMonotonico() {
+        long base = System.nanoTime();
+        return () -> (System.nanoTime() - base) / 1_000_000 + 1;
+    }
+}
@@ -0,0 +1,55 @@
+package com.deliverytech.delivery.ratelimit;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite compartilhado pelo cluster. Antes de ir ao Redis consulta um
+ * {@link LimitadorLocal} com a mesma política: se esta instância sozinha já
+ * estourou o balde, o global também estourou e a negação sai sem rede. Só
+ * as requisições que passam localmente pagam a ida ao Redis.
+ *
+ * <p>Falha no Redis não derruba a API: a decisão local vale e
+ * {@link #falhas()} é incrementado.
+ */
+public class LimitadorRedis implements LimitadorTaxa {
+
+    private final LimitadorLocal local;
+    private final ScriptBaldes script;
+    private final String prefixo;
+    private final LongAdder falhas = new LongAdder();
+
+    public LimitadorRedis(LimitadorLocal local, ScriptBaldes script, String prefixo) {
+        this.local = local;
+        this.script = script;
+        this.prefixo = prefixo;
+    }
+
+    @Override
+    public long consumir(PoliticaLimite politica, long chave) {
+        long restanteLocal = local.consumir(politica, chave);
+        if (restanteLocal < 0) {
+            return restanteLocal;
+        }
+        try {
+            return script.consumir(prefixo + politica.indice() + ':' + Long.toHexString(chave),
+                    politica.capacidade() * 1000L, politica.reposicaoMilliPorSegundo(),
+                    politica.tempoRecargaMillis());
+        } catch (RuntimeException e) {
+            falhas.increment();
+            return restanteLocal;
+        }
+    }
+
+    @Override
+    public int expurgar() {
+        return local.expurgar();
+    }
+
+    public LimitadorLocal local() {
+        return local;
+    }
+
+    public long falhas() {
+        return falhas.sum();
+    }
+}
@@ -0,0 +1,19 @@
+package com.deliverytech.delivery.ratelimit;
+
+/**
+ * Decide se uma requisição do cliente {@code chave} cabe na política. O
+ * retorno é primitivo para que o caminho quente não aloque.
+ */
+public interface LimitadorTaxa {
+
+    /**
+     * @return tokens restantes (&gt;= 0) se permitido, ou o negativo dos ms
+     *         até o próximo token se negado
+     */
+    long consumir(PoliticaLimite politica, long chave);
+
+    /** Manutenção periódica (baldes ociosos); retorna quantos foram liberados. */
+    default int expurgar() {
+        return 0;
+    }
+}
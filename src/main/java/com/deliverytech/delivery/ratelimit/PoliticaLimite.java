@@ -0,0 +1,79 @@
+package com.deliverytech.delivery.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Balde de tokens associado a uma rota: {@code capacidade} requisições de
+ * rajada, repostas a {@code reposicaoPorSegundo} por segundo.
+ *
+ * <p>O padrão aceita caminho exato ({@code /api/pedidos}) ou prefixo com
+ * {@code /**} ({@code /api/produtos/**}); método {@code *} casa qualquer um.
+ * A comparação é feita caractere a caractere, sem alocar.
+ */
+public record PoliticaLimite(int indice, String metodo, String padrao, int capacidade, double reposicaoPorSegundo) {
+
+    /** Limite imposto pelos 24 bits de mili-tokens do estado empacotado. */
+    public static final int CAPACIDADE_MAXIMA = 16_000;
+
+    public PoliticaLimite {
+        if (capacidade < 1 || capacidade > CAPACIDADE_MAXIMA) {
+            throw new IllegalArgumentException("Capacidade deve estar entre 1 e " + CAPACIDADE_MAXIMA + ": " + capacidade);
+        }
+        if (!(reposicaoPorSegundo >= 0.001)) {
+            throw new IllegalArgumentException("Reposição mínima é 0.001 token/s: " + reposicaoPorSegundo);
+        }
+    }
+
+    public String nome() {
+        return metodo + " " + padrao;
+    }
+
+    /** Mili-tokens repostos por segundo; a aritmética interna é toda inteira. */
+    long reposicaoMilliPorSegundo() {
+        return Math.round(reposicaoPorSegundo * 1000);
+    }
+
+    /** Tempo para encher o balde vazio; ocioso por mais que isso equivale a cheio. */
+    long tempoRecargaMillis() {
+        return (long) Math.ceil(capacidade * 1000.0 / reposicaoPorSegundo);
+    }
+
+    public boolean corresponde(String metodoRequisicao, String uri) {
+        if (!"*".equals(metodo) && !metodo.equalsIgnoreCase(metodoRequisicao)) {
+            return false;
+        }
+        if (padrao.endsWith("/**")) {
+            int prefixo = padrao.length() - 3;
+            return uri.regionMatches(0, padrao, 0, prefixo)
+                    && (uri.length() == prefixo || uri.charAt(prefixo) == '/');
+        }
+        return uri.equals(padrao);
+    }
+
+    /**
+     * Lê {@code delivery.rate-limit.politicas}: entradas separadas por
+     * {@code ;}, cada uma "MÉTODO padrão capacidade reposição/s", por exemplo
+     * {@code POST /api/pedidos 10 1;GET /api/produtos/** 100 20}. A primeira
+     * política que casar com a requisição vence.
+     */
+    public static List<PoliticaLimite> parse(String definicao) {
+        List<PoliticaLimite> politicas = new ArrayList<>();
+        if (definicao == null || definicao.isBlank()) {
+            return politicas;
+        }
+        for (String entrada : definicao.split(";")) {
+            if (entrada.isBlank()) {
+                continue;
+            }
+            String[] partes = entrada.trim().split("\\s+");
+            if (partes.length != 4) {
+                throw new IllegalArgumentException("Política de limite inválida: '" + entrada.trim()
+                        + "' (esperado: MÉTODO padrão capacidade reposição)");
+            }
+            politicas.add(new PoliticaLimite(politicas.size(), partes[0].toUpperCase(), partes[1],
+                    Integer.parseInt(partes[2]), Double.parseDouble(partes[3])));
+        }
+        return politicas;
+    }
+}
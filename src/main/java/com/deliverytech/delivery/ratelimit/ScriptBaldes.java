@@ -0,0 +1,12 @@
+package com.deliverytech.delivery.ratelimit;
+
+/**
+ * Operação atômica de balde de tokens num armazenamento compartilhado. Mesma
+ * semântica de retorno de {@link LimitadorTaxa#consumir}. Em produção é o
+ * script Lua de {@link ScriptBaldesRedis}; os testes usam um substituto em
+ * memória.
+ */
+public interface ScriptBaldes {
+
+    long consumir(String chave, long capacidadeMilli, long reposicaoMilliPorSegundo, long ttlMillis);
+}
@@ -0,0 +1,58 @@
+package com.deliverytech.delivery.ratelimit;
+
+import java.util.List;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Balde de tokens num hash Redis ({@code t} = mili-tokens, {@code ts} =
+ * instante em ms), atualizado por um script Lua para que leitura, reposição e
+ * retirada sejam uma única operação atômica no servidor. O relógio é o
+ * {@code TIME} do Redis, então instâncias com relógios diferentes concordam.
+ */
+public class ScriptBaldesRedis implements ScriptBaldes {
+
+    private static final RedisScript<Long> SCRIPT = new DefaultRedisScript<>("""
+            local cap = tonumber(ARGV[1])
+            local taxa = tonumber(ARGV[2])
+            local t = redis.call('TIME')
+            local agora = t[1] * 1000 + math.floor(t[2] / 1000)
+            local b = redis.call('HMGET', KEYS[1], 't', 'ts')
+            local tokens = tonumber(b[1])
+            local ts = tonumber(b[2])
+            if tokens == nil then
+              tokens = cap
+              ts = agora
+            end
+            local ganho = math.floor((agora - ts) * taxa / 1000)
+            if ganho > 0 then
+              tokens = math.min(cap, tokens + ganho)
+              ts = agora
+            end
+            if tokens < 1000 then
+              return -(math.floor((1000 - tokens) * 1000 / taxa) + 1)
+            end
+            tokens = tokens - 1000
+            redis.call('HSET', KEYS[1], 't', tokens, 'ts', ts)
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return math.floor(tokens / 1000)
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+
+    public ScriptBaldesRedis(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public long consumir(String chave, long capacidadeMilli, long reposicaoMilliPorSegundo, long ttlMillis) {
+        Long resultado = redis.execute(SCRIPT, List.of(chave),
+                Long.toString(capacidadeMilli), Long.toString(reposicaoMilliPorSegundo), Long.toString(ttlMillis));
+        if (resultado == null) {
+            throw new IllegalStateException("Script de limite sem resposta para " + chave);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,163 @@
+package com.deliverytech.delivery.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Baldes de tokens de uma política, em tabela de endereçamento aberto sem
+ * locks. Cada cliente ocupa um slot: a chave (hash de 64 bits) num
+ * {@link AtomicLongArray} e o estado empacotado noutro, com o instante da
+ * última reposição nos 40 bits altos e os mili-tokens nos 24 baixos. Consumir
+ * é um laço de CAS sobre um único long, sem alocação.
+ *
+ * <p>A tabela é dividida em listras; a chave escolhe a listra e a janela de
+ * {@value #JANELA} slots dentro dela, de modo que a sondagem fica numa mesma
+ * região da memória. Um balde ocioso por mais que o tempo de recarga está,
+ * por definição, cheio, então o slot pode ser reaproveitado por outra chave
+ * sem tocar no estado; {@link #expurgarOciosos(long)} só libera as chaves.
+ *
+ * <p>Duas threads inserindo a mesma chave nova ao mesmo tempo podem ocupar
+ * dois slots; o cliente ganha no máximo uma rajada extra, aceitável para
+ * limitação de taxa.
+ */
+public class TabelaBaldes {
+
+    /** Retorno de {@link #consumir} quando não há slot livre na janela. */
+    public static final long SEM_ESPACO = Long.MIN_VALUE;
+
+    static final int JANELA = 8;
+    private static final int BITS_TOKENS = 24;
+    private static final long MASCARA_TOKENS = (1L << BITS_TOKENS) - 1;
+    private static final long UM_TOKEN = 1000;
+    private static final long VAZIO = 0;
+
+    private final AtomicLongArray chaves;
+    private final AtomicLongArray estados;
+    private final int slotsPorListra;
+    private final int mascaraListra;
+    private final int mascaraSlot;
+    private final int bitsSlot;
+
+    private final long capacidadeMilli;
+    private final long reposicaoMilliPorSegundo;
+    private final long ociosidadeMillis;
+
+    public TabelaBaldes(PoliticaLimite politica, int listras, int slotsPorListra, long ociosidadeMillis) {
+        if (Integer.bitCount(listras) != 1 || Integer.bitCount(slotsPorListra) != 1 || slotsPorListra < JANELA) {
+            throw new IllegalArgumentException("Listras e slots por listra devem ser potências de 2 (slots >= " + JANELA + ")");
+        }
+        this.chaves = new AtomicLongArray(listras * slotsPorListra);
+        this.estados = new AtomicLongArray(listras * slotsPorListra);
+        this.slotsPorListra = slotsPorListra;
+        this.mascaraListra = listras - 1;
+        this.mascaraSlot = slotsPorListra - 1;
+        this.bitsSlot = Integer.numberOfTrailingZeros(slotsPorListra);
+        this.capacidadeMilli = politica.capacidade() * UM_TOKEN;
+        this.reposicaoMilliPorSegundo = politica.reposicaoMilliPorSegundo();
+        this.ociosidadeMillis = Math.max(ociosidadeMillis, politica.tempoRecargaMillis());
+    }
+
+    /**
+     * Tenta retirar um token do balde de {@code chave}.
+     *
+     * @param agoraMillis relógio monotônico em ms, maior que zero e menor que 2^40
+     * @return tokens restantes (&gt;= 0) se permitido; o negativo dos ms até o
+     *         próximo token se negado; {@link #SEM_ESPACO} se a janela estiver cheia
+     */
+    public long consumir(long chave, long agoraMillis) {
+        long h = misturar(chave);
+        long k = h == VAZIO ? 1 : h;
+        int inicio = (int) (h >>> 40 & mascaraListra) << bitsSlot;
+        int desloc = (int) h & mascaraSlot;
+
+        for (int tentativa = 0; tentativa < 2; tentativa++) {
+            int candidato = -1;
+            long chaveCandidato = VAZIO;
+            for (int j = 0; j < JANELA; j++) {
+                int i = inicio + (desloc + j & mascaraSlot);
+                long atual = chaves.get(i);
+                if (atual == k) {
+                    return retirar(i, agoraMillis);
+                }
+                if (candidato < 0 && (atual == VAZIO || ocioso(estados.get(i), agoraMillis))) {
+                    candidato = i;
+                    chaveCandidato = atual;
+                }
+            }
+            if (candidato < 0) {
+                return SEM_ESPACO;
+            }
+            if (chaves.compareAndSet(candidato, chaveCandidato, k)) {
+                return retirar(candidato, agoraMillis);
+            }
+        }
+        return SEM_ESPACO;
+    }
+
+    private long retirar(int i, long agoraMillis) {
+        while (true) {
+            long estado = estados.get(i);
+            long instante = estado >>> BITS_TOKENS;
+            long tokens;
+            long novoInstante;
+            if (instante == 0) {
+                tokens = capacidadeMilli;
+                novoInstante = agoraMillis;
+            } else {
+                long decorrido = Math.min(agoraMillis - instante, ociosidadeMillis);
+                long ganho = decorrido > 0 ? decorrido * reposicaoMilliPorSegundo / 1000 : 0;
+                // Sem ganho o instante fica parado, senão frações se perdem a cada chamada
+                tokens = Math.min(capacidadeMilli, (estado & MASCARA_TOKENS) + ganho);
+                novoInstante = ganho > 0 ? agoraMillis : instante;
+            }
+            if (tokens < UM_TOKEN) {
+                return -((UM_TOKEN - tokens) * 1000 / reposicaoMilliPorSegundo + 1);
+            }
+            long novo = novoInstante << BITS_TOKENS | (tokens - UM_TOKEN);
+            if (estados.compareAndSet(i, estado, novo)) {
+                return (tokens - UM_TOKEN) / UM_TOKEN;
+            }
+        }
+    }
+
+    private boolean ocioso(long estado, long agoraMillis) {
+        long instante = estado >>> BITS_TOKENS;
+        return instante == 0 || agoraMillis - instante >= ociosidadeMillis;
+    }
+
+    /** Libera as chaves de baldes ociosos; retorna quantos slots foram liberados. */
+    public int expurgarOciosos(long agoraMillis) {
+        int liberados = 0;
+        for (int i = 0; i < chaves.length(); i++) {
+            long chave = chaves.get(i);
+            if (chave != VAZIO && ocioso(estados.get(i), agoraMillis) && chaves.compareAndSet(i, chave, VAZIO)) {
+                liberados++;
+            }
+        }
+        return liberados;
+    }
+
+    /** Slots ocupados; varre a tabela, use só para métricas. */
+    public int ocupados() {
+        int total = 0;
+        for (int i = 0; i < chaves.length(); i++) {
+            if (chaves.get(i) != VAZIO) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    public int capacidadeSlots() {
+        return chaves.length();
+    }
+
+    // Finalizador do MurmurHash3: espalha chaves sequenciais (IDs) pelas listras
+    private static long misturar(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,127 @@
+package com.deliverytech.delivery.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Data source das transações somente leitura: distribui as conexões entre as
+ * réplicas saudáveis em rodízio. Uma réplica que falha ao entregar conexão
+ * sai do rodízio na hora e só volta quando {@link #verificarSaude()} a
+ * encontrar respondendo. Sem réplica saudável, ou com
+ * {@link ConsistenciaLeitura#primarioObrigatorio()}, a leitura vai ao primário.
+ */
+public class BalanceadorReplicas extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceadorReplicas.class);
+    private static final int TIMEOUT_VALIDACAO_S = 2;
+
+    private static final class Replica {
+        final String nome;
+        final DataSource dataSource;
+        volatile boolean saudavel = true;
+
+        Replica(String nome, DataSource dataSource) {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primario;
+    private final Replica[] replicas;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final AtomicLong leiturasReplica = new AtomicLong();
+    private final AtomicLong leiturasPrimario = new AtomicLong();
+    private final AtomicLong ejecoes = new AtomicLong();
+
+    public BalanceadorReplicas(DataSource primario, List<DataSource> replicas, List<String> nomes) {
+        this.primario = primario;
+        this.replicas = new Replica[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas[i] = new Replica(nomes.get(i), replicas.get(i));
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ConsistenciaLeitura.primarioObrigatorio()) {
+            int n = replicas.length;
+            int inicio = Math.floorMod(proxima.getAndIncrement(), Math.max(n, 1));
+            for (int i = 0; i < n; i++) {
+                Replica replica = replicas[(inicio + i) % n];
+                if (!replica.saudavel) {
+                    continue;
+                }
+                try {
+                    Connection conexao = replica.dataSource.getConnection();
+                    leiturasReplica.incrementAndGet();
+                    return conexao;
+                } catch (SQLException e) {
+                    ejetar(replica, e);
+                }
+            }
+        }
+        leiturasPrimario.incrementAndGet();
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Credenciais vêm da configuração de cada réplica");
+    }
+
+    /** Valida todas as réplicas; as que responderem voltam ao rodízio. */
+    public void verificarSaude() {
+        for (Replica replica : replicas) {
+            try (Connection conexao = replica.dataSource.getConnection()) {
+                if (!conexao.isValid(TIMEOUT_VALIDACAO_S)) {
+                    throw new SQLException("Conexão inválida");
+                }
+                if (!replica.saudavel) {
+                    log.info("Réplica {} de volta ao rodízio", replica.nome);
+                    replica.saudavel = true;
+                }
+            } catch (SQLException e) {
+                ejetar(replica, e);
+            }
+        }
+    }
+
+    private void ejetar(Replica replica, SQLException causa) {
+        if (replica.saudavel) {
+            replica.saudavel = false;
+            ejecoes.incrementAndGet();
+            log.warn("Réplica {} fora do rodízio: {}", replica.nome, causa.getMessage());
+        }
+    }
+
+    public int saudaveis() {
+        int total = 0;
+        for (Replica replica : replicas) {
+            if (replica.saudavel) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    public long leiturasReplica() {
+        return leiturasReplica.get();
+    }
+
+    public long leiturasPrimario() {
+        return leiturasPrimario.get();
+    }
+
+    public long ejecoes() {
+        return ejecoes.get();
+    }
+}
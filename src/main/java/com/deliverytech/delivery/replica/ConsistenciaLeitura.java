@@ -0,0 +1,26 @@
+package com.deliverytech.delivery.replica;
+
+/**
+ * Marca, para a thread da requisição, que as leituras precisam ir ao
+ * primário: o cliente acabou de escrever e a réplica pode ainda não ter o
+ * dado. Ligado e desligado pelo {@link ConsistenciaLeituraFilter}.
+ */
+public final class ConsistenciaLeitura {
+
+    private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+
+    private ConsistenciaLeitura() {
+    }
+
+    public static boolean primarioObrigatorio() {
+        return Boolean.TRUE.equals(PRIMARIO.get());
+    }
+
+    static void exigirPrimario() {
+        PRIMARIO.set(Boolean.TRUE);
+    }
+
+    static void limpar() {
+        PRIMARIO.remove();
+    }
+}
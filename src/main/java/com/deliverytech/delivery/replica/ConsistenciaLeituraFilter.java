@@ -0,0 +1,65 @@
+package com.deliverytech.delivery.replica;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Leitura das próprias escritas, por adesão do cliente. Toda requisição de
+ * escrita devolve {@value #CABECALHO} com o instante em que começou; o
+ * cliente que reenviar esse valor nas leituras seguintes é atendido pelo
+ * primário enquanto o token for mais novo que {@code janelaMillis} (o atraso
+ * máximo tolerado das réplicas mais a duração de uma escrita). Clientes que
+ * não mandam o token leem das réplicas normalmente.
+ */
+public class ConsistenciaLeituraFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "X-Consistency-Token";
+    private static final long TOLERANCIA_RELOGIO_MS = 1000;
+
+    private final long janelaMillis;
+
+    public ConsistenciaLeituraFilter(long janelaMillis) {
+        this.janelaMillis = janelaMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long agora = System.currentTimeMillis();
+        if (!seguro(request.getMethod())) {
+            response.setHeader(CABECALHO, Long.toString(agora));
+        }
+        if (recente(request.getHeader(CABECALHO), agora)) {
+            ConsistenciaLeitura.exigirPrimario();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ConsistenciaLeitura.limpar();
+        }
+    }
+
+    private boolean recente(String token, long agora) {
+        if (token == null) {
+            return false;
+        }
+        long escrita;
+        try {
+            escrita = Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        // Token do futuro é forjado ou de relógio torto: não prende o cliente no primário
+        return escrita <= agora + TOLERANCIA_RELOGIO_MS && agora - escrita < janelaMillis;
+    }
+
+    private static boolean seguro(String metodo) {
+        return "GET".equals(metodo) || "HEAD".equals(metodo) || "OPTIONS".equals(metodo);
+    }
+}
@@ -0,0 +1,19 @@
+package com.deliverytech.delivery.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.deliverytech.delivery.model.Campanha;
+
+public interface CampanhaRepository extends JpaRepository<Campanha, Long> {
+    @Query("select c from Campanha c where c.ativo = true and (c.fim is null or c.fim > :referencia)")
+    List<Campanha> findVigentes(@Param("referencia") LocalDateTime referencia);
+
+    // Assinatura barata do conjunto de campanhas para decidir se é preciso recompilar
+    @Query("select count(c), max(c.atualizadoEm) from Campanha c")
+    List<Object[]> versao();
+}
@@ -1,16 +1,78 @@
 package com.deliverytech.delivery.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.deliverytech.delivery.model.Pedido;
 import com.deliverytech.delivery.model.StatusPedido;
 
 public interface PedidoRepository extends JpaRepository<Pedido, Long>{
-    List<Pedido> findByClienteId(Long clienteId);
-    List<Pedido> findByRestauranteId(Long restauranteId);
+    // JPQL explícito: o método derivado junta a tabela do pai e filtra pelo ID dela, o que dispensa o índice da FK
+    @Query("select p from Pedido p where p.cliente.id = :clienteId")
+    List<Pedido> findByClienteId(@Param("clienteId") Long clienteId);
+
+    @Query("select p from Pedido p where p.restaurante.id = :restauranteId")
+    List<Pedido> findByRestauranteId(@Param("restauranteId") Long restauranteId);
     List<Pedido> findByStatus(StatusPedido status);
     List<Pedido> findByDataPedidoBetween(LocalDateTime inicio, LocalDateTime fim);
+
+    interface VolumeRestaurante {
+        Long getRestauranteId();
+        Long getPedidos();
+    }
+
+    @Query("select p.restaurante.id as restauranteId, count(p) as pedidos from Pedido p "
+            + "where p.dataPedido >= :desde group by p.restaurante.id order by count(p) desc")
+    List<VolumeRestaurante> contarPorRestauranteDesde(@Param("desde") LocalDateTime desde);
+
+    // Despacho: a fila vive em memória e é refeita no boot com o que ficou sem entregador
+    @Query("select p from Pedido p join fetch p.restaurante where p.status = :status and p.entregadorId is null")
+    List<Pedido> buscarSemEntregador(@Param("status") StatusPedido status);
+
+    @Query("select p from Pedido p join fetch p.restaurante where p.id in :ids and p.entregadorId is null")
+    List<Pedido> buscarSemEntregador(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("update Pedido p set p.entregadorId = :entregadorId where p.id in :pedidoIds")
+    int atribuirEntregador(@Param("pedidoIds") List<Long> pedidoIds, @Param("entregadorId") Long entregadorId);
+
+    // Arquivamento: cursor por ID, então cada lote retoma de onde o anterior parou
+    @Query("select p.id from Pedido p where p.status in :status and p.dataPedido < :antesDe and p.id > :depoisDe order by p.id")
+    List<Long> idsParaArquivar(@Param("status") Collection<StatusPedido> status, @Param("antesDe") LocalDateTime antesDe,
+            @Param("depoisDe") Long depoisDe, Pageable lote);
+
+    // Com restaurante, itens e produtos: o que PedidoMapper lê depois que a transação fecha (open-in-view desligado)
+    @Query("select distinct p from Pedido p left join fetch p.restaurante left join fetch p.itens i left join fetch i.produto "
+            + "where p.id in :ids")
+    List<Pedido> buscarComItens(@Param("ids") Collection<Long> ids);
+
+    // Históricos ordenados, para a intercalação entre shards (índices (cliente_id, data_pedido desc) e (restaurante_id, ...))
+    @Query("select distinct p from Pedido p left join fetch p.restaurante left join fetch p.itens i left join fetch i.produto "
+            + "where p.cliente.id = :clienteId order by p.dataPedido desc")
+    List<Pedido> buscarComItensPorCliente(@Param("clienteId") Long clienteId);
+
+    @Query("select distinct p from Pedido p left join fetch p.restaurante left join fetch p.itens i left join fetch i.produto "
+            + "where p.restaurante.id = :restauranteId order by p.dataPedido desc")
+    List<Pedido> buscarComItensPorRestaurante(@Param("restauranteId") Long restauranteId);
+
+    @Query("select distinct p from Pedido p left join fetch p.restaurante left join fetch p.itens i left join fetch i.produto "
+            + "order by p.dataPedido desc")
+    List<Pedido> buscarTodosComItens();
+
+    @Modifying
+    @Query("delete from ItemPedido i where i.pedido.id in :ids")
+    int excluirItens(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Pedido p where p.id in :ids")
+    int excluirPorIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,13 +1,50 @@
 package com.deliverytech.delivery.repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import com.deliverytech.delivery.model.Produto;
 
 public interface ProdutoRepository extends JpaRepository<Produto, Long>{
+    // JPQL explícito: o método derivado junta a tabela restaurante e filtra pelo ID dela, o que dispensa o índice da FK
+    @Query("select p from Produto p where p.restaurante.id = :restauranteId")
     List<Produto> findByRestauranteId(Long restauranteId);
     List<Produto> findByDisponivelTrue();
     List<Produto> findByCategoria(String categoria);
+
+    // Operações em lote: um UPDATE por chamada, sempre restrito ao restaurante.
+    // Linhas que já estão no valor pedido não contam como afetadas.
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Produto p set p.disponivel = :disponivel "
+            + "where p.restaurante.id = :restauranteId and p.id in :ids and p.disponivel <> :disponivel")
+    int alterarDisponibilidadePorIds(Long restauranteId, List<Long> ids, boolean disponivel);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Produto p set p.disponivel = :disponivel "
+            + "where p.restaurante.id = :restauranteId and lower(p.categoria) = lower(:categoria) and p.disponivel <> :disponivel")
+    int alterarDisponibilidadePorCategoria(Long restauranteId, String categoria, boolean disponivel);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Produto p set p.disponivel = :disponivel "
+            + "where p.restaurante.id = :restauranteId and p.disponivel <> :disponivel "
+            + "and (lower(p.nome) like :padrao escape '!' or lower(p.descricao) like :padrao escape '!')")
+    int alterarDisponibilidadePorTrecho(Long restauranteId, String padrao, boolean disponivel);
+
+    // Reduções param em precoMinimo em vez de pular o produto: todo o cardápio selecionado é reajustado
+    @Modifying(clearAutomatically = true)
+    @Query("update Produto p set p.preco = greatest(round(p.preco * :fator, 2), :precoMinimo) "
+            + "where p.restaurante.id = :restauranteId and (:categoria is null or lower(p.categoria) = lower(:categoria)) "
+            + "and p.preco <> greatest(round(p.preco * :fator, 2), :precoMinimo)")
+    int reajustarPrecoPercentual(Long restauranteId, String categoria, BigDecimal fator, BigDecimal precoMinimo);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Produto p set p.preco = greatest(p.preco + :delta, :precoMinimo) "
+            + "where p.restaurante.id = :restauranteId and (:categoria is null or lower(p.categoria) = lower(:categoria)) "
+            + "and p.preco <> greatest(p.preco + :delta, :precoMinimo)")
+    int reajustarPrecoValor(Long restauranteId, String categoria, BigDecimal delta, BigDecimal precoMinimo);
 }
@@ -1,6 +1,7 @@
 package com.deliverytech.delivery.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.deliverytech.delivery.model.Restaurante;
 import java.util.List;
@@ -10,5 +11,8 @@ import java.util.Optional;
 public interface RestauranteRepository extends JpaRepository<Restaurante, Long>{
     List<Restaurante> findByCategoria(String categoria);
     List<Restaurante> findByAtivoTrue(); 
+
+    @Query("select r.id from Restaurante r where r.ativo = true")
+    List<Long> findIdsAtivos();
     Optional<Restaurante> findByNome(String nome); 
 }
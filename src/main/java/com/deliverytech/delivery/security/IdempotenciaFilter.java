@@ -0,0 +1,341 @@
+package com.deliverytech.delivery.security;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.deliverytech.delivery.idempotency.ArmazemIdempotencia;
+import com.deliverytech.delivery.idempotency.RespostaArmazenada;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Suporte a {@code Idempotency-Key} nas rotas configuradas. A primeira
+ * resposta (status &lt; 500) é guardada e repetida nas novas tentativas com a
+ * mesma chave; requisições simultâneas com a mesma chave esperam a primeira
+ * terminar em vez de chegar ao serviço. Erros 5xx não ficam guardados para
+ * que o cliente possa tentar de novo.
+ *
+ * <p>A chave é escopada pelo usuário autenticado (ou IP), por isso o filtro
+ * roda depois do {@link JwtAuthenticationFilter}. O corpo é lido inteiro para
+ * a impressão digital, até {@code corpoMaximo} bytes; acima disso a resposta
+ * é 413.
+ */
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private record Rota(String metodo, PathPattern padrao) {
+    }
+
+    private final ArmazemIdempotencia armazem;
+    private final List<Rota> rotas;
+    private final long esperaMillis;
+    private final int corpoMaximo;
+    private final ConcurrentHashMap<String, CompletableFuture<RespostaArmazenada>> emAndamento = new ConcurrentHashMap<>();
+
+    private final Counter repetidas;
+    private final Counter agrupadas;
+    private final Counter conflitos;
+
+    public IdempotenciaFilter(ArmazemIdempotencia armazem, String rotas, long esperaMillis, int corpoMaximo,
+            MeterRegistry registry) {
+        this.armazem = armazem;
+        this.rotas = parseRotas(rotas);
+        this.esperaMillis = esperaMillis;
+        this.corpoMaximo = corpoMaximo;
+        this.repetidas = Counter.builder("idempotencia.respostas.repetidas")
+                .description("Novas tentativas respondidas com a resposta guardada")
+                .register(registry);
+        this.agrupadas = Counter.builder("idempotencia.requisicoes.agrupadas")
+                .description("Duplicatas simultâneas que esperaram a primeira em vez de executar")
+                .register(registry);
+        this.conflitos = Counter.builder("idempotencia.conflitos")
+                .description("Chaves reutilizadas com outro conteúdo ou ainda em processamento")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(CABECALHO) == null) {
+            return true;
+        }
+        PathContainer caminho = PathContainer.parsePath(request.getRequestURI());
+        for (Rota rota : rotas) {
+            if (rota.metodo().equalsIgnoreCase(request.getMethod()) && rota.padrao().matches(caminho)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest request,
+            @org.springframework.lang.NonNull HttpServletResponse response,
+            @org.springframework.lang.NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String chaveCliente = request.getHeader(CABECALHO).trim();
+        if (chaveCliente.isEmpty() || chaveCliente.length() > TAMANHO_MAXIMO_CHAVE) {
+            erro(response, HttpStatus.BAD_REQUEST, "IDEMPOTENCY_KEY_INVALID",
+                    "Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+            return;
+        }
+
+        // Content-Length recusa cedo; a leitura limitada cobre o corpo em chunks
+        byte[] corpo = request.getContentLengthLong() > corpoMaximo ? null
+                : request.getInputStream().readNBytes(corpoMaximo + 1);
+        if (corpo == null || corpo.length > corpoMaximo) {
+            erro(response, HttpStatus.PAYLOAD_TOO_LARGE, "IDEMPOTENT_BODY_TOO_LARGE",
+                    "Corpo acima de " + corpoMaximo + " bytes numa rota com Idempotency-Key");
+            return;
+        }
+        String impressao = impressao(request, corpo);
+        String chave = escopo(request) + ":" + chaveCliente;
+
+        RespostaArmazenada guardada = armazem.buscar(chave);
+        if (guardada != null) {
+            repetir(response, guardada, impressao);
+            return;
+        }
+
+        CompletableFuture<RespostaArmazenada> minha = new CompletableFuture<>();
+        CompletableFuture<RespostaArmazenada> outra = emAndamento.putIfAbsent(chave, minha);
+        if (outra != null) {
+            agrupadas.increment();
+            aguardar(response, outra, impressao);
+            return;
+        }
+
+        try {
+            // Outra requisição pode ter terminado entre a busca e o putIfAbsent
+            guardada = armazem.buscar(chave);
+            if (guardada != null) {
+                minha.complete(guardada);
+                repetir(response, guardada, impressao);
+                return;
+            }
+            if (!armazem.reservar(chave)) {
+                minha.complete(null);
+                conflitos.increment();
+                erro(response, HttpStatus.CONFLICT, "IDEMPOTENCY_KEY_IN_USE",
+                        "Requisição com esta Idempotency-Key ainda em processamento");
+                return;
+            }
+            try {
+                // Outra instância pode ter salvo e liberado a chave entre a busca e a reserva
+                guardada = armazem.buscar(chave);
+                if (guardada != null) {
+                    minha.complete(guardada);
+                    repetir(response, guardada, impressao);
+                    return;
+                }
+                ContentCachingResponseWrapper capturada = new ContentCachingResponseWrapper(response);
+                filterChain.doFilter(new CorpoRelido(request, corpo), capturada);
+                RespostaArmazenada resposta = new RespostaArmazenada(capturada.getStatus(),
+                        capturada.getContentType(), capturada.getHeader(HttpHeaders.LOCATION), impressao,
+                        capturada.getContentAsByteArray());
+                if (resposta.status() < 500) {
+                    armazem.salvar(chave, resposta);
+                }
+                minha.complete(resposta);
+                capturada.copyBodyToResponse();
+            } finally {
+                armazem.liberar(chave);
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            minha.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, minha);
+        }
+    }
+
+    private void aguardar(HttpServletResponse response, CompletableFuture<RespostaArmazenada> outra, String impressao)
+            throws IOException {
+        try {
+            RespostaArmazenada resposta = outra.get(esperaMillis, TimeUnit.MILLISECONDS);
+            if (resposta != null) {
+                repetir(response, resposta, impressao);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // A original falhou ou demorou: o cliente tenta de novo
+        }
+        conflitos.increment();
+        erro(response, HttpStatus.CONFLICT, "IDEMPOTENCY_KEY_IN_USE",
+                "Requisição com esta Idempotency-Key ainda em processamento");
+    }
+
+    private void repetir(HttpServletResponse response, RespostaArmazenada resposta, String impressao) throws IOException {
+        if (!resposta.impressao().equals(impressao)) {
+            conflitos.increment();
+            erro(response, HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED",
+                    "Idempotency-Key já usada com outro conteúdo");
+            return;
+        }
+        repetidas.increment();
+        response.setStatus(resposta.status());
+        if (resposta.contentType() != null) {
+            response.setContentType(resposta.contentType());
+        }
+        if (resposta.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, resposta.location());
+        }
+        response.setHeader(CABECALHO_REPETIDA, "true");
+        response.setContentLength(resposta.corpo().length);
+        response.getOutputStream().write(resposta.corpo());
+    }
+
+    private static String escopo(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "u:" + auth.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String impressao(HttpServletRequest request, byte[] corpo) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) ' ');
+            sha.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                sha.update((byte) '?');
+                sha.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            sha.update((byte) '\n');
+            sha.update(corpo);
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void erro(HttpServletResponse response, HttpStatus status, String codigo, String mensagem)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"" + mensagem + "\",\"errorCode\":\"" + codigo + "\"}");
+    }
+
+    /**
+     * Lê {@code delivery.idempotencia.rotas}: "MÉTODO padrão" separados por
+     * {@code ;}, com a sintaxe de {@link PathPattern} ({@code *}, {@code **}, {@code {id}}).
+     */
+    private static List<Rota> parseRotas(String definicao) {
+        List<Rota> rotas = new ArrayList<>();
+        for (String entrada : definicao.split(";")) {
+            if (entrada.isBlank()) {
+                continue;
+            }
+            String[] partes = entrada.trim().split("\\s+");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Rota idempotente inválida: '" + entrada.trim()
+                        + "' (esperado: MÉTODO padrão)");
+            }
+            rotas.add(new Rota(partes[0].toUpperCase(), PathPatternParser.defaultInstance.parse(partes[1])));
+        }
+        return rotas;
+    }
+
+    /** Reentrega o corpo já lido para o restante da cadeia. */
+    private static final class CorpoRelido extends HttpServletRequestWrapper {
+
+        private final byte[] corpo;
+
+        CorpoRelido(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return corpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return corpo.length;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.deliverytech.delivery.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.deliverytech.delivery.ratelimit.LimitadorTaxa;
+import com.deliverytech.delivery.ratelimit.PoliticaLimite;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limite de taxa por cliente. Roda depois do {@link JwtAuthenticationFilter}
+ * para usar o usuário autenticado como chave; sem autenticação a chave é o IP.
+ * A chave é um hash de 64 bits calculado sobre os caracteres, e a política é
+ * achada por varredura da lista configurada, então o caminho permitido não
+ * aloca nada. Só a resposta 429 monta strings.
+ */
+public class LimiteTaxaFilter extends OncePerRequestFilter {
+
+    private static final long SEMENTE_USUARIO = 0xcbf29ce484222325L;
+    private static final long SEMENTE_IP = 0x84222325cbf29ce4L;
+    private static final long PRIMO_FNV = 0x100000001b3L;
+
+    private final LimitadorTaxa limitador;
+    private final PoliticaLimite[] politicas;
+    private final Counter[] negados;
+
+    public LimiteTaxaFilter(LimitadorTaxa limitador, List<PoliticaLimite> politicas, MeterRegistry registry) {
+        this.limitador = limitador;
+        this.politicas = politicas.toArray(PoliticaLimite[]::new);
+        this.negados = new Counter[this.politicas.length];
+        for (PoliticaLimite politica : this.politicas) {
+            negados[politica.indice()] = Counter.builder("ratelimit.negados")
+                    .description("Requisições recusadas com 429 pelo limite de taxa")
+                    .tag("politica", politica.nome())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest request,
+            @org.springframework.lang.NonNull HttpServletResponse response,
+            @org.springframework.lang.NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        PoliticaLimite politica = politicaDe(request.getMethod(), request.getRequestURI());
+        if (politica == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long restante = limitador.consumir(politica, chaveCliente(request));
+        if (restante < 0) {
+            negados[politica.indice()].increment();
+            recusar(response, -restante);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private PoliticaLimite politicaDe(String metodo, String uri) {
+        for (PoliticaLimite politica : politicas) {
+            if (politica.corresponde(metodo, uri)) {
+                return politica;
+            }
+        }
+        return null;
+    }
+
+    private static long chaveCliente(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return hash(auth.getName(), SEMENTE_USUARIO);
+        }
+        return hash(request.getRemoteAddr(), SEMENTE_IP);
+    }
+
+    // FNV-1a sobre os chars: sem getBytes(), sem alocação
+    static long hash(String valor, long semente) {
+        long h = semente;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= PRIMO_FNV;
+        }
+        return h;
+    }
+
+    private static void recusar(HttpServletResponse response, long esperaMillis) throws IOException {
+        long segundos = Math.max(1, (esperaMillis + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":429,\"error\":\"Limite de requisições excedido\","
+                + "\"message\":\"Tente novamente em " + segundos + "s\",\"errorCode\":\"RATE_LIMIT\"}");
+    }
+}
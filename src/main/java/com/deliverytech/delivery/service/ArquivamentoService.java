@@ -0,0 +1,13 @@
+package com.deliverytech.delivery.service;
+
+public interface ArquivamentoService {
+
+    /**
+     * Move para o arquivo frio os pedidos ENTREGUE/CANCELADO mais antigos que
+     * a idade configurada, em lotes com pausa entre eles, até acabar ou
+     * estourar o orçamento de tempo. Cada lote é uma transação, então uma
+     * execução interrompida não deixa nada pela metade e a próxima continua
+     * do que sobrou. Retorna quantos pedidos foram arquivados.
+     */
+    int arquivar();
+}
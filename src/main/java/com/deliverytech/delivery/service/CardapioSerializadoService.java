@@ -0,0 +1,15 @@
+package com.deliverytech.delivery.service;
+
+import com.deliverytech.delivery.catalog.CardapioSerializado;
+
+public interface CardapioSerializadoService {
+
+    /**
+     * Cardápio serializado na versão atual do catálogo do restaurante. Num
+     * acerto não há mapeamento nem Jackson; numa falta a montagem roda na
+     * thread chamadora, agrupando requisições simultâneas do mesmo restaurante.
+     */
+    CardapioSerializado obter(Long restauranteId);
+
+    boolean brotliDisponivel();
+}
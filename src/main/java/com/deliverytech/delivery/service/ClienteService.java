@@ -1,62 +1,21 @@
 package com.deliverytech.delivery.service;
 
 import com.deliverytech.delivery.model.Cliente;
-import com.deliverytech.delivery.repository.ClienteRepository;
-import org.springframework.stereotype.Service;
-import lombok.RequiredArgsConstructor;
 
 import java.util.List;
 import java.util.Optional;
 
-@Service
-@RequiredArgsConstructor
-public class ClienteService {
-
-    private final ClienteRepository clienteRepository;
-
-    public List<Cliente> listarAtivos() {
-        return clienteRepository.findByAtivoTrue();
-    }
-
-    public Optional<Cliente> buscarPorId(Long id) {
-        return clienteRepository.findById(id);
-    }
-
-    public Cliente cadastrar(Cliente cliente) {
-        if (clienteRepository.existsByEmail(cliente.getEmail())) {
-            throw new RuntimeException("Email já cadastrado: " + cliente.getEmail());
-        }
-        return clienteRepository.save(cliente);
-    }
-
-    public Cliente atualizar(Long id, Cliente clienteAtualizado) {
-        return clienteRepository.findById(id)
-            .map(cliente -> {
-                if (!cliente.getEmail().equals(clienteAtualizado.getEmail()) &&
-                    clienteRepository.existsByEmail(clienteAtualizado.getEmail())) {
-                    throw new RuntimeException("Email já cadastrado: " + clienteAtualizado.getEmail());
-                }
-                cliente.setNome(clienteAtualizado.getNome());
-                cliente.setEmail(clienteAtualizado.getEmail());
-                cliente.setTelefone(clienteAtualizado.getTelefone());
-                return clienteRepository.save(cliente);
-            })
-            .orElseThrow(() -> new RuntimeException("Cliente não encontrado com id: " + id));
-    }
-
-    public void ativarDesativar(Long id) {
-        clienteRepository.findById(id)
-            .map(cliente -> {
-                cliente.setAtivo(cliente.getAtivo() == null ? false : !cliente.getAtivo());
-                return clienteRepository.save(cliente);
-            })
-            .orElseThrow(() -> new RuntimeException("Cliente não encontrado com id: " + id));
-    }
-
-    public void deletar(Long id) {
-        if (!clienteRepository.existsById(id)) {
-            throw new RuntimeException("Cliente não encontrado com id: " + id);
-        }
-        clienteRepository.deleteById(id);
-    }
-}
\ No newline at end of file
+public interface ClienteService {
+    List<Cliente> listarAtivos();
+
+    Optional<Cliente> buscarPorId(Long id);
+
+    Cliente cadastrar(Cliente cliente);
+
+    Cliente atualizar(Long id, Cliente clienteAtualizado);
+
+    void ativarDesativar(Long id);
+
+    void deletar(Long id);
+
+}
@@ -0,0 +1,19 @@
+package com.deliverytech.delivery.service;
+
+import java.util.List;
+
+import com.deliverytech.delivery.dto.response.ConsultaLoteResponse;
+import com.deliverytech.delivery.dto.response.ProdutoResponse;
+import com.deliverytech.delivery.dto.response.RestauranteResponse;
+
+public interface ConsultaLoteService {
+
+    /**
+     * Produtos pelos IDs: um MGET nos caches por ID, um findAllById para as
+     * faltas e um pipeline para regravá-las no cache. A resposta segue a ordem
+     * dos IDs pedidos e lista os que não existem.
+     */
+    ConsultaLoteResponse<ProdutoResponse> produtos(List<Long> ids);
+
+    ConsultaLoteResponse<RestauranteResponse> restaurantes(List<Long> ids);
+}
@@ -0,0 +1,17 @@
+package com.deliverytech.delivery.service;
+
+import com.deliverytech.delivery.model.Pedido;
+
+public interface DespachoService {
+    /** {@code email} é o do usuário autenticado, que precisa ser o próprio entregador. */
+    void atualizarLocalizacao(Long entregadorId, String email, double latitude, double longitude);
+
+    void marcarIndisponivel(Long entregadorId, String email);
+
+    boolean enfileirar(Pedido pedido);
+
+    int executarRodada();
+
+    /** Devolve à fila os pedidos enviados ainda sem entregador; usado no boot. */
+    int recarregarPendentes();
+}
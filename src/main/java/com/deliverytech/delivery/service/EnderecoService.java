@@ -0,0 +1,12 @@
+package com.deliverytech.delivery.service;
+
+import java.util.Optional;
+
+import com.deliverytech.delivery.model.Endereco;
+
+public interface EnderecoService {
+    // Valida o CEP e devolve uma cópia do endereço com grafia oficial e coordenadas; o recebido não muda
+    Endereco normalizar(Endereco endereco);
+
+    Optional<double[]> coordenadas(String cep);
+}
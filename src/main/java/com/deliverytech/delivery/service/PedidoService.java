@@ -3,18 +3,24 @@ package com.deliverytech.delivery.service;
 import java.util.List;
 import java.util.Optional;
 
+import com.deliverytech.delivery.dto.request.PedidoRequest;
 import com.deliverytech.delivery.model.Pedido;
 import com.deliverytech.delivery.model.StatusPedido;
 
 public interface PedidoService {
     Pedido criar(Pedido pedido);
+    Pedido criar(PedidoRequest request);
     Pedido atualizarStatus(Long id, StatusPedido status);
 
     Optional<Pedido> buscarPorId(Long id);
 
+    // Troca itens, endereço e cupom enquanto o pedido ainda está CRIADO; cliente e restaurante não mudam
+    Pedido atualizar(Long id, PedidoRequest request);
 
     void cancelar(Long id);
 
+    List<Pedido> listarTodos();
+
     List<Pedido> listarPorCliente(Long clienteId);
     List<Pedido> listarPorRestaurante(Long restauranteId);
 }
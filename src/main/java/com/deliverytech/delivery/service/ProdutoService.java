@@ -3,6 +3,8 @@ package com.deliverytech.delivery.service;
 import java.util.List;
 import java.util.Optional;
 
+import com.deliverytech.delivery.dto.request.AjustePrecoLoteRequest;
+import com.deliverytech.delivery.dto.request.DisponibilidadeLoteRequest;
 import com.deliverytech.delivery.model.Produto;
 
 public interface ProdutoService {
@@ -11,5 +13,13 @@ public interface ProdutoService {
     Optional<Produto> buscarPorId(Long id);
     void alterarDisponibilidade(Long id, boolean disponivel);
 
+    /** Um único UPDATE; retorna quantos produtos mudaram de fato. */
+    int alterarDisponibilidadeEmLote(Long restauranteId, DisponibilidadeLoteRequest request);
+
+    /** Um único UPDATE; produtos que ficariam abaixo do preço mínimo não são alterados. */
+    int reajustarPrecos(Long restauranteId, AjustePrecoLoteRequest request);
+
     List<Produto> buscarPorRestaurante(Long restaurante);
+
+    List<Produto> buscarPorIds(List<Long> ids);
 }
@@ -0,0 +1,16 @@
+package com.deliverytech.delivery.service;
+
+import java.math.BigDecimal;
+
+import com.deliverytech.delivery.model.Campanha;
+import com.deliverytech.delivery.model.Pedido;
+
+public interface PromocaoService {
+    BigDecimal calcularDesconto(Pedido pedido, String cupom);
+
+    Campanha cadastrar(Campanha campanha);
+
+    void desativar(Long id);
+
+    void recarregar();
+}
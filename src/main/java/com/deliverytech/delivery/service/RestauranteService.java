@@ -12,6 +12,8 @@ public interface RestauranteService {
 
     List<Restaurante> listarTodos();
 
+    List<Restaurante> buscarPorIds(List<Long> ids);
+
     List<Restaurante> buscarPorCategoria(String categoria);
 
     Restaurante atualizar(Long id, Restaurante restauranteAtualizado);
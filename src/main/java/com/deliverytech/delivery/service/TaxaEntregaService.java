@@ -0,0 +1,17 @@
+package com.deliverytech.delivery.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.deliverytech.delivery.model.Restaurante;
+
+public interface TaxaEntregaService {
+    Optional<BigDecimal> cotar(Long restauranteId, String cep);
+
+    // Valor nulo indica que o restaurante não entrega no CEP informado
+    Map<Long, BigDecimal> cotarLote(List<Long> restauranteIds, String cep);
+
+    void recalcular(Restaurante restaurante);
+}
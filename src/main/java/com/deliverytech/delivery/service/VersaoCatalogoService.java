@@ -0,0 +1,20 @@
+package com.deliverytech.delivery.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface VersaoCatalogoService {
+
+    /** Versão atual do catálogo (restaurante + cardápio) do restaurante. */
+    long versao(Long restauranteId);
+
+    /** Versões de vários restaurantes de uma vez (um MGET no modo redis). */
+    Map<Long, Long> versoes(Collection<Long> restauranteIds);
+
+    /**
+     * Marca o catálogo do restaurante como alterado. Dentro de uma transação
+     * o incremento só acontece depois do commit, para que nenhum leitor
+     * associe a versão nova a dados antigos.
+     */
+    void incrementar(Long restauranteId);
+}
@@ -0,0 +1,171 @@
+package com.deliverytech.delivery.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.deliverytech.delivery.archive.ArquivoPedidos;
+import com.deliverytech.delivery.archive.PedidoArquivado;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.StatusPedido;
+import com.deliverytech.delivery.repository.PedidoRepository;
+import com.deliverytech.delivery.service.ArquivamentoService;
+import com.deliverytech.delivery.sharding.ShardsPedidos;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Cada lote, numa única transação: seleciona IDs pelo cursor, carrega os
+ * pedidos com itens num SELECT, grava as fotografias comprimidas em
+ * {@code pedido_arquivado} e apaga {@code item_pedido} e {@code pedido}.
+ * Entre lotes dorme {@code pausa-ms} para não disputar I/O e locks com o
+ * tráfego. Duas instâncias rodando ao mesmo tempo não duplicam nada: a chave
+ * primária do arquivo derruba o lote da segunda, que para até a próxima
+ * execução.
+ */
+@Service
+public class ArquivamentoServiceImpl implements ArquivamentoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoServiceImpl.class);
+    private static final Set<StatusPedido> FINALIZADOS = EnumSet.of(StatusPedido.ENTREGUE, StatusPedido.CANCELADO);
+
+    private record Lote(long ultimoId, int arquivados) {
+    }
+
+    private final PedidoRepository pedidoRepository;
+    private final ArquivoPedidos arquivo;
+    private final ShardsPedidos shards;
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+    private final boolean habilitado;
+    private final Duration idadeMinima;
+    private final int tamanhoLote;
+    private final long pausaMs;
+    private final Duration orcamento;
+
+    private final Counter arquivados;
+    private final Timer duracaoLote;
+
+    public ArquivamentoServiceImpl(PedidoRepository pedidoRepository,
+            ArquivoPedidos arquivo,
+            ShardsPedidos shards,
+            MeterRegistry registry,
+            @Value("${delivery.arquivamento.habilitado:true}") boolean habilitado,
+            @Value("${delivery.arquivamento.idade-dias:90}") long idadeDias,
+            @Value("${delivery.arquivamento.lote:500}") int tamanhoLote,
+            @Value("${delivery.arquivamento.pausa-ms:200}") long pausaMs,
+            @Value("${delivery.arquivamento.orcamento-ms:900000}") long orcamentoMs) {
+        this.pedidoRepository = pedidoRepository;
+        this.arquivo = arquivo;
+        this.shards = shards;
+        this.habilitado = habilitado;
+        this.idadeMinima = Duration.ofDays(idadeDias);
+        this.tamanhoLote = tamanhoLote;
+        this.pausaMs = pausaMs;
+        this.orcamento = Duration.ofMillis(orcamentoMs);
+        this.arquivados = Counter.builder("delivery.arquivamento.pedidos")
+                .description("Pedidos movidos para o arquivo frio")
+                .register(registry);
+        this.duracaoLote = Timer.builder("delivery.arquivamento.lote")
+                .description("Tempo de um lote de arquivamento (seleção, gravação e exclusão)")
+                .register(registry);
+    }
+
+    @Override
+    @Scheduled(cron = "${delivery.arquivamento.cron:0 30 3 * * *}")
+    public int arquivar() {
+        if (!habilitado || !emExecucao.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            return executar();
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    // Um shard por vez, dividindo o mesmo orçamento: o arquivo de cada pedido fica no shard dele
+    private int executar() {
+        LocalDateTime antesDe = LocalDateTime.now().minus(idadeMinima);
+        long prazo = System.nanoTime() + orcamento.toNanos();
+        int total = 0;
+        for (String shard : shards.shards()) {
+            total += executar(shard, antesDe, prazo);
+        }
+        if (total > 0) {
+            log.info("Arquivamento: {} pedidos anteriores a {} movidos para o arquivo", total, antesDe);
+        }
+        return total;
+    }
+
+    private int executar(String shard, LocalDateTime antesDe, long prazo) {
+        long cursor = 0;
+        int total = 0;
+        while (System.nanoTime() < prazo) {
+            Lote lote;
+            try {
+                long depoisDe = cursor;
+                lote = duracaoLote.record(() -> shards.noShard(shard, false, () -> arquivarLote(antesDe, depoisDe)));
+            } catch (DataAccessException e) {
+                log.warn("Lote de arquivamento em '{}' após o pedido {} falhou; retoma na próxima execução: {}",
+                        shard, cursor, e.getMessage());
+                break;
+            }
+            if (lote == null) {
+                break;
+            }
+            cursor = lote.ultimoId();
+            total += lote.arquivados();
+            if (!pausar()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /** Arquiva um lote; {@code null} quando não sobrou nada depois do cursor. */
+    private Lote arquivarLote(LocalDateTime antesDe, long depoisDe) {
+        List<Long> ids = pedidoRepository.idsParaArquivar(FINALIZADOS, antesDe, depoisDe, PageRequest.of(0, tamanhoLote));
+        if (ids.isEmpty()) {
+            return null;
+        }
+        List<Pedido> pedidos = pedidoRepository.buscarComItens(ids);
+        List<PedidoArquivado> fotografias = new ArrayList<>(pedidos.size());
+        for (Pedido pedido : pedidos) {
+            fotografias.add(PedidoArquivado.de(pedido));
+        }
+        arquivo.gravar(fotografias);
+        pedidoRepository.excluirItens(ids);
+        pedidoRepository.excluirPorIds(ids);
+        arquivados.increment(fotografias.size());
+        return new Lote(ids.get(ids.size() - 1), fotografias.size());
+    }
+
+    private boolean pausar() {
+        if (pausaMs <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(pausaMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
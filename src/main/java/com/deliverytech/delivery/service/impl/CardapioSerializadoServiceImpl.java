@@ -0,0 +1,214 @@
+package com.deliverytech.delivery.service.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Service;
+
+import com.deliverytech.delivery.catalog.CardapioSerializado;
+import com.deliverytech.delivery.catalog.CardapioSerializado.Representacao;
+import com.deliverytech.delivery.catalog.CatalogoAlteradoEvent;
+import com.deliverytech.delivery.catalog.Compressao;
+import com.deliverytech.delivery.dto.response.ProdutoResponse;
+import com.deliverytech.delivery.mapper.ProdutoMapper;
+import com.deliverytech.delivery.service.CardapioSerializadoService;
+import com.deliverytech.delivery.service.ProdutoService;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cache dos bytes finais do cardápio por restaurante. Uma entrada só é usada
+ * se a versão dela for a versão atual do catálogo, então nunca sai conteúdo
+ * velho sob um ETag novo. Quando o catálogo muda, entradas existentes são
+ * remontadas em segundo plano; restaurantes que ninguém consultou não ocupam
+ * memória.
+ *
+ * <p>Montagens simultâneas são agrupadas por restaurante e versão: quem leu
+ * uma versão mais nova não espera uma montagem que começou antes dela.
+ */
+@Service
+public class CardapioSerializadoServiceImpl implements CardapioSerializadoService {
+
+    private static final class Entrada {
+        final CardapioSerializado cardapio;
+        volatile long ultimoAcesso;
+
+        Entrada(CardapioSerializado cardapio) {
+            this.cardapio = cardapio;
+            this.ultimoAcesso = System.nanoTime();
+        }
+    }
+
+    private final ProdutoService produtoService;
+    private final ProdutoMapper produtoMapper;
+    private final VersaoCatalogoService versaoCatalogoService;
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final int maxRestaurantes;
+    private final ExecutorService remontagem;
+
+    private record Montagem(Long restauranteId, long versao) {
+    }
+
+    private final ConcurrentHashMap<Long, Entrada> entradas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Montagem, CompletableFuture<CardapioSerializado>> emMontagem = new ConcurrentHashMap<>();
+
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter remocoes;
+    private final Timer montagem;
+
+    public CardapioSerializadoServiceImpl(ProdutoService produtoService,
+            ProdutoMapper produtoMapper,
+            VersaoCatalogoService versaoCatalogoService,
+            ObjectMapper objectMapper,
+            MappingJackson2CborHttpMessageConverter cborHttpMessageConverter,
+            MeterRegistry registry,
+            @Value("${delivery.cardapio.cache.max-restaurantes:1000}") int maxRestaurantes,
+            @Value("${delivery.cardapio.cache.threads:2}") int threads) {
+        this.produtoService = produtoService;
+        this.produtoMapper = produtoMapper;
+        this.versaoCatalogoService = versaoCatalogoService;
+        this.json = objectMapper;
+        this.cbor = cborHttpMessageConverter.getObjectMapper();
+        this.maxRestaurantes = maxRestaurantes;
+        AtomicInteger sequencia = new AtomicInteger();
+        this.remontagem = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "cardapio-remontagem-" + sequencia.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.acertos = Counter.builder("cardapio.cache.acertos").register(registry);
+        this.faltas = Counter.builder("cardapio.cache.faltas")
+                .description("Leituras que precisaram serializar o cardápio na hora")
+                .register(registry);
+        this.remocoes = Counter.builder("cardapio.cache.remocoes")
+                .description("Cardápios removidos por exceder o limite de restaurantes")
+                .register(registry);
+        this.montagem = Timer.builder("cardapio.cache.montagem")
+                .description("Carga, serialização e compressão de um cardápio")
+                .register(registry);
+        Gauge.builder("cardapio.cache.bytes", entradas,
+                        m -> m.values().stream().mapToLong(e -> e.cardapio.tamanhoBytes()).sum())
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    public CardapioSerializado obter(Long restauranteId) {
+        long versao = versaoCatalogoService.versao(restauranteId);
+        Entrada entrada = entradas.get(restauranteId);
+        if (entrada != null && entrada.cardapio.versao() == versao) {
+            entrada.ultimoAcesso = System.nanoTime();
+            acertos.increment();
+            return entrada.cardapio;
+        }
+        faltas.increment();
+        try {
+            return montar(restauranteId, versao, Runnable::run).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : e;
+        }
+    }
+
+    @Override
+    public boolean brotliDisponivel() {
+        return Compressao.brotliDisponivel();
+    }
+
+    @EventListener
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        Long restauranteId = evento.restauranteId();
+        if (entradas.containsKey(restauranteId)) {
+            montar(restauranteId, versaoCatalogoService.versao(restauranteId), remontagem);
+        }
+    }
+
+    // A montagem lê a versão de novo antes dos produtos, então entrega no mínimo a versão da chave
+    private CompletableFuture<CardapioSerializado> montar(Long restauranteId, long versao, Executor onde) {
+        Montagem chave = new Montagem(restauranteId, versao);
+        CompletableFuture<CardapioSerializado> nova = new CompletableFuture<>();
+        CompletableFuture<CardapioSerializado> existente = emMontagem.putIfAbsent(chave, nova);
+        if (existente != null) {
+            return existente;
+        }
+        onde.execute(() -> {
+            CardapioSerializado cardapio = null;
+            RuntimeException erro = null;
+            try {
+                cardapio = montagem.record(() -> serializar(restauranteId));
+            } catch (RuntimeException e) {
+                erro = e;
+            }
+            // Sai do mapa antes de completar: quem acordar e montar de novo não reencontra esta
+            emMontagem.remove(chave, nova);
+            if (erro != null) {
+                nova.completeExceptionally(erro);
+            } else {
+                nova.complete(cardapio);
+            }
+        });
+        return nova;
+    }
+
+    private CardapioSerializado serializar(Long restauranteId) {
+        // Versão lida antes dos produtos: o conteúdo é no mínimo desta versão
+        long versao = versaoCatalogoService.versao(restauranteId);
+        List<ProdutoResponse> produtos = produtoMapper.paraResponse(produtoService.buscarPorRestaurante(restauranteId));
+        CardapioSerializado cardapio;
+        try {
+            cardapio = new CardapioSerializado(versao,
+                    representacao(json.writeValueAsBytes(produtos)),
+                    representacao(cbor.writeValueAsBytes(produtos)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o cardápio do restaurante " + restauranteId, e);
+        }
+        entradas.merge(restauranteId, new Entrada(cardapio),
+                (atual, nova) -> atual.cardapio.versao() > nova.cardapio.versao() ? atual : nova);
+        limitar();
+        return cardapio;
+    }
+
+    private static Representacao representacao(byte[] identidade) {
+        return new Representacao(identidade, Compressao.gzip(identidade), Compressao.brotli(identidade));
+    }
+
+    // Remove o acessado há mais tempo; varredura linear, só roda quando o limite estoura
+    private void limitar() {
+        while (entradas.size() > maxRestaurantes) {
+            Map.Entry<Long, Entrada> maisAntiga = null;
+            for (Map.Entry<Long, Entrada> e : entradas.entrySet()) {
+                if (maisAntiga == null || e.getValue().ultimoAcesso < maisAntiga.getValue().ultimoAcesso) {
+                    maisAntiga = e;
+                }
+            }
+            if (maisAntiga == null || !entradas.remove(maisAntiga.getKey(), maisAntiga.getValue())) {
+                return;
+            }
+            remocoes.increment();
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        remontagem.shutdownNow();
+    }
+}
@@ -4,10 +4,13 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.deliverytech.delivery.model.Cliente;
 import com.deliverytech.delivery.repository.ClienteRepository;
 import com.deliverytech.delivery.service.ClienteService;
+import com.deliverytech.delivery.service.EnderecoService;
+import com.deliverytech.delivery.sharding.ReplicacaoReferencias;
 
 import lombok.RequiredArgsConstructor;
 
@@ -15,37 +18,66 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ClienteServiceImpl implements ClienteService {
     private final ClienteRepository clienteRepository;
+    private final EnderecoService enderecoService;
+    private final ReplicacaoReferencias replicacaoReferencias;
 
     @Override
-    public Cliente cadastrar(Cliente cliente) {
-        return clienteRepository.save(cliente);
+    @Transactional(readOnly = true)
+    public List<Cliente> listarAtivos() {
+        return clienteRepository.findByAtivoTrue();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Cliente> buscarPorId(Long id) {
         return clienteRepository.findById(id);
     }
 
     @Override
-    public List<Cliente> listarAtivos() {
-        return clienteRepository.findByAtivoTrue();
+    public Cliente cadastrar(Cliente cliente) {
+        if (clienteRepository.existsByEmail(cliente.getEmail())) {
+            throw new RuntimeException("Email já cadastrado: " + cliente.getEmail());
+        }
+        cliente.setEndereco(enderecoService.normalizar(cliente.getEndereco()));
+        Cliente salvo = clienteRepository.save(cliente);
+        replicacaoReferencias.cliente(salvo.getId());
+        return salvo;
     }
 
     @Override
     public Cliente atualizar(Long id, Cliente atualizado) {
         return clienteRepository.findById(id)
                 .map(c -> {
+                    if (!c.getEmail().equals(atualizado.getEmail())
+                            && clienteRepository.existsByEmail(atualizado.getEmail())) {
+                        throw new RuntimeException("Email já cadastrado: " + atualizado.getEmail());
+                    }
                     c.setNome(atualizado.getNome());
-                    return clienteRepository.save(c);
+                    c.setEmail(atualizado.getEmail());
+                    c.setTelefone(atualizado.getTelefone());
+                    Cliente salvo = clienteRepository.save(c);
+                    replicacaoReferencias.cliente(salvo.getId());
+                    return salvo;
                 })
                 .orElseThrow(
-                        () -> new RuntimeException("Cliente não encontrado"));
+                        () -> new RuntimeException("Cliente não encontrado com id: " + id));
     }
+
     @Override
     public void ativarDesativar(Long id) {
-        clienteRepository.findById(id).ifPresent(c -> {
-            c.setAtivo(!c.getAtivo());
-            clienteRepository.save(c);
-        });
+        Cliente cliente = clienteRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Cliente não encontrado com id: " + id));
+        cliente.setAtivo(cliente.getAtivo() == null ? false : !cliente.getAtivo());
+        clienteRepository.save(cliente);
+        replicacaoReferencias.cliente(id);
+    }
+
+    @Override
+    public void deletar(Long id) {
+        if (!clienteRepository.existsById(id)) {
+            throw new RuntimeException("Cliente não encontrado com id: " + id);
+        }
+        clienteRepository.deleteById(id);
+        replicacaoReferencias.clienteRemovido(id);
     }
 }
@@ -0,0 +1,150 @@
+package com.deliverytech.delivery.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.deliverytech.delivery.cache.CacheLoteRedis;
+import com.deliverytech.delivery.dto.response.ConsultaLoteResponse;
+import com.deliverytech.delivery.dto.response.ProdutoResponse;
+import com.deliverytech.delivery.dto.response.RestauranteResponse;
+import com.deliverytech.delivery.exception.BusinessException;
+import com.deliverytech.delivery.mapper.ProdutoMapper;
+import com.deliverytech.delivery.mapper.RestauranteMapper;
+import com.deliverytech.delivery.service.ConsultaLoteService;
+import com.deliverytech.delivery.service.ProdutoService;
+import com.deliverytech.delivery.service.RestauranteService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Consulta por vários IDs sobre os caches {@code produto} e
+ * {@code restaurante}. Se o Redis falhar a consulta segue direto no banco:
+ * o cache acelera, mas não pode derrubar a tela de carrinho.
+ */
+@Service
+public class ConsultaLoteServiceImpl implements ConsultaLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultaLoteServiceImpl.class);
+
+    private final CacheLoteRedis cacheLote;
+    private final ProdutoService produtoService;
+    private final RestauranteService restauranteService;
+    private final ProdutoMapper produtoMapper;
+    private final RestauranteMapper restauranteMapper;
+    private final MeterRegistry registry;
+    private final int maxIds;
+    private final DistributionSummary tamanhoLote;
+
+    public ConsultaLoteServiceImpl(CacheLoteRedis cacheLote,
+            ProdutoService produtoService,
+            RestauranteService restauranteService,
+            ProdutoMapper produtoMapper,
+            RestauranteMapper restauranteMapper,
+            MeterRegistry registry,
+            @Value("${delivery.consulta-lote.max-ids:100}") int maxIds) {
+        this.cacheLote = cacheLote;
+        this.produtoService = produtoService;
+        this.restauranteService = restauranteService;
+        this.produtoMapper = produtoMapper;
+        this.restauranteMapper = restauranteMapper;
+        this.registry = registry;
+        this.maxIds = maxIds;
+        this.tamanhoLote = DistributionSummary.builder("delivery.consulta.lote.ids")
+                .description("IDs distintos por consulta em lote")
+                .register(registry);
+    }
+
+    @Override
+    public ConsultaLoteResponse<ProdutoResponse> produtos(List<Long> ids) {
+        return consultar("produto", ids, ProdutoResponse.class,
+                faltas -> produtoMapper.paraResponse(produtoService.buscarPorIds(faltas)),
+                ProdutoResponse::getId);
+    }
+
+    @Override
+    public ConsultaLoteResponse<RestauranteResponse> restaurantes(List<Long> ids) {
+        return consultar("restaurante", ids, RestauranteResponse.class,
+                faltas -> restauranteMapper.paraResponse(restauranteService.buscarPorIds(faltas)),
+                RestauranteResponse::getId);
+    }
+
+    private <T> ConsultaLoteResponse<T> consultar(String nomeCache, List<Long> ids, Class<T> tipo,
+            Function<List<Long>, List<T>> carregar, Function<T, Long> idDe) {
+        List<Long> distintos = distintos(ids);
+        tamanhoLote.record(distintos.size());
+
+        Map<Long, T> encontrados;
+        try {
+            encontrados = cacheLote.buscar(nomeCache, distintos, tipo);
+        } catch (DataAccessException e) {
+            log.warn("MGET no cache '{}' falhou, consultando o banco: {}", nomeCache, e.getMessage());
+            encontrados = new HashMap<>();
+            contador(nomeCache, "erro").increment();
+        }
+        contador(nomeCache, "acerto").increment(encontrados.size());
+
+        List<Long> faltas = new ArrayList<>(distintos.size() - encontrados.size());
+        for (Long id : distintos) {
+            if (!encontrados.containsKey(id)) {
+                faltas.add(id);
+            }
+        }
+        if (!faltas.isEmpty()) {
+            contador(nomeCache, "falta").increment(faltas.size());
+            Map<Long, T> carregados = new HashMap<>();
+            for (T item : carregar.apply(faltas)) {
+                carregados.put(idDe.apply(item), item);
+            }
+            try {
+                cacheLote.gravar(nomeCache, carregados);
+            } catch (DataAccessException e) {
+                log.warn("Falha ao regravar {} entradas no cache '{}': {}", carregados.size(), nomeCache, e.getMessage());
+            }
+            encontrados.putAll(carregados);
+        }
+
+        List<T> itens = new ArrayList<>(encontrados.size());
+        List<Long> naoEncontrados = new ArrayList<>();
+        for (Long id : distintos) {
+            T item = encontrados.get(id);
+            if (item != null) {
+                itens.add(item);
+            } else {
+                naoEncontrados.add(id);
+            }
+        }
+        return new ConsultaLoteResponse<>(itens, naoEncontrados);
+    }
+
+    private List<Long> distintos(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException("Informe ao menos um ID", "IDS_OBRIGATORIOS");
+        }
+        LinkedHashSet<Long> distintos = new LinkedHashSet<>(ids);
+        distintos.remove(null);
+        if (distintos.size() > maxIds) {
+            throw new BusinessException("No máximo " + maxIds + " IDs por consulta", "LOTE_MUITO_GRANDE");
+        }
+        return new ArrayList<>(distintos);
+    }
+
+    private Counter contador(String nomeCache, String resultado) {
+        return Counter.builder("delivery.consulta.lote.cache")
+                .description("Entradas buscadas pelas consultas em lote, por resultado")
+                .tag("cache", nomeCache)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+}
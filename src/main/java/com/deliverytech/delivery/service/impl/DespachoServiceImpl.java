@@ -0,0 +1,293 @@
+package com.deliverytech.delivery.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.deliverytech.delivery.dispatch.AgrupadorRotas;
+import com.deliverytech.delivery.dispatch.AtribuicaoLotes;
+import com.deliverytech.delivery.dispatch.IndiceEspacialEntregadores;
+import com.deliverytech.delivery.dispatch.IndiceEspacialEntregadores.Candidato;
+import com.deliverytech.delivery.dispatch.LoteEntrega;
+import com.deliverytech.delivery.dispatch.PedidoPendente;
+import com.deliverytech.delivery.dispatch.PosicaoEntregador;
+import com.deliverytech.delivery.model.Endereco;
+import com.deliverytech.delivery.exception.EntityNotFoundException;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.Role;
+import com.deliverytech.delivery.model.StatusPedido;
+import com.deliverytech.delivery.model.Usuario;
+import com.deliverytech.delivery.repository.PedidoRepository;
+import com.deliverytech.delivery.repository.UsuarioRepository;
+import com.deliverytech.delivery.service.DespachoService;
+import com.deliverytech.delivery.sharding.ShardsPedidos;
+import com.deliverytech.delivery.writebehind.BufferStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Service
+public class DespachoServiceImpl implements DespachoService {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachoServiceImpl.class);
+
+    private final PedidoRepository pedidoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final ShardsPedidos shards;
+    private final BufferStatus bufferStatus;
+    private final IndiceEspacialEntregadores indice;
+    // E-mail de cada entregador já conferido no banco: os pings seguintes só comparam com o do token
+    private final ConcurrentHashMap<Long, String> emails = new ConcurrentHashMap<>();
+    private final AgrupadorRotas agrupador;
+    private final Queue<PedidoPendente> pendentes = new ConcurrentLinkedQueue<>();
+
+    private final int candidatosPorPedido;
+    private final double raioMaximoKm;
+    private final int maxPedidosPorRodada;
+    private final int maxLotesOtimo;
+    private final long orcamentoAgrupamentoNanos;
+
+    private final Timer duracaoRodada;
+    private final Timer latenciaAtribuicao;
+    private final DistributionSummary distanciaColeta;
+    private final DistributionSummary pedidosPorLote;
+    private final Counter atribuidos;
+    private final Counter semEntregador;
+    private final Counter semCoordenadas;
+    private final Counter falhasGravacao;
+
+    public DespachoServiceImpl(PedidoRepository pedidoRepository,
+            UsuarioRepository usuarioRepository,
+            ShardsPedidos shards,
+            ObjectProvider<BufferStatus> bufferStatus,
+            MeterRegistry registry,
+            @Value("${delivery.despacho.tamanho-celula-graus:0.01}") double tamanhoCelulaGraus,
+            @Value("${delivery.despacho.candidatos-por-pedido:8}") int candidatosPorPedido,
+            @Value("${delivery.despacho.raio-maximo-km:10}") double raioMaximoKm,
+            @Value("${delivery.despacho.max-pedidos-por-rodada:500}") int maxPedidosPorRodada,
+            @Value("${delivery.despacho.max-lotes-otimo:100}") int maxLotesOtimo,
+            @Value("${delivery.despacho.lote.raio-km:2.0}") double raioAgrupamentoKm,
+            @Value("${delivery.despacho.lote.max-pedidos:4}") int maxPedidosPorLote,
+            @Value("${delivery.despacho.lote.orcamento-ms:50}") long orcamentoAgrupamentoMs) {
+        this.pedidoRepository = pedidoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.shards = shards;
+        this.bufferStatus = bufferStatus.getIfAvailable();
+        this.indice = new IndiceEspacialEntregadores(tamanhoCelulaGraus);
+        this.candidatosPorPedido = candidatosPorPedido;
+        this.raioMaximoKm = raioMaximoKm;
+        this.maxPedidosPorRodada = maxPedidosPorRodada;
+        this.maxLotesOtimo = maxLotesOtimo;
+        this.agrupador = new AgrupadorRotas(ForkJoinPool.commonPool(), raioAgrupamentoKm, maxPedidosPorLote);
+        this.orcamentoAgrupamentoNanos = TimeUnit.MILLISECONDS.toNanos(orcamentoAgrupamentoMs);
+
+        this.duracaoRodada = Timer.builder("despacho.rodada.duracao")
+                .description("Tempo de cálculo de uma rodada de atribuição")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.latenciaAtribuicao = Timer.builder("despacho.atribuicao.latencia")
+                .description("Tempo entre o pedido ficar pronto e receber um entregador")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.distanciaColeta = DistributionSummary.builder("despacho.atribuicao.distancia")
+                .description("Distância do entregador até a coleta (qualidade do casamento)")
+                .baseUnit("km")
+                .publishPercentiles(0.5, 0.95)
+                .register(registry);
+        this.pedidosPorLote = DistributionSummary.builder("despacho.lote.pedidos")
+                .description("Pedidos entregues na mesma viagem")
+                .register(registry);
+        this.atribuidos = Counter.builder("despacho.pedidos.atribuidos").register(registry);
+        this.semEntregador = Counter.builder("despacho.pedidos.sem_entregador").register(registry);
+        this.semCoordenadas = Counter.builder("despacho.pedidos.sem_coordenadas").register(registry);
+        this.falhasGravacao = Counter.builder("despacho.pedidos.falha_gravacao")
+                .description("Pedidos devolvidos à fila porque a atribuição não foi gravada")
+                .register(registry);
+        Gauge.builder("despacho.entregadores.disponiveis", indice, IndiceEspacialEntregadores::tamanho)
+                .register(registry);
+        Gauge.builder("despacho.pedidos.pendentes", pendentes, Queue::size).register(registry);
+    }
+
+    @Override
+    public void atualizarLocalizacao(Long entregadorId, String email, double latitude, double longitude) {
+        conferirEntregador(entregadorId, email);
+        indice.atualizar(entregadorId, latitude, longitude);
+    }
+
+    @Override
+    public void marcarIndisponivel(Long entregadorId, String email) {
+        conferirEntregador(entregadorId, email);
+        indice.remover(entregadorId);
+        emails.remove(entregadorId);
+    }
+
+    // Só consulta o banco na primeira posição (ou depois de o entregador sair do índice);
+    // os pings seguintes comparam o e-mail em memória
+    private void conferirEntregador(Long entregadorId, String email) {
+        if (email == null) {
+            throw new AccessDeniedException("Só o próprio entregador atualiza a sua posição");
+        }
+        String conhecido = indice.contem(entregadorId) ? emails.get(entregadorId) : null;
+        if (conhecido == null) {
+            Usuario entregador = usuarioRepository.findById(entregadorId)
+                    .filter(u -> u.getRole() == Role.ENTREGADOR && Boolean.TRUE.equals(u.getAtivo()))
+                    .orElseThrow(() -> new EntityNotFoundException("Entregador", entregadorId));
+            conhecido = entregador.getEmail();
+            emails.put(entregadorId, conhecido);
+        }
+        if (!email.equalsIgnoreCase(conhecido)) {
+            throw new AccessDeniedException("Só o próprio entregador atualiza a sua posição");
+        }
+    }
+
+    @Override
+    public boolean enfileirar(Pedido pedido) {
+        Restaurante restaurante = pedido.getRestaurante();
+        if (restaurante == null || restaurante.getLatitude() == null || restaurante.getLongitude() == null) {
+            semCoordenadas.increment();
+            return false;
+        }
+        Endereco entrega = pedido.getEnderecoEntrega();
+        boolean possuiDestino = entrega != null && entrega.getLatitude() != null && entrega.getLongitude() != null;
+        PedidoPendente pendente = new PedidoPendente(pedido.getId(), restaurante.getId(),
+                restaurante.getLatitude(), restaurante.getLongitude(),
+                possuiDestino ? entrega.getLatitude() : Double.NaN,
+                possuiDestino ? entrega.getLongitude() : Double.NaN,
+                System.nanoTime());
+        // Dentro de uma transação, só entra na fila depois do commit: um rollback não deixa pedido fantasma
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendentes.add(pendente);
+                }
+            });
+            return true;
+        }
+        return pendentes.add(pendente);
+    }
+
+    /**
+     * A fila só existe em memória: depois de um restart, os pedidos enviados
+     * e ainda sem entregador voltam a ela. Com write-behind, vale o status
+     * ainda não descarregado: entram os que estão enviados só no log e saem
+     * os que já passaram de enviado. Pedidos que já estão na fila (enfileirados
+     * durante a subida) não entram de novo.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int recarregarPendentes() {
+        List<Pedido> enviados = new ArrayList<>();
+        List<Long> soNoLog = bufferStatus == null ? List.of() : bufferStatus.pendentesCom(StatusPedido.ENVIADO);
+        for (List<Pedido> doShard : shards.emTodos(true, () -> {
+            List<Pedido> encontrados = new ArrayList<>(pedidoRepository.buscarSemEntregador(StatusPedido.ENVIADO));
+            if (!soNoLog.isEmpty()) {
+                encontrados.addAll(pedidoRepository.buscarSemEntregador(soNoLog));
+            }
+            return encontrados;
+        })) {
+            enviados.addAll(doShard);
+        }
+
+        Set<Long> vistos = new HashSet<>();
+        for (PedidoPendente pendente : pendentes) {
+            vistos.add(pendente.pedidoId());
+        }
+        int total = 0;
+        for (Pedido pedido : enviados) {
+            if (bufferStatus != null) {
+                bufferStatus.sobrepor(pedido);
+            }
+            if (pedido.getStatus() == StatusPedido.ENVIADO && vistos.add(pedido.getId()) && enfileirar(pedido)) {
+                total++;
+            }
+        }
+        if (total > 0) {
+            log.info("{} pedidos enviados sem entregador voltaram à fila de despacho", total);
+        }
+        return total;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${delivery.despacho.intervalo-ms:2000}")
+    public int executarRodada() {
+        List<PedidoPendente> prontos = new ArrayList<>();
+        PedidoPendente p;
+        while (prontos.size() < maxPedidosPorRodada && (p = pendentes.poll()) != null) {
+            prontos.add(p);
+        }
+        if (prontos.isEmpty()) {
+            return 0;
+        }
+
+        long inicio = System.nanoTime();
+        List<LoteEntrega> lotes = agrupador.agrupar(prontos, orcamentoAgrupamentoNanos);
+        List<List<Candidato>> candidatos = new ArrayList<>(lotes.size());
+        for (LoteEntrega l : lotes) {
+            candidatos.add(indice.maisProximos(l.coletaLatitude(), l.coletaLongitude(),
+                    candidatosPorPedido, raioMaximoKm));
+        }
+        Candidato[] escolhidos = AtribuicaoLotes.atribuir(candidatos, maxLotesOtimo);
+        duracaoRodada.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
+        int total = 0;
+        for (int i = 0; i < lotes.size(); i++) {
+            LoteEntrega l = lotes.get(i);
+            Candidato escolhido = escolhidos[i];
+            // O entregador pode ter saído do índice durante o cálculo
+            PosicaoEntregador reservado = escolhido == null ? null : indice.retirar(escolhido.entregadorId());
+            if (reservado == null) {
+                semEntregador.increment(l.paradas().size());
+                pendentes.addAll(l.paradas());
+                continue;
+            }
+            List<Long> pedidoIds = new ArrayList<>(l.paradas().size());
+            for (PedidoPendente parada : l.paradas()) {
+                pedidoIds.add(parada.pedidoId());
+            }
+            try {
+                // Um lote é de um restaurante só: um shard, uma transação
+                shards.noRestaurante(l.restauranteId(), false,
+                        () -> pedidoRepository.atribuirEntregador(pedidoIds, escolhido.entregadorId()));
+            } catch (RuntimeException e) {
+                // Nada foi gravado: o entregador volta ao índice e os pedidos à fila
+                indice.devolver(reservado);
+                pendentes.addAll(l.paradas());
+                falhasGravacao.increment(pedidoIds.size());
+                log.warn("Atribuição de {} ao entregador {} falhou; volta na próxima rodada: {}",
+                        pedidoIds, escolhido.entregadorId(), e.getMessage());
+                continue;
+            }
+            for (PedidoPendente parada : l.paradas()) {
+                latenciaAtribuicao.record(System.nanoTime() - parada.enfileiradoEm(), TimeUnit.NANOSECONDS);
+            }
+            distanciaColeta.record(escolhido.distanciaKm());
+            pedidosPorLote.record(pedidoIds.size());
+            atribuidos.increment(pedidoIds.size());
+            total += pedidoIds.size();
+        }
+        return total;
+    }
+}
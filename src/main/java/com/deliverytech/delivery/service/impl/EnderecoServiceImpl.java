@@ -0,0 +1,148 @@
+package com.deliverytech.delivery.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.deliverytech.delivery.address.BaseCep;
+import com.deliverytech.delivery.address.CompiladorBaseCep;
+import com.deliverytech.delivery.exception.BusinessException;
+import com.deliverytech.delivery.model.Endereco;
+import com.deliverytech.delivery.service.EnderecoService;
+
+@Service
+public class EnderecoServiceImpl implements EnderecoService {
+
+    private static final Logger log = LoggerFactory.getLogger(EnderecoServiceImpl.class);
+
+    private final BaseCep base;
+    private final boolean validacaoEstrita;
+
+    public EnderecoServiceImpl(
+            @Value("${delivery.cep.arquivo:data/cep.bin}") Path arquivo,
+            @Value("${delivery.cep.fonte:classpath:cep/base-cep-amostra.csv}") Resource fonte,
+            @Value("${delivery.cep.validacao-estrita:false}") boolean validacaoEstrita) {
+        this.validacaoEstrita = validacaoEstrita;
+        this.base = mapear(arquivo, fonte);
+    }
+
+    @Override
+    public Endereco normalizar(Endereco endereco) {
+        if (endereco == null) {
+            return null;
+        }
+        int cep = BaseCep.normalizar(endereco.getCep());
+        if (cep < 0) {
+            throw new BusinessException("CEP inválido: " + endereco.getCep(), "CEP_INVALIDO");
+        }
+        Endereco normalizado = endereco.toBuilder().cep(BaseCep.formatar(cep)).build();
+
+        int indice = base.buscar(cep);
+        if (indice == BaseCep.NAO_ENCONTRADO) {
+            if (validacaoEstrita) {
+                throw new BusinessException("CEP não encontrado: " + normalizado.getCep(), "CEP_NAO_ENCONTRADO");
+            }
+            return normalizado;
+        }
+        String logradouro = base.logradouro(indice);
+        if (!logradouro.isEmpty()) {
+            normalizado.setRua(logradouro);
+        }
+        String bairro = base.bairro(indice);
+        if (!bairro.isEmpty()) {
+            normalizado.setBairro(bairro);
+        }
+        normalizado.setCidade(base.cidade(indice));
+        normalizado.setEstado(base.uf(indice));
+        normalizado.setLatitude(base.latitude(indice));
+        normalizado.setLongitude(base.longitude(indice));
+        return normalizado;
+    }
+
+    @Override
+    public Optional<double[]> coordenadas(String cep) {
+        int indice = base.buscar(BaseCep.normalizar(cep));
+        return indice == BaseCep.NAO_ENCONTRADO
+                ? Optional.empty()
+                : Optional.of(new double[] {base.latitude(indice), base.longitude(indice)});
+    }
+
+    // Reaproveita o binário só se ele foi compilado desta mesma fonte; fonte trocada, formato antigo
+    // ou arquivo truncado recompilam. Tamanho e modificação iguais aos do cabeçalho dispensam ler a
+    // fonte; com eles diferentes (ou desconhecidos) vale a impressão. Caminho relativo é resolvido
+    // contra o diretório de trabalho.
+    static BaseCep mapear(Path arquivo, Resource fonte) {
+        Path destino = arquivo.toAbsolutePath().normalize();
+        try {
+            long tamanho = fonte.contentLength();
+            long modificacao = modificacao(fonte);
+            Long impressao = null;
+            if (Files.exists(destino)) {
+                try {
+                    BaseCep existente = BaseCep.mapear(destino);
+                    if (modificacao != 0 && existente.tamanhoFonte() == tamanho
+                            && existente.modificacaoFonte() == modificacao) {
+                        return existente;
+                    }
+                    impressao = impressao(fonte);
+                    if (existente.impressaoFonte() == impressao) {
+                        // Mesmo conteúdo com outra data (cópia, checkout): o próximo boot já não lê a fonte
+                        if (modificacao != 0) {
+                            carimbar(destino, tamanho, modificacao);
+                        }
+                        return existente;
+                    }
+                    log.info("Base de CEPs em {} foi compilada de outra fonte; recompilando de {}", destino, fonte);
+                } catch (IllegalStateException e) {
+                    log.info("Base de CEPs em {} ilegível ({}); recompilando", destino, e.getMessage());
+                }
+            }
+            if (impressao == null) {
+                impressao = impressao(fonte);
+            }
+            try (Reader leitor = new InputStreamReader(fonte.getInputStream(), StandardCharsets.UTF_8)) {
+                int total = CompiladorBaseCep.compilar(leitor, destino, impressao, tamanho, modificacao);
+                log.info("{} CEPs compilados em {}", total, destino);
+            }
+            return BaseCep.mapear(destino);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao carregar a base de CEPs em " + destino, e);
+        }
+    }
+
+    private static long impressao(Resource fonte) throws IOException {
+        try (InputStream entrada = fonte.getInputStream()) {
+            return CompiladorBaseCep.impressao(entrada);
+        }
+    }
+
+    // Recursos sem data (em memória, alguns URLs) dão 0: nesse caso sempre se confere a impressão
+    private static long modificacao(Resource fonte) {
+        try {
+            return fonte.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Diretório só de leitura não impede o uso do binário: só o próximo boot volta a ler a fonte
+    private static void carimbar(Path destino, long tamanho, long modificacao) {
+        try {
+            CompiladorBaseCep.carimbar(destino, tamanho, modificacao);
+        } catch (IOException e) {
+            log.info("Não foi possível atualizar o cabeçalho de {}: {}", destino, e.getMessage());
+        }
+    }
+}
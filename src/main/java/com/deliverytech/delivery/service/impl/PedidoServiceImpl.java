@@ -1,60 +1,374 @@
 package com.deliverytech.delivery.service.impl;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.deliverytech.delivery.archive.ArquivoPedidos;
+import com.deliverytech.delivery.archive.PedidoArquivado;
+import com.deliverytech.delivery.concurrent.EscopoTarefas;
+import com.deliverytech.delivery.concurrent.EscopoTarefas.Subtarefa;
+import com.deliverytech.delivery.dto.request.ItemPedidoRequest;
+import com.deliverytech.delivery.dto.request.PedidoRequest;
+import com.deliverytech.delivery.exception.BusinessException;
+import com.deliverytech.delivery.exception.EntityNotFoundException;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.Endereco;
+import com.deliverytech.delivery.model.ItemPedido;
 import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
 import com.deliverytech.delivery.model.StatusPedido;
+import com.deliverytech.delivery.repository.ClienteRepository;
 import com.deliverytech.delivery.repository.PedidoRepository;
+import com.deliverytech.delivery.repository.ProdutoRepository;
+import com.deliverytech.delivery.repository.RestauranteRepository;
+import com.deliverytech.delivery.service.DespachoService;
+import com.deliverytech.delivery.service.EnderecoService;
 import com.deliverytech.delivery.service.PedidoService;
+import com.deliverytech.delivery.service.PromocaoService;
+import com.deliverytech.delivery.service.TaxaEntregaService;
+import com.deliverytech.delivery.sharding.ShardsPedidos;
+import com.deliverytech.delivery.writebehind.BufferStatus;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
-@RequiredArgsConstructor
 public class PedidoServiceImpl implements PedidoService {
+    // Mais recentes primeiro; é a ordem em que cada shard devolve o histórico
+    private static final Comparator<Pedido> MAIS_RECENTES = Comparator.comparing(Pedido::getDataPedido,
+            Comparator.nullsLast(Comparator.reverseOrder()));
+
     private final PedidoRepository pedidoRepository;
+    private final ClienteRepository clienteRepository;
+    private final RestauranteRepository restauranteRepository;
+    private final ProdutoRepository produtoRepository;
+    private final DespachoService despachoService;
+    private final EnderecoService enderecoService;
+    private final PromocaoService promocaoService;
+    private final TaxaEntregaService taxaEntregaService;
+    private final ArquivoPedidos arquivoPedidos;
+    private final ShardsPedidos shards;
+    private final Duration prazoValidacao;
+    private final Timer validacao;
+    // Nulo sem delivery.status.write-behind.habilitado
+    private final BufferStatus bufferStatus;
+
+    /** O que a criação precisa das consultas independentes, já validado. */
+    private record Validacao(Cliente cliente, Restaurante restaurante, Map<Long, Produto> produtos,
+            Endereco enderecoEntrega) {
+    }
+
+    public PedidoServiceImpl(PedidoRepository pedidoRepository,
+            ClienteRepository clienteRepository,
+            RestauranteRepository restauranteRepository,
+            ProdutoRepository produtoRepository,
+            DespachoService despachoService,
+            EnderecoService enderecoService,
+            PromocaoService promocaoService,
+            TaxaEntregaService taxaEntregaService,
+            ArquivoPedidos arquivoPedidos,
+            ShardsPedidos shards,
+            ObjectProvider<BufferStatus> bufferStatus,
+            MeterRegistry registry,
+            @Value("${delivery.pedidos.validacao.prazo-ms:3000}") long prazoValidacaoMs) {
+        this.pedidoRepository = pedidoRepository;
+        this.clienteRepository = clienteRepository;
+        this.restauranteRepository = restauranteRepository;
+        this.produtoRepository = produtoRepository;
+        this.despachoService = despachoService;
+        this.enderecoService = enderecoService;
+        this.promocaoService = promocaoService;
+        this.taxaEntregaService = taxaEntregaService;
+        this.arquivoPedidos = arquivoPedidos;
+        this.shards = shards;
+        this.bufferStatus = bufferStatus.getIfAvailable();
+        this.prazoValidacao = Duration.ofMillis(prazoValidacaoMs);
+        this.validacao = Timer.builder("delivery.pedidos.validacao")
+                .description("Consultas e validações paralelas antes de gravar um pedido")
+                .register(registry);
+    }
+
+    // Sem @Transactional nos métodos de pedidos: a transação é aberta por ShardsPedidos, já no shard do restaurante
 
     @Override // Ela serve para indicar explicitamente que um método está sobrescrevendo um método de uma classe pai ou interface
     public Pedido criar(Pedido pedido){
-        pedido.setStatus(StatusPedido.CRIADO);
+        return shards.noRestaurante(pedido.getRestaurante().getId(), false, () -> salvarNovo(pedido));
+    }
+
+    private Pedido salvarNovo(Pedido pedido) {
+        mudarStatus(pedido, StatusPedido.CRIADO);
         return pedidoRepository.save(pedido);
     }
 
+    @Override
+    public Pedido criar(PedidoRequest request) {
+        Validacao validado = validacao.record(() -> validar(request));
+        return shards.noRestaurante(request.getRestauranteId(), false, () -> criarNoShard(request, validado));
+    }
+
+    /**
+     * As consultas não dependem umas das outras: rodam em paralelo, cada uma
+     * numa thread virtual e com transação própria, e a primeira recusa cancela o
+     * resto. A latência fica na da mais lenta, não na soma.
+     */
+    private Validacao validar(PedidoRequest request) {
+        Long restauranteId = request.getRestauranteId();
+        Set<Long> produtoIds = new HashSet<>();
+        for (ItemPedidoRequest item : request.getItens()) {
+            produtoIds.add(item.getProdutoId());
+        }
+        Endereco endereco = request.getEnderecoEntrega();
+        String cep = endereco == null ? null : endereco.getCep();
+
+        try (EscopoTarefas escopo = new EscopoTarefas("pedido-validacao", prazoValidacao)) {
+            Subtarefa<Cliente> cliente = escopo.fork(() -> referencia(restauranteId,
+                    () -> clienteAtivo(request.getClienteId())));
+            Subtarefa<Restaurante> restaurante = escopo.fork(() -> referencia(restauranteId,
+                    () -> restauranteAtivo(restauranteId)));
+            Subtarefa<Map<Long, Produto>> produtos = escopo.fork(() -> referencia(restauranteId,
+                    () -> produtosDisponiveis(restauranteId, produtoIds)));
+            Subtarefa<Endereco> enderecoEntrega = escopo.fork(() -> enderecoService.normalizar(endereco));
+            if (cep != null) {
+                escopo.fork(() -> taxaEntregaService.cotar(restauranteId, cep)
+                        .orElseThrow(() -> new BusinessException("Restaurante não entrega no CEP " + cep,
+                                "FORA_DA_AREA_DE_ENTREGA")));
+            }
+            escopo.aguardar();
+            return new Validacao(cliente.get(), restaurante.get(), produtos.get(), enderecoEntrega.get());
+        }
+    }
+
+    // Cliente, restaurante e produtos vêm da cópia das tabelas de referência no shard do pedido.
+    // Transação de escrita de propósito: fica no primário, onde um cadastro recém-feito já aparece
+    private <T> T referencia(Long restauranteId, Supplier<T> consulta) {
+        return shards.noRestaurante(restauranteId, false, consulta);
+    }
+
+    private Cliente clienteAtivo(Long clienteId) {
+        Cliente cliente = clienteRepository.findById(clienteId)
+                .orElseThrow(() -> new EntityNotFoundException("Cliente", clienteId));
+        if (!Boolean.TRUE.equals(cliente.getAtivo())) {
+            throw new BusinessException("Cliente inativo: " + clienteId, "CLIENTE_INATIVO");
+        }
+        return cliente;
+    }
+
+    private Restaurante restauranteAtivo(Long restauranteId) {
+        Restaurante restaurante = restauranteRepository.findById(restauranteId)
+                .orElseThrow(() -> new EntityNotFoundException("Restaurante", restauranteId));
+        if (!Boolean.TRUE.equals(restaurante.getAtivo())) {
+            throw new BusinessException("Restaurante inativo: " + restauranteId, "RESTAURANTE_INATIVO");
+        }
+        return restaurante;
+    }
+
+    private Map<Long, Produto> produtosDisponiveis(Long restauranteId, Set<Long> produtoIds) {
+        Map<Long, Produto> produtos = new HashMap<>();
+        for (Produto produto : produtoRepository.findAllById(produtoIds)) {
+            if (!restauranteId.equals(produto.getRestaurante().getId())
+                    || !Boolean.TRUE.equals(produto.getDisponivel())) {
+                throw new BusinessException("Produto indisponível para este restaurante: " + produto.getId(),
+                        "PRODUTO_INDISPONIVEL");
+            }
+            produtos.put(produto.getId(), produto);
+        }
+        for (Long id : produtoIds) {
+            if (!produtos.containsKey(id)) {
+                throw new EntityNotFoundException("Produto", id);
+            }
+        }
+        return produtos;
+    }
+
+    // Só monta e grava: as entidades validadas vêm de outras transações e entram apenas como referência
+    private Pedido criarNoShard(PedidoRequest request, Validacao validado) {
+        Pedido pedido = Pedido.builder()
+                .cliente(validado.cliente())
+                .restaurante(validado.restaurante())
+                .enderecoEntrega(validado.enderecoEntrega())
+                .build();
+        pedido.setItens(new ArrayList<>(request.getItens().size()));
+        precificar(pedido, request, validado);
+        return salvarNovo(pedido);
+    }
+
+    // Itens com o preço atual de cada produto, desconto e total
+    private void precificar(Pedido pedido, PedidoRequest request, Validacao validado) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (ItemPedidoRequest item : request.getItens()) {
+            Produto produto = validado.produtos().get(item.getProdutoId());
+            pedido.getItens().add(ItemPedido.builder()
+                    .pedido(pedido)
+                    .produto(produto)
+                    .quantidade(item.getQuantidade())
+                    .precoUnitario(produto.getPreco())
+                    .build());
+            subtotal = subtotal.add(produto.getPreco().multiply(BigDecimal.valueOf(item.getQuantidade())));
+        }
+
+        BigDecimal desconto = promocaoService.calcularDesconto(pedido, request.getCupom());
+        pedido.setDesconto(desconto);
+        pedido.setTotal(subtotal.subtract(desconto));
+    }
+
+    @Override
+    public Pedido atualizar(Long id, PedidoRequest request) {
+        Validacao validado = validacao.record(() -> validar(request));
+        // O restaurante decide o shard: o pedido só é procurado onde ele poderia estar
+        return comStatusPendente(shards.noRestaurante(request.getRestauranteId(), false, () -> {
+            Pedido pedido = pedidoRepository.buscarComItens(List.of(id)).stream().findFirst()
+                    .orElseThrow(() -> new EntityNotFoundException("Pedido", id));
+            // O status pendente só é consultado: sobreposto na entidade gerenciada, iria junto no flush
+            StatusPedido status = bufferStatus == null ? pedido.getStatus()
+                    : bufferStatus.pendente(id).orElse(pedido.getStatus());
+            if (!pedido.getRestaurante().getId().equals(request.getRestauranteId())
+                    || !pedido.getCliente().getId().equals(request.getClienteId())) {
+                throw new BusinessException("Cliente e restaurante de um pedido não podem ser trocados",
+                        "PEDIDO_DONO_IMUTAVEL");
+            }
+            if (status != StatusPedido.CRIADO) {
+                throw new BusinessException("Pedido " + id + " não pode mais ser alterado: " + status,
+                        "PEDIDO_NAO_EDITAVEL");
+            }
+            // Sem orphanRemoval em Pedido.itens: os antigos saem num DELETE só
+            pedidoRepository.excluirItens(List.of(id));
+            pedido.getItens().clear();
+            pedido.setEnderecoEntrega(validado.enderecoEntrega());
+            precificar(pedido, request, validado);
+            // Gerenciado: a alteração e os itens novos (cascade) vão no flush do commit, sem merge
+            return pedido;
+        }));
+    }
+
     @Override
     public Optional<Pedido> buscarPorId(Long id){
-        return pedidoRepository.findById(id);
+        // Sem o restaurante não se sabe o shard: pergunta a todos em paralelo.
+        // Pedidos finalizados antigos saem das tabelas quentes; o arquivo só é lido na falta
+        // Sempre com os itens: a resposta é montada fora da transação
+        return shards.buscar(() -> {
+            Optional<Pedido> pedido = pedidoRepository.buscarComItens(List.of(id)).stream().findFirst();
+            return pedido.isPresent() ? pedido : arquivoPedidos.buscar(id).map(PedidoArquivado::paraPedido);
+        }).map(this::comStatusPendente);
     }
 
     @Override
     public List<Pedido> listarPorCliente(Long clienteId){
-        return pedidoRepository.findByClienteId(clienteId);
+        return comStatusPendentes(shards.reunir(() -> comArquivados(
+                pedidoRepository.buscarComItensPorCliente(clienteId),
+                arquivoPedidos.listarPorCliente(clienteId)), MAIS_RECENTES));
+    }
+
+    // Só as tabelas quentes: arquivados continuam acessíveis por ID e nos históricos
+    @Override
+    public List<Pedido> listarTodos() {
+        return comStatusPendentes(shards.reunir(pedidoRepository::buscarTodosComItens, MAIS_RECENTES));
     }
 
     @Override
     public List<Pedido> listarPorRestaurante(Long restauranteId) {
-        return pedidoRepository.findByRestauranteId(restauranteId);
+        return comStatusPendentes(shards.noRestaurante(restauranteId, true, () -> comArquivados(
+                pedidoRepository.buscarComItensPorRestaurante(restauranteId),
+                arquivoPedidos.listarPorRestaurante(restauranteId))));
+    }
+
+    // Com write-behind o banco pode estar uma descarga atrás: o status pendente prevalece.
+    // Aplicado depois da transação, com as entidades já desligadas da sessão
+    private Pedido comStatusPendente(Pedido pedido) {
+        return bufferStatus == null ? pedido : bufferStatus.sobrepor(pedido);
+    }
+
+    private List<Pedido> comStatusPendentes(List<Pedido> pedidos) {
+        return bufferStatus == null ? pedidos : bufferStatus.sobrepor(pedidos);
+    }
+
+    private static List<Pedido> comArquivados(List<Pedido> quentes, List<PedidoArquivado> arquivados) {
+        if (arquivados.isEmpty()) {
+            return quentes;
+        }
+        List<Pedido> todos = new ArrayList<>(quentes.size() + arquivados.size());
+        todos.addAll(quentes);
+        for (PedidoArquivado arquivado : arquivados) {
+            todos.add(arquivado.paraPedido());
+        }
+        // Um pedido quente pode ser mais antigo que arquivados (ficou parado num status aberto)
+        todos.sort(MAIS_RECENTES);
+        return todos;
     }
 
     @Override
     public Pedido atualizarStatus(Long id, StatusPedido status){
-        return pedidoRepository.findById(id)
+        if (bufferStatus != null) {
+            return atualizarStatusAdiado(id, status);
+        }
+        String shard = shards.localizar(() -> pedidoRepository.existsById(id))
+                .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
+        return shards.noShard(shard, false, () -> pedidoRepository.buscarComItens(List.of(id)).stream().findFirst()
                 .map(p -> {
-                    p.setStatus(status);
-                    return pedidoRepository.save(p);
-                }).orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
+                    mudarStatus(p, status);
+                    Pedido salvo = pedidoRepository.save(p);
+                    if (status == StatusPedido.ENVIADO && salvo.getEntregadorId() == null) {
+                        despachoService.enfileirar(salvo);
+                    }
+                    return salvo;
+                }).orElseThrow(() -> new RuntimeException("Pedido não encontrado")));
+    }
+
+    /**
+     * Write-behind: uma leitura e um registro no log local, sem UPDATE. O
+     * banco recebe só o último status de cada pedido, na próxima descarga.
+     */
+    private Pedido atualizarStatusAdiado(Long id, StatusPedido status) {
+        boolean despachar = status == StatusPedido.ENVIADO;
+        // Com os itens, para a resposta; o restaurante só se o despacho for ler as coordenadas
+        Pedido pedido = shards.buscar(() -> pedidoRepository.buscarComItens(List.of(id)).stream().findFirst()
+                .map(p -> {
+                    if (despachar && p.getEntregadorId() == null) {
+                        Hibernate.initialize(p.getRestaurante());
+                    }
+                    return p;
+                })).orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
+        bufferStatus.registrar(pedido.getId(), pedido.getRestaurante().getId(), status);
+        pedido.setStatus(status);
+        if (despachar && pedido.getEntregadorId() == null) {
+            despachoService.enfileirar(pedido);
+        }
+        return pedido;
     }
 
     @Override
     public void cancelar(Long id) {
-        pedidoRepository.findById(id).ifPresent(p -> {
-            p.setStatus(StatusPedido.CANCELADO);
-            pedidoRepository.save(p);
-        });
+        if (bufferStatus != null) {
+            // Pelo mesmo caminho: um status antigo ainda pendente não pode sobrescrever o cancelamento
+            shards.buscar(() -> pedidoRepository.findById(id)).ifPresent(p ->
+                    bufferStatus.registrar(p.getId(), p.getRestaurante().getId(), StatusPedido.CANCELADO));
+            return;
+        }
+        shards.localizar(() -> pedidoRepository.existsById(id)).ifPresent(shard ->
+                shards.noShard(shard, false, () -> pedidoRepository.findById(id).map(p -> {
+                    mudarStatus(p, StatusPedido.CANCELADO);
+                    return pedidoRepository.save(p);
+                })));
     }
 
-
-
+    // Gravação na hora: o instante barra uma descarga do write-behind com mudança mais antiga
+    private static void mudarStatus(Pedido pedido, StatusPedido status) {
+        pedido.setStatus(status);
+        pedido.setStatusAtualizadoEm(LocalDateTime.now());
+    }
 }
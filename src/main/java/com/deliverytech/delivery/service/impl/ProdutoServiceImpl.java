@@ -1,11 +1,20 @@
 package com.deliverytech.delivery.service.impl;
 
+import com.deliverytech.delivery.dto.request.AjustePrecoLoteRequest;
+import com.deliverytech.delivery.dto.request.DisponibilidadeLoteRequest;
+import com.deliverytech.delivery.exception.BusinessException;
 import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.TipoAjustePreco;
 import com.deliverytech.delivery.repository.ProdutoRepository;
 import com.deliverytech.delivery.service.ProdutoService;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+import com.deliverytech.delivery.sharding.ReplicacaoReferencias;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,23 +22,39 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ProdutoServiceImpl implements ProdutoService {
 
+    private static final BigDecimal PRECO_MINIMO = new BigDecimal("0.01");
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+
     private final ProdutoRepository produtoRepository;
+    private final VersaoCatalogoService versaoCatalogoService;
+    private final ReplicacaoReferencias replicacaoReferencias;
 
     @Override
     public Produto cadastrar(Produto produto) {
-        return produtoRepository.save(produto);
+        Produto salvo = produtoRepository.save(produto);
+        replicacaoReferencias.produto(salvo.getId());
+        versaoCatalogoService.incrementar(restauranteId(salvo));
+        return salvo;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Produto> buscarPorId(Long id) {
         return produtoRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Produto> buscarPorRestaurante(Long restauranteId) {
         return produtoRepository.findByRestauranteId(restauranteId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Produto> buscarPorIds(List<Long> ids) {
+        return produtoRepository.findAllById(ids);
+    }
+
     @Override
     public Produto atualizar(Long id, Produto atualizado) {
         return produtoRepository.findById(id)
@@ -38,7 +63,10 @@ public class ProdutoServiceImpl implements ProdutoService {
                     p.setDescricao(atualizado.getDescricao());
                     p.setCategoria(atualizado.getCategoria());
                     p.setPreco(atualizado.getPreco());
-                    return produtoRepository.save(p);
+                    Produto salvo = produtoRepository.save(p);
+                    replicacaoReferencias.produto(salvo.getId());
+                    versaoCatalogoService.incrementar(restauranteId(salvo));
+                    return salvo;
                 }).orElseThrow(() -> new RuntimeException("Produto não encontrado"));
     }
 
@@ -47,6 +75,69 @@ public class ProdutoServiceImpl implements ProdutoService {
         produtoRepository.findById(id).ifPresent(p -> {
             p.setDisponivel(disponivel);
             produtoRepository.save(p);
+            replicacaoReferencias.produto(p.getId());
+            versaoCatalogoService.incrementar(restauranteId(p));
         });
     }
+
+    private static Long restauranteId(Produto produto) {
+        return produto.getRestaurante() != null ? produto.getRestaurante().getId() : null;
+    }
+
+    @Override
+    @Transactional
+    public int alterarDisponibilidadeEmLote(Long restauranteId, DisponibilidadeLoteRequest request) {
+        boolean porIds = request.getProdutoIds() != null && !request.getProdutoIds().isEmpty();
+        boolean porCategoria = request.getCategoria() != null && !request.getCategoria().isBlank();
+        boolean porTrecho = request.getContendo() != null && !request.getContendo().isBlank();
+        if ((porIds ? 1 : 0) + (porCategoria ? 1 : 0) + (porTrecho ? 1 : 0) != 1) {
+            throw new BusinessException("Informe exatamente um seletor: produtoIds, categoria ou contendo", "SELETOR_LOTE_INVALIDO");
+        }
+
+        boolean disponivel = request.getDisponivel();
+        int afetados;
+        if (porIds) {
+            afetados = produtoRepository.alterarDisponibilidadePorIds(restauranteId, request.getProdutoIds(), disponivel);
+        } else if (porCategoria) {
+            afetados = produtoRepository.alterarDisponibilidadePorCategoria(restauranteId, request.getCategoria().trim(), disponivel);
+        } else {
+            afetados = produtoRepository.alterarDisponibilidadePorTrecho(restauranteId, padraoLike(request.getContendo()), disponivel);
+        }
+        if (afetados > 0) {
+            replicacaoReferencias.produtosDoRestaurante(restauranteId);
+            versaoCatalogoService.incrementar(restauranteId);
+        }
+        return afetados;
+    }
+
+    @Override
+    @Transactional
+    public int reajustarPrecos(Long restauranteId, AjustePrecoLoteRequest request) {
+        String categoria = request.getCategoria() == null || request.getCategoria().isBlank() ? null : request.getCategoria().trim();
+        int afetados;
+        if (request.getTipo() == TipoAjustePreco.PERCENTUAL) {
+            if (request.getValor().compareTo(CEM.negate()) <= 0) {
+                throw new BusinessException("Redução percentual deve ser menor que 100%", "REAJUSTE_INVALIDO");
+            }
+            BigDecimal fator = BigDecimal.ONE.add(request.getValor().divide(CEM, 6, RoundingMode.HALF_UP));
+            afetados = produtoRepository.reajustarPrecoPercentual(restauranteId, categoria, fator, PRECO_MINIMO);
+        } else {
+            BigDecimal delta = request.getValor().setScale(2, RoundingMode.HALF_UP);
+            afetados = produtoRepository.reajustarPrecoValor(restauranteId, categoria, delta, PRECO_MINIMO);
+        }
+        if (afetados > 0) {
+            replicacaoReferencias.produtosDoRestaurante(restauranteId);
+            versaoCatalogoService.incrementar(restauranteId);
+        }
+        return afetados;
+    }
+
+    // Trecho literal: % e _ digitados pelo usuário não viram curingas
+    private static String padraoLike(String trecho) {
+        String escapado = trecho.trim().toLowerCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escapado + "%";
+    }
 }
@@ -0,0 +1,106 @@
+package com.deliverytech.delivery.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.deliverytech.delivery.exception.EntityNotFoundException;
+import com.deliverytech.delivery.model.Campanha;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.CoorteCliente;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.promotion.CatalogoPromocoes;
+import com.deliverytech.delivery.repository.CampanhaRepository;
+import com.deliverytech.delivery.service.PromocaoService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Service
+public class PromocaoServiceImpl implements PromocaoService {
+
+    private final CampanhaRepository campanhaRepository;
+    private final ZoneId zona = ZoneId.systemDefault();
+    private final int diasClienteNovo;
+    private final Timer avaliacao;
+
+    private volatile CatalogoPromocoes catalogo = CatalogoPromocoes.VAZIO;
+    private volatile Object[] versaoCompilada;
+
+    public PromocaoServiceImpl(CampanhaRepository campanhaRepository, MeterRegistry registry,
+            @Value("${delivery.promocoes.dias-cliente-novo:30}") int diasClienteNovo) {
+        this.campanhaRepository = campanhaRepository;
+        this.diasClienteNovo = diasClienteNovo;
+        this.avaliacao = Timer.builder("promocoes.avaliacao")
+                .description("Tempo para calcular o desconto de um pedido")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("promocoes.campanhas.ativas", this, s -> s.catalogo.tamanho()).register(registry);
+    }
+
+    @Override
+    public BigDecimal calcularDesconto(Pedido pedido, String cupom) {
+        if (pedido.getItens() == null || pedido.getItens().isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        long inicio = System.nanoTime();
+        long centavos = catalogo.descontoCentavos(pedido.getRestaurante().getId(), coorte(pedido.getCliente()),
+                cupom, System.currentTimeMillis(), pedido.getItens());
+        avaliacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public Campanha cadastrar(Campanha campanha) {
+        Campanha salva = campanhaRepository.save(campanha);
+        recarregar();
+        return salva;
+    }
+
+    @Override
+    public void desativar(Long id) {
+        Campanha campanha = campanhaRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Campanha", id));
+        campanha.setAtivo(false);
+        campanhaRepository.save(campanha);
+        recarregar();
+    }
+
+    @Override
+    public synchronized void recarregar() {
+        Object[] versao = versaoAtual();
+        List<Campanha> vigentes = campanhaRepository.findVigentes(LocalDateTime.now());
+        catalogo = CatalogoPromocoes.compilar(vigentes, zona);
+        versaoCompilada = versao;
+    }
+
+    // Outros nós alteram campanhas direto no banco; recompila só quando a assinatura muda
+    @Scheduled(fixedDelayString = "${delivery.promocoes.verificacao-ms:5000}")
+    public void recarregarSeAlterado() {
+        if (!Arrays.equals(versaoAtual(), versaoCompilada)) {
+            recarregar();
+        }
+    }
+
+    private Object[] versaoAtual() {
+        List<Object[]> linhas = campanhaRepository.versao();
+        return linhas.isEmpty() ? new Object[0] : linhas.get(0);
+    }
+
+    private CoorteCliente coorte(Cliente cliente) {
+        if (cliente == null || cliente.getDataCriacao() == null) {
+            return CoorteCliente.RECORRENTES;
+        }
+        return cliente.getDataCriacao().isAfter(LocalDateTime.now().minusDays(diasClienteNovo))
+                ? CoorteCliente.NOVOS
+                : CoorteCliente.RECORRENTES;
+    }
+}
@@ -3,8 +3,12 @@ package com.deliverytech.delivery.service.impl;
 import com.deliverytech.delivery.model.Restaurante;
 import com.deliverytech.delivery.repository.RestauranteRepository;
 import com.deliverytech.delivery.service.RestauranteService;
+import com.deliverytech.delivery.service.TaxaEntregaService;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+import com.deliverytech.delivery.sharding.ReplicacaoReferencias;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,23 +18,40 @@ import java.util.Optional;
 public class RestauranteServiceImpl implements RestauranteService {
 
     private final RestauranteRepository restauranteRepository;
+    private final TaxaEntregaService taxaEntregaService;
+    private final VersaoCatalogoService versaoCatalogoService;
+    private final ReplicacaoReferencias replicacaoReferencias;
 
     @Override
     public Restaurante cadastrar(Restaurante restaurante) {
-        return restauranteRepository.save(restaurante);
+        Restaurante salvo = restauranteRepository.save(restaurante);
+        replicacaoReferencias.restaurante(salvo.getId());
+        // Versão antes da taxa: a linha recalculada já leva a versão nova
+        versaoCatalogoService.incrementar(salvo.getId());
+        taxaEntregaService.recalcular(salvo);
+        return salvo;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Restaurante> buscarPorId(Long id) {
         return restauranteRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Restaurante> listarTodos() {
         return restauranteRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Restaurante> buscarPorIds(List<Long> ids) {
+        return restauranteRepository.findAllById(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Restaurante> buscarPorCategoria(String categoria) {
         return restauranteRepository.findByCategoria(categoria);
     }
@@ -44,11 +65,19 @@ public class RestauranteServiceImpl implements RestauranteService {
                     r.setCategoria(atualizado.getCategoria());
                     r.setTaxaEntrega(atualizado.getTaxaEntrega());
                     r.setTempoEntregaMinutos(atualizado.getTempoEntregaMinutos());
-                    return restauranteRepository.save(r);
+                    r.setLatitude(atualizado.getLatitude());
+                    r.setLongitude(atualizado.getLongitude());
+                    Restaurante salvo = restauranteRepository.save(r);
+                    replicacaoReferencias.restaurante(salvo.getId());
+                    versaoCatalogoService.incrementar(salvo.getId());
+                    // Só a linha deste restaurante na matriz de taxas é refeita
+                    taxaEntregaService.recalcular(salvo);
+                    return salvo;
                 }).orElseThrow(() -> new RuntimeException("Restaurante não encontrado"));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean findByNome(String nome) {
         return restauranteRepository.findByNome(nome).isPresent();
     }
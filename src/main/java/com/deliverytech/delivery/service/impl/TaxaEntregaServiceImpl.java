@@ -0,0 +1,325 @@
+package com.deliverytech.delivery.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.deliverytech.delivery.dispatch.Geo;
+import com.deliverytech.delivery.exception.BusinessException;
+import com.deliverytech.delivery.exception.EntityNotFoundException;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.pricing.TabelaTaxasEntrega;
+import com.deliverytech.delivery.pricing.ZonasCep;
+import com.deliverytech.delivery.repository.RestauranteRepository;
+import com.deliverytech.delivery.service.TaxaEntregaService;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+
+/**
+ * Taxas pré-calculadas na {@link TabelaTaxasEntrega}. Cada linha leva a versão
+ * do catálogo do restaurante; uma cotação confere essa versão no máximo a cada
+ * {@code delivery.taxa.verificacao-versao-ms} e refaz a linha se o restaurante
+ * mudou, inclusive por outro nó (com {@code delivery.catalogo.versoes.modo=redis}).
+ * IDs sem restaurante e restaurantes inativos ficam recusados pelo mesmo
+ * intervalo, sem uma leitura do banco por cotação.
+ */
+@Service
+public class TaxaEntregaServiceImpl implements TaxaEntregaService {
+
+    // Acima disso, as recusas vencidas saem; se ainda sobrar, o mapa é esvaziado
+    private static final int MAXIMO_RECUSADOS = 10_000;
+
+    // ID sem restaurante, ou restaurante inativo, sem linha na tabela
+    private record Recusa(long em, boolean inativo) {
+    }
+
+    private final RestauranteRepository restauranteRepository;
+    private final VersaoCatalogoService versaoCatalogoService;
+    private final ZonasCep zonas;
+    private final TabelaTaxasEntrega tabela;
+    // Última conferência da versão de cada restaurante com linha na tabela, em epoch millis
+    private final ConcurrentHashMap<Long, Long> verificadoEm = new ConcurrentHashMap<>();
+    // IDs que o banco recusou há menos de intervaloVerificacaoMs: não voltam ao banco a cada cotação
+    private final ConcurrentHashMap<Long, Recusa> recusados = new ConcurrentHashMap<>();
+    private final long intervaloVerificacaoMs;
+
+    private final long porKmCentavos;
+    private final double franquiaKm;
+    private final double raioMaximoKm;
+    private final byte[] faixaPorHora = new byte[24];
+    private final double[] multiplicadores;
+
+    public TaxaEntregaServiceImpl(RestauranteRepository restauranteRepository,
+            VersaoCatalogoService versaoCatalogoService,
+            @Value("${delivery.taxa.zonas-arquivo:classpath:cep/zonas-cep.csv}") Resource arquivoZonas,
+            @Value("${delivery.taxa.por-km:1.50}") BigDecimal porKm,
+            @Value("${delivery.taxa.franquia-km:2}") double franquiaKm,
+            @Value("${delivery.taxa.raio-maximo-km:15}") double raioMaximoKm,
+            @Value("${delivery.taxa.faixas-horario:0=1.0}") String faixasHorario,
+            @Value("${delivery.taxa.verificacao-versao-ms:5000}") long intervaloVerificacaoMs) {
+        this.restauranteRepository = restauranteRepository;
+        this.versaoCatalogoService = versaoCatalogoService;
+        this.intervaloVerificacaoMs = intervaloVerificacaoMs;
+        this.zonas = carregarZonas(arquivoZonas);
+        this.porKmCentavos = porKm.movePointRight(2).longValue();
+        this.franquiaKm = franquiaKm;
+        this.raioMaximoKm = raioMaximoKm;
+        this.multiplicadores = carregarFaixas(faixasHorario);
+        // Coluna extra para CEPs fora das zonas conhecidas, que pagam a taxa base
+        this.tabela = new TabelaTaxasEntrega(zonas.quantidade() + 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void recalcularTodos() {
+        // Versões lidas antes das linhas: uma escrita no meio deixa a versão velha e só força um recálculo
+        Map<Long, Long> versoes = versaoCatalogoService.versoes(restauranteRepository.findIdsAtivos());
+        List<TabelaTaxasEntrega.Linha> linhas = new ArrayList<>();
+        for (Restaurante restaurante : restauranteRepository.findByAtivoTrue()) {
+            linhas.add(new TabelaTaxasEntrega.Linha(restaurante.getId(),
+                    versoes.getOrDefault(restaurante.getId(), TabelaTaxasEntrega.SEM_VERSAO), matriz(restaurante)));
+        }
+        tabela.substituir(linhas);
+        verificadoEm.keySet().removeIf(id -> !tabela.contem(id));
+    }
+
+    // Só lê restaurantes; a tabela de taxas é memória do nó
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> cotar(Long restauranteId, String cep) {
+        int zona = zonaDoCep(cep);
+        int faixa = faixaAtual();
+        int centavos = tabela.taxaCentavos(restauranteId, faixa, zona);
+        if (precisaConferir(restauranteId, centavos)) {
+            long versao = versaoCatalogoService.versao(restauranteId);
+            if (centavos == TabelaTaxasEntrega.NAO_CALCULADO || versao != tabela.versao(restauranteId)) {
+                // Primeira cotação neste nó, ou o restaurante mudou desde o cálculo
+                Restaurante restaurante = restauranteRepository.findById(restauranteId).orElse(null);
+                if (restaurante == null) {
+                    recusar(restauranteId, false);
+                    throw new EntityNotFoundException("Restaurante", restauranteId);
+                }
+                calcular(restaurante, versao);
+                centavos = tabela.taxaCentavos(restauranteId, faixa, zona);
+            }
+        } else if (centavos == TabelaTaxasEntrega.NAO_CALCULADO) {
+            Recusa recusa = recusados.get(restauranteId);
+            if (recusa != null && !recusa.inativo()) {
+                throw new EntityNotFoundException("Restaurante", restauranteId);
+            }
+        }
+        return centavos < 0 ? Optional.empty() : Optional.of(BigDecimal.valueOf(centavos, 2));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> cotarLote(List<Long> restauranteIds, String cep) {
+        int zona = zonaDoCep(cep);
+        int faixa = faixaAtual();
+        Map<Long, BigDecimal> cotacoes = new LinkedHashMap<>(restauranteIds.size() * 4 / 3 + 1);
+        List<Long> conferir = new ArrayList<>();
+        for (Long id : restauranteIds) {
+            int centavos = tabela.taxaCentavos(id, faixa, zona);
+            if (precisaConferir(id, centavos)) {
+                conferir.add(id);
+            }
+            cotacoes.put(id, centavos < 0 ? null : BigDecimal.valueOf(centavos, 2));
+        }
+        if (conferir.isEmpty()) {
+            return cotacoes;
+        }
+        Map<Long, Long> versoes = versaoCatalogoService.versoes(conferir);
+        List<Long> pendentes = new ArrayList<>();
+        for (Long id : conferir) {
+            if (!tabela.contem(id) || versoes.get(id) != tabela.versao(id)) {
+                pendentes.add(id);
+            }
+        }
+        if (!pendentes.isEmpty()) {
+            Set<Long> semRestaurante = new HashSet<>(pendentes);
+            for (Restaurante restaurante : restauranteRepository.findAllById(pendentes)) {
+                semRestaurante.remove(restaurante.getId());
+                calcular(restaurante, versoes.get(restaurante.getId()));
+                int centavos = tabela.taxaCentavos(restaurante.getId(), faixa, zona);
+                cotacoes.put(restaurante.getId(), centavos < 0 ? null : BigDecimal.valueOf(centavos, 2));
+            }
+            semRestaurante.forEach(id -> recusar(id, false));
+        }
+        return cotacoes;
+    }
+
+    /**
+     * Refaz a linha do restaurante. Dentro de uma transação, só depois do
+     * commit: antes disso outro leitor poderia ver a taxa nova com o
+     * restaurante ainda antigo no banco, ou uma taxa de uma escrita desfeita.
+     */
+    @Override
+    public void recalcular(Restaurante restaurante) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    calcular(restaurante, versaoCatalogoService.versao(restaurante.getId()));
+                }
+            });
+        } else {
+            calcular(restaurante, versaoCatalogoService.versao(restaurante.getId()));
+        }
+    }
+
+    // Linha ainda não calculada (e não recusada há pouco), ou versão não conferida há mais de intervaloVerificacaoMs
+    private boolean precisaConferir(Long restauranteId, int centavos) {
+        long agora = System.currentTimeMillis();
+        if (centavos == TabelaTaxasEntrega.NAO_CALCULADO) {
+            Recusa recusa = recusados.get(restauranteId);
+            return recusa == null || agora - recusa.em() >= intervaloVerificacaoMs;
+        }
+        Long ultima = verificadoEm.get(restauranteId);
+        if (ultima != null && agora - ultima < intervaloVerificacaoMs) {
+            return false;
+        }
+        verificadoEm.put(restauranteId, agora);
+        return true;
+    }
+
+    private void calcular(Restaurante restaurante, long versao) {
+        Long id = restaurante.getId();
+        if (!Boolean.TRUE.equals(restaurante.getAtivo())) {
+            tabela.remover(id);
+            verificadoEm.remove(id);
+            recusar(id, true);
+            return;
+        }
+        tabela.atualizar(id, versao, matriz(restaurante));
+        recusados.remove(id);
+        verificadoEm.put(id, System.currentTimeMillis());
+    }
+
+    private void recusar(Long restauranteId, boolean inativo) {
+        long agora = System.currentTimeMillis();
+        if (recusados.size() >= MAXIMO_RECUSADOS) {
+            recusados.values().removeIf(recusa -> agora - recusa.em() >= intervaloVerificacaoMs);
+            if (recusados.size() >= MAXIMO_RECUSADOS) {
+                recusados.clear();
+            }
+        }
+        recusados.put(restauranteId, new Recusa(agora, inativo));
+    }
+
+    private int[] matriz(Restaurante restaurante) {
+        long base = restaurante.getTaxaEntrega() == null ? 0
+                : restaurante.getTaxaEntrega().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        int quantidadeZonas = zonas.quantidade() + 1;
+        long[] porZona = new long[quantidadeZonas];
+        for (int z = 0; z < quantidadeZonas; z++) {
+            porZona[z] = taxaBaseZona(restaurante, base, z);
+        }
+
+        int[] matriz = new int[multiplicadores.length * quantidadeZonas];
+        for (int f = 0; f < multiplicadores.length; f++) {
+            for (int z = 0; z < quantidadeZonas; z++) {
+                matriz[f * quantidadeZonas + z] = porZona[z] < 0
+                        ? TabelaTaxasEntrega.NAO_ATENDE
+                        : (int) Math.round(porZona[z] * multiplicadores[f]);
+            }
+        }
+        return matriz;
+    }
+
+    private long taxaBaseZona(Restaurante restaurante, long base, int zona) {
+        if (zona == zonas.quantidade() || restaurante.getLatitude() == null || restaurante.getLongitude() == null) {
+            return base;
+        }
+        double distancia = Geo.distanciaKm(restaurante.getLatitude(), restaurante.getLongitude(),
+                zonas.latitude(zona), zonas.longitude(zona));
+        if (distancia > raioMaximoKm) {
+            return TabelaTaxasEntrega.NAO_ATENDE;
+        }
+        return base + Math.round(porKmCentavos * Math.max(0, distancia - franquiaKm));
+    }
+
+    private int zonaDoCep(String cep) {
+        int prefixo = ZonasCep.prefixo(cep);
+        if (prefixo < 0) {
+            throw new BusinessException("CEP inválido: " + cep, "CEP_INVALIDO");
+        }
+        int zona = zonas.zona(prefixo);
+        return zona == ZonasCep.SEM_ZONA ? zonas.quantidade() : zona;
+    }
+
+    private int faixaAtual() {
+        return faixaPorHora[LocalTime.now().getHour()];
+    }
+
+    // Formato: "hora=multiplicador,...", ex.: "0=1.0,11=1.2,14=1.0,18=1.3,23=1.0"
+    private double[] carregarFaixas(String definicao) {
+        TreeMap<Integer, Double> inicios = new TreeMap<>();
+        for (String parte : definicao.split(",")) {
+            String[] chaveValor = parte.trim().split("=");
+            inicios.put(Integer.parseInt(chaveValor[0].trim()), Double.parseDouble(chaveValor[1].trim()));
+        }
+        inicios.putIfAbsent(0, 1.0);
+        double[] valores = new double[inicios.size()];
+        int indice = 0;
+        for (Map.Entry<Integer, Double> faixa : inicios.entrySet()) {
+            valores[indice] = faixa.getValue();
+            Integer proxima = inicios.higherKey(faixa.getKey());
+            for (int hora = faixa.getKey(); hora < (proxima == null ? 24 : proxima); hora++) {
+                faixaPorHora[hora] = (byte) indice;
+            }
+            indice++;
+        }
+        return valores;
+    }
+
+    // Formato CSV: "prefixo;latitude;longitude", com linhas iniciadas por # ignoradas
+    private static ZonasCep carregarZonas(Resource arquivo) {
+        List<String[]> linhas = new ArrayList<>();
+        if (arquivo.exists()) {
+            try (BufferedReader leitor = new BufferedReader(
+                    new InputStreamReader(arquivo.getInputStream(), StandardCharsets.UTF_8))) {
+                String linha;
+                while ((linha = leitor.readLine()) != null) {
+                    linha = linha.trim();
+                    if (!linha.isEmpty() && !linha.startsWith("#")) {
+                        linhas.add(linha.split(";"));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao ler zonas de CEP", e);
+            }
+        }
+        int[] prefixos = new int[linhas.size()];
+        double[] latitudes = new double[prefixos.length];
+        double[] longitudes = new double[prefixos.length];
+        for (int i = 0; i < prefixos.length; i++) {
+            String[] campos = linhas.get(i);
+            prefixos[i] = Integer.parseInt(campos[0].trim());
+            latitudes[i] = Double.parseDouble(campos[1].trim());
+            longitudes[i] = Double.parseDouble(campos[2].trim());
+        }
+        return new ZonasCep(prefixos, latitudes, longitudes);
+    }
+}
@@ -0,0 +1,124 @@
+package com.deliverytech.delivery.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.deliverytech.delivery.catalog.CatalogoAlteradoEvent;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Contadores de versão por restaurante, base dos ETags do catálogo. Ler não
+ * cria contador: restaurante que nunca foi escrito tem versão 0, e uma leitura
+ * com ID qualquer não deixa nada em memória nem no Redis. O contador nasce na
+ * primeira escrita, no instante em ms: depois de um restart ou de um flush do
+ * Redis a numeração das escritas seguintes não volta a valores já entregues em
+ * ETags antigos.
+ *
+ * <p>No modo {@code local} os contadores ficam em memória e só servem para
+ * uma instância; com várias instâncias use {@code redis}, senão uma
+ * instância que não viu a escrita responderia 304 com conteúdo velho.
+ */
+@Service
+public class VersaoCatalogoServiceImpl implements VersaoCatalogoService {
+
+    private static final String PREFIXO = "catalogo:versao:";
+
+    private final ConcurrentHashMap<Long, AtomicLong> versoes = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redis;
+    private final ApplicationEventPublisher eventos;
+    private final Counter incrementos;
+
+    public VersaoCatalogoServiceImpl(ObjectProvider<StringRedisTemplate> redisTemplate,
+            ApplicationEventPublisher eventos,
+            MeterRegistry registry,
+            @Value("${delivery.catalogo.versoes.modo:local}") String modo) {
+        if ("redis".equalsIgnoreCase(modo)) {
+            this.redis = redisTemplate.getObject();
+        } else if ("local".equalsIgnoreCase(modo)) {
+            this.redis = null;
+        } else {
+            throw new IllegalArgumentException("delivery.catalogo.versoes.modo deve ser 'local' ou 'redis': " + modo);
+        }
+        this.eventos = eventos;
+        this.incrementos = Counter.builder("catalogo.versao.incrementos")
+                .description("Escritas que invalidaram os ETags de um restaurante")
+                .register(registry);
+    }
+
+    @Override
+    public long versao(Long restauranteId) {
+        if (redis == null) {
+            AtomicLong contador = versoes.get(restauranteId);
+            return contador == null ? 0 : contador.get();
+        }
+        String valor = redis.opsForValue().get(PREFIXO + restauranteId);
+        return valor == null ? 0 : Long.parseLong(valor);
+    }
+
+    @Override
+    public Map<Long, Long> versoes(Collection<Long> restauranteIds) {
+        Map<Long, Long> versoes = new HashMap<>(restauranteIds.size() * 4 / 3 + 1);
+        if (redis == null) {
+            for (Long id : restauranteIds) {
+                versoes.put(id, versao(id));
+            }
+            return versoes;
+        }
+        List<Long> ids = new ArrayList<>(restauranteIds);
+        List<String> chaves = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            chaves.add(PREFIXO + id);
+        }
+        List<String> valores = ids.isEmpty() ? List.of() : redis.opsForValue().multiGet(chaves);
+        for (int i = 0; i < ids.size(); i++) {
+            String valor = valores == null ? null : valores.get(i);
+            versoes.put(ids.get(i), valor == null ? 0 : Long.parseLong(valor));
+        }
+        return versoes;
+    }
+
+    @Override
+    public void incrementar(Long restauranteId) {
+        if (restauranteId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementarAgora(restauranteId);
+                }
+            });
+        } else {
+            incrementarAgora(restauranteId);
+        }
+    }
+
+    private void incrementarAgora(Long restauranteId) {
+        incrementos.increment();
+        if (redis == null) {
+            versoes.computeIfAbsent(restauranteId, id -> new AtomicLong(System.currentTimeMillis())).incrementAndGet();
+        } else {
+            String chave = PREFIXO + restauranteId;
+            redis.opsForValue().setIfAbsent(chave, Long.toString(System.currentTimeMillis()));
+            redis.opsForValue().increment(chave);
+        }
+        eventos.publishEvent(new CatalogoAlteradoEvent(restauranteId));
+    }
+}
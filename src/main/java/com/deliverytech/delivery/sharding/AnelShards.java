@@ -0,0 +1,105 @@
+package com.deliverytech.delivery.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Anel de hash consistente com nós virtuais: cada shard ocupa
+ * {@code nosVirtuais} posições no anel e um restaurante pertence ao primeiro
+ * nó no sentido horário a partir do hash do seu ID. Incluir um shard muda o
+ * dono de só ~1/N dos restaurantes, que o {@link Resharding} move.
+ *
+ * <p>As posições dependem apenas do nome do shard, nunca da ordem de
+ * configuração nem da URL: o mesmo nome cai no mesmo lugar em todas as
+ * instâncias e em todas as versões. Imutável.
+ */
+public final class AnelShards {
+
+    private final List<String> shards;
+    private final long[] posicoes;
+    private final String[] donos;
+
+    public AnelShards(List<String> shards, int nosVirtuais) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("O anel precisa de pelo menos um shard");
+        }
+        if (nosVirtuais < 1) {
+            throw new IllegalArgumentException("nosVirtuais deve ser positivo: " + nosVirtuais);
+        }
+        this.shards = List.copyOf(shards);
+        int total = this.shards.size() * nosVirtuais;
+        long[][] pares = new long[total][];
+        int k = 0;
+        for (int s = 0; s < this.shards.size(); s++) {
+            long base = fnv1a(this.shards.get(s));
+            for (int v = 0; v < nosVirtuais; v++) {
+                pares[k++] = new long[] { misturar(base + misturar(v + 1)), s };
+            }
+        }
+        // Empate de posição (raríssimo) desempata pelo índice, para ser determinístico
+        Arrays.sort(pares, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.posicoes = new long[total];
+        this.donos = new String[total];
+        for (int i = 0; i < total; i++) {
+            posicoes[i] = pares[i][0];
+            donos[i] = this.shards.get((int) pares[i][1]);
+        }
+    }
+
+    public static AnelShards unico(String shard) {
+        return new AnelShards(List.of(shard), 1);
+    }
+
+    public String shardDe(long restauranteId) {
+        long h = misturar(restauranteId);
+        int i = Arrays.binarySearch(posicoes, h);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return donos[i == posicoes.length ? 0 : i];
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    /** Fração do espaço de hash de cada shard; serve para conferir o equilíbrio do anel. */
+    public Map<String, Double> distribuicao() {
+        Map<String, Double> fracoes = new LinkedHashMap<>();
+        for (String shard : shards) {
+            fracoes.put(shard, 0.0);
+        }
+        double espaco = Math.pow(2, 64);
+        for (int i = 0; i < posicoes.length; i++) {
+            // O arco que termina na posição i pertence ao dono dela; a subtração sem sinal dá a volta no anel
+            long anterior = posicoes[i == 0 ? posicoes.length - 1 : i - 1];
+            long arco = posicoes[i] - anterior;
+            double tamanho = posicoes.length == 1 ? espaco : (arco >>> 1) * 2.0 + (arco & 1);
+            fracoes.merge(donos[i], tamanho / espaco, Double::sum);
+        }
+        return fracoes;
+    }
+
+    // Nomes parecidos ("s1", "s2") precisam de bases bem diferentes; String.hashCode não espalha o bastante
+    static long fnv1a(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // Finalizador do MurmurHash3: espalha IDs sequenciais pelo anel inteiro
+    static long misturar(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
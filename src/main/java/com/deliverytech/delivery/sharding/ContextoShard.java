@@ -0,0 +1,26 @@
+package com.deliverytech.delivery.sharding;
+
+/**
+ * Shard da thread corrente, lido pelo {@link RoteadorShards} quando a
+ * transação pede a conexão. Só o {@link ShardsPedidos} liga e desliga; sem
+ * shard ligado a conexão vem do banco principal.
+ */
+public final class ContextoShard {
+
+    private static final ThreadLocal<String> ATUAL = new ThreadLocal<>();
+
+    private ContextoShard() {
+    }
+
+    public static String atual() {
+        return ATUAL.get();
+    }
+
+    static void definir(String shard) {
+        if (shard == null) {
+            ATUAL.remove();
+        } else {
+            ATUAL.set(shard);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.deliverytech.delivery.sharding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Copia as tabelas de referência que os pedidos referenciam (restaurante,
+ * clientes, produto) do principal para todos os shards. Sem isso as chaves
+ * estrangeiras de {@code pedido} e {@code item_pedido} nos shards recusam o
+ * pedido e as junções com produto e restaurante voltam vazias.
+ *
+ * <p>Os serviços avisam cada escrita; a cópia roda depois do commit no
+ * principal (ou na hora, fora de transação), lendo a linha já gravada e
+ * aplicando update-ou-insert em cada shard. Uma cópia perdida (shard fora,
+ * queda entre o commit e a cópia) é refeita por {@link #sincronizarTudo}, que
+ * roda no boot. Linhas apagadas no principal ficam nos shards enquanto
+ * houver pedidos apontando para elas.
+ *
+ * <p>Sem shards ({@link #desligada()}) todos os métodos retornam sem fazer nada.
+ */
+public class ReplicacaoReferencias {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicacaoReferencias.class);
+
+    // Ordem das chaves estrangeiras: produto aponta para restaurante
+    private static final List<String> TABELAS = List.of("restaurante", "clientes", "produto");
+
+    private final DataSource principal;
+    private final Map<String, DataSource> shards;
+    private final int tamanhoLote;
+
+    public ReplicacaoReferencias(DataSource principal, Map<String, DataSource> shards, int tamanhoLote) {
+        this.principal = principal;
+        this.shards = new LinkedHashMap<>(shards);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public static ReplicacaoReferencias desligada() {
+        return new ReplicacaoReferencias(null, Map.of(), 1);
+    }
+
+    public boolean ligada() {
+        return !shards.isEmpty();
+    }
+
+    public void restaurante(Long id) {
+        replicar("restaurante", "id", id);
+    }
+
+    public void cliente(Long id) {
+        replicar("clientes", "id", id);
+    }
+
+    public void produto(Long id) {
+        replicar("produto", "id", id);
+    }
+
+    /** Para as atualizações em lote, que não passam pelas entidades. */
+    public void produtosDoRestaurante(Long restauranteId) {
+        replicar("produto", "restaurante_id", restauranteId);
+    }
+
+    public void clienteRemovido(Long id) {
+        if (!ligada() || id == null) {
+            return;
+        }
+        depoisDoCommit(() -> {
+            for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+                try {
+                    emTransacao(shard.getValue(), jdbc -> jdbc.update("delete from clientes where id = ?", id));
+                } catch (DataIntegrityViolationException e) {
+                    log.info("Cliente {} mantido em '{}': ainda há pedidos dele", id, shard.getKey());
+                } catch (DataAccessException e) {
+                    log.warn("Falha ao remover cliente {} de '{}': {}", id, shard.getKey(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    /** Copia todas as linhas de referência do principal, em lotes por ID. Devolve quantas linhas leu. */
+    public int sincronizarTudo() {
+        if (!ligada()) {
+            return 0;
+        }
+        int total = 0;
+        for (String tabela : TABELAS) {
+            long cursor = Long.MIN_VALUE;
+            while (true) {
+                long inicio = cursor;
+                List<Map<String, Object>> linhas = emTransacao(principal, jdbc -> jdbc.queryForList("select * from "
+                        + tabela + " where id > ? order by id fetch first " + tamanhoLote + " rows only", inicio));
+                if (linhas.isEmpty()) {
+                    break;
+                }
+                for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+                    gravar(shard.getValue(), tabela, linhas);
+                }
+                total += linhas.size();
+                cursor = ((Number) linhas.get(linhas.size() - 1).get("id")).longValue();
+            }
+        }
+        return total;
+    }
+
+    private void replicar(String tabela, String coluna, Long valor) {
+        if (!ligada() || valor == null) {
+            return;
+        }
+        depoisDoCommit(() -> {
+            List<Map<String, Object>> linhas = emTransacao(principal, jdbc -> jdbc.queryForList(
+                    "select * from " + tabela + " where " + coluna + " = ?", valor));
+            if (linhas.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+                try {
+                    gravar(shard.getValue(), tabela, linhas);
+                } catch (DataAccessException e) {
+                    log.warn("Cópia de {} {}={} para '{}' falhou; refeita na próxima sincronização: {}",
+                            tabela, coluna, valor, shard.getKey(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static void depoisDoCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    // Update e, para o que não existia, insert: SQL que vale no H2 e no PostgreSQL
+    private static void gravar(DataSource shard, String tabela, List<Map<String, Object>> linhas) {
+        // Mapas que ignoram maiúsculas: "id" vale tanto no H2 quanto no PostgreSQL
+        List<String> colunas = new ArrayList<>(linhas.get(0).keySet());
+        List<String> atribuicoes = new ArrayList<>();
+        for (String coluna : colunas) {
+            if (!coluna.equalsIgnoreCase("id")) {
+                atribuicoes.add(coluna + " = ?");
+            }
+        }
+        String atualizar = "update " + tabela + " set " + String.join(", ", atribuicoes) + " where id = ?";
+        String inserir = "insert into " + tabela + " (" + String.join(", ", colunas) + ") values ("
+                + String.join(", ", Collections.nCopies(colunas.size(), "?")) + ")";
+
+        List<Object[]> atualizacoes = new ArrayList<>(linhas.size());
+        for (Map<String, Object> linha : linhas) {
+            Object[] valores = new Object[colunas.size()];
+            int i = 0;
+            for (String coluna : colunas) {
+                if (!coluna.equalsIgnoreCase("id")) {
+                    valores[i++] = linha.get(coluna);
+                }
+            }
+            valores[i] = linha.get("id");
+            atualizacoes.add(valores);
+        }
+        emTransacao(shard, jdbc -> {
+            int[] atualizadas = jdbc.batchUpdate(atualizar, atualizacoes);
+            List<Object[]> novas = new ArrayList<>();
+            for (int i = 0; i < linhas.size(); i++) {
+                if (atualizadas[i] == 0) {
+                    Map<String, Object> linha = linhas.get(i);
+                    Object[] valores = new Object[colunas.size()];
+                    for (int c = 0; c < colunas.size(); c++) {
+                        valores[c] = linha.get(colunas.get(c));
+                    }
+                    novas.add(valores);
+                }
+            }
+            if (!novas.isEmpty()) {
+                jdbc.batchUpdate(inserir, novas);
+            }
+            return null;
+        });
+    }
+
+    // Transação própria em cada banco: chamado no afterCommit, o JDBC solto se prenderia à sincronização que já terminou
+    private static <T> T emTransacao(DataSource dataSource, Function<JdbcTemplate, T> acao) {
+        TransactionTemplate transacao = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transacao.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        return transacao.execute(status -> acao.apply(new JdbcTemplate(dataSource)));
+    }
+}
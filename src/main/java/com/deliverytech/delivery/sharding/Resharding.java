@@ -0,0 +1,180 @@
+package com.deliverytech.delivery.sharding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Move os pedidos que estão no shard errado para o dono atual no
+ * {@link AnelShards}. Serve para incluir ou retirar um shard: muda-se o anel
+ * na configuração e roda-se esta ferramenta (ou roda-se antes e de novo
+ * depois da troca, para pegar o que foi escrito no meio).
+ *
+ * <p>Trabalha direto nos pools dos shards, por restaurante e em lotes por ID.
+ * Cada lote é primeiro copiado para o destino (pulando linhas que já estão
+ * lá) e só depois apagado da origem, então uma execução interrompida não
+ * perde nada e a seguinte continua de onde parou. Também leva o arquivo frio
+ * ({@code pedido_arquivado}) do restaurante.
+ */
+public class Resharding {
+
+    private static final Logger log = LoggerFactory.getLogger(Resharding.class);
+
+    public record Resumo(int restaurantes, int pedidos, int arquivados) {
+    }
+
+    private final Map<String, DataSource> shards;
+    private final AnelShards anel;
+    private final int tamanhoLote;
+    private final long pausaMs;
+
+    public Resharding(Map<String, DataSource> shards, AnelShards anel, int tamanhoLote, long pausaMs) {
+        this.shards = new LinkedHashMap<>(shards);
+        this.anel = anel;
+        this.tamanhoLote = tamanhoLote;
+        this.pausaMs = pausaMs;
+        for (String shard : anel.shards()) {
+            if (!this.shards.containsKey(shard)) {
+                throw new IllegalArgumentException("Shard do anel sem data source: " + shard);
+            }
+        }
+    }
+
+    /** Percorre todos os shards configurados, inclusive os que saíram do anel e precisam ser esvaziados. */
+    public Resumo executar() {
+        int restaurantes = 0;
+        int pedidos = 0;
+        int arquivados = 0;
+        for (Map.Entry<String, DataSource> origem : shards.entrySet()) {
+            JdbcTemplate jdbc = new JdbcTemplate(origem.getValue());
+            Set<Long> ids = new HashSet<>(jdbc.queryForList("select distinct restaurante_id from pedido "
+                    + "where restaurante_id is not null", Long.class));
+            ids.addAll(jdbc.queryForList("select distinct restaurante_id from pedido_arquivado "
+                    + "where restaurante_id is not null", Long.class));
+            for (Long restauranteId : ids) {
+                String destino = anel.shardDe(restauranteId);
+                if (destino.equals(origem.getKey())) {
+                    continue;
+                }
+                log.info("Resharding: restaurante {} de '{}' para '{}'", restauranteId, origem.getKey(), destino);
+                pedidos += moverPedidos(origem.getValue(), shards.get(destino), restauranteId);
+                arquivados += moverArquivados(origem.getValue(), shards.get(destino), restauranteId);
+                restaurantes++;
+            }
+        }
+        return new Resumo(restaurantes, pedidos, arquivados);
+    }
+
+    private int moverPedidos(DataSource origem, DataSource destino, Long restauranteId) {
+        JdbcTemplate leitura = new JdbcTemplate(origem);
+        int movidos = 0;
+        long cursor = Long.MIN_VALUE;
+        while (true) {
+            List<Long> ids = leitura.queryForList("select id from pedido where restaurante_id = ? and id > ? "
+                    + "order by id fetch first " + tamanhoLote + " rows only", Long.class, restauranteId, cursor);
+            if (ids.isEmpty()) {
+                return movidos;
+            }
+            emTransacao(destino, jdbc -> {
+                copiar(leitura, jdbc, "pedido", "id", ids);
+                copiar(leitura, jdbc, "item_pedido", "pedido_id", ids);
+            });
+            emTransacao(origem, jdbc -> {
+                jdbc.update("delete from item_pedido where pedido_id in (" + marcadores(ids.size()) + ")", ids.toArray());
+                jdbc.update("delete from pedido where id in (" + marcadores(ids.size()) + ")", ids.toArray());
+            });
+            movidos += ids.size();
+            cursor = ids.get(ids.size() - 1);
+            pausar();
+        }
+    }
+
+    private int moverArquivados(DataSource origem, DataSource destino, Long restauranteId) {
+        JdbcTemplate leitura = new JdbcTemplate(origem);
+        int movidos = 0;
+        long cursor = Long.MIN_VALUE;
+        while (true) {
+            List<Long> ids = leitura.queryForList("select id from pedido_arquivado where restaurante_id = ? and id > ? "
+                    + "order by id fetch first " + tamanhoLote + " rows only", Long.class, restauranteId, cursor);
+            if (ids.isEmpty()) {
+                return movidos;
+            }
+            emTransacao(destino, jdbc -> copiar(leitura, jdbc, "pedido_arquivado", "id", ids));
+            emTransacao(origem, jdbc ->
+                    jdbc.update("delete from pedido_arquivado where id in (" + marcadores(ids.size()) + ")", ids.toArray()));
+            movidos += ids.size();
+            cursor = ids.get(ids.size() - 1);
+            pausar();
+        }
+    }
+
+    /** Copia as linhas de {@code tabela} com {@code coluna in valores}, menos as que o destino já tem. */
+    private static void copiar(JdbcTemplate origem, JdbcTemplate destino, String tabela, String coluna, List<Long> valores) {
+        String filtro = " where " + coluna + " in (" + marcadores(valores.size()) + ")";
+        // Mapas que ignoram maiúsculas: "id" vale tanto no H2 quanto no PostgreSQL
+        List<Map<String, Object>> linhas = origem.queryForList("select * from " + tabela + filtro, valores.toArray());
+        if (linhas.isEmpty()) {
+            return;
+        }
+        Set<Long> existentes = new HashSet<>(destino.queryForList("select id from " + tabela + " where id in ("
+                + marcadores(linhas.size()) + ")", Long.class, idsDe(linhas).toArray()));
+        List<String> colunas = new ArrayList<>(linhas.get(0).keySet());
+        String inserir = "insert into " + tabela + " (" + String.join(", ", colunas) + ") values ("
+                + marcadores(colunas.size()) + ")";
+        List<Object[]> novas = new ArrayList<>(linhas.size());
+        for (Map<String, Object> linha : linhas) {
+            if (existentes.contains(((Number) linha.get("id")).longValue())) {
+                continue;
+            }
+            Object[] valoresLinha = new Object[colunas.size()];
+            for (int i = 0; i < colunas.size(); i++) {
+                valoresLinha[i] = linha.get(colunas.get(i));
+            }
+            novas.add(valoresLinha);
+        }
+        destino.batchUpdate(inserir, novas);
+    }
+
+    private static List<Long> idsDe(List<Map<String, Object>> linhas) {
+        List<Long> ids = new ArrayList<>(linhas.size());
+        for (Map<String, Object> linha : linhas) {
+            ids.add(((Number) linha.get("id")).longValue());
+        }
+        return ids;
+    }
+
+    private static String marcadores(int quantidade) {
+        return String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
+    private static void emTransacao(DataSource dataSource, Consumer<JdbcTemplate> acao) {
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+                .executeWithoutResult(status -> acao.accept(new JdbcTemplate(dataSource)));
+    }
+
+    private void pausar() {
+        if (pausaMs <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(pausaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Resharding interrompido", e);
+        }
+    }
+}
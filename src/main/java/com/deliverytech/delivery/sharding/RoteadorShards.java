@@ -0,0 +1,45 @@
+package com.deliverytech.delivery.sharding;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Data source único exposto ao JPA: cada conexão sai do shard ligado em
+ * {@link ContextoShard} ou, sem shard, do banco principal (tabelas de
+ * referência: restaurantes, produtos, clientes, usuários e campanhas).
+ */
+public class RoteadorShards extends AbstractRoutingDataSource {
+
+    private final DataSource principal;
+    private final Map<String, DataSource> shards;
+
+    public RoteadorShards(DataSource principal, Map<String, DataSource> shards) {
+        this.principal = principal;
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        setDefaultTargetDataSource(principal);
+        setTargetDataSources(new HashMap<>(shards));
+        // Shard desconhecido é erro de configuração, não motivo para escrever no principal
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public DataSource principal() {
+        return principal;
+    }
+
+    /** Pools de cada shard, na ordem de configuração. */
+    public Map<String, DataSource> shards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ContextoShard.atual();
+    }
+}
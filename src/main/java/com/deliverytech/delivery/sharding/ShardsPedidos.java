@@ -0,0 +1,198 @@
+package com.deliverytech.delivery.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.deliverytech.delivery.sql.ContadorConsultas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ponto único de acesso aos dados de pedidos particionados por restaurante.
+ * Cada operação roda numa transação aberta já com o shard escolhido, porque
+ * o {@link RoteadorShards} decide o banco quando a transação pede a conexão.
+ * Por isso os métodos de pedidos não usam {@code @Transactional}: quem chama
+ * passa a ação para {@link #noRestaurante} ou {@link #noShard}.
+ *
+ * <p>Consultas sem o restaurante (por cliente, por ID) vão a todos os shards
+ * em paralelo; {@link #reunir} intercala as listas já ordenadas de cada um.
+ * Com um shard só (sharding desligado) tudo roda na thread chamadora, sem
+ * custo extra.
+ */
+public class ShardsPedidos {
+
+    private final AnelShards anel;
+    private final boolean roteado;
+    private final TransactionTemplate escrita;
+    private final TransactionTemplate leitura;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final Timer reunioes;
+
+    public ShardsPedidos(AnelShards anel, boolean roteado, PlatformTransactionManager transactionManager,
+            int threads, long timeoutMs, MeterRegistry registry) {
+        this.anel = anel;
+        this.roteado = roteado;
+        this.escrita = new TransactionTemplate(transactionManager);
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.timeoutMs = timeoutMs;
+        if (anel.shards().size() > 1) {
+            AtomicInteger sequencia = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "shards-" + sequencia.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.executor = null;
+        }
+        this.reunioes = Timer.builder("delivery.shards.reuniao")
+                .description("Consultas espalhadas por todos os shards, da ida à intercalação")
+                .register(registry);
+    }
+
+    public String shardDe(Long restauranteId) {
+        return anel.shardDe(restauranteId);
+    }
+
+    public List<String> shards() {
+        return anel.shards();
+    }
+
+    public <T> T noRestaurante(Long restauranteId, boolean somenteLeitura, Supplier<T> acao) {
+        return noShard(anel.shardDe(restauranteId), somenteLeitura, acao);
+    }
+
+    public <T> T noShard(String shard, boolean somenteLeitura, Supplier<T> acao) {
+        TransactionTemplate transacao = somenteLeitura ? leitura : escrita;
+        String anterior = ContextoShard.atual();
+        if (shard.equals(anterior)) {
+            return transacao.execute(status -> acao.get());
+        }
+        if (roteado && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Transação já aberta em '" + (anterior == null ? "principal" : anterior)
+                    + "': o shard '" + shard + "' precisa ser escolhido antes dela");
+        }
+        ContextoShard.definir(shard);
+        try {
+            return transacao.execute(status -> acao.get());
+        } finally {
+            ContextoShard.definir(anterior);
+        }
+    }
+
+    /** Roda a ação em cada shard, em paralelo; os resultados vêm na ordem de {@link #shards()}. */
+    public <T> List<T> emTodos(boolean somenteLeitura, Supplier<T> acao) {
+        List<String> shards = anel.shards();
+        if (executor == null) {
+            return List.of(noShard(shards.get(0), somenteLeitura, acao));
+        }
+        List<Future<T>> futuros = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            futuros.add(executor.submit(ContadorConsultas.propagar(() -> noShard(shard, somenteLeitura, acao))));
+        }
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<T> resultados = new ArrayList<>(shards.size());
+        try {
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Shards não responderam em " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando os shards", e);
+        } finally {
+            for (Future<T> futuro : futuros) {
+                futuro.cancel(true);
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Scatter-gather: a consulta roda em todos os shards e devolve uma lista
+     * já ordenada por {@code ordem}; as listas são intercaladas sem reordenar
+     * tudo de novo.
+     */
+    public <T> List<T> reunir(Supplier<List<T>> consulta, Comparator<? super T> ordem) {
+        return reunioes.record(() -> intercalar(emTodos(true, consulta), ordem));
+    }
+
+    /** O resultado do primeiro shard (na ordem do anel) que encontrou algo. */
+    public <T> Optional<T> buscar(Supplier<Optional<T>> consulta) {
+        for (Optional<T> resultado : emTodos(true, consulta)) {
+            if (resultado.isPresent()) {
+                return resultado;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Shard em que a condição é verdadeira, para quem precisa escrever num pedido conhecido só pelo ID. */
+    public Optional<String> localizar(Supplier<Boolean> existe) {
+        List<Boolean> respostas = emTodos(true, existe);
+        for (int i = 0; i < respostas.size(); i++) {
+            if (Boolean.TRUE.equals(respostas.get(i))) {
+                return Optional.of(anel.shards().get(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    static <T> List<T> intercalar(List<List<T>> listas, Comparator<? super T> ordem) {
+        if (listas.size() == 1) {
+            return listas.get(0);
+        }
+        int total = 0;
+        for (List<T> lista : listas) {
+            total += lista.size();
+        }
+        // Cabeça de cada lista: {índice da lista, posição}
+        PriorityQueue<int[]> cabecas = new PriorityQueue<>(Math.max(1, listas.size()),
+                (a, b) -> ordem.compare(listas.get(a[0]).get(a[1]), listas.get(b[0]).get(b[1])));
+        for (int i = 0; i < listas.size(); i++) {
+            if (!listas.get(i).isEmpty()) {
+                cabecas.add(new int[] { i, 0 });
+            }
+        }
+        List<T> resultado = new ArrayList<>(total);
+        while (!cabecas.isEmpty()) {
+            int[] cabeca = cabecas.poll();
+            List<T> lista = listas.get(cabeca[0]);
+            resultado.add(lista.get(cabeca[1]));
+            if (++cabeca[1] < lista.size()) {
+                cabecas.add(cabeca);
+            }
+        }
+        return resultado;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
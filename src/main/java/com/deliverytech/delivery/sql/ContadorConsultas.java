@@ -0,0 +1,153 @@
+package com.deliverytech.delivery.sql;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Conta os comandos SQL executados pela thread atual dentro de um
+ * {@link Escopo}. O {@link InspetorConsultas} registra cada comando que o
+ * Hibernate prepara; fora de um escopo o registro é um {@code ThreadLocal.get}
+ * e nada mais.
+ *
+ * <p>Escopos podem ser aninhados (o teste abre um, o filtro HTTP abre outro
+ * dentro dele): ao fechar, a contagem do interno soma no externo. O trabalho
+ * que a requisição entrega a outras threads (subtarefas, consultas nos
+ * shards, renovação de cache) passa por {@link #propagar}: a outra thread
+ * conta num escopo filho, somado ao da requisição quando a tarefa termina,
+ * antes de quem espera por ela voltar. O que termina depois de o escopo da
+ * requisição fechar não é contado.
+ *
+ * <p>O Hibernate gera o mesmo texto com {@code ?} para cada execução de uma
+ * consulta, então N+1 aparece como um comando idêntico repetido N vezes.
+ */
+public final class ContadorConsultas {
+
+    private static final ThreadLocal<Escopo> ATUAL = new ThreadLocal<>();
+
+    private ContadorConsultas() {
+    }
+
+    /** Comando repetido dentro de um escopo: suspeita de N+1. */
+    public record ConsultaRepetida(String sql, int vezes) {
+    }
+
+    public static Escopo abrir() {
+        return abrir(ATUAL.get());
+    }
+
+    private static Escopo abrir(Escopo pai) {
+        Escopo escopo = new Escopo(pai, ATUAL.get());
+        ATUAL.set(escopo);
+        return escopo;
+    }
+
+    /** A tarefa, para rodar em outra thread contando no escopo atual; ela mesma fora de escopo. */
+    public static <T> Callable<T> propagar(Callable<T> tarefa) {
+        Escopo pai = ATUAL.get();
+        if (pai == null) {
+            return tarefa;
+        }
+        return () -> {
+            try (Escopo escopo = abrir(pai)) {
+                return tarefa.call();
+            }
+        };
+    }
+
+    public static Runnable propagar(Runnable tarefa) {
+        Escopo pai = ATUAL.get();
+        if (pai == null) {
+            return tarefa;
+        }
+        return () -> {
+            try (Escopo escopo = abrir(pai)) {
+                tarefa.run();
+            }
+        };
+    }
+
+    static void registrar(String sql) {
+        Escopo escopo = ATUAL.get();
+        if (escopo != null) {
+            escopo.registrar(sql);
+        }
+    }
+
+    /** Sincronizado: escopos filhos de outras threads somam nele ao fechar. */
+    public static final class Escopo implements AutoCloseable {
+
+        // Onde a contagem soma ao fechar; pode ser de outra thread
+        private final Escopo pai;
+        // O que volta a ser o escopo desta thread ao fechar
+        private final Escopo anterior;
+        private final Map<String, Integer> porComando = new HashMap<>();
+        private int total;
+        private boolean fechado;
+
+        private Escopo(Escopo pai, Escopo anterior) {
+            this.pai = pai;
+            this.anterior = anterior;
+        }
+
+        private synchronized void registrar(String sql) {
+            total++;
+            porComando.merge(sql, 1, Integer::sum);
+        }
+
+        private synchronized void somar(int total, Map<String, Integer> porComando) {
+            if (fechado) {
+                return;
+            }
+            this.total += total;
+            porComando.forEach((sql, vezes) -> this.porComando.merge(sql, vezes, Integer::sum));
+        }
+
+        public synchronized int total() {
+            return total;
+        }
+
+        /** Comandos executados pelo menos {@code limite} vezes, do mais repetido ao menos. */
+        public synchronized List<ConsultaRepetida> repetidas(int limite) {
+            List<ConsultaRepetida> repetidas = new ArrayList<>();
+            for (Map.Entry<String, Integer> entrada : porComando.entrySet()) {
+                if (entrada.getValue() >= limite) {
+                    repetidas.add(new ConsultaRepetida(entrada.getKey(), entrada.getValue()));
+                }
+            }
+            repetidas.sort(Comparator.comparingInt(ConsultaRepetida::vezes).reversed());
+            return repetidas;
+        }
+
+        public synchronized List<String> comandos() {
+            return new ArrayList<>(porComando.keySet());
+        }
+
+        @Override
+        public void close() {
+            int contados;
+            Map<String, Integer> comandos;
+            synchronized (this) {
+                if (fechado) {
+                    return;
+                }
+                fechado = true;
+                contados = total;
+                comandos = new HashMap<>(porComando);
+            }
+            if (ATUAL.get() == this) {
+                if (anterior != null) {
+                    ATUAL.set(anterior);
+                } else {
+                    ATUAL.remove();
+                }
+            }
+            if (pai != null) {
+                pai.somar(contados, comandos);
+            }
+        }
+    }
+}
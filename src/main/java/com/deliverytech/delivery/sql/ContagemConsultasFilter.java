@@ -0,0 +1,87 @@
+package com.deliverytech.delivery.sql;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.deliverytech.delivery.sql.ContadorConsultas.ConsultaRepetida;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conta os comandos SQL de uma fração das requisições. Por rota (o padrão do
+ * mapeamento, não a URI, para não explodir a cardinalidade) registra quantos
+ * comandos a requisição executou e, quando um mesmo comando se repete
+ * {@code limiteRepeticoes} vezes ou mais, conta e loga a suspeita de N+1.
+ */
+public class ContagemConsultasFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ContagemConsultasFilter.class);
+    private static final int MAX_SQL_LOG = 300;
+
+    private final MeterRegistry registry;
+    private final double taxaAmostragem;
+    private final int limiteRepeticoes;
+
+    public ContagemConsultasFilter(MeterRegistry registry, double taxaAmostragem, int limiteRepeticoes) {
+        this.registry = registry;
+        this.taxaAmostragem = taxaAmostragem;
+        this.limiteRepeticoes = limiteRepeticoes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (taxaAmostragem <= 0 || ThreadLocalRandom.current().nextDouble() >= taxaAmostragem) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ContadorConsultas.Escopo escopo = ContadorConsultas.abrir();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            escopo.close();
+            registrar(request, escopo);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, ContadorConsultas.Escopo escopo) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String rota = request.getMethod() + " " + (padrao != null ? padrao : "desconhecida");
+
+        DistributionSummary.builder("delivery.sql.comandos")
+                .description("Comandos SQL por requisição amostrada")
+                .tag("rota", rota)
+                .register(registry)
+                .record(escopo.total());
+
+        List<ConsultaRepetida> repetidas = escopo.repetidas(limiteRepeticoes);
+        if (repetidas.isEmpty()) {
+            return;
+        }
+        Counter.builder("delivery.sql.n_mais_um")
+                .description("Requisições amostradas com comando SQL repetido (suspeita de N+1)")
+                .tag("rota", rota)
+                .register(registry)
+                .increment();
+        ConsultaRepetida pior = repetidas.get(0);
+        log.warn("Suspeita de N+1 em {}: {} comandos, o mais repetido {}x: {}", rota, escopo.total(),
+                pior.vezes(), abreviar(pior.sql()));
+    }
+
+    private static String abreviar(String sql) {
+        String linha = sql.replaceAll("\\s+", " ").trim();
+        return linha.length() <= MAX_SQL_LOG ? linha : linha.substring(0, MAX_SQL_LOG) + "...";
+    }
+}
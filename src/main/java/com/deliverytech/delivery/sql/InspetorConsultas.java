@@ -0,0 +1,17 @@
+package com.deliverytech.delivery.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Registrado em {@code hibernate.session_factory.statement_inspector}: vê
+ * cada comando antes do prepare e o entrega ao {@link ContadorConsultas} sem
+ * alterá-lo.
+ */
+public class InspetorConsultas implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        ContadorConsultas.registrar(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,162 @@
+package com.deliverytech.delivery.writebehind;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.StatusPedido;
+
+/**
+ * Write-behind dos status de pedidos. Cada mudança vai para o
+ * {@link LogStatus} (a chamada só volta depois do fsync) e para um mapa com o
+ * último status de cada pedido, pelo qual as leituras passam. O banco recebe
+ * as mudanças em {@link #descarregar}: só o status final de cada pedido na
+ * janela, então um pedido que passou por cinco status entre duas descargas
+ * custa uma linha.
+ *
+ * <p>Se o processo cair, o log é relido na abertura e o que não chegou ao
+ * banco volta para o mapa.
+ */
+public class BufferStatus implements Closeable {
+
+    private final ConcurrentHashMap<Long, RegistroStatus> pendentes = new ConcurrentHashMap<>();
+    // Anexar ao log e publicar no mapa é atômico: quem lê a última sequência vê tudo até ela no mapa
+    private final ReentrantLock publicacao = new ReentrantLock();
+    private final ReentrantLock descarga = new ReentrantLock();
+    private final LogStatus log;
+
+    private final AtomicLong registrados = new AtomicLong();
+    private final AtomicLong gravados = new AtomicLong();
+
+    public BufferStatus(Path diretorio, int tamanhoSegmento) {
+        this.log = new LogStatus(diretorio, tamanhoSegmento,
+                r -> pendentes.merge(r.pedidoId(), r, (atual, novo) -> novo.sequencia() > atual.sequencia() ? novo : atual));
+    }
+
+    /**
+     * Registra a mudança, com o instante de agora; quando volta, ela sobrevive
+     * a uma queda do processo.
+     */
+    public void registrar(long pedidoId, long restauranteId, StatusPedido status) {
+        long sequencia;
+        publicacao.lock();
+        try {
+            // Milissegundos: é a precisão do log
+            LocalDateTime instante = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            sequencia = log.anexar(pedidoId, restauranteId, instante, status);
+            pendentes.put(pedidoId, new RegistroStatus(sequencia, pedidoId, restauranteId, instante, status));
+        } finally {
+            publicacao.unlock();
+        }
+        registrados.incrementAndGet();
+        log.aguardar(sequencia);
+    }
+
+    /** Status ainda não gravado no banco, se houver. */
+    public Optional<StatusPedido> pendente(Long pedidoId) {
+        RegistroStatus registro = pendentes.get(pedidoId);
+        return registro == null ? Optional.empty() : Optional.of(registro.status());
+    }
+
+    /** Pedidos cujo último status, ainda não gravado no banco, é {@code status}. */
+    public List<Long> pendentesCom(StatusPedido status) {
+        List<Long> ids = new ArrayList<>();
+        for (RegistroStatus registro : pendentes.values()) {
+            if (registro.status() == status) {
+                ids.add(registro.pedidoId());
+            }
+        }
+        return ids;
+    }
+
+    /** Aplica o status pendente ao pedido lido do banco (que ainda pode estar no anterior). */
+    public Pedido sobrepor(Pedido pedido) {
+        if (pedido != null && pedido.getId() != null) {
+            RegistroStatus registro = pendentes.get(pedido.getId());
+            if (registro != null) {
+                pedido.setStatus(registro.status());
+            }
+        }
+        return pedido;
+    }
+
+    public List<Pedido> sobrepor(List<Pedido> pedidos) {
+        if (!pendentes.isEmpty()) {
+            for (Pedido pedido : pedidos) {
+                sobrepor(pedido);
+            }
+        }
+        return pedidos;
+    }
+
+    /**
+     * Entrega a {@code gravar} o último status de cada pedido mudado até agora.
+     * Se {@code gravar} falhar, nada sai do mapa e a próxima descarga tenta de
+     * novo (gravar o mesmo status outra vez não muda nada). Mudanças que chegam
+     * durante a gravação ficam para a próxima. Devolve quantos pedidos foram
+     * gravados; com outra descarga em andamento, volta zero sem esperar.
+     */
+    public int descarregar(Consumer<List<RegistroStatus>> gravar) {
+        if (!descarga.tryLock()) {
+            return 0;
+        }
+        try {
+            long limite;
+            publicacao.lock();
+            try {
+                limite = log.ultimaSequencia();
+            } finally {
+                publicacao.unlock();
+            }
+            List<RegistroStatus> lote = new ArrayList<>();
+            for (RegistroStatus registro : pendentes.values()) {
+                if (registro.sequencia() <= limite) {
+                    lote.add(registro);
+                }
+            }
+            if (!lote.isEmpty()) {
+                gravar.accept(lote);
+                for (RegistroStatus registro : lote) {
+                    pendentes.remove(registro.pedidoId(), registro);
+                }
+                gravados.addAndGet(lote.size());
+            }
+            // Tudo até o limite está no banco ou foi superado por algo depois dele
+            log.checkpoint(limite);
+            return lote.size();
+        } finally {
+            descarga.unlock();
+        }
+    }
+
+    public int pendentes() {
+        return pendentes.size();
+    }
+
+    /** Mudanças recebidas; comparado a {@link #gravados()}, mostra quanto a coalescência poupou. */
+    public long registrados() {
+        return registrados.get();
+    }
+
+    public long gravados() {
+        return gravados.get();
+    }
+
+    public long sincronizacoes() {
+        return log.sincronizacoes();
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+}
@@ -0,0 +1,382 @@
+package com.deliverytech.delivery.writebehind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.deliverytech.delivery.model.StatusPedido;
+
+/**
+ * Log de escrita antecipada (WAL) das mudanças de status, em segmentos de
+ * tamanho fixo mapeados em memória. Cada registro tem 40 bytes:
+ *
+ * <pre>
+ * sequência (8) | pedido (8) | restaurante (8) | instante (8) | status (4) | CRC32C dos 36 anteriores (4)
+ * </pre>
+ *
+ * O instante é o da mudança, em milissegundos ({@code LocalDateTime} lido como UTC).
+ *
+ * O status é gravado pelo ordinal, então {@link StatusPedido} só pode
+ * crescer no fim. Anexar só escreve no mapeamento; uma única thread faz o
+ * {@code force()} e libera de uma vez todos que esperavam em
+ * {@link #aguardar}. Com muitas escritas simultâneas, um fsync cobre o lote
+ * inteiro que chegou enquanto o anterior rodava.
+ *
+ * <p>Na abertura, os segmentos são relidos em ordem e os registros depois do
+ * checkpoint (o que já está no banco) são entregues a quem abriu. A leitura
+ * de um segmento para no primeiro registro zerado ou com CRC errado: é o fim
+ * do que foi escrito nele ou uma escrita interrompida pela queda, que
+ * ninguém chegou a confirmar. A escrita continua num segmento novo, a
+ * partir da última sequência válida.
+ */
+public class LogStatus implements Closeable {
+
+    static final int TAMANHO_REGISTRO = 40;
+    private static final int TAMANHO_CONTEUDO = 36;
+    private static final String PREFIXO = "status-";
+    private static final String SUFIXO = ".wal";
+    private static final StatusPedido[] STATUS = StatusPedido.values();
+
+    private static final Logger log = LoggerFactory.getLogger(LogStatus.class);
+
+    private record Segmento(long primeiraSequencia, Path arquivo) {
+    }
+
+    private final Path diretorio;
+    private final Path arquivoCheckpoint;
+    private final int tamanhoSegmento;
+
+    private final ReentrantLock trava = new ReentrantLock();
+    private final Condition haPendentes = trava.newCondition();
+    private final Condition sincronizado = trava.newCondition();
+    // Mais antigo primeiro; o último é o que recebe escritas
+    private final Deque<Segmento> segmentos = new ArrayDeque<>();
+    private MappedByteBuffer atual;
+    private long ultimaSequencia;
+    private long sequenciaDuravel;
+    private volatile long checkpoint;
+    private boolean aberto = true;
+
+    private final Thread sincronizador;
+    private final AtomicLong sincronizacoes = new AtomicLong();
+
+    /**
+     * @param tamanhoSegmento bytes por segmento, arredondado para baixo a um múltiplo de 40
+     * @param recuperado      recebe, em ordem, os registros ainda não confirmados no banco
+     */
+    public LogStatus(Path diretorio, int tamanhoSegmento, Consumer<RegistroStatus> recuperado) {
+        if (tamanhoSegmento < TAMANHO_REGISTRO) {
+            throw new IllegalArgumentException("Segmento menor que um registro: " + tamanhoSegmento);
+        }
+        this.diretorio = diretorio;
+        this.arquivoCheckpoint = diretorio.resolve("checkpoint");
+        this.tamanhoSegmento = tamanhoSegmento - tamanhoSegmento % TAMANHO_REGISTRO;
+        try {
+            Files.createDirectories(diretorio);
+            this.checkpoint = lerCheckpoint();
+            this.ultimaSequencia = recuperar(recuperado);
+            this.sequenciaDuravel = ultimaSequencia;
+            abrirSegmento();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir o log de status em " + diretorio, e);
+        }
+        this.sincronizador = Thread.ofPlatform().name("status-wal-fsync").daemon().start(this::sincronizar);
+    }
+
+    /** Anexa o registro e devolve a sequência dele; ainda não é durável, veja {@link #aguardar}. */
+    public long anexar(long pedidoId, long restauranteId, LocalDateTime instante, StatusPedido status) {
+        trava.lock();
+        try {
+            if (!aberto) {
+                throw new IllegalStateException("Log de status fechado");
+            }
+            if (atual.remaining() < TAMANHO_REGISTRO) {
+                rolar();
+            }
+            long sequencia = ++ultimaSequencia;
+            int inicio = atual.position();
+            atual.putLong(sequencia).putLong(pedidoId).putLong(restauranteId)
+                    .putLong(instante.toInstant(ZoneOffset.UTC).toEpochMilli()).putInt(status.ordinal());
+            atual.putInt(crc(atual, inicio));
+            haPendentes.signal();
+            return sequencia;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /** Bloqueia até o registro de {@code sequencia} estar em disco. */
+    public void aguardar(long sequencia) {
+        trava.lock();
+        try {
+            while (sequenciaDuravel < sequencia) {
+                if (!aberto) {
+                    throw new IllegalStateException("Log de status fechado antes do fsync da sequência " + sequencia);
+                }
+                sincronizado.awaitUninterruptibly();
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public long ultimaSequencia() {
+        trava.lock();
+        try {
+            return ultimaSequencia;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Registra que tudo até {@code sequencia} já está no banco: grava o
+     * checkpoint e apaga os segmentos que ficaram inteiros para trás. Chamado
+     * por uma thread só (a da descarga); o fsync do checkpoint não segura quem
+     * está anexando.
+     */
+    public void checkpoint(long sequencia) {
+        if (sequencia <= checkpoint) {
+            return;
+        }
+        try {
+            gravarCheckpoint(sequencia);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o checkpoint do log de status", e);
+        }
+        List<Path> descartados = new ArrayList<>();
+        trava.lock();
+        try {
+            checkpoint = sequencia;
+            // Um segmento termina onde o seguinte começa; o atual nunca sai
+            while (segmentos.size() > 1) {
+                Segmento maisAntigo = segmentos.removeFirst();
+                if (segmentos.peekFirst().primeiraSequencia() - 1 > sequencia) {
+                    segmentos.addFirst(maisAntigo);
+                    break;
+                }
+                descartados.add(maisAntigo.arquivo());
+            }
+        } finally {
+            trava.unlock();
+        }
+        for (Path arquivo : descartados) {
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException e) {
+                log.warn("Segmento {} não pôde ser apagado: {}", arquivo, e.getMessage());
+            }
+        }
+    }
+
+    public long sincronizacoes() {
+        return sincronizacoes.get();
+    }
+
+    public int segmentos() {
+        trava.lock();
+        try {
+            return segmentos.size();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Group commit: cada force() cobre tudo o que foi anexado até o instante em que começou
+    private void sincronizar() {
+        while (true) {
+            MappedByteBuffer alvo;
+            long ate;
+            trava.lock();
+            try {
+                while (aberto && ultimaSequencia == sequenciaDuravel) {
+                    haPendentes.awaitUninterruptibly();
+                }
+                if (ultimaSequencia == sequenciaDuravel) {
+                    return;
+                }
+                alvo = atual;
+                ate = ultimaSequencia;
+            } finally {
+                trava.unlock();
+            }
+            alvo.force();
+            sincronizacoes.incrementAndGet();
+            trava.lock();
+            try {
+                sequenciaDuravel = Math.max(sequenciaDuravel, ate);
+                sincronizado.signalAll();
+            } finally {
+                trava.unlock();
+            }
+        }
+    }
+
+    // Com a trava: fecha o segmento cheio em disco e abre o próximo
+    private void rolar() {
+        atual.force();
+        sincronizacoes.incrementAndGet();
+        sequenciaDuravel = ultimaSequencia;
+        sincronizado.signalAll();
+        try {
+            abrirSegmento();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir novo segmento do log de status", e);
+        }
+    }
+
+    private void abrirSegmento() throws IOException {
+        long primeira = ultimaSequencia + 1;
+        Path arquivo = diretorio.resolve(String.format("%s%020d%s", PREFIXO, primeira, SUFIXO));
+        // Um segmento com o mesmo início não tem nenhum registro válido: é reaproveitado do zero
+        if (!segmentos.isEmpty() && segmentos.peekLast().primeiraSequencia() == primeira) {
+            segmentos.removeLast();
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            atual = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+        }
+        // Garante que o arquivo novo aparece no diretório depois de uma queda
+        forcarDiretorio();
+        segmentos.addLast(new Segmento(primeira, arquivo));
+    }
+
+    private long recuperar(Consumer<RegistroStatus> recuperado) throws IOException {
+        List<Segmento> existentes = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.forEach(arquivo -> {
+                String nome = arquivo.getFileName().toString();
+                if (nome.startsWith(PREFIXO) && nome.endsWith(SUFIXO)) {
+                    existentes.add(new Segmento(Long.parseLong(
+                            nome.substring(PREFIXO.length(), nome.length() - SUFIXO.length())), arquivo));
+                }
+            });
+        }
+        existentes.sort((a, b) -> Long.compare(a.primeiraSequencia(), b.primeiraSequencia()));
+
+        long anterior = -1;
+        int reaplicados = 0;
+        boolean lacuna = false;
+        for (Segmento segmento : existentes) {
+            segmentos.addLast(segmento);
+            if (lacuna) {
+                continue;
+            }
+            try (FileChannel canal = FileChannel.open(segmento.arquivo(), StandardOpenOption.READ)) {
+                MappedByteBuffer conteudo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                while (conteudo.remaining() >= TAMANHO_REGISTRO) {
+                    int inicio = conteudo.position();
+                    long sequencia = conteudo.getLong();
+                    long pedidoId = conteudo.getLong();
+                    long restauranteId = conteudo.getLong();
+                    long instante = conteudo.getLong();
+                    int status = conteudo.getInt();
+                    int crc = conteudo.getInt();
+                    // Fim do que foi escrito neste segmento (ou escrita rasgada, nunca confirmada).
+                    // O segmento seguinte, aberto depois do reinício, continua da última sequência válida
+                    if (sequencia <= 0 || crc != crc(conteudo, inicio) || status < 0 || status >= STATUS.length) {
+                        break;
+                    }
+                    if (anterior >= 0 && sequencia != anterior + 1) {
+                        log.warn("Log de status com lacuna em {} (sequência {} depois de {}): o resto é descartado",
+                                segmento.arquivo().getFileName(), sequencia, anterior);
+                        lacuna = true;
+                        break;
+                    }
+                    anterior = sequencia;
+                    if (sequencia > checkpoint) {
+                        recuperado.accept(new RegistroStatus(sequencia, pedidoId, restauranteId,
+                                LocalDateTime.ofInstant(Instant.ofEpochMilli(instante), ZoneOffset.UTC), STATUS[status]));
+                        reaplicados++;
+                    }
+                }
+            }
+        }
+        if (reaplicados > 0) {
+            log.info("Log de status: {} mudanças recuperadas depois do checkpoint {}", reaplicados, checkpoint);
+        }
+        return Math.max(anterior, checkpoint);
+    }
+
+    private long lerCheckpoint() throws IOException {
+        if (!Files.exists(arquivoCheckpoint)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(arquivoCheckpoint)).getLong();
+    }
+
+    // Escreve ao lado e troca com rename atômico: um checkpoint pela metade não existe
+    private void gravarCheckpoint(long sequencia) throws IOException {
+        Path temporario = diretorio.resolve("checkpoint.tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            canal.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequencia));
+            canal.force(true);
+        }
+        Files.move(temporario, arquivoCheckpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void forcarDiretorio() {
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Nem todo sistema de arquivos deixa abrir diretórios; o arquivo ainda assim existe
+        }
+    }
+
+    private static int crc(ByteBuffer buffer, int inicio) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(inicio, TAMANHO_CONTEUDO));
+        return (int) crc.getValue();
+    }
+
+    /** Para o fsync em segundo plano depois de um último fsync do que já foi anexado. */
+    @Override
+    public void close() {
+        trava.lock();
+        try {
+            if (!aberto) {
+                return;
+            }
+            aberto = false;
+            haPendentes.signal();
+        } finally {
+            trava.unlock();
+        }
+        try {
+            sincronizador.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        trava.lock();
+        try {
+            sincronizado.signalAll();
+        } finally {
+            trava.unlock();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.deliverytech.delivery.writebehind;
+
+import java.time.LocalDateTime;
+
+import com.deliverytech.delivery.model.StatusPedido;
+
+/**
+ * Uma mudança de status no log. A sequência é global e crescente no nó:
+ * para o mesmo pedido, a maior é a que vale. O restaurante vai junto porque
+ * decide o shard na hora de gravar; o instante, porque decide se a linha no
+ * banco ainda pode ser sobrescrita.
+ */
+public record RegistroStatus(long sequencia, long pedidoId, long restauranteId, LocalDateTime instante,
+        StatusPedido status) {
+}
@@ -0,0 +1,95 @@
+-- Esquema equivalente ao que o ddl-auto=update gerava a partir das entidades.
+-- SQL portável entre H2 2.x e PostgreSQL; índices ficam nas pastas por banco.
+
+create table restaurante (
+    id bigint generated by default as identity primary key,
+    nome varchar(255),
+    categoria varchar(255),
+    telefone varchar(255),
+    taxa_entrega numeric(38, 2),
+    tempo_entrega_minutos integer not null,
+    latitude float(53),
+    longitude float(53),
+    ativo boolean
+);
+
+create table produto (
+    id bigint generated by default as identity primary key,
+    nome varchar(255),
+    categoria varchar(255),
+    descricao varchar(255),
+    preco numeric(38, 2),
+    disponivel boolean,
+    restaurante_id bigint references restaurante (id)
+);
+
+create table clientes (
+    id bigint generated by default as identity primary key,
+    nome varchar(255) not null,
+    email varchar(255) not null unique,
+    telefone varchar(255),
+    ativo boolean,
+    data_criacao timestamp(6),
+    rua varchar(255),
+    numero varchar(255),
+    bairro varchar(255),
+    cidade varchar(255),
+    estado varchar(255),
+    cep varchar(255),
+    latitude float(53),
+    longitude float(53)
+);
+
+create table pedido (
+    id bigint generated by default as identity primary key,
+    cliente_id bigint references clientes (id),
+    restaurante_id bigint references restaurante (id),
+    total numeric(38, 2),
+    desconto numeric(38, 2),
+    status varchar(20),
+    data_pedido timestamp(6),
+    rua varchar(255),
+    numero varchar(255),
+    bairro varchar(255),
+    cidade varchar(255),
+    estado varchar(255),
+    cep varchar(255),
+    latitude float(53),
+    longitude float(53),
+    entregador_id bigint
+);
+
+create table item_pedido (
+    id bigint generated by default as identity primary key,
+    pedido_id bigint references pedido (id),
+    produto_id bigint references produto (id),
+    quantidade integer,
+    preco_unitario numeric(38, 2)
+);
+
+create table usuario (
+    id bigint generated by default as identity primary key,
+    email varchar(255) unique,
+    senha varchar(255),
+    nome varchar(255),
+    role varchar(20),
+    ativo boolean,
+    data_criacao timestamp(6),
+    restaurante_id bigint
+);
+
+create table campanha (
+    id bigint generated by default as identity primary key,
+    nome varchar(255),
+    restaurante_id bigint,
+    categoria varchar(255),
+    produto_id bigint,
+    coorte varchar(20),
+    cupom varchar(255),
+    tipo_desconto varchar(20),
+    valor numeric(38, 2),
+    inicio timestamp(6),
+    fim timestamp(6),
+    ativo boolean,
+    atualizado_em timestamp(6)
+);
@@ -0,0 +1,6 @@
+-- Quando o status do pedido mudou pela última vez. A descarga do
+-- write-behind só grava sobre linhas com instante anterior ao da mudança
+-- que ela traz: um status gravado depois (por outro nó, ou na hora) não é
+-- sobrescrito por um que ficou esperando no buffer.
+
+alter table pedido add column status_atualizado_em timestamp(6);
@@ -0,0 +1,27 @@
+-- Índices dos caminhos de acesso dos repositórios. O H2 não tem índice
+-- parcial nem de expressão: as versões completas servem ao desenvolvimento
+-- e ao teste de planos (PlanoConsultasTest); o PostgreSQL tem as suas.
+
+-- PedidoRepository.findByRestauranteId, filas por restaurante e status
+create index idx_pedido_restaurante_status_data on pedido (restaurante_id, status, data_pedido);
+-- PedidoRepository.findByClienteId (histórico do cliente, mais recentes primeiro)
+create index idx_pedido_cliente_data on pedido (cliente_id, data_pedido desc);
+-- PedidoRepository.findByStatus
+create index idx_pedido_status_data on pedido (status, data_pedido);
+-- PedidoRepository.findByDataPedidoBetween e contarPorRestauranteDesde
+create index idx_pedido_data_restaurante on pedido (data_pedido, restaurante_id);
+
+create index idx_item_pedido_pedido on item_pedido (pedido_id);
+create index idx_item_pedido_produto on item_pedido (produto_id);
+
+-- ProdutoRepository.findByRestauranteId e operações em lote por categoria
+create index idx_produto_restaurante_categoria on produto (restaurante_id, categoria);
+-- ProdutoRepository.findByCategoria
+create index idx_produto_categoria on produto (categoria);
+
+-- RestauranteRepository.findByAtivoTrue, findByCategoria, findByNome
+create index idx_restaurante_ativo on restaurante (ativo);
+create index idx_restaurante_categoria on restaurante (categoria);
+create index idx_restaurante_nome on restaurante (nome);
+
+create index idx_clientes_ativo on clientes (ativo);
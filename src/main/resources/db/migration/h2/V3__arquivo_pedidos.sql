@@ -0,0 +1,17 @@
+-- Arquivo frio de pedidos finalizados (ENTREGUE/CANCELADO). Só recebe
+-- inserções: cada linha guarda o pedido e os itens num JSON comprimido com
+-- gzip, e as colunas abertas são só as usadas nas buscas.
+-- No H2 a tabela é única; o particionamento por mês fica na variante PostgreSQL.
+
+create table pedido_arquivado (
+    id bigint primary key,
+    cliente_id bigint,
+    restaurante_id bigint,
+    status varchar(20),
+    data_pedido timestamp(6) not null,
+    arquivado_em timestamp(6) not null,
+    conteudo varbinary(1048576) not null
+);
+
+create index idx_pedido_arquivado_cliente_data on pedido_arquivado (cliente_id, data_pedido desc);
+create index idx_pedido_arquivado_restaurante_data on pedido_arquivado (restaurante_id, data_pedido desc);
@@ -0,0 +1,31 @@
+-- Índices dos caminhos de acesso dos repositórios, com as variantes parciais
+-- e de expressão que só o PostgreSQL suporta.
+
+-- PedidoRepository.findByRestauranteId, filas por restaurante e status
+create index idx_pedido_restaurante_status_data on pedido (restaurante_id, status, data_pedido);
+-- PedidoRepository.findByClienteId (histórico do cliente, mais recentes primeiro)
+create index idx_pedido_cliente_data on pedido (cliente_id, data_pedido desc);
+-- PedidoRepository.findByStatus: só os status em andamento são consultados com frequência;
+-- ENTREGUE/CANCELADO são a maior parte da tabela e ficam de fora do índice
+create index idx_pedido_em_andamento on pedido (status, data_pedido)
+    where status in ('CRIADO', 'CONFIRMADO', 'EM_PREPARACAO', 'ENVIADO');
+-- PedidoRepository.findByDataPedidoBetween e contarPorRestauranteDesde (index-only scan)
+create index idx_pedido_data_restaurante on pedido (data_pedido, restaurante_id);
+
+create index idx_item_pedido_pedido on item_pedido (pedido_id);
+create index idx_item_pedido_produto on item_pedido (produto_id);
+
+-- Cardápio público: ProdutoRepository.findByRestauranteId de itens disponíveis
+create index idx_produto_restaurante_disponivel on produto (restaurante_id) where disponivel;
+-- ProdutoRepository.findByRestauranteId (painel do restaurante) e lote por categoria,
+-- que compara lower(categoria)
+create index idx_produto_restaurante_categoria on produto (restaurante_id, lower(categoria));
+-- ProdutoRepository.findByCategoria
+create index idx_produto_categoria on produto (categoria);
+
+-- RestauranteRepository.findByAtivoTrue
+create index idx_restaurante_ativos on restaurante (id) where ativo;
+create index idx_restaurante_categoria on restaurante (categoria);
+create index idx_restaurante_nome on restaurante (nome);
+
+create index idx_clientes_ativos on clientes (id) where ativo;
@@ -0,0 +1,32 @@
+-- Arquivo frio de pedidos finalizados (ENTREGUE/CANCELADO). Só recebe
+-- inserções: cada linha guarda o pedido e os itens num JSON comprimido com
+-- gzip, e as colunas abertas são só as usadas nas buscas.
+--
+-- Particionada por data do pedido. A partição padrão recebe tudo até que
+-- partições mensais sejam criadas; partições antigas podem ir para outro
+-- tablespace ou ser desanexadas sem tocar nas tabelas quentes.
+
+create table pedido_arquivado (
+    id bigint not null,
+    cliente_id bigint,
+    restaurante_id bigint,
+    status varchar(20),
+    data_pedido timestamp(6) not null,
+    arquivado_em timestamp(6) not null,
+    conteudo bytea not null,
+    primary key (id, data_pedido)
+) partition by range (data_pedido);
+
+-- O conteúdo já vem comprimido: sem TOAST comprimindo de novo
+alter table pedido_arquivado alter column conteudo set storage external;
+
+create table pedido_arquivado_padrao partition of pedido_arquivado default;
+
+-- Busca por ID sem a data (PedidoService.buscarPorId): varre o índice de cada partição
+create index idx_pedido_arquivado_id on pedido_arquivado (id);
+create index idx_pedido_arquivado_cliente_data on pedido_arquivado (cliente_id, data_pedido desc);
+create index idx_pedido_arquivado_restaurante_data on pedido_arquivado (restaurante_id, data_pedido desc);
+
+-- Seleção do job de arquivamento: só os finalizados, mais antigos, em ordem de ID
+create index idx_pedido_finalizados on pedido (data_pedido, id)
+    where status in ('ENTREGUE', 'CANCELADO');
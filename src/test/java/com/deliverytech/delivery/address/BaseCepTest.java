@@ -0,0 +1,130 @@
+package com.deliverytech.delivery.address;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BaseCepTest {
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void compilaOrdenaEDeduplicaMantendoAPrimeiraOcorrencia() throws IOException {
+        String csv = """
+                # cep;logradouro;bairro;cidade;uf;latitude;longitude
+                20040-002;Av. Rio Branco;Centro;Rio de Janeiro;RJ;-22.9035;-43.1766
+                01001000;Praça da Sé;Sé;São Paulo;SP;-23.5503;-46.6340
+                invalido;x;x;x;XX;0;0
+                01001000;Duplicada;Sé;São Paulo;SP;0;0
+
+                30130-010;;Centro;Belo Horizonte;MG;-19.9191;-43.9386
+                """;
+        Path arquivo = pasta.resolve("cep.bin");
+        assertEquals(3, CompiladorBaseCep.compilar(new StringReader(csv), arquivo, 42L));
+
+        BaseCep base = BaseCep.mapear(arquivo);
+        assertEquals(3, base.quantidade());
+        assertEquals(42L, base.impressaoFonte());
+        assertEquals(BaseCep.CABECALHO + 3L * BaseCep.TAMANHO_REGISTRO, Files.size(arquivo));
+
+        int se = base.buscar(1001000);
+        assertEquals(0, se);
+        assertEquals("Praça da Sé", base.logradouro(se));
+        assertEquals("Sé", base.bairro(se));
+        assertEquals("São Paulo", base.cidade(se));
+        assertEquals("SP", base.uf(se));
+        assertEquals(-23.5503, base.latitude(se), 1e-4);
+        assertEquals(-46.6340, base.longitude(se), 1e-4);
+
+        int bh = base.buscar(30130010);
+        assertEquals("", base.logradouro(bh));
+        assertEquals("MG", base.uf(bh));
+        assertEquals(BaseCep.NAO_ENCONTRADO, base.buscar(1001001));
+        assertEquals(BaseCep.NAO_ENCONTRADO, base.buscar(0));
+        assertEquals(BaseCep.NAO_ENCONTRADO, base.buscar(99999999));
+    }
+
+    @Test
+    void buscaBinariaAchaTodasAsChavesENenhumaAusente() throws IOException {
+        Random aleatorio = new Random(3);
+        TreeMap<Integer, String> ceps = new TreeMap<>();
+        StringBuilder csv = new StringBuilder();
+        while (ceps.size() < 2000) {
+            int cep = aleatorio.nextInt(100_000_000);
+            if (ceps.putIfAbsent(cep, "Rua " + cep) == null) {
+                csv.append(BaseCep.formatar(cep)).append(";Rua ").append(cep).append(";B;C;SP;-23.5;-46.6\n");
+            }
+        }
+        Path arquivo = pasta.resolve("cep.bin");
+        CompiladorBaseCep.compilar(new StringReader(csv.toString()), arquivo, 0L);
+        BaseCep base = BaseCep.mapear(arquivo);
+
+        int indice = 0;
+        for (var entrada : ceps.entrySet()) {
+            assertEquals(indice, base.buscar(entrada.getKey()));
+            assertEquals(entrada.getKey(), base.cep(indice));
+            assertEquals(entrada.getValue(), base.logradouro(indice));
+            indice++;
+        }
+        for (int i = 0; i < 2000; i++) {
+            int cep = aleatorio.nextInt(100_000_000);
+            if (!ceps.containsKey(cep)) {
+                assertEquals(BaseCep.NAO_ENCONTRADO, base.buscar(cep));
+            }
+        }
+    }
+
+    @Test
+    void truncaTextoLongoSemQuebrarCaractereMultibyte() throws IOException {
+        // 49 bytes de "a" seguidos de "é" (2 bytes): o "é" não cabe nos 50 bytes do logradouro
+        String logradouro = "a".repeat(BaseCep.TAM_LOGRADOURO - 1) + "ééé";
+        Path arquivo = pasta.resolve("cep.bin");
+        CompiladorBaseCep.compilar(new StringReader("01001000;" + logradouro + ";B;C;SP;0;0\n"), arquivo, 0L);
+
+        String lido = BaseCep.mapear(arquivo).logradouro(0);
+        assertEquals("a".repeat(BaseCep.TAM_LOGRADOURO - 1), lido);
+    }
+
+    @Test
+    void recusaArquivoDeOutroFormatoOuTruncado() throws IOException {
+        Path antigo = pasta.resolve("antigo.bin");
+        Files.write(antigo, new byte[] { 0x43, 0x45, 0x50, 0x31, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, (byte) 128 });
+        assertThrows(IllegalStateException.class, () -> BaseCep.mapear(antigo));
+
+        Path arquivo = pasta.resolve("cep.bin");
+        CompiladorBaseCep.compilar(new StringReader("01001000;R;B;C;SP;0;0\n20040002;R;B;C;RJ;0;0\n"), arquivo, 0L);
+        byte[] bytes = Files.readAllBytes(arquivo);
+        Path truncado = pasta.resolve("truncado.bin");
+        Files.write(truncado, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IllegalStateException.class, () -> BaseCep.mapear(truncado));
+    }
+
+    @Test
+    void normalizaEFormata() throws IOException {
+        assertEquals(1001000, BaseCep.normalizar("01001-000"));
+        assertEquals(1001000, BaseCep.normalizar("01.001 000"));
+        assertEquals(-1, BaseCep.normalizar("0100100"));
+        assertEquals(-1, BaseCep.normalizar("01001-00a"));
+        assertEquals(-1, BaseCep.normalizar(null));
+        assertEquals("01001-000", BaseCep.formatar(1001000));
+
+        byte[] fonte = "01001000;R;B;C;SP;0;0\n".getBytes(StandardCharsets.UTF_8);
+        long impressao = CompiladorBaseCep.impressao(new ByteArrayInputStream(fonte));
+        assertEquals(impressao, CompiladorBaseCep.impressao(new ByteArrayInputStream(fonte)));
+        assertTrue(impressao != CompiladorBaseCep.impressao(new ByteArrayInputStream("x".getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,82 @@
+package com.deliverytech.delivery.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.deliverytech.delivery.dispatch.AgrupadorRotas;
+import com.deliverytech.delivery.dispatch.LoteEntrega;
+import com.deliverytech.delivery.dispatch.PedidoPendente;
+
+/**
+ * Agrupamento de rotas sobre cidades sintéticas: restaurantes espalhados numa
+ * grade e destinos com dispersão normal em torno de cada restaurante.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgrupadorRotasBenchmark {
+
+    @Param({"50", "500"})
+    private int restaurantes;
+
+    @Param({"500", "5000"})
+    private int pedidos;
+
+    @Param({"1", "4"})
+    private int maxPedidosPorLote;
+
+    private List<PedidoPendente> prontos;
+    private AgrupadorRotas agrupador;
+
+    @Setup(Level.Trial)
+    public void gerarCidade() {
+        Random random = new Random(42);
+        int lado = (int) Math.ceil(Math.sqrt(restaurantes));
+        prontos = new ArrayList<>(pedidos);
+        for (long i = 0; i < pedidos; i++) {
+            int r = random.nextInt(restaurantes);
+            double lat = -23.70 + (r / lado) * 0.02;
+            double lon = -46.80 + (r % lado) * 0.02;
+            prontos.add(new PedidoPendente(i, (long) r, lat, lon,
+                    lat + random.nextGaussian() * 0.02, lon + random.nextGaussian() * 0.02, i));
+        }
+        agrupador = new AgrupadorRotas(ForkJoinPool.commonPool(), 2.0, maxPedidosPorLote);
+
+        List<LoteEntrega> lotes = agrupador.agrupar(prontos, TimeUnit.MILLISECONDS.toNanos(50));
+        System.out.printf("%n%d pedidos -> %d viagens (%.2f pedidos/viagem)%n",
+                pedidos, lotes.size(), (double) pedidos / lotes.size());
+    }
+
+    @Benchmark
+    public List<LoteEntrega> agrupar() {
+        return agrupador.agrupar(prontos, TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AgrupadorRotasBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.deliverytech.delivery.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.deliverytech.delivery.catalog.Compressao;
+import com.deliverytech.delivery.dto.response.ProdutoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Uma resposta de cardápio com gzip: serializar e comprimir a cada
+ * requisição (caminho antigo) vs copiar os bytes já comprimidos do cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardapioSerializadoBenchmark {
+
+    @Param({"20", "200"})
+    private int itens;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private List<ProdutoResponse> produtos;
+    private byte[] gzipPronto;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        produtos = new ArrayList<>(itens);
+        for (long i = 0; i < itens; i++) {
+            produtos.add(new ProdutoResponse(i, "Pizza Calabresa " + i, "Pizza",
+                    "Pizza Calabresa com muçarela e cebola", new BigDecimal("49.90"), true));
+        }
+        gzipPronto = Compressao.gzip(json.writeValueAsBytes(produtos));
+    }
+
+    @Benchmark
+    public byte[] jacksonMaisGzip() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            json.writeValue(gzip, produtos);
+        }
+        return saida.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] acertoNoCache() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(gzipPronto.length);
+        saida.write(gzipPronto);
+        return saida.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardapioSerializadoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
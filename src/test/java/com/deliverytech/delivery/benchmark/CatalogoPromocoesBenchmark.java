@@ -0,0 +1,129 @@
+package com.deliverytech.delivery.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.deliverytech.delivery.model.Campanha;
+import com.deliverytech.delivery.model.CoorteCliente;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.TipoDesconto;
+import com.deliverytech.delivery.promotion.CatalogoPromocoes;
+
+/**
+ * Avaliação de um pedido de 5 itens contra dezenas de milhares de campanhas:
+ * catálogo compilado vs. varredura de todas as campanhas.
+ * Rode com {@code -prof gc} para ver a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogoPromocoesBenchmark {
+
+    private static final String[] CATEGORIAS = {"Pizza", "Lanche", "Bebida", "Sobremesa", "Japonesa", "Salada"};
+
+    @Param({"1000", "50000"})
+    private int campanhas;
+
+    private List<Campanha> todas;
+    private CatalogoPromocoes catalogo;
+    private List<ItemPedido> itens;
+    private long agora;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Random random = new Random(7);
+        LocalDateTime base = LocalDateTime.now();
+        todas = new ArrayList<>(campanhas);
+        for (long i = 0; i < campanhas; i++) {
+            int escopo = random.nextInt(10);
+            todas.add(Campanha.builder()
+                    .id(i)
+                    .restauranteId(escopo < 8 ? (long) random.nextInt(2000) : null)
+                    .categoria(escopo % 3 == 0 ? CATEGORIAS[random.nextInt(CATEGORIAS.length)] : null)
+                    .produtoId(escopo == 1 ? (long) random.nextInt(40_000) : null)
+                    .cupom(escopo == 9 ? "CUPOM" + random.nextInt(500) : null)
+                    .coorte(CoorteCliente.values()[random.nextInt(3)])
+                    .tipoDesconto(random.nextBoolean() ? TipoDesconto.PERCENTUAL : TipoDesconto.VALOR_FIXO)
+                    .valor(BigDecimal.valueOf(1 + random.nextInt(20)))
+                    .inicio(base.minusHours(random.nextInt(48)))
+                    .fim(base.plusHours(1 + random.nextInt(48)))
+                    .ativo(true)
+                    .build());
+        }
+        catalogo = CatalogoPromocoes.compilar(todas, ZoneId.systemDefault());
+        agora = System.currentTimeMillis();
+
+        itens = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Produto produto = Produto.builder()
+                    .id((long) random.nextInt(40_000))
+                    .categoria(CATEGORIAS[i % CATEGORIAS.length])
+                    .preco(new BigDecimal("39.90"))
+                    .build();
+            itens.add(ItemPedido.builder().produto(produto).quantidade(1 + i % 3)
+                    .precoUnitario(produto.getPreco()).build());
+        }
+    }
+
+    @Benchmark
+    public long catalogoCompilado() {
+        return catalogo.descontoCentavos(42L, CoorteCliente.NOVOS, "CUPOM7", agora, itens);
+    }
+
+    @Benchmark
+    public BigDecimal varreduraLinear() {
+        LocalDateTime referencia = LocalDateTime.now();
+        BigDecimal total = BigDecimal.ZERO;
+        for (ItemPedido item : itens) {
+            BigDecimal melhor = BigDecimal.ZERO;
+            for (Campanha c : todas) {
+                boolean aplica = !referencia.isBefore(c.getInicio()) && referencia.isBefore(c.getFim())
+                        && (c.getRestauranteId() == null || c.getRestauranteId() == 42L)
+                        && (c.getProdutoId() == null || c.getProdutoId().equals(item.getProduto().getId()))
+                        && (c.getCategoria() == null || c.getCategoria().equalsIgnoreCase(item.getProduto().getCategoria()))
+                        && (c.getCupom() == null || c.getCupom().equals("CUPOM7"))
+                        && (c.getCoorte() == CoorteCliente.TODOS || c.getCoorte() == CoorteCliente.NOVOS);
+                if (!aplica) {
+                    continue;
+                }
+                BigDecimal desconto = c.getTipoDesconto() == TipoDesconto.PERCENTUAL
+                        ? item.getPrecoUnitario().multiply(c.getValor()).movePointLeft(2)
+                        : c.getValor().min(item.getPrecoUnitario());
+                melhor = melhor.max(desconto.multiply(BigDecimal.valueOf(item.getQuantidade())));
+            }
+            total = total.add(melhor);
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogoPromocoesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package com.deliverytech.delivery.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.deliverytech.delivery.ratelimit.LimitadorLocal;
+import com.deliverytech.delivery.ratelimit.PoliticaLimite;
+
+/**
+ * Custo de uma checagem do limitador local com 8 threads disputando 10 mil
+ * clientes. Rode com {@code -prof gc}: a alocação por operação deve ser zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class LimiteTaxaBenchmark {
+
+    private final PoliticaLimite politica = new PoliticaLimite(0, "GET", "/api/produtos/**", 100, 1000);
+    private final LimitadorLocal limitador = new LimitadorLocal(List.of(politica), 64, 1024, 600_000);
+
+    @State(Scope.Thread)
+    public static class Cliente {
+        long proximo;
+    }
+
+    @Benchmark
+    public long consumir(Cliente cliente) {
+        long chave = cliente.proximo++ % 10_000;
+        return limitador.consumir(politica, chave);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LimiteTaxaBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
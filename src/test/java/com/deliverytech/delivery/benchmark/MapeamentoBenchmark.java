@@ -0,0 +1,139 @@
+package com.deliverytech.delivery.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.deliverytech.delivery.dto.response.ItemPedidoResponse;
+import com.deliverytech.delivery.dto.response.PedidoResponse;
+import com.deliverytech.delivery.dto.response.ProdutoResponse;
+import com.deliverytech.delivery.mapper.PedidoMapper;
+import com.deliverytech.delivery.mapper.PedidoMapperImpl;
+import com.deliverytech.delivery.mapper.ProdutoMapper;
+import com.deliverytech.delivery.mapper.ProdutoMapperImpl;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.StatusPedido;
+
+/**
+ * Mapeadores gerados em tempo de compilação vs as lambdas com streams que os
+ * controllers usavam antes. Rode com {@code -prof gc} para comparar alocação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeamentoBenchmark {
+
+    @Param({"20", "200"})
+    private int tamanho;
+
+    private final ProdutoMapper produtoMapper = new ProdutoMapperImpl();
+    private final PedidoMapper pedidoMapper = new PedidoMapperImpl();
+
+    private List<Produto> produtos;
+    private List<Pedido> pedidos;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Restaurante restaurante = new Restaurante();
+        restaurante.setId(1L);
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+
+        produtos = new ArrayList<>(tamanho);
+        for (long i = 0; i < tamanho; i++) {
+            Produto p = new Produto();
+            p.setId(i);
+            p.setNome("Pizza Calabresa " + i);
+            p.setCategoria("Pizza");
+            p.setDescricao("Pizza Calabresa com muçarela e cebola");
+            p.setPreco(new BigDecimal("49.90"));
+            p.setDisponivel(true);
+            p.setRestaurante(restaurante);
+            produtos.add(p);
+        }
+
+        pedidos = new ArrayList<>(tamanho);
+        for (long i = 0; i < tamanho; i++) {
+            Pedido pedido = new Pedido();
+            pedido.setId(i);
+            pedido.setCliente(cliente);
+            pedido.setRestaurante(restaurante);
+            pedido.setStatus(StatusPedido.CRIADO);
+            pedido.setDataPedido(LocalDateTime.now());
+            pedido.setTotal(new BigDecimal("99.80"));
+            List<ItemPedido> itens = new ArrayList<>(3);
+            for (int j = 0; j < 3; j++) {
+                ItemPedido item = new ItemPedido();
+                item.setPedido(pedido);
+                item.setProduto(produtos.get(j % produtos.size()));
+                item.setQuantidade(2);
+                item.setPrecoUnitario(new BigDecimal("49.90"));
+                itens.add(item);
+            }
+            pedido.setItens(itens);
+            pedidos.add(pedido);
+        }
+    }
+
+    @Benchmark
+    public List<ProdutoResponse> produtosGerado() {
+        return produtoMapper.paraResponse(produtos);
+    }
+
+    @Benchmark
+    public List<ProdutoResponse> produtosStream() {
+        return produtos.stream()
+                .map(p -> new ProdutoResponse(p.getId(), p.getNome(), p.getCategoria(),
+                        p.getDescricao(), p.getPreco(), p.getDisponivel()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<PedidoResponse> pedidosGerado() {
+        return pedidoMapper.paraResponse(pedidos);
+    }
+
+    @Benchmark
+    public List<PedidoResponse> pedidosStream() {
+        return pedidos.stream()
+                .map(p -> new PedidoResponse(p.getId(), p.getCliente().getId(), p.getRestaurante().getId(),
+                        p.getEnderecoEntrega(), p.getTotal(), p.getStatus(), p.getDataPedido(),
+                        p.getItens().stream()
+                                .map(i -> new ItemPedidoResponse(i.getProduto().getId(), i.getProduto().getNome(),
+                                        i.getQuantidade(), i.getPrecoUnitario()))
+                                .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapeamentoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.deliverytech.delivery.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.deliverytech.delivery.dto.response.ProdutoResponse;
+import com.deliverytech.delivery.dto.response.RestauranteResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Tamanho do payload e custo de serialização JSON vs CBOR para as listas do
+ * catálogo. Os tamanhos (bytes) são impressos no setup de cada trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoCatalogoBenchmark {
+
+    @Param({"20", "200"})
+    private int itens;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    private List<ProdutoResponse> produtos;
+    private List<RestauranteResponse> restaurantes;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        produtos = new ArrayList<>(itens);
+        restaurantes = new ArrayList<>(itens);
+        for (long i = 0; i < itens; i++) {
+            produtos.add(new ProdutoResponse(i, "Pizza Calabresa " + i, "Pizza",
+                    "Pizza Calabresa com muçarela e cebola", new BigDecimal("49.90"), true));
+            restaurantes.add(new RestauranteResponse(i, "Pizzaria Napoli " + i, "Italiana",
+                    "(11) 98765-4321", new BigDecimal("7.50"), 40, true));
+        }
+        System.out.printf("%nprodutos(%d): json=%d bytes, cbor=%d bytes%n", itens,
+                json.writeValueAsBytes(produtos).length, cbor.writeValueAsBytes(produtos).length);
+        System.out.printf("restaurantes(%d): json=%d bytes, cbor=%d bytes%n", itens,
+                json.writeValueAsBytes(restaurantes).length, cbor.writeValueAsBytes(restaurantes).length);
+    }
+
+    @Benchmark
+    public byte[] produtosJson() throws Exception {
+        return json.writeValueAsBytes(produtos);
+    }
+
+    @Benchmark
+    public byte[] produtosCbor() throws Exception {
+        return cbor.writeValueAsBytes(produtos);
+    }
+
+    @Benchmark
+    public byte[] restaurantesJson() throws Exception {
+        return json.writeValueAsBytes(restaurantes);
+    }
+
+    @Benchmark
+    public byte[] restaurantesCbor() throws Exception {
+        return cbor.writeValueAsBytes(restaurantes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializacaoCatalogoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
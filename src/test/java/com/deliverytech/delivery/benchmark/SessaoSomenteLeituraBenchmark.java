@@ -0,0 +1,191 @@
+package com.deliverytech.delivery.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.deliverytech.delivery.dto.response.PedidoResponse;
+import com.deliverytech.delivery.mapper.PedidoMapper;
+import com.deliverytech.delivery.mapper.PedidoMapperImpl;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.Endereco;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.StatusPedido;
+
+/**
+ * Custo de uma leitura típica de GET (pedidos de um cliente com os itens,
+ * mapeados para a resposta) numa sessão comum vs numa sessão somente leitura,
+ * que é o que {@code @Transactional(readOnly = true)} abre: sem snapshots das
+ * entidades carregadas e sem flush no commit.
+ *
+ * <p>{@code comFlush} mede só o flush de uma sessão já carregada, que é onde o
+ * dirty checking por snapshot aparece. Rode com {@code -prof gc}: o
+ * {@code gc.alloc.rate.norm} é o heap alocado por requisição. Para comparar com
+ * e sem enhancement das entidades, rode uma vez após {@code mvn test-compile}
+ * e outra após {@code mvn clean test-compile -Dsem-enhance}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessaoSomenteLeituraBenchmark {
+
+    private static final String CONSULTA = "select p from Pedido p join fetch p.itens i join fetch i.produto "
+            + "where p.cliente.id = :clienteId";
+
+    @Param({"20", "200"})
+    private int pedidos;
+
+    private final PedidoMapper pedidoMapper = new PedidoMapperImpl();
+
+    private SessionFactory sessionFactory;
+    private Long clienteId;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Cliente.class)
+                .addAnnotatedClass(Restaurante.class)
+                .addAnnotatedClass(Produto.class)
+                .addAnnotatedClass(Pedido.class)
+                .addAnnotatedClass(ItemPedido.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:sessao-leitura;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("jakarta.persistence.validation.mode", "none")
+                .buildSessionFactory();
+        clienteId = sessionFactory.fromTransaction(this::popular);
+    }
+
+    private Long popular(Session session) {
+        Restaurante restaurante = Restaurante.builder().nome("Cantina").categoria("Italiana")
+                .taxaEntrega(new BigDecimal("5.00")).tempoEntregaMinutos(40).build();
+        session.persist(restaurante);
+        Cliente cliente = Cliente.builder().nome("Ana").email("ana@exemplo.com").build();
+        session.persist(cliente);
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Produto produto = Produto.builder().nome("Pizza " + i).categoria("Pizza")
+                    .descricao("Pizza com muçarela").preco(new BigDecimal("49.90")).restaurante(restaurante).build();
+            session.persist(produto);
+            produtos.add(produto);
+        }
+        for (int i = 0; i < pedidos; i++) {
+            Pedido pedido = Pedido.builder().cliente(cliente).restaurante(restaurante)
+                    .status(StatusPedido.ENTREGUE).total(new BigDecimal("149.70"))
+                    .enderecoEntrega(Endereco.builder().rua("Rua A").numero("10").cep("01001-000").build())
+                    .build();
+            List<ItemPedido> itens = new ArrayList<>(3);
+            for (int j = 0; j < 3; j++) {
+                itens.add(ItemPedido.builder().pedido(pedido).produto(produtos.get((i + j) % produtos.size()))
+                        .quantidade(1).precoUnitario(new BigDecimal("49.90")).build());
+            }
+            pedido.setItens(itens);
+            session.persist(pedido);
+        }
+        return cliente.getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<PedidoResponse> leituraComum() {
+        return sessionFactory.fromTransaction(this::listar);
+    }
+
+    @Benchmark
+    public List<PedidoResponse> leituraSomenteLeitura() {
+        return sessionFactory.fromTransaction(session -> {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return listar(session);
+        });
+    }
+
+    @Benchmark
+    public int comFlush(SessaoCarregada carregada) {
+        carregada.session.flush();
+        return carregada.session.getStatistics().getEntityCount();
+    }
+
+    @Benchmark
+    public int comFlushSomenteLeitura(SessaoCarregadaSomenteLeitura carregada) {
+        carregada.session.flush();
+        return carregada.session.getStatistics().getEntityCount();
+    }
+
+    private List<PedidoResponse> listar(Session session) {
+        return pedidoMapper.paraResponse(session.createSelectionQuery(CONSULTA, Pedido.class)
+                .setParameter("clienteId", clienteId)
+                .getResultList());
+    }
+
+    /** Sessão com os pedidos já carregados; a carga fica fora da medição. */
+    @State(Scope.Thread)
+    public static class SessaoCarregada {
+        Session session;
+
+        @Setup(Level.Invocation)
+        public void abrir(SessaoSomenteLeituraBenchmark benchmark) {
+            session = benchmark.sessionFactory.openSession();
+            configurar(session);
+            session.beginTransaction();
+            benchmark.listar(session);
+        }
+
+        void configurar(Session session) {
+        }
+
+        @TearDown(Level.Invocation)
+        public void fechar() {
+            session.getTransaction().rollback();
+            session.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SessaoCarregadaSomenteLeitura extends SessaoCarregada {
+
+        @Override
+        void configurar(Session session) {
+            session.setDefaultReadOnly(true);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SessaoSomenteLeituraBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.deliverytech.delivery.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o tempo até a primeira requisição bem-sucedida (não o "Started in" do
+ * log) em três modos: jar padrão, AOT e AOT + AppCDS. É o número que importa
+ * para o autoscaling: quanto tempo uma instância nova leva para atender.
+ *
+ * <p>Uso, depois de {@code mvn -Paot package -DskipTests}:
+ * <pre>
+ * java -cp target/test-classes com.deliverytech.delivery.benchmark.TempoInicializacaoBenchmark \
+ *     [jar] [repeticoes] [caminho]
+ * </pre>
+ * O arquivo CDS é gerado numa execução de treino sobre o jar extraído, do
+ * mesmo jeito que o Dockerfile faz.
+ */
+public class TempoInicializacaoBenchmark {
+
+    private static final Duration LIMITE = Duration.ofSeconds(120);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Paths.get(args.length > 0 ? args[0] : "target/delivery-0.0.1-SNAPSHOT.jar").toAbsolutePath();
+        int repeticoes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String caminho = args.length > 2 ? args[2] : "/actuator/health";
+        if (!Files.exists(jar)) {
+            throw new IllegalArgumentException("Jar não encontrado: " + jar + " (rode mvn -Paot package)");
+        }
+        new TempoInicializacaoBenchmark().executar(jar, repeticoes, caminho);
+    }
+
+    private void executar(Path jar, int repeticoes, String caminho) throws Exception {
+        Path extraido = extrair(jar);
+        Path jarExtraido = extraido.resolve(jar.getFileName());
+        Path arquivoCds = extraido.resolve("app.jsa");
+        treinar(jarExtraido, arquivoCds);
+
+        Map<String, List<String>> modos = new LinkedHashMap<>();
+        modos.put("padrao", List.of("-jar", jar.toString()));
+        modos.put("aot", List.of("-Dspring.aot.enabled=true", "-jar", jarExtraido.toString()));
+        modos.put("aot+cds", List.of("-XX:SharedArchiveFile=" + arquivoCds, "-Dspring.aot.enabled=true",
+                "-jar", jarExtraido.toString()));
+
+        System.out.printf("%-10s %10s %10s %10s%n", "modo", "min(ms)", "mediana", "max(ms)");
+        for (Map.Entry<String, List<String>> modo : modos.entrySet()) {
+            long[] tempos = new long[repeticoes];
+            for (int i = 0; i < repeticoes; i++) {
+                tempos[i] = medir(modo.getValue(), extraido, caminho);
+            }
+            Arrays.sort(tempos);
+            System.out.printf("%-10s %10d %10d %10d%n", modo.getKey(),
+                    tempos[0], tempos[repeticoes / 2], tempos[repeticoes - 1]);
+        }
+    }
+
+    private long medir(List<String> argumentos, Path diretorio, String caminho) throws Exception {
+        int porta = portaLivre();
+        List<String> comando = new ArrayList<>();
+        comando.add(javaBin());
+        comando.addAll(argumentos);
+        comando.add("--server.port=" + porta);
+        URI uri = URI.create("http://localhost:" + porta + caminho);
+
+        long inicio = System.nanoTime();
+        Process processo = new ProcessBuilder(comando)
+                .directory(diretorio.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - inicio < LIMITE.toNanos()) {
+                if (!processo.isAlive()) {
+                    throw new IllegalStateException("Aplicação terminou com código " + processo.exitValue());
+                }
+                if (respondeu(uri)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Sem resposta de " + uri + " em " + LIMITE);
+        } finally {
+            processo.destroy();
+            if (!processo.waitFor(10, TimeUnit.SECONDS)) {
+                processo.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private boolean respondeu(URI uri) throws InterruptedException {
+        try {
+            HttpResponse<Void> resposta = http.send(
+                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(2)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return resposta.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path extrair(Path jar) throws Exception {
+        Path destino = Files.createTempDirectory("delivery-inicializacao");
+        executarAteFim(List.of(javaBin(), "-Djarmode=tools", "-jar", jar.toString(),
+                "extract", "--force", "--destination", destino.toString()), destino);
+        return destino;
+    }
+
+    private void treinar(Path jarExtraido, Path arquivoCds) throws Exception {
+        executarAteFim(List.of(javaBin(), "-XX:ArchiveClassesAtExit=" + arquivoCds,
+                "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh",
+                "-jar", jarExtraido.toString()), jarExtraido.getParent());
+    }
+
+    private static void executarAteFim(List<String> comando, Path diretorio) throws Exception {
+        Process processo = new ProcessBuilder(comando)
+                .directory(diretorio.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (!processo.waitFor(LIMITE.toSeconds(), TimeUnit.SECONDS) || processo.exitValue() != 0) {
+            processo.destroyForcibly();
+            throw new IllegalStateException("Falha ao executar " + String.join(" ", comando));
+        }
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String javaBin() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.deliverytech.delivery.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+
+class CacheLoteRedisTest {
+
+    private final RedisScriptingCommands scripts = mock(RedisScriptingCommands.class);
+    private final RedisConnection conexao = mock(RedisConnection.class);
+    private final CacheLoteRedis cache;
+
+    CacheLoteRedisTest() {
+        when(conexao.scriptingCommands()).thenReturn(scripts);
+        RedisConnectionFactory fabrica = mock(RedisConnectionFactory.class);
+        when(fabrica.getConnection()).thenReturn(conexao);
+        RedisCacheManager manager = RedisCacheManager.builder(mock(RedisCacheWriter.class))
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10)))
+                .build();
+        cache = new CacheLoteRedis(manager, fabrica);
+    }
+
+    @Test
+    void gravaComScriptNaConexaoCompartilhadaEmBlocos() {
+        Map<Long, String> valores = new LinkedHashMap<>();
+        for (long id = 1; id <= 300; id++) {
+            valores.put(id, "produto " + id);
+        }
+
+        cache.gravar("produto", valores);
+
+        ArgumentCaptor<Integer> quantidades = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<byte[]> argumentos = ArgumentCaptor.forClass(byte[].class);
+        verify(scripts, times(2)).eval(any(byte[].class), eq(ReturnType.INTEGER),
+                quantidades.capture(), argumentos.capture());
+        assertEquals(List.of(256, 44), quantidades.getAllValues());
+        // Chaves primeiro, depois os pares (TTL em ms, valor)
+        List<byte[]> primeiro = argumentos.getAllValues().subList(0, 3 * 256);
+        assertEquals("produto::1", new String(primeiro.get(0), StandardCharsets.UTF_8));
+        assertEquals("600000", new String(primeiro.get(256), StandardCharsets.UTF_8));
+        verify(conexao, never()).openPipeline();
+    }
+
+    @Test
+    void semValoresNaoVaiAoRedis() {
+        cache.gravar("produto", Map.of());
+        verify(scripts, never()).eval(any(byte[].class), any(ReturnType.class), anyInt(), any(byte[][].class));
+    }
+}
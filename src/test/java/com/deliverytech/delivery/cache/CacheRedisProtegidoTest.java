@@ -0,0 +1,379 @@
+package com.deliverytech.delivery.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Carga única, trava entre nós e renovação antecipada contra um Redis em
+ * memória atrás de uma conexão simulada; cada instância do cache faz o papel
+ * de um nó.
+ */
+class CacheRedisProtegidoTest {
+
+    private static final String NOME = "cardapio";
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration ESPERA_LEASE = Duration.ofMillis(300);
+
+    private final RedisEmMemoria redis = new RedisEmMemoria();
+    private final ExecutorService renovacao = Executors.newSingleThreadExecutor();
+    private final ExecutorService clientes = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void encerrar() {
+        renovacao.shutdownNow();
+        clientes.shutdownNow();
+    }
+
+    @Test
+    void requisicoesSimultaneasNoNoFazemUmaSoCarga() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheRedisProtegido cache = no(Duration.ZERO, 0, registry);
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        Callable<String> carga = () -> {
+            cargas.incrementAndGet();
+            liberar.await(5, TimeUnit.SECONDS);
+            return "pizza";
+        };
+
+        List<Future<String>> respostas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            respostas.add(clientes.submit(() -> cache.get(1L, carga)));
+        }
+        Thread.sleep(200);
+        liberar.countDown();
+        for (Future<String> resposta : respostas) {
+            assertEquals("pizza", resposta.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, cargas.get());
+        assertEquals(7, contador(registry, "delivery.cache.coalescidas"));
+        assertEquals("pizza", cache.get(1L, () -> "outro"));
+    }
+
+    @Test
+    void falhaNaCargaChegaATodosQueEsperavam() throws Exception {
+        CacheRedisProtegido cache = no(Duration.ZERO, 0, new SimpleMeterRegistry());
+        CountDownLatch liberar = new CountDownLatch(1);
+        Callable<String> carga = () -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("banco fora");
+        };
+        Future<String> primeira = clientes.submit(() -> cache.get(1L, carga));
+        Future<String> segunda = clientes.submit(() -> cache.get(1L, carga));
+        Thread.sleep(100);
+        liberar.countDown();
+
+        for (Future<String> resposta : List.of(primeira, segunda)) {
+            try {
+                resposta.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RuntimeException);
+                continue;
+            }
+            throw new AssertionError("carga deveria falhar");
+        }
+        // Nada fica preso: a próxima falta carrega de novo
+        assertEquals("pizza", cache.get(1L, () -> "pizza"));
+    }
+
+    @Test
+    void semATravaONoEsperaOValorDoOutro() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheRedisProtegido cache = no(Duration.ofSeconds(5), 0, registry);
+        // Outro nó segura a trava e grava o valor um pouco depois
+        redis.gravar(lease(1L), "outro-no", 5_000);
+        AtomicInteger cargas = new AtomicInteger();
+
+        Future<String> resposta = clientes.submit(() -> cache.get(1L, () -> {
+            cargas.incrementAndGet();
+            return "local";
+        }));
+        Thread.sleep(100);
+        redis.gravar(chave(1L), serializar("do-outro-no"), TTL.toMillis());
+
+        assertEquals("do-outro-no", resposta.get(5, TimeUnit.SECONDS));
+        assertEquals(0, cargas.get());
+        assertEquals(1, contador(registry, "delivery.cache.lease.esperas"));
+    }
+
+    @Test
+    void travaAbandonadaNaoSeguraACargaAlemDaEspera() {
+        CacheRedisProtegido cache = no(Duration.ofSeconds(5), 0, new SimpleMeterRegistry());
+        redis.gravar(lease(1L), "no-morto", 60_000);
+
+        long inicio = System.nanoTime();
+        assertEquals("local", cache.get(1L, () -> "local"));
+        assertTrue(System.nanoTime() - inicio >= ESPERA_LEASE.toNanos());
+        assertTrue(redis.existe(chave(1L)));
+    }
+
+    @Test
+    void quemCarregaLiberaATravaSoSeAindaForSua() {
+        CacheRedisProtegido cache = no(Duration.ofSeconds(5), 0, new SimpleMeterRegistry());
+        assertEquals("pizza", cache.get(1L, () -> "pizza"));
+        assertFalse(redis.existe(lease(1L)));
+
+        // A trava expirou durante a carga e outro nó a pegou: não pode ser apagada
+        assertEquals("suco", cache.get(2L, () -> {
+            redis.gravar(lease(2L), "outro-no", 5_000);
+            return "suco";
+        }));
+        assertTrue(redis.existe(lease(2L)));
+    }
+
+    @Test
+    void acertoPertoDeExpirarRenovaEmSegundoPlano() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Beta enorme: qualquer custo medido supera o pouco TTL restante
+        CacheRedisProtegido cache = no(Duration.ofSeconds(5), 1e9, registry);
+        assertEquals("v1", cache.get(1L, () -> "v1"));
+        redis.expirarEm(chave(1L), 50);
+
+        assertEquals("v1", cache.get(1L, () -> "v2"));
+        renovacao.shutdown();
+        assertTrue(renovacao.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, contador(registry, "delivery.cache.renovacoes"));
+        assertEquals("v2", cache.get(1L, () -> "v3"));
+        assertFalse(redis.existe(lease(1L)));
+    }
+
+    @Test
+    void acertoComTtlFolgadoOuBetaZeroNaoRenova() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheRedisProtegido comFolga = no(Duration.ZERO, 1, registry);
+        assertEquals("v1", comFolga.get(1L, () -> "v1"));
+        assertEquals("v1", comFolga.get(1L, () -> "v2"));
+
+        CacheRedisProtegido desligado = no(Duration.ZERO, 0, registry);
+        redis.expirarEm(chave(1L), 50);
+        assertEquals("v1", desligado.get(1L, () -> "v2"));
+
+        renovacao.shutdown();
+        assertTrue(renovacao.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, contador(registry, "delivery.cache.renovacoes"));
+    }
+
+    @Test
+    void renovacaoPulaQuandoOutroNoJaEstaRenovando() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheRedisProtegido cache = no(Duration.ofSeconds(5), 1e9, registry);
+        assertEquals("v1", cache.get(1L, () -> "v1"));
+        redis.expirarEm(chave(1L), 50);
+        redis.gravar(lease(1L), "outro-no", 5_000);
+
+        assertEquals("v1", cache.get(1L, () -> "v2"));
+        renovacao.shutdown();
+        assertTrue(renovacao.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, contador(registry, "delivery.cache.renovacoes"));
+        assertEquals("v1", cache.get(1L, () -> "v3"));
+    }
+
+    @Test
+    void renovacaoNaoRessuscitaEntradaRemovidaDuranteACarga() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheRedisProtegido cache = no(Duration.ofSeconds(5), 1e9, registry);
+        assertEquals("v1", cache.get(1L, () -> "v1"));
+        redis.expirarEm(chave(1L), 5_000);
+        CountDownLatch carregando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        assertEquals("v1", cache.get(1L, () -> {
+            carregando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return "v2";
+        }));
+        assertTrue(carregando.await(5, TimeUnit.SECONDS));
+        cache.evict(1L);
+        liberar.countDown();
+        renovacao.shutdown();
+        assertTrue(renovacao.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, contador(registry, "delivery.cache.renovacoes"));
+        assertFalse(redis.existe(chave(1L)));
+        assertFalse(redis.existe(lease(1L)));
+    }
+
+    @Test
+    void renovacaoNaoSobrescreveValorGravadoDuranteACarga() throws Exception {
+        CacheRedisProtegido cache = no(Duration.ofSeconds(5), 1e9, new SimpleMeterRegistry());
+        assertEquals("v1", cache.get(1L, () -> "v1"));
+        redis.expirarEm(chave(1L), 5_000);
+        CountDownLatch carregando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        assertEquals("v1", cache.get(1L, () -> {
+            carregando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return "velho";
+        }));
+        assertTrue(carregando.await(5, TimeUnit.SECONDS));
+        // Um @CachePut concorrente grava um valor mais novo
+        cache.put(1L, "novo");
+        liberar.countDown();
+        renovacao.shutdown();
+        assertTrue(renovacao.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals("novo", cache.get(1L, () -> "outro"));
+    }
+
+    private CacheRedisProtegido no(Duration lease, double beta, MeterRegistry registry) {
+        ConfiguracaoProtecao protecao = new ConfiguracaoProtecao(lease, ESPERA_LEASE, beta, renovacao);
+        return new CacheRedisProtegido(NOME, redis.escritor(), RedisCacheConfiguration.defaultCacheConfig().entryTtl(TTL),
+                redis.fabrica(), protecao, registry);
+    }
+
+    private static double contador(SimpleMeterRegistry registry, String nome) {
+        return registry.get(nome).tag("cache", NOME).counter().count();
+    }
+
+    private static String chave(Object key) {
+        return NOME + "::" + key;
+    }
+
+    private static String lease(Object key) {
+        return chave(key) + ":lease";
+    }
+
+    private static byte[] serializar(Object valor) {
+        return RedisCacheConfiguration.defaultCacheConfig().getValueSerializationPair().write(valor).array();
+    }
+
+    /** Só os comandos que o cache usa: SET NX PX e os três scripts (ler, trocar se igual, liberar a trava). */
+    private static final class RedisEmMemoria {
+
+        private record Entrada(byte[] valor, long expiraEm) {
+        }
+
+        private final ConcurrentHashMap<String, Entrada> dados = new ConcurrentHashMap<>();
+
+        void gravar(String chave, String valor, long ttlMillis) {
+            gravar(chave, valor.getBytes(StandardCharsets.UTF_8), ttlMillis);
+        }
+
+        void gravar(String chave, byte[] valor, long ttlMillis) {
+            dados.put(chave, new Entrada(valor, System.currentTimeMillis() + ttlMillis));
+        }
+
+        void expirarEm(String chave, long ttlMillis) {
+            dados.computeIfPresent(chave, (c, e) -> new Entrada(e.valor(), System.currentTimeMillis() + ttlMillis));
+        }
+
+        boolean existe(String chave) {
+            return ler(chave) != null;
+        }
+
+        private Entrada ler(String chave) {
+            Entrada entrada = dados.get(chave);
+            if (entrada != null && entrada.expiraEm() <= System.currentTimeMillis()) {
+                dados.remove(chave, entrada);
+                return null;
+            }
+            return entrada;
+        }
+
+        RedisCacheWriter escritor() {
+            RedisCacheWriter escritor = mock(RedisCacheWriter.class);
+            doAnswer(i -> {
+                Duration ttl = i.getArgument(3);
+                gravar(texto(i.getArgument(1)), (byte[]) i.getArgument(2), ttl.toMillis());
+                return null;
+            }).when(escritor).put(anyString(), any(byte[].class), any(byte[].class), any());
+            doAnswer(i -> {
+                dados.remove(texto(i.getArgument(1)));
+                return null;
+            }).when(escritor).remove(anyString(), any(byte[].class));
+            return escritor;
+        }
+
+        RedisConnectionFactory fabrica() {
+            RedisStringCommands strings = mock(RedisStringCommands.class);
+            when(strings.set(any(byte[].class), any(byte[].class), any(Expiration.class), any(SetOption.class)))
+                    .thenAnswer(i -> {
+                        String chave = texto(i.getArgument(0));
+                        Expiration expiracao = i.getArgument(2);
+                        ler(chave);
+                        Entrada nova = new Entrada(i.getArgument(1),
+                                System.currentTimeMillis() + expiracao.getExpirationTimeInMilliseconds());
+                        return dados.putIfAbsent(chave, nova) == null;
+                    });
+
+            RedisScriptingCommands scripts = mock(RedisScriptingCommands.class);
+            // Cada script tem a sua aridade; KEYS e ARGV chegam como elementos do vararg
+            when(scripts.eval(any(byte[].class), any(ReturnType.class), anyInt(), any(byte[].class)))
+                    .thenAnswer(i -> {
+                Entrada entrada = ler(texto(i.getArgument(3)));
+                return entrada == null ? null
+                        : List.of(entrada.valor(), entrada.expiraEm() - System.currentTimeMillis());
+            });
+            when(scripts.eval(any(byte[].class), any(ReturnType.class), anyInt(), any(byte[].class), any(byte[].class)))
+                    .thenAnswer(i -> {
+                String chave = texto(i.getArgument(3));
+                byte[] token = i.getArgument(4);
+                Entrada entrada = ler(chave);
+                return entrada != null && Arrays.equals(entrada.valor(), token) && dados.remove(chave, entrada) ? 1L : 0L;
+            });
+            when(scripts.eval(any(byte[].class), any(ReturnType.class), anyInt(), any(byte[].class), any(byte[].class),
+                    any(byte[].class), any(byte[].class))).thenAnswer(i -> {
+                String chave = texto(i.getArgument(3));
+                byte[] esperado = i.getArgument(4);
+                long ttlMillis = Long.parseLong(texto(i.getArgument(6)));
+                Entrada entrada = ler(chave);
+                if (entrada == null || !Arrays.equals(entrada.valor(), esperado)) {
+                    return 0L;
+                }
+                Entrada nova = new Entrada(i.getArgument(5),
+                        ttlMillis == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttlMillis);
+                return dados.replace(chave, entrada, nova) ? 1L : 0L;
+            });
+
+            RedisConnection conexao = mock(RedisConnection.class);
+            when(conexao.stringCommands()).thenReturn(strings);
+            when(conexao.scriptingCommands()).thenReturn(scripts);
+
+            RedisConnectionFactory fabrica = mock(RedisConnectionFactory.class);
+            when(fabrica.getConnection()).thenReturn(conexao);
+            return fabrica;
+        }
+
+        private static String texto(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
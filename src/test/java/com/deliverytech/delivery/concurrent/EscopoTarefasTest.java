@@ -0,0 +1,111 @@
+package com.deliverytech.delivery.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.deliverytech.delivery.concurrent.EscopoTarefas.Subtarefa;
+import com.deliverytech.delivery.exception.BusinessException;
+
+class EscopoTarefasTest {
+
+    @Test
+    void subtarefasRodamEmParaleloEDevolvemOsResultados() {
+        CountDownLatch ambas = new CountDownLatch(2);
+        try (EscopoTarefas escopo = new EscopoTarefas("teste", Duration.ofSeconds(5))) {
+            // Cada uma só termina quando a outra já começou
+            Subtarefa<String> a = escopo.fork(() -> {
+                ambas.countDown();
+                ambas.await();
+                return "a";
+            });
+            Subtarefa<Integer> b = escopo.fork(() -> {
+                ambas.countDown();
+                ambas.await();
+                return 2;
+            });
+            long inicio = System.nanoTime();
+            escopo.aguardar();
+            assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(5));
+            assertEquals("a", a.get());
+            assertEquals(2, b.get());
+        }
+    }
+
+    @Test
+    void primeiraFalhaCancelaAsDemaisESaiComoEsta() throws InterruptedException {
+        BusinessException recusa = new BusinessException("Cliente inativo: 1", "CLIENTE_INATIVO");
+        AtomicBoolean interrompida = new AtomicBoolean();
+        CountDownLatch lentaComecou = new CountDownLatch(1);
+        CountDownLatch lentaTerminou = new CountDownLatch(1);
+        try (EscopoTarefas escopo = new EscopoTarefas("teste", Duration.ofSeconds(30))) {
+            escopo.fork(() -> {
+                lentaComecou.countDown();
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    interrompida.set(true);
+                } finally {
+                    lentaTerminou.countDown();
+                }
+                return null;
+            });
+            // Só falha com a lenta já rodando: cancelada antes de começar, ela não seria interrompida
+            escopo.fork(() -> {
+                lentaComecou.await();
+                throw recusa;
+            });
+            long inicio = System.nanoTime();
+            assertSame(recusa, assertThrows(BusinessException.class, escopo::aguardar));
+            assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(5));
+        }
+        assertTrue(lentaTerminou.await(1, TimeUnit.SECONDS));
+        assertTrue(interrompida.get());
+    }
+
+    @Test
+    void prazoEstouradoCancelaTudo() throws InterruptedException {
+        AtomicBoolean interrompida = new AtomicBoolean();
+        CountDownLatch comecou = new CountDownLatch(1);
+        try (EscopoTarefas escopo = new EscopoTarefas("teste", Duration.ofMillis(50))) {
+            escopo.fork(() -> {
+                comecou.countDown();
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    interrompida.set(true);
+                }
+                return null;
+            });
+            // Cancelada antes de começar, a subtarefa nem roda e não há interrupção para observar
+            assertTrue(comecou.await(5, TimeUnit.SECONDS));
+            assertThrows(QueryTimeoutException.class, escopo::aguardar);
+        }
+        // close() só volta depois que a subtarefa terminou
+        assertTrue(interrompida.get());
+    }
+
+    @Test
+    void resultadoNaoPodeSerLidoAntesDeAguardar() throws InterruptedException {
+        CountDownLatch liberar = new CountDownLatch(1);
+        try (EscopoTarefas escopo = new EscopoTarefas("teste", Duration.ofSeconds(5))) {
+            Subtarefa<String> a = escopo.fork(() -> {
+                liberar.await();
+                return "a";
+            });
+            assertThrows(IllegalStateException.class, a::get);
+            liberar.countDown();
+            escopo.aguardar();
+            assertEquals("a", a.get());
+        }
+    }
+}
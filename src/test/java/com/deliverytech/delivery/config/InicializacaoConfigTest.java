@@ -0,0 +1,54 @@
+package com.deliverytech.delivery.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+class InicializacaoConfigTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    @AfterEach
+    void limpar() {
+        System.clearProperty("spring.aot.enabled");
+    }
+
+    @Test
+    void comAotPropriedadeLigadaSemOBeanDoBuildRecusaSubir() {
+        System.setProperty("spring.aot.enabled", "true");
+        environment.setProperty("delivery.status.write-behind.habilitado", "true");
+        environment.setProperty("delivery.shards.urls", "jdbc:h2:mem:s1");
+
+        IllegalStateException erro = assertThrows(IllegalStateException.class,
+                () -> InicializacaoConfig.conferenciaAot(environment, beanFactory).afterSingletonsInstantiated());
+        assertTrue(erro.getMessage().contains("delivery.status.write-behind.habilitado"));
+        assertTrue(erro.getMessage().contains("delivery.shards.urls"));
+    }
+
+    @Test
+    void comAotBeanDoBuildComPropriedadeDesligadaTambemRecusa() {
+        System.setProperty("spring.aot.enabled", "true");
+        beanFactory.registerBeanDefinition("balanceadorReplicas", new RootBeanDefinition(Object.class));
+        assertThrows(IllegalStateException.class,
+                () -> InicializacaoConfig.conferenciaAot(environment, beanFactory).afterSingletonsInstantiated());
+    }
+
+    @Test
+    void buildEExecucaoIguaisOuSemAotSobem() {
+        environment.setProperty("delivery.status.write-behind.habilitado", "true");
+        // Sem AOT as condições são avaliadas agora mesmo: nada a conferir
+        assertDoesNotThrow(() -> InicializacaoConfig.conferenciaAot(environment, beanFactory).afterSingletonsInstantiated());
+
+        System.setProperty("spring.aot.enabled", "true");
+        beanFactory.registerBeanDefinition("bufferStatus", new RootBeanDefinition(Object.class));
+        environment.setProperty("delivery.replicas.urls", "false");
+        assertDoesNotThrow(() -> InicializacaoConfig.conferenciaAot(environment, beanFactory).afterSingletonsInstantiated());
+    }
+}
@@ -0,0 +1,100 @@
+package com.deliverytech.delivery.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class AgrupadorRotasTest {
+
+    private static final long SEM_PRAZO = Long.MAX_VALUE;
+
+    @Test
+    void rotaPartindoDaColetaVisitaCadaParadaUmaVezENaoPioraAOrdemDeChegada() {
+        Random aleatorio = new Random(11);
+        for (int rodada = 0; rodada < 100; rodada++) {
+            List<PedidoPendente> paradas = new ArrayList<>();
+            int n = 2 + aleatorio.nextInt(7);
+            for (long i = 0; i < n; i++) {
+                paradas.add(pedido(i, 1L, -23.55 + aleatorio.nextGaussian() * 0.02,
+                        -46.63 + aleatorio.nextGaussian() * 0.02));
+            }
+            List<PedidoPendente> ordenadas = OtimizadorRota.ordenar(-23.55, -46.63, paradas, SEM_PRAZO);
+
+            assertEquals(new HashSet<>(paradas), new HashSet<>(ordenadas));
+            assertEquals(paradas.size(), ordenadas.size());
+            assertTrue(OtimizadorRota.distanciaKm(-23.55, -46.63, ordenadas)
+                    <= OtimizadorRota.distanciaKm(-23.55, -46.63, paradas) + 1e-9);
+        }
+    }
+
+    @Test
+    void doisOptDesfazCruzamentos() {
+        // Paradas numa linha reta saindo da coleta, na ordem inversa: a melhor rota é a crescente
+        List<PedidoPendente> paradas = new ArrayList<>();
+        for (long i = 5; i >= 1; i--) {
+            paradas.add(pedido(i, 1L, -23.55 + i * 0.01, -46.63));
+        }
+        List<PedidoPendente> ordenadas = OtimizadorRota.ordenar(-23.55, -46.63, paradas, SEM_PRAZO);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ordenadas.stream().map(PedidoPendente::pedidoId).toList());
+        assertEquals(Geo.distanciaKm(-23.55, -46.63, -23.50, -46.63),
+                OtimizadorRota.distanciaKm(-23.55, -46.63, ordenadas), 1e-9);
+    }
+
+    @Test
+    void lotesSaoDeUmRestauranteComColetaNeleETodosOsPedidosAparecemUmaVez() {
+        Random aleatorio = new Random(5);
+        List<PedidoPendente> pedidos = new ArrayList<>();
+        for (long i = 0; i < 300; i++) {
+            long restaurante = aleatorio.nextInt(10);
+            double lat = -23.55 + restaurante * 0.05;
+            pedidos.add(new PedidoPendente(i, restaurante, lat, -46.63,
+                    i % 10 == 0 ? Double.NaN : lat + aleatorio.nextGaussian() * 0.01,
+                    i % 10 == 0 ? Double.NaN : -46.63 + aleatorio.nextGaussian() * 0.01, i));
+        }
+        AgrupadorRotas agrupador = new AgrupadorRotas(ForkJoinPool.commonPool(), 2.0, 4);
+        List<LoteEntrega> lotes = agrupador.agrupar(pedidos, SEM_PRAZO);
+
+        Set<Long> vistos = new HashSet<>();
+        for (LoteEntrega lote : lotes) {
+            assertTrue(lote.paradas().size() <= 4);
+            PedidoPendente primeiro = lote.paradas().get(0);
+            assertEquals(primeiro.coletaLatitude(), lote.coletaLatitude());
+            assertEquals(primeiro.coletaLongitude(), lote.coletaLongitude());
+            for (PedidoPendente p : lote.paradas()) {
+                assertEquals(lote.restauranteId(), p.restauranteId());
+                assertTrue(vistos.add(p.pedidoId()));
+                if (!p.possuiDestino()) {
+                    assertEquals(1, lote.paradas().size());
+                }
+            }
+            if (primeiro.possuiDestino()) {
+                assertEquals(OtimizadorRota.distanciaKm(lote.coletaLatitude(), lote.coletaLongitude(), lote.paradas()),
+                        lote.distanciaKm(), 1e-9);
+            }
+        }
+        assertEquals(pedidos.size(), vistos.size());
+    }
+
+    @Test
+    void destinosLongeDoRaioNaoEntramNoMesmoLote() {
+        List<PedidoPendente> pedidos = List.of(
+                pedido(1L, 1L, -23.55, -46.63),
+                pedido(2L, 1L, -23.551, -46.631),
+                pedido(3L, 1L, -23.80, -46.63));
+        List<LoteEntrega> lotes = new AgrupadorRotas(ForkJoinPool.commonPool(), 2.0, 4).agrupar(pedidos, SEM_PRAZO);
+        assertEquals(2, lotes.size());
+        assertEquals(Set.of(1L, 2L), new HashSet<>(lotes.get(0).paradas().stream().map(PedidoPendente::pedidoId).toList()));
+    }
+
+    private static PedidoPendente pedido(long id, long restauranteId, double latitude, double longitude) {
+        return new PedidoPendente(id, restauranteId, -23.55, -46.63, latitude, longitude, id);
+    }
+}
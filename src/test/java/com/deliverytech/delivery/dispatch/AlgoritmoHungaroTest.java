@@ -0,0 +1,142 @@
+package com.deliverytech.delivery.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.deliverytech.delivery.dispatch.IndiceEspacialEntregadores.Candidato;
+
+class AlgoritmoHungaroTest {
+
+    private static final double I = AlgoritmoHungaro.INVIAVEL;
+
+    @Test
+    void encontraOCustoMinimoComparadoAForcaBruta() {
+        Random aleatorio = new Random(42);
+        for (int rodada = 0; rodada < 200; rodada++) {
+            int linhas = 1 + aleatorio.nextInt(5);
+            int colunas = 1 + aleatorio.nextInt(6);
+            double[][] custo = new double[linhas][colunas];
+            for (double[] linha : custo) {
+                for (int j = 0; j < colunas; j++) {
+                    linha[j] = aleatorio.nextInt(4) == 0 ? I : aleatorio.nextInt(100);
+                }
+            }
+            int[] atribuicao = AlgoritmoHungaro.resolver(custo);
+            assertValida(custo, atribuicao);
+            double[] esperado = melhor(custo, 0, new boolean[colunas]);
+            assertEquals(esperado[0], atribuidos(custo, atribuicao), "rodada " + rodada);
+            assertEquals(esperado[1], custoTotal(custo, atribuicao), 1e-9, "rodada " + rodada);
+        }
+    }
+
+    @Test
+    void linhasSemColunaViavelFicamSemAtribuicao() {
+        double[][] custo = {
+                { 5, I },
+                { 1, I },
+                { I, I },
+        };
+        assertArrayEquals(new int[] { -1, 0, -1 }, AlgoritmoHungaro.resolver(custo));
+    }
+
+    @Test
+    void componentesIndependentesSaoResolvidosSeparadamente() {
+        // Lotes 0 e 1 disputam o entregador 10; o lote 2 tem os seus
+        List<List<Candidato>> candidatos = List.of(
+                List.of(new Candidato(10L, 1.0), new Candidato(11L, 1.5)),
+                List.of(new Candidato(10L, 0.5), new Candidato(12L, 3.0)),
+                List.of(new Candidato(20L, 2.0)),
+                List.of());
+        Candidato[] escolhidos = AtribuicaoLotes.atribuir(candidatos, 10);
+        // 1.0 + 3.0 ou 1.5 + 0.5: o ótimo é o segundo
+        assertEquals(11L, escolhidos[0].entregadorId());
+        assertEquals(10L, escolhidos[1].entregadorId());
+        assertEquals(20L, escolhidos[2].entregadorId());
+        assertEquals(null, escolhidos[3]);
+    }
+
+    @Test
+    void componenteGrandeCaiNoGulosoSemRepetirEntregador() {
+        Random aleatorio = new Random(7);
+        List<List<Candidato>> candidatos = new ArrayList<>();
+        for (int lote = 0; lote < 300; lote++) {
+            List<Candidato> proximos = new ArrayList<>();
+            for (int k = 0; k < 8; k++) {
+                proximos.add(new Candidato((long) aleatorio.nextInt(200), aleatorio.nextDouble() * 10));
+            }
+            proximos.sort((a, b) -> Double.compare(a.distanciaKm(), b.distanciaKm()));
+            candidatos.add(proximos);
+        }
+        Candidato[] escolhidos = AtribuicaoLotes.atribuir(candidatos, 50);
+        Set<Long> usados = new HashSet<>();
+        int atribuidos = 0;
+        for (int lote = 0; lote < escolhidos.length; lote++) {
+            if (escolhidos[lote] != null) {
+                assertEquals(true, candidatos.get(lote).contains(escolhidos[lote]));
+                assertEquals(true, usados.add(escolhidos[lote].entregadorId()));
+                atribuidos++;
+            }
+        }
+        // Guloso é maximal: sobrou lote sem entregador só se todos os seus candidatos foram usados
+        for (int lote = 0; lote < escolhidos.length; lote++) {
+            if (escolhidos[lote] == null) {
+                candidatos.get(lote).forEach(c -> assertEquals(true, usados.contains(c.entregadorId())));
+            }
+        }
+        assertEquals(usados.size(), atribuidos);
+    }
+
+    private static void assertValida(double[][] custo, int[] atribuicao) {
+        Set<Integer> colunas = new HashSet<>();
+        for (int i = 0; i < atribuicao.length; i++) {
+            if (atribuicao[i] >= 0) {
+                assertEquals(true, custo[i][atribuicao[i]] < I);
+                assertEquals(true, colunas.add(atribuicao[i]));
+            }
+        }
+    }
+
+    private static int atribuidos(double[][] custo, int[] atribuicao) {
+        int total = 0;
+        for (int coluna : atribuicao) {
+            total += coluna >= 0 ? 1 : 0;
+        }
+        return total;
+    }
+
+    private static double custoTotal(double[][] custo, int[] atribuicao) {
+        double total = 0;
+        for (int i = 0; i < atribuicao.length; i++) {
+            total += atribuicao[i] >= 0 ? custo[i][atribuicao[i]] : 0;
+        }
+        return total;
+    }
+
+    // {pares atribuídos, custo}: primeiro o máximo de pares, depois o menor custo
+    private static double[] melhor(double[][] custo, int linha, boolean[] usadas) {
+        if (linha == custo.length) {
+            return new double[] { 0, 0 };
+        }
+        double[] melhor = melhor(custo, linha + 1, usadas);
+        for (int j = 0; j < usadas.length; j++) {
+            if (!usadas[j] && custo[linha][j] < I) {
+                usadas[j] = true;
+                double[] resto = melhor(custo, linha + 1, usadas);
+                usadas[j] = false;
+                double[] opcao = { resto[0] + 1, resto[1] + custo[linha][j] };
+                if (opcao[0] > melhor[0] || opcao[0] == melhor[0] && opcao[1] < melhor[1] - 1e-9) {
+                    melhor = opcao;
+                }
+            }
+        }
+        return melhor;
+    }
+}
@@ -0,0 +1,78 @@
+package com.deliverytech.delivery.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.deliverytech.delivery.dispatch.IndiceEspacialEntregadores.Candidato;
+
+class IndiceEspacialEntregadoresTest {
+
+    @Test
+    void maisProximosIgualAVarreduraCompleta() {
+        Random aleatorio = new Random(3);
+        IndiceEspacialEntregadores indice = new IndiceEspacialEntregadores(0.01);
+        double[][] posicoes = new double[2000][];
+        for (int i = 0; i < posicoes.length; i++) {
+            posicoes[i] = new double[] { -23.6 + aleatorio.nextDouble() * 0.2, -46.7 + aleatorio.nextDouble() * 0.2 };
+            indice.atualizar((long) i, posicoes[i][0], posicoes[i][1]);
+        }
+        for (int consulta = 0; consulta < 50; consulta++) {
+            double lat = -23.6 + aleatorio.nextDouble() * 0.2;
+            double lon = -46.7 + aleatorio.nextDouble() * 0.2;
+            List<Candidato> esperado = new ArrayList<>();
+            for (int i = 0; i < posicoes.length; i++) {
+                double d = Geo.distanciaKm(lat, lon, posicoes[i][0], posicoes[i][1]);
+                if (d <= 3) {
+                    esperado.add(new Candidato((long) i, d));
+                }
+            }
+            esperado.sort(Comparator.comparingDouble(Candidato::distanciaKm));
+            List<Candidato> encontrados = indice.maisProximos(lat, lon, 8, 3);
+            assertEquals(esperado.subList(0, Math.min(8, esperado.size())), encontrados);
+        }
+    }
+
+    @Test
+    void respeitaORaioMaximoEAsMudancasDeCelula() {
+        IndiceEspacialEntregadores indice = new IndiceEspacialEntregadores(0.01);
+        indice.atualizar(1L, -23.55, -46.63);
+        indice.atualizar(2L, -23.70, -46.63);
+        assertEquals(List.of(1L), ids(indice.maisProximos(-23.55, -46.63, 5, 5)));
+
+        // Mudou de célula: sai da antiga
+        indice.atualizar(1L, -23.69, -46.63);
+        assertTrue(indice.maisProximos(-23.55, -46.63, 5, 5).isEmpty());
+        assertEquals(List.of(2L, 1L), ids(indice.maisProximos(-23.70, -46.63, 5, 5)));
+    }
+
+    @Test
+    void devolverNaoSobrescrevePosicaoNova() {
+        IndiceEspacialEntregadores indice = new IndiceEspacialEntregadores(0.01);
+        indice.atualizar(1L, -23.55, -46.63);
+        PosicaoEntregador retirado = indice.retirar(1L);
+        assertFalse(indice.contem(1L));
+        assertNull(indice.retirar(1L));
+
+        indice.devolver(retirado);
+        assertEquals(List.of(1L), ids(indice.maisProximos(-23.55, -46.63, 1, 1)));
+
+        indice.retirar(1L);
+        indice.atualizar(1L, -23.60, -46.63);
+        indice.devolver(retirado);
+        assertTrue(indice.maisProximos(-23.55, -46.63, 1, 1).isEmpty());
+        assertEquals(1, indice.tamanho());
+    }
+
+    private static List<Long> ids(List<Candidato> candidatos) {
+        return candidatos.stream().map(Candidato::entregadorId).toList();
+    }
+}
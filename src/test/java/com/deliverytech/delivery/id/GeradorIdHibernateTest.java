@@ -0,0 +1,43 @@
+package com.deliverytech.delivery.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.repository.RestauranteRepository;
+
+/**
+ * Sobe o contexto inteiro: o Hibernate cria o gerador pelo contêiner de beans
+ * do Spring, e o ID precisa sair do {@link GeradorSnowflake} configurado, não
+ * do padrão do nó 0.
+ */
+@SpringBootTest(properties = "delivery.ids.no=7")
+class GeradorIdHibernateTest {
+
+    @Autowired
+    private RestauranteRepository restauranteRepository;
+
+    @Autowired
+    private GeradorSnowflake geradorSnowflake;
+
+    @Test
+    void idsVemDoGeradorDoContexto() {
+        Restaurante primeiro = restauranteRepository.save(Restaurante.builder().nome("Primeiro").build());
+        Restaurante segundo = restauranteRepository.save(Restaurante.builder().nome("Segundo").build());
+
+        assertEquals(7, GeradorSnowflake.no(primeiro.getId()));
+        assertTrue(segundo.getId() > primeiro.getId());
+    }
+
+    @Test
+    void idReservadoAntesDoPersistEMantido() {
+        long reservado = geradorSnowflake.proximo();
+        Restaurante salvo = restauranteRepository.save(Restaurante.builder().id(reservado).nome("Reservado").build());
+        assertEquals(reservado, salvo.getId());
+        assertTrue(restauranteRepository.existsById(reservado));
+    }
+}
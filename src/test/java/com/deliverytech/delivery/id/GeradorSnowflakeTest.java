@@ -0,0 +1,99 @@
+package com.deliverytech.delivery.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class GeradorSnowflakeTest {
+
+    private static final long AGORA = GeradorSnowflake.EPOCA + 1_000_000;
+
+    @Test
+    void codificaTempoENo() {
+        GeradorSnowflake gerador = new GeradorSnowflake(37, 5, 1000, () -> AGORA);
+        long id = gerador.proximo();
+        assertEquals(Instant.ofEpochMilli(AGORA), GeradorSnowflake.instante(id));
+        assertEquals(37, GeradorSnowflake.no(id));
+        assertTrue(id >= GeradorSnowflake.primeiroIdEm(Instant.ofEpochMilli(AGORA)));
+        assertTrue(id < GeradorSnowflake.primeiroIdEm(Instant.ofEpochMilli(AGORA + 1)));
+    }
+
+    @Test
+    void sequenciaEsgotadaEmprestaOMilissegundoSeguinte() {
+        GeradorSnowflake gerador = new GeradorSnowflake(1, 5, 1000, () -> AGORA);
+        long anterior = -1;
+        for (int i = 0; i < 4096 * 2; i++) {
+            long id = gerador.proximo();
+            assertTrue(id > anterior);
+            anterior = id;
+        }
+        assertEquals(Instant.ofEpochMilli(AGORA + 1), GeradorSnowflake.instante(anterior));
+        assertEquals(0, gerador.esperas());
+    }
+
+    @Test
+    void recuoToleradoContinuaCrescenteSemEsperar() {
+        AtomicLong relogio = new AtomicLong(AGORA);
+        GeradorSnowflake gerador = new GeradorSnowflake(1, 5, 1000, relogio::get);
+        long antes = gerador.proximo();
+        relogio.addAndGet(-3);
+        assertTrue(gerador.proximo() > antes);
+        assertEquals(0, gerador.esperas());
+    }
+
+    @Test
+    void recuoModeradoEsperaORelogio() {
+        // Cada leitura do relógio avança 1 ms
+        AtomicLong relogio = new AtomicLong(AGORA + 20);
+        GeradorSnowflake gerador = new GeradorSnowflake(1, 5, 1000, relogio::getAndIncrement);
+        long antes = gerador.proximo();
+        relogio.set(AGORA);
+        assertTrue(gerador.proximo() > antes);
+        assertTrue(gerador.esperas() > 0);
+    }
+
+    @Test
+    void recuoAlemDoMaximoFalha() {
+        AtomicLong relogio = new AtomicLong(AGORA);
+        GeradorSnowflake gerador = new GeradorSnowflake(1, 5, 1000, relogio::get);
+        gerador.proximo();
+        relogio.addAndGet(-5000);
+        assertThrows(IllegalStateException.class, gerador::proximo);
+    }
+
+    @Test
+    void idsUnicosSobConcorrencia() throws InterruptedException {
+        GeradorSnowflake gerador = new GeradorSnowflake(3, 5, 1000);
+        int threads = 8;
+        int porThread = 50_000;
+        ConcurrentHashMap<Long, Boolean> vistos = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < porThread; i++) {
+                    vistos.put(gerador.proximo(), Boolean.TRUE);
+                }
+            });
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(threads * porThread, vistos.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.deliverytech.delivery.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+class ArmazemEmCamadasTest {
+
+    private static final Duration TTL = Duration.ofHours(24);
+    private static final Duration RESERVA = Duration.ofSeconds(10);
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valores = mock(ValueOperations.class);
+    private final ArmazemLocal local = new ArmazemLocal(1 << 20, TTL.toMillis());
+    private final ArmazemEmCamadas armazem = new ArmazemEmCamadas(local, redis, "idem:", TTL, RESERVA);
+
+    private final RespostaArmazenada resposta = new RespostaArmazenada(201, "application/json", "/api/pedidos/7",
+            "abc", "{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+
+    @BeforeEach
+    void montar() {
+        when(redis.opsForValue()).thenReturn(valores);
+    }
+
+    @Test
+    void salvarGravaNosDoisTiersEOLocalRespondeSemIrAoRedis() {
+        armazem.salvar("u:ana:k1", resposta);
+        verify(valores).set("idem:u:ana:k1", resposta.codificar(), TTL);
+
+        assertNotNull(armazem.buscar("u:ana:k1"));
+        verify(valores, never()).get(anyString());
+    }
+
+    @Test
+    void acertoNoRedisECopiadoParaOLocal() {
+        // Gravada por outra instância
+        when(valores.get("idem:u:ana:k1")).thenReturn(resposta.codificar());
+
+        RespostaArmazenada lida = armazem.buscar("u:ana:k1");
+        assertEquals(201, lida.status());
+        assertEquals("/api/pedidos/7", lida.location());
+        assertArrayEquals(resposta.corpo(), lida.corpo());
+        assertNotNull(local.buscar("u:ana:k1"));
+        assertNull(armazem.buscar("u:ana:outra"));
+    }
+
+    @Test
+    void reservaUsaSetNxComPrazoESoUmaInstanciaGanha() {
+        when(valores.setIfAbsent("idem:reserva:u:ana:k1", "1", RESERVA)).thenReturn(true, false);
+        assertTrue(armazem.reservar("u:ana:k1"));
+        assertFalse(armazem.reservar("u:ana:k1"));
+
+        armazem.liberar("u:ana:k1");
+        verify(redis).delete("idem:reserva:u:ana:k1");
+    }
+
+    @Test
+    void redisForaNaoBloqueiaERecaiNoLocal() {
+        RedisConnectionFailureException fora = new RedisConnectionFailureException("fora");
+        when(valores.get(anyString())).thenThrow(fora);
+        when(valores.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenThrow(fora);
+        doThrow(fora).when(valores).set(anyString(), anyString(), eq(TTL));
+        when(redis.delete(anyString())).thenThrow(fora);
+
+        assertNull(armazem.buscar("u:ana:k1"));
+        assertTrue(armazem.reservar("u:ana:k1"));
+        armazem.salvar("u:ana:k1", resposta);
+        armazem.liberar("u:ana:k1");
+
+        // O tier local ficou com a resposta e responde sozinho
+        assertNotNull(armazem.buscar("u:ana:k1"));
+        assertEquals(4, armazem.falhas());
+    }
+}
@@ -0,0 +1,91 @@
+package com.deliverytech.delivery.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class ArmazemLocalTest {
+
+    private final AtomicLong agora = new AtomicLong(1_000);
+
+    // 128 de sobrecarga + corpo + 2 bytes por caractere da impressão ("i") + 2 por caractere da chave ("kN")
+    private static final long ENTRADA = 128 + 100 + 2 + 4;
+
+    private static RespostaArmazenada resposta(int bytesCorpo) {
+        return new RespostaArmazenada(201, null, null, "i", new byte[bytesCorpo]);
+    }
+
+    @Test
+    void descartaPorOrdemDeChegadaQuandoPassaDoLimite() {
+        ArmazemLocal armazem = new ArmazemLocal(3 * ENTRADA, 60_000, agora::get);
+        armazem.salvar("k1", resposta(100));
+        armazem.salvar("k2", resposta(100));
+        armazem.salvar("k3", resposta(100));
+        assertEquals(3 * ENTRADA, armazem.bytes());
+
+        // Reler k1 não muda a ordem: é FIFO, não LRU
+        assertNotNull(armazem.buscar("k1"));
+        armazem.salvar("k4", resposta(100));
+
+        assertNull(armazem.buscar("k1"));
+        assertNotNull(armazem.buscar("k2"));
+        assertNotNull(armazem.buscar("k4"));
+        assertEquals(3, armazem.tamanho());
+        assertEquals(3 * ENTRADA, armazem.bytes());
+        assertEquals(1, armazem.descartadas());
+    }
+
+    @Test
+    void entradaMaiorQueOLimiteNaoEntraNemDerrubaAsOutras() {
+        ArmazemLocal armazem = new ArmazemLocal(3 * ENTRADA, 60_000, agora::get);
+        armazem.salvar("k1", resposta(100));
+        armazem.salvar("k2", resposta(10_000));
+        assertNull(armazem.buscar("k2"));
+        assertNotNull(armazem.buscar("k1"));
+        assertEquals(ENTRADA, armazem.bytes());
+        assertEquals(1, armazem.descartadas());
+    }
+
+    @Test
+    void regravarAMesmaChaveNaoContaOsBytesDuasVezes() {
+        ArmazemLocal armazem = new ArmazemLocal(3 * ENTRADA, 60_000, agora::get);
+        RespostaArmazenada nova = resposta(100);
+        armazem.salvar("k1", resposta(100));
+        armazem.salvar("k1", nova);
+        assertSame(nova, armazem.buscar("k1"));
+        assertEquals(ENTRADA, armazem.bytes());
+        assertEquals(1, armazem.tamanho());
+    }
+
+    @Test
+    void expiraPeloTtlNaLeituraNaGravacaoENoExpurgo() {
+        ArmazemLocal armazem = new ArmazemLocal(10 * ENTRADA, 1_000, agora::get);
+        armazem.salvar("k1", resposta(100));
+        agora.addAndGet(500);
+        armazem.salvar("k2", resposta(100));
+        armazem.salvar("k3", resposta(100));
+
+        agora.addAndGet(500);
+        // k1 venceu agora: a leitura remove
+        assertNull(armazem.buscar("k1"));
+        assertEquals(1, armazem.expiradas());
+
+        agora.addAndGet(500);
+        assertEquals(2, armazem.expurgarExpiradas());
+        assertEquals(0, armazem.tamanho());
+        assertEquals(0, armazem.bytes());
+        assertEquals(3, armazem.expiradas());
+
+        // Na gravação, vencidas da cabeça saem mesmo com espaço sobrando
+        armazem.salvar("k4", resposta(100));
+        agora.addAndGet(1_000);
+        armazem.salvar("k5", resposta(100));
+        assertEquals(1, armazem.tamanho());
+        assertEquals(4, armazem.expiradas());
+    }
+}
@@ -0,0 +1,76 @@
+package com.deliverytech.delivery.pricing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TabelaTaxasEntregaTest {
+
+    // 2 faixas x 3 zonas
+    private static int[] matriz(int base) {
+        return new int[] { base, base + 1, TabelaTaxasEntrega.NAO_ATENDE, base * 2, base * 2 + 1, base * 2 + 2 };
+    }
+
+    @Test
+    void consultaPorFaixaEZona() {
+        TabelaTaxasEntrega tabela = new TabelaTaxasEntrega(3);
+        assertEquals(TabelaTaxasEntrega.NAO_CALCULADO, tabela.taxaCentavos(7L, 0, 0));
+        assertEquals(TabelaTaxasEntrega.SEM_VERSAO, tabela.versao(7L));
+
+        tabela.atualizar(7L, 42L, matriz(500));
+        assertEquals(500, tabela.taxaCentavos(7L, 0, 0));
+        assertEquals(501, tabela.taxaCentavos(7L, 0, 1));
+        assertEquals(TabelaTaxasEntrega.NAO_ATENDE, tabela.taxaCentavos(7L, 0, 2));
+        assertEquals(1002, tabela.taxaCentavos(7L, 1, 2));
+        assertEquals(TabelaTaxasEntrega.NAO_ATENDE, tabela.taxaCentavos(7L, 0, -1));
+        assertEquals(42L, tabela.versao(7L));
+
+        tabela.atualizar(7L, 43L, matriz(600));
+        assertEquals(600, tabela.taxaCentavos(7L, 0, 0));
+        assertEquals(43L, tabela.versao(7L));
+        assertEquals(1, tabela.tamanho());
+    }
+
+    @Test
+    void cresceERemoveSemPerderChavesQueColidiram() {
+        TabelaTaxasEntrega tabela = new TabelaTaxasEntrega(3);
+        for (long id = 1; id <= 1000; id++) {
+            tabela.atualizar(id, id, matriz((int) id));
+        }
+        for (long id = 1; id <= 1000; id += 2) {
+            tabela.remover(id);
+        }
+        assertEquals(500, tabela.tamanho());
+        for (long id = 1; id <= 1000; id++) {
+            assertEquals(id % 2 == 0, tabela.contem(id));
+            if (id % 2 == 0) {
+                assertEquals((int) id, tabela.taxaCentavos(id, 0, 0));
+                assertEquals(id, tabela.versao(id));
+            }
+        }
+    }
+
+    @Test
+    void substituirTrocaATabelaInteira() {
+        TabelaTaxasEntrega tabela = new TabelaTaxasEntrega(3);
+        tabela.atualizar(1L, 1L, matriz(100));
+        List<TabelaTaxasEntrega.Linha> linhas = new ArrayList<>();
+        for (long id = 10; id < 5010; id++) {
+            linhas.add(new TabelaTaxasEntrega.Linha(id, 7L, matriz((int) id)));
+        }
+        tabela.substituir(linhas);
+
+        assertFalse(tabela.contem(1L));
+        assertEquals(5000, tabela.tamanho());
+        assertEquals(5009, tabela.taxaCentavos(5009L, 0, 0));
+        assertEquals(7L, tabela.versao(10L));
+        // Continua aceitando escritas pontuais depois da carga
+        tabela.atualizar(1L, 2L, matriz(100));
+        assertTrue(tabela.contem(1L));
+    }
+}
@@ -0,0 +1,103 @@
+package com.deliverytech.delivery.promotion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.deliverytech.delivery.model.Campanha;
+import com.deliverytech.delivery.model.CoorteCliente;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.TipoDesconto;
+
+class CatalogoPromocoesTest {
+
+    private static final ZoneId ZONA = ZoneOffset.UTC;
+    private static final LocalDateTime AGORA = LocalDateTime.of(2026, 3, 10, 12, 0);
+    private static final long AGORA_MILLIS = AGORA.toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    // Pizza de 40,00 (categoria pizza) x2 e refrigerante de 8,00 x1, no restaurante 1
+    private final List<ItemPedido> itens = List.of(item(10L, "Pizza", "40.00", 2), item(20L, "Bebida", "8.00", 1));
+
+    @Test
+    void semCampanhaNaoHaDesconto() {
+        assertEquals(0, CatalogoPromocoes.VAZIO.descontoCentavos(1L, CoorteCliente.NOVOS, null, AGORA_MILLIS, itens));
+    }
+
+    @Test
+    void percentualPorCategoriaValeSoParaOsItensDela() {
+        CatalogoPromocoes catalogo = compilar(campanha().categoria("pizza").valor(new BigDecimal("10")).build());
+        assertEquals(800, desconto(catalogo, CoorteCliente.TODOS, null));
+    }
+
+    @Test
+    void coorteRestringeQuemRecebe() {
+        CatalogoPromocoes catalogo = compilar(campanha().restauranteId(1L).coorte(CoorteCliente.NOVOS)
+                .valor(new BigDecimal("50")).build());
+        assertEquals(4400, desconto(catalogo, CoorteCliente.NOVOS, null));
+        assertEquals(0, desconto(catalogo, CoorteCliente.RECORRENTES, null));
+        // Outro restaurante
+        assertEquals(0, catalogo.descontoCentavos(2L, CoorteCliente.NOVOS, null, AGORA_MILLIS, itens));
+    }
+
+    @Test
+    void cupomSoComOCodigoEIgnorandoCaixaEEspacos() {
+        CatalogoPromocoes catalogo = compilar(campanha().cupom("PRIMEIRA").produtoId(20L)
+                .tipoDesconto(TipoDesconto.VALOR_FIXO).valor(new BigDecimal("3.00")).build());
+        assertEquals(0, desconto(catalogo, CoorteCliente.TODOS, null));
+        assertEquals(0, desconto(catalogo, CoorteCliente.TODOS, "OUTRO"));
+        assertEquals(300, desconto(catalogo, CoorteCliente.TODOS, " primeira "));
+    }
+
+    @Test
+    void janelaDeVigenciaIncluiOInicioEExcluiOFim() {
+        Campanha campanha = campanha().valor(new BigDecimal("10")).inicio(AGORA).fim(AGORA.plusHours(1)).build();
+        CatalogoPromocoes catalogo = compilar(campanha);
+        assertEquals(880, desconto(catalogo, CoorteCliente.TODOS, null));
+        assertEquals(0, catalogo.descontoCentavos(1L, CoorteCliente.TODOS, null, AGORA_MILLIS - 1, itens));
+        assertEquals(0, catalogo.descontoCentavos(1L, CoorteCliente.TODOS, null, AGORA_MILLIS + 3_600_000, itens));
+        assertEquals(0, compilar(campanha().valor(BigDecimal.TEN).ativo(false).build()).tamanho());
+    }
+
+    @Test
+    void descontosNaoAcumulamNoItem() {
+        // 10% global, 20% na categoria, 5,00 fixo no produto: em cada item vale só o maior
+        CatalogoPromocoes catalogo = compilar(
+                campanha().valor(new BigDecimal("10")).build(),
+                campanha().categoria("Pizza").valor(new BigDecimal("20")).build(),
+                campanha().produtoId(20L).tipoDesconto(TipoDesconto.VALOR_FIXO).valor(new BigDecimal("5.00")).build());
+        // Pizza: 20% de 80,00 = 16,00; bebida: 5,00 fixo contra 0,80
+        assertEquals(1600 + 500, desconto(catalogo, CoorteCliente.TODOS, null));
+    }
+
+    @Test
+    void descontoNuncaPassaDoSubtotal() {
+        CatalogoPromocoes catalogo = compilar(
+                campanha().valor(new BigDecimal("150")).build(),
+                campanha().produtoId(20L).tipoDesconto(TipoDesconto.VALOR_FIXO).valor(new BigDecimal("99.00")).build());
+        assertEquals(8800, desconto(catalogo, CoorteCliente.TODOS, null));
+    }
+
+    private long desconto(CatalogoPromocoes catalogo, CoorteCliente coorte, String cupom) {
+        return catalogo.descontoCentavos(1L, coorte, cupom, AGORA_MILLIS, itens);
+    }
+
+    private static CatalogoPromocoes compilar(Campanha... campanhas) {
+        return CatalogoPromocoes.compilar(List.of(campanhas), ZONA);
+    }
+
+    private static Campanha.CampanhaBuilder campanha() {
+        return Campanha.builder().tipoDesconto(TipoDesconto.PERCENTUAL);
+    }
+
+    private static ItemPedido item(Long produtoId, String categoria, String preco, int quantidade) {
+        Produto produto = Produto.builder().id(produtoId).categoria(categoria).preco(new BigDecimal(preco)).build();
+        return ItemPedido.builder().produto(produto).precoUnitario(new BigDecimal(preco)).quantidade(quantidade).build();
+    }
+}
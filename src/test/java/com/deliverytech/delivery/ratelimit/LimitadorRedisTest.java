@@ -0,0 +1,89 @@
+package com.deliverytech.delivery.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Modo cluster contra um substituto em memória com a mesma semântica do
+ * script Lua, sem precisar de um Redis de verdade.
+ */
+class LimitadorRedisTest {
+
+    private final PoliticaLimite politica = new PoliticaLimite(0, "POST", "/api/pedidos", 4, 1);
+    private final AtomicLong relogio = new AtomicLong(1000);
+    private final ScriptEmMemoria script = new ScriptEmMemoria(relogio);
+
+    private LimitadorRedis instancia() {
+        LimitadorLocal local = new LimitadorLocal(List.of(politica), 4, 64, 0, relogio::get);
+        return new LimitadorRedis(local, script, "rl:");
+    }
+
+    @Test
+    void limiteValeParaOClusterInteiro() {
+        LimitadorRedis a = instancia();
+        LimitadorRedis b = instancia();
+        assertTrue(a.consumir(politica, 10L) >= 0);
+        assertTrue(b.consumir(politica, 10L) >= 0);
+        assertTrue(a.consumir(politica, 10L) >= 0);
+        assertEquals(0, b.consumir(politica, 10L));
+        assertTrue(a.consumir(politica, 10L) < 0);
+        assertTrue(b.consumir(politica, 10L) < 0);
+    }
+
+    @Test
+    void negacaoLocalNaoVaiAoRedis() {
+        LimitadorRedis a = instancia();
+        for (int i = 0; i < 4; i++) {
+            a.consumir(politica, 20L);
+        }
+        int chamadas = script.chamadas;
+        assertTrue(a.consumir(politica, 20L) < 0);
+        assertEquals(chamadas, script.chamadas);
+    }
+
+    @Test
+    void falhaNoRedisCaiParaOLimiteLocal() {
+        LimitadorLocal local = new LimitadorLocal(List.of(politica), 4, 64, 0, relogio::get);
+        LimitadorRedis fora = new LimitadorRedis(local, (chave, cap, taxa, ttl) -> {
+            throw new IllegalStateException("Redis indisponível");
+        }, "rl:");
+        assertEquals(3, fora.consumir(politica, 30L));
+        assertEquals(1, fora.falhas());
+    }
+
+    /** Tradução direta do script de {@link ScriptBaldesRedis}. */
+    private static final class ScriptEmMemoria implements ScriptBaldes {
+
+        private final AtomicLong relogio;
+        private final Map<String, long[]> baldes = new HashMap<>();
+        private int chamadas;
+
+        ScriptEmMemoria(AtomicLong relogio) {
+            this.relogio = relogio;
+        }
+
+        @Override
+        public synchronized long consumir(String chave, long cap, long taxa, long ttlMillis) {
+            chamadas++;
+            long agora = relogio.get();
+            long[] b = baldes.computeIfAbsent(chave, k -> new long[] {cap, agora});
+            long ganho = (agora - b[1]) * taxa / 1000;
+            if (ganho > 0) {
+                b[0] = Math.min(cap, b[0] + ganho);
+                b[1] = agora;
+            }
+            if (b[0] < 1000) {
+                return -((1000 - b[0]) * 1000 / taxa + 1);
+            }
+            b[0] -= 1000;
+            return b[0] / 1000;
+        }
+    }
+}
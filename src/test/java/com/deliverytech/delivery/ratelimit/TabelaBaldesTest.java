@@ -0,0 +1,99 @@
+package com.deliverytech.delivery.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TabelaBaldesTest {
+
+    private final PoliticaLimite politica = new PoliticaLimite(0, "POST", "/api/pedidos", 5, 1);
+
+    @Test
+    void permiteRajadaAteCapacidadeENegaComTempoDeEspera() {
+        TabelaBaldes tabela = new TabelaBaldes(politica, 4, 64, 0);
+        for (int i = 4; i >= 0; i--) {
+            assertEquals(i, tabela.consumir(42L, 1000));
+        }
+        long negado = tabela.consumir(42L, 1000);
+        assertTrue(negado < 0);
+        assertEquals(1001, -negado);
+    }
+
+    @Test
+    void repoeTokensComOTempo() {
+        TabelaBaldes tabela = new TabelaBaldes(politica, 4, 64, 0);
+        for (int i = 0; i < 5; i++) {
+            tabela.consumir(7L, 1000);
+        }
+        assertTrue(tabela.consumir(7L, 1500) < 0);
+        assertEquals(0, tabela.consumir(7L, 2000));
+        assertEquals(2, tabela.consumir(7L, 5000));
+    }
+
+    @Test
+    void chavesDiferentesTemBaldesIndependentes() {
+        TabelaBaldes tabela = new TabelaBaldes(politica, 4, 64, 0);
+        for (int i = 0; i < 5; i++) {
+            tabela.consumir(1L, 1000);
+        }
+        assertTrue(tabela.consumir(1L, 1000) < 0);
+        assertEquals(4, tabela.consumir(2L, 1000));
+    }
+
+    @Test
+    void reaproveitaSlotsOciososQuandoAJanelaEnche() {
+        // Uma listra com a janela inteira: 8 slots para 9 clientes
+        TabelaBaldes tabela = new TabelaBaldes(politica, 1, TabelaBaldes.JANELA, 0);
+        for (long chave = 1; chave <= TabelaBaldes.JANELA; chave++) {
+            assertEquals(4, tabela.consumir(chave, 1000));
+        }
+        assertEquals(TabelaBaldes.SEM_ESPACO, tabela.consumir(99L, 1000));
+        // Recarga da política = 5s: depois disso qualquer balde ocioso cede o slot
+        assertEquals(4, tabela.consumir(99L, 6000));
+    }
+
+    @Test
+    void expurgoLiberaSomenteBaldesOciosos() {
+        TabelaBaldes tabela = new TabelaBaldes(politica, 4, 64, 10_000);
+        tabela.consumir(1L, 1000);
+        tabela.consumir(2L, 8000);
+        assertEquals(1, tabela.expurgarOciosos(12_000));
+        assertEquals(1, tabela.ocupados());
+    }
+
+    @Test
+    void concorrenciaNaoConcedeMaisQueACapacidade() throws Exception {
+        PoliticaLimite grande = new PoliticaLimite(0, "GET", "/api/produtos/**", 1000, 0.001);
+        TabelaBaldes tabela = new TabelaBaldes(grande, 4, 64, 0);
+        AtomicInteger permitidos = new AtomicInteger();
+        int threads = 8;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (tabela.consumir(5L, 1000) >= 0) {
+                        permitidos.incrementAndGet();
+                    }
+                }
+            });
+        }
+        largada.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1000, permitidos.get());
+    }
+}
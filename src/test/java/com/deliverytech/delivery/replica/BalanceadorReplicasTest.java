@@ -0,0 +1,117 @@
+package com.deliverytech.delivery.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/** Dois H2 em memória fazem o papel de primário e réplica, cada um com uma marca própria. */
+class BalanceadorReplicasTest {
+
+    private DataSource primario;
+    private DataSource replica;
+
+    @BeforeEach
+    void criarBancos() throws SQLException {
+        primario = banco("primario");
+        replica = banco("replica");
+    }
+
+    @AfterEach
+    void limpar() {
+        ConsistenciaLeitura.limpar();
+    }
+
+    @Test
+    void conexaoSomenteLeituraVaiParaReplica() throws SQLException {
+        DataSource dataSource = proxy(new BalanceadorReplicas(primario, List.of(replica), List.of("r1")));
+        assertEquals("replica", marca(dataSource, true));
+        assertEquals("primario", marca(dataSource, false));
+    }
+
+    @Test
+    void tokenDeEscritaRecenteForcaPrimario() throws SQLException {
+        DataSource dataSource = proxy(new BalanceadorReplicas(primario, List.of(replica), List.of("r1")));
+        ConsistenciaLeitura.exigirPrimario();
+        assertEquals("primario", marca(dataSource, true));
+    }
+
+    @Test
+    void replicaComFalhaSaiDoRodizioEVoltaNaVerificacao() throws SQLException {
+        boolean[] fora = {true};
+        DataSource instavel = new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (fora[0]) {
+                    throw new SQLException("réplica fora do ar");
+                }
+                return replica.getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+        BalanceadorReplicas balanceador = new BalanceadorReplicas(primario, List.of(instavel), List.of("r1"));
+        DataSource dataSource = proxy(balanceador);
+
+        assertEquals("primario", marca(dataSource, true));
+        assertEquals(0, balanceador.saudaveis());
+        assertEquals(1, balanceador.ejecoes());
+
+        fora[0] = false;
+        assertEquals("primario", marca(dataSource, true));
+        balanceador.verificarSaude();
+        assertEquals(1, balanceador.saudaveis());
+        assertEquals("replica", marca(dataSource, true));
+    }
+
+    @Test
+    void distribuiEmRodizioEntreReplicas() throws SQLException {
+        DataSource outra = banco("replica2");
+        DataSource dataSource = proxy(new BalanceadorReplicas(primario, List.of(replica, outra), List.of("r1", "r2")));
+        String primeira = marca(dataSource, true);
+        String segunda = marca(dataSource, true);
+        assertEquals(List.of("replica", "replica2"), List.of(primeira, segunda).stream().sorted().toList());
+    }
+
+    private DataSource proxy(BalanceadorReplicas balanceador) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primario);
+        proxy.setReadOnlyDataSource(balanceador);
+        return proxy;
+    }
+
+    private static DataSource banco(String nome) throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + nome + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection conexao = dataSource.getConnection(); Statement comando = conexao.createStatement()) {
+            comando.execute("create table marca (nome varchar(20))");
+            comando.execute("insert into marca values ('" + nome + "')");
+        }
+        return dataSource;
+    }
+
+    private static String marca(DataSource dataSource, boolean somenteLeitura) throws SQLException {
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setReadOnly(somenteLeitura);
+            try (Statement comando = conexao.createStatement();
+                    ResultSet resultado = comando.executeQuery("select nome from marca")) {
+                resultado.next();
+                return resultado.getString(1);
+            }
+        }
+    }
+}
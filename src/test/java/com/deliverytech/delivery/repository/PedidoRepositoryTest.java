@@ -0,0 +1,117 @@
+package com.deliverytech.delivery.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.deliverytech.delivery.dto.response.PedidoResponse;
+import com.deliverytech.delivery.mapper.PedidoMapper;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.StatusPedido;
+
+/**
+ * Sem transação em volta do teste, como nos controllers (open-in-view
+ * desligado): o que o repositório devolve chega desligado da sessão, e o
+ * {@link PedidoMapper} só consegue ler os itens que vieram na consulta.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PedidoRepositoryTest {
+
+    private final PedidoMapper pedidoMapper = Mappers.getMapper(PedidoMapper.class);
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private RestauranteRepository restauranteRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Pedido antigo;
+    private Pedido recente;
+
+    @BeforeEach
+    void popular() {
+        cliente = clienteRepository.save(Cliente.builder().nome("Ana").email("ana@email.com").build());
+        restaurante = restauranteRepository.save(Restaurante.builder().nome("Cantina").build());
+        Produto pizza = produtoRepository.save(Produto.builder().nome("Pizza").preco(new BigDecimal("40.00"))
+                .restaurante(restaurante).build());
+        Produto suco = produtoRepository.save(Produto.builder().nome("Suco").preco(new BigDecimal("8.00"))
+                .restaurante(restaurante).build());
+        antigo = salvar(LocalDateTime.now().minusDays(1), pizza);
+        recente = salvar(LocalDateTime.now(), pizza, suco);
+    }
+
+    @AfterEach
+    void limpar() {
+        for (String tabela : List.of("item_pedido", "pedido", "produto", "clientes", "restaurante")) {
+            jdbc.execute("delete from " + tabela);
+        }
+    }
+
+    @Test
+    void porIdMapeiaItensForaDaSessao() {
+        Pedido pedido = pedidoRepository.buscarComItens(List.of(recente.getId())).get(0);
+        PedidoResponse resposta = pedidoMapper.paraResponse(pedido);
+        assertEquals(2, resposta.getItens().size());
+        assertEquals(cliente.getId(), resposta.getClienteId());
+        assertEquals(restaurante.getId(), resposta.getRestauranteId());
+    }
+
+    @Test
+    void historicosVemComItensEMaisRecentesPrimeiro() {
+        List<Pedido> doCliente = pedidoRepository.buscarComItensPorCliente(cliente.getId());
+        assertEquals(List.of(recente.getId(), antigo.getId()), doCliente.stream().map(Pedido::getId).toList());
+        List<PedidoResponse> respostas = pedidoMapper.paraResponse(doCliente);
+        assertEquals(2, respostas.get(0).getItens().size());
+        assertEquals("Pizza", respostas.get(1).getItens().get(0).getNomeProduto());
+
+        List<Pedido> doRestaurante = pedidoRepository.buscarComItensPorRestaurante(restaurante.getId());
+        assertEquals(List.of(recente.getId(), antigo.getId()), doRestaurante.stream().map(Pedido::getId).toList());
+        assertEquals(1, pedidoMapper.paraResponse(doRestaurante).get(1).getItens().size());
+    }
+
+    @Test
+    void findByIdNaoTrazOsItens() {
+        Pedido pedido = pedidoRepository.findById(recente.getId()).orElseThrow();
+        assertThrows(LazyInitializationException.class, () -> pedidoMapper.paraResponse(pedido));
+    }
+
+    private Pedido salvar(LocalDateTime data, Produto... produtos) {
+        Pedido pedido = Pedido.builder().cliente(cliente).restaurante(restaurante).status(StatusPedido.CRIADO)
+                .dataPedido(data).total(BigDecimal.TEN).build();
+        pedido.setItens(Arrays.stream(produtos)
+                .map(p -> ItemPedido.builder().pedido(pedido).produto(p).quantidade(1).precoUnitario(p.getPreco()).build())
+                .toList());
+        return pedidoRepository.save(pedido);
+    }
+}
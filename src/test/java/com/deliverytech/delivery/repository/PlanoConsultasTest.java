@@ -0,0 +1,209 @@
+package com.deliverytech.delivery.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.math.BigDecimal;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.deliverytech.delivery.model.StatusPedido;
+import com.deliverytech.delivery.sql.ContadorConsultas;
+
+/**
+ * Roda cada consulta dos repositórios, captura o SQL pelo
+ * {@link com.deliverytech.delivery.sql.InspetorConsultas} e pede o plano ao
+ * H2 com {@code EXPLAIN}. Falha se alguma tabela grande for varrida inteira:
+ * uma consulta nova sem índice, ou um índice removido por migração, quebra
+ * aqui antes de chegar a produção. O esquema vem das migrações Flyway.
+ *
+ * <p>A massa é gravada uma vez para a classe e apagada no fim: o
+ * {@code ANALYZE} do H2 confirma a transação aberta, então o rollback de cada
+ * teste não a desfaz.
+ */
+@DataJpaTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PlanoConsultasTest {
+
+    private static final Set<String> TABELAS_GRANDES = Set.of("PEDIDO", "ITEM_PEDIDO", "PRODUTO", "CLIENTES");
+    private static final Pattern VARREDURA = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan");
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private RestauranteRepository restauranteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    // Volume suficiente para o otimizador preferir índice a varredura quando houver um
+    @BeforeAll
+    void popular() {
+        List<Object[]> restaurantes = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            restaurantes.add(new Object[] {"Restaurante " + i, i % 3 == 0 ? "Pizza" : "Lanches", i % 5 != 0});
+        }
+        jdbc.batchUpdate("insert into restaurante (nome, categoria, tempo_entrega_minutos, ativo) values (?, ?, 30, ?)",
+                restaurantes);
+        List<Long> restauranteIds = jdbc.queryForList("select id from restaurante", Long.class);
+
+        List<Object[]> clientes = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            clientes.add(new Object[] {"Cliente " + i, "cliente" + i + "@email.com", i % 7 != 0});
+        }
+        jdbc.batchUpdate("insert into clientes (nome, email, ativo) values (?, ?, ?)", clientes);
+        List<Long> clienteIds = jdbc.queryForList("select id from clientes", Long.class);
+
+        List<Object[]> produtos = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            produtos.add(new Object[] {"Produto " + i, "Categoria " + (i % 12), new BigDecimal("19.90"), i % 4 != 0,
+                    restauranteIds.get(i % restauranteIds.size())});
+        }
+        jdbc.batchUpdate("insert into produto (nome, categoria, preco, disponivel, restaurante_id) values (?, ?, ?, ?, ?)",
+                produtos);
+
+        StatusPedido[] status = StatusPedido.values();
+        LocalDateTime base = LocalDateTime.now().minusDays(60);
+        List<Object[]> pedidos = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            pedidos.add(new Object[] {clienteIds.get(i % clienteIds.size()), restauranteIds.get(i % restauranteIds.size()),
+                    new BigDecimal("50.00"), status[i % status.length].name(), Timestamp.valueOf(base.plusMinutes(i * 17L))});
+        }
+        jdbc.batchUpdate("insert into pedido (cliente_id, restaurante_id, total, status, data_pedido) values (?, ?, ?, ?, ?)",
+                pedidos);
+        jdbc.execute("analyze");
+    }
+
+    // O banco embutido é compartilhado com outros testes do mesmo contexto
+    @AfterAll
+    void limpar() {
+        for (String tabela : List.of("item_pedido", "pedido", "produto", "clientes", "restaurante")) {
+            jdbc.execute("delete from " + tabela);
+        }
+    }
+
+    @Test
+    void pedidosPorCliente() {
+        assertSemVarredura(() -> pedidoRepository.findByClienteId(1L));
+    }
+
+    @Test
+    void pedidosPorRestaurante() {
+        assertSemVarredura(() -> pedidoRepository.findByRestauranteId(1L));
+    }
+
+    @Test
+    void pedidoComItens() {
+        assertSemVarredura(() -> pedidoRepository.buscarComItens(List.of(1L)));
+    }
+
+    @Test
+    void historicoDoClienteComItens() {
+        assertSemVarredura(() -> pedidoRepository.buscarComItensPorCliente(1L));
+    }
+
+    @Test
+    void historicoDoRestauranteComItens() {
+        assertSemVarredura(() -> pedidoRepository.buscarComItensPorRestaurante(1L));
+    }
+
+    @Test
+    void pedidosPorStatus() {
+        assertSemVarredura(() -> pedidoRepository.findByStatus(StatusPedido.CRIADO));
+    }
+
+    @Test
+    void pedidosPorPeriodo() {
+        LocalDateTime agora = LocalDateTime.now();
+        assertSemVarredura(() -> pedidoRepository.findByDataPedidoBetween(agora.minusDays(1), agora));
+    }
+
+    @Test
+    void volumeDePedidosPorRestaurante() {
+        assertSemVarredura(() -> pedidoRepository.contarPorRestauranteDesde(LocalDateTime.now().minusDays(1)));
+    }
+
+    @Test
+    void produtosPorRestaurante() {
+        assertSemVarredura(() -> produtoRepository.findByRestauranteId(1L));
+    }
+
+    @Test
+    void produtosPorCategoria() {
+        assertSemVarredura(() -> produtoRepository.findByCategoria("Categoria 3"));
+    }
+
+    @Test
+    void restaurantesAtivos() {
+        assertSemVarredura(() -> restauranteRepository.findByAtivoTrue());
+    }
+
+    private void assertSemVarredura(Runnable consulta) {
+        List<String> comandos;
+        try (ContadorConsultas.Escopo escopo = ContadorConsultas.abrir()) {
+            consulta.run();
+            comandos = escopo.comandos();
+        }
+        assertFalse(comandos.isEmpty(), "Nenhum comando SQL capturado; o InspetorConsultas está configurado?");
+        for (String sql : comandos) {
+            String plano = explicar(sql);
+            Matcher varredura = VARREDURA.matcher(plano);
+            while (varredura.find()) {
+                if (TABELAS_GRANDES.contains(varredura.group(1))) {
+                    fail("Varredura completa de " + varredura.group(1) + " em:\n" + plano);
+                }
+            }
+        }
+    }
+
+    // Parâmetros recebem valores de exemplo do tipo esperado; o plano não depende deles
+    private String explicar(String sql) {
+        return jdbc.execute((ConnectionCallback<String>) conexao -> {
+            try (PreparedStatement comando = conexao.prepareStatement("explain " + sql)) {
+                ParameterMetaData parametros = comando.getParameterMetaData();
+                for (int i = 1; i <= parametros.getParameterCount(); i++) {
+                    comando.setObject(i, exemplo(parametros.getParameterType(i)));
+                }
+                StringBuilder plano = new StringBuilder();
+                try (ResultSet resultado = comando.executeQuery()) {
+                    while (resultado.next()) {
+                        plano.append(resultado.getString(1)).append('\n');
+                    }
+                }
+                return plano.toString();
+            }
+        });
+    }
+
+    private static Object exemplo(int tipo) {
+        return switch (tipo) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> 1L;
+            case Types.NUMERIC, Types.DECIMAL, Types.DOUBLE, Types.FLOAT, Types.REAL -> BigDecimal.ONE;
+            case Types.BOOLEAN, Types.BIT -> Boolean.TRUE;
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE, Types.DATE -> Timestamp.valueOf(LocalDateTime.now());
+            default -> "CRIADO";
+        };
+    }
+}
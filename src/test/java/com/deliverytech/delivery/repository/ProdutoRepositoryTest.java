@@ -0,0 +1,76 @@
+package com.deliverytech.delivery.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+
+@DataJpaTest
+class ProdutoRepositoryTest {
+
+    private static final BigDecimal PRECO_MINIMO = new BigDecimal("0.01");
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private RestauranteRepository restauranteRepository;
+
+    private Long restauranteId;
+    private Long pizza;
+    private Long agua;
+    private Long outroRestaurante;
+
+    @BeforeEach
+    void popular() {
+        Restaurante restaurante = restauranteRepository.save(Restaurante.builder().nome("Cantina").build());
+        Restaurante vizinho = restauranteRepository.save(Restaurante.builder().nome("Vizinho").build());
+        restauranteId = restaurante.getId();
+        pizza = salvar(restaurante, "Pizza", "40.00");
+        agua = salvar(restaurante, "Bebida", "3.00");
+        outroRestaurante = salvar(vizinho, "Pizza", "40.00");
+        produtoRepository.flush();
+    }
+
+    @Test
+    void reducaoPercentualParaNoPrecoMinimoSemPularProduto() {
+        // -99%: a pizza vai a 0,40 e a água a 0,03; -99,9% levaria a água a zero
+        assertEquals(2, produtoRepository.reajustarPrecoPercentual(restauranteId, null, new BigDecimal("0.01"), PRECO_MINIMO));
+        assertEquals(new BigDecimal("0.40"), preco(pizza));
+        assertEquals(new BigDecimal("0.03"), preco(agua));
+
+        assertEquals(2, produtoRepository.reajustarPrecoPercentual(restauranteId, null, new BigDecimal("0.001"), PRECO_MINIMO));
+        assertEquals(new BigDecimal("0.01"), preco(pizza));
+        assertEquals(new BigDecimal("0.01"), preco(agua));
+        // Já no mínimo: nada muda e nada conta como afetado
+        assertEquals(0, produtoRepository.reajustarPrecoPercentual(restauranteId, null, new BigDecimal("0.5"), PRECO_MINIMO));
+        assertEquals(new BigDecimal("40.00"), preco(outroRestaurante));
+    }
+
+    @Test
+    void reducaoPorValorParaNoPrecoMinimoERespeitaACategoria() {
+        assertEquals(1, produtoRepository.reajustarPrecoValor(restauranteId, "bebida", new BigDecimal("-5.00"), PRECO_MINIMO));
+        assertEquals(new BigDecimal("0.01"), preco(agua));
+        assertEquals(new BigDecimal("40.00"), preco(pizza));
+
+        assertEquals(2, produtoRepository.reajustarPrecoValor(restauranteId, null, new BigDecimal("2.50"), PRECO_MINIMO));
+        assertEquals(new BigDecimal("42.50"), preco(pizza));
+        assertEquals(new BigDecimal("2.51"), preco(agua));
+    }
+
+    private Long salvar(Restaurante restaurante, String categoria, String preco) {
+        return produtoRepository.save(Produto.builder().nome(categoria).categoria(categoria)
+                .preco(new BigDecimal(preco)).restaurante(restaurante).build()).getId();
+    }
+
+    private BigDecimal preco(Long id) {
+        return produtoRepository.findById(id).orElseThrow().getPreco();
+    }
+}
@@ -0,0 +1,286 @@
+package com.deliverytech.delivery.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.deliverytech.delivery.idempotency.ArmazemIdempotencia;
+import com.deliverytech.delivery.idempotency.ArmazemLocal;
+import com.deliverytech.delivery.idempotency.RespostaArmazenada;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+class IdempotenciaFilterTest {
+
+    private static final String ROTAS = "POST /api/pedidos;PATCH /api/pedidos/{id}/**";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ArmazemLocal armazem = new ArmazemLocal(1 << 20, 60_000);
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    // Ecoa o corpo recebido, como um controller que cria o pedido 1
+    private final FilterChain criar = (req, res) -> {
+        int numero = execucoes.incrementAndGet();
+        byte[] corpo = req.getInputStream().readAllBytes();
+        HttpServletResponse http = (HttpServletResponse) res;
+        http.setStatus(201);
+        http.setContentType("application/json");
+        http.setHeader(HttpHeaders.LOCATION, "/api/pedidos/" + numero);
+        http.getOutputStream().write(corpo);
+    };
+
+    private IdempotenciaFilter filtro(ArmazemIdempotencia armazem, long esperaMs) {
+        return new IdempotenciaFilter(armazem, ROTAS, esperaMs, 1024, registry);
+    }
+
+    private static MockHttpServletRequest requisicao(String chave, String corpo) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/pedidos");
+        request.setContent(corpo.getBytes(StandardCharsets.UTF_8));
+        request.setContentType("application/json");
+        if (chave != null) {
+            request.addHeader(IdempotenciaFilter.CABECALHO, chave);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse executar(IdempotenciaFilter filtro, MockHttpServletRequest request, FilterChain chain)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void novaTentativaRecebeAMesmaRespostaSemExecutarDeNovo() throws Exception {
+        IdempotenciaFilter filtro = filtro(armazem, 1_000);
+        MockHttpServletResponse primeira = executar(filtro, requisicao("k1", "{\"a\":1}"), criar);
+        MockHttpServletResponse segunda = executar(filtro, requisicao("k1", "{\"a\":1}"), criar);
+
+        assertEquals(1, execucoes.get());
+        assertEquals(201, primeira.getStatus());
+        assertNull(primeira.getHeader(IdempotenciaFilter.CABECALHO_REPETIDA));
+        assertEquals(201, segunda.getStatus());
+        assertEquals("true", segunda.getHeader(IdempotenciaFilter.CABECALHO_REPETIDA));
+        assertEquals("/api/pedidos/1", segunda.getHeader(HttpHeaders.LOCATION));
+        assertEquals("application/json", segunda.getContentType());
+        assertEquals("{\"a\":1}", segunda.getContentAsString());
+        assertEquals(1.0, registry.counter("idempotencia.respostas.repetidas").count());
+    }
+
+    @Test
+    void mesmaChaveComOutroCorpoE422() throws Exception {
+        IdempotenciaFilter filtro = filtro(armazem, 1_000);
+        executar(filtro, requisicao("k1", "{\"a\":1}"), criar);
+        MockHttpServletResponse outra = executar(filtro, requisicao("k1", "{\"a\":2}"), criar);
+
+        assertEquals(422, outra.getStatus());
+        assertTrue(outra.getContentAsString().contains("IDEMPOTENCY_KEY_REUSED"));
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void chaveEEscopadaPeloClienteEPelaRota() throws Exception {
+        IdempotenciaFilter filtro = filtro(armazem, 1_000);
+        executar(filtro, requisicao("k1", "{}"), criar);
+
+        MockHttpServletRequest outroIp = requisicao("k1", "{}");
+        outroIp.setRemoteAddr("10.0.0.9");
+        executar(filtro, outroIp, criar);
+
+        // Rota fora da lista e requisição sem chave passam direto
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/pedidos");
+        get.addHeader(IdempotenciaFilter.CABECALHO, "k1");
+        executar(filtro, get, criar);
+        executar(filtro, requisicao(null, "{}"), criar);
+
+        assertEquals(4, execucoes.get());
+    }
+
+    @Test
+    void duplicatasSimultaneasEsperamAPrimeira() throws Exception {
+        IdempotenciaFilter filtro = filtro(armazem, 5_000);
+        CountDownLatch entrou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain lenta = (req, res) -> {
+            entrou.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            criar.doFilter(req, res);
+        };
+
+        CompletableFuture<MockHttpServletResponse> primeira = CompletableFuture.supplyAsync(() -> executarSemErro(
+                filtro, requisicao("k1", "{\"a\":1}"), lenta));
+        assertTrue(entrou.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MockHttpServletResponse> duplicata = CompletableFuture.supplyAsync(() -> executarSemErro(
+                filtro, requisicao("k1", "{\"a\":1}"), lenta));
+
+        // Só libera a primeira depois que a duplicata está esperando por ela
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.counter("idempotencia.requisicoes.agrupadas").count() < 1 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        liberar.countDown();
+
+        assertEquals(201, primeira.get(5, TimeUnit.SECONDS).getStatus());
+        MockHttpServletResponse repetida = duplicata.get(5, TimeUnit.SECONDS);
+        assertEquals(201, repetida.getStatus());
+        assertEquals("true", repetida.getHeader(IdempotenciaFilter.CABECALHO_REPETIDA));
+        assertEquals("{\"a\":1}", repetida.getContentAsString());
+        assertEquals(1, execucoes.get());
+        assertEquals(1.0, registry.counter("idempotencia.requisicoes.agrupadas").count());
+    }
+
+    @Test
+    void duplicataQueEsperaDemaisRecebe409() throws Exception {
+        IdempotenciaFilter filtro = filtro(armazem, 50);
+        CountDownLatch entrou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain lenta = (req, res) -> {
+            entrou.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            criar.doFilter(req, res);
+        };
+        CompletableFuture<MockHttpServletResponse> primeira = CompletableFuture.supplyAsync(() -> executarSemErro(
+                filtro, requisicao("k1", "{}"), lenta));
+        assertTrue(entrou.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse duplicata = executar(filtro, requisicao("k1", "{}"), lenta);
+        liberar.countDown();
+
+        assertEquals(409, duplicata.getStatus());
+        assertTrue(duplicata.getContentAsString().contains("IDEMPOTENCY_KEY_IN_USE"));
+        assertEquals(201, primeira.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void erro5xxNaoFicaGuardado() throws Exception {
+        IdempotenciaFilter filtro = filtro(armazem, 1_000);
+        AtomicInteger tentativas = new AtomicInteger();
+        FilterChain instavel = (req, res) -> {
+            if (tentativas.incrementAndGet() == 1) {
+                ((HttpServletResponse) res).setStatus(503);
+                return;
+            }
+            criar.doFilter(req, res);
+        };
+        assertEquals(503, executar(filtro, requisicao("k1", "{}"), instavel).getStatus());
+        assertEquals(201, executar(filtro, requisicao("k1", "{}"), instavel).getStatus());
+        assertEquals(2, tentativas.get());
+    }
+
+    @Test
+    void reservaNegadaPorOutraInstanciaE409() throws Exception {
+        ArmazemIdempotencia ocupado = new ArmazemIdempotencia() {
+            @Override
+            public RespostaArmazenada buscar(String chave) {
+                return null;
+            }
+
+            @Override
+            public void salvar(String chave, RespostaArmazenada resposta) {
+            }
+
+            @Override
+            public boolean reservar(String chave) {
+                return false;
+            }
+        };
+        MockHttpServletResponse response = executar(filtro(ocupado, 1_000), requisicao("k1", "{}"), criar);
+        assertEquals(409, response.getStatus());
+        assertEquals(0, execucoes.get());
+    }
+
+    @Test
+    void respostaSalvaPorOutraInstanciaAntesDaReservaERepetida() throws Exception {
+        // Outra instância, com o mesmo armazém, executa e libera a chave logo antes da nossa reserva
+        IdempotenciaFilter outraInstancia = filtro(armazem, 1_000);
+        ArmazemIdempotencia corrida = new ArmazemIdempotencia() {
+            @Override
+            public RespostaArmazenada buscar(String chave) {
+                return armazem.buscar(chave);
+            }
+
+            @Override
+            public void salvar(String chave, RespostaArmazenada resposta) {
+                armazem.salvar(chave, resposta);
+            }
+
+            @Override
+            public boolean reservar(String chave) {
+                if (execucoes.get() == 0) {
+                    executarSemErro(outraInstancia, requisicao("k1", "{\"itens\":1}"), criar);
+                }
+                return armazem.reservar(chave);
+            }
+
+            @Override
+            public void liberar(String chave) {
+                armazem.liberar(chave);
+            }
+        };
+
+        MockHttpServletResponse response = executar(filtro(corrida, 1_000), requisicao("k1", "{\"itens\":1}"), criar);
+        assertEquals(201, response.getStatus());
+        assertEquals("/api/pedidos/1", response.getHeader(HttpHeaders.LOCATION));
+        assertEquals("true", response.getHeader(IdempotenciaFilter.CABECALHO_REPETIDA));
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void corpoAcimaDoLimiteE413() throws Exception {
+        IdempotenciaFilter filtro = filtro(armazem, 1_000);
+        assertEquals(413, executar(filtro, requisicao("k1", "x".repeat(1025)), criar).getStatus());
+
+        // Sem Content-Length (chunked) o limite vale na leitura
+        MockHttpServletRequest semTamanho = new MockHttpServletRequest("POST", "/api/pedidos") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        semTamanho.setContent("x".repeat(2048).getBytes(StandardCharsets.UTF_8));
+        semTamanho.addHeader(IdempotenciaFilter.CABECALHO, "k2");
+        assertEquals(413, executar(filtro, semTamanho, criar).getStatus());
+
+        assertEquals(201, executar(filtro, requisicao("k3", "x".repeat(1024)), criar).getStatus());
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void chaveVaziaOuLongaDemaisE400() throws Exception {
+        IdempotenciaFilter filtro = filtro(armazem, 1_000);
+        assertEquals(400, executar(filtro, requisicao(" ", "{}"), criar).getStatus());
+        assertEquals(400, executar(filtro, requisicao("x".repeat(256), "{}"), criar).getStatus());
+        assertEquals(0, execucoes.get());
+    }
+
+    private MockHttpServletResponse executarSemErro(IdempotenciaFilter filtro, MockHttpServletRequest request,
+            FilterChain chain) {
+        try {
+            return executar(filtro, request, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.deliverytech.delivery.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.deliverytech.delivery.archive.ArquivoPedidos;
+import com.deliverytech.delivery.archive.PedidoArquivado;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.Endereco;
+import com.deliverytech.delivery.model.ItemPedido;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.StatusPedido;
+import com.deliverytech.delivery.repository.ClienteRepository;
+import com.deliverytech.delivery.repository.PedidoRepository;
+import com.deliverytech.delivery.repository.ProdutoRepository;
+import com.deliverytech.delivery.repository.RestauranteRepository;
+import com.deliverytech.delivery.service.DespachoService;
+import com.deliverytech.delivery.service.EnderecoService;
+import com.deliverytech.delivery.service.PromocaoService;
+import com.deliverytech.delivery.service.TaxaEntregaService;
+import com.deliverytech.delivery.sharding.AnelShards;
+import com.deliverytech.delivery.sharding.ShardsPedidos;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Arquivamento contra o H2 com as migrações de verdade. Sem transação em
+ * volta do teste: cada lote abre a sua por {@link ShardsPedidos}, como em
+ * produção.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArquivamentoServiceImplTest {
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private RestauranteRepository restauranteRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ArquivoPedidos arquivo;
+    private ShardsPedidos shards;
+    private ArquivamentoServiceImpl arquivamento;
+    private PedidoServiceImpl pedidoService;
+
+    private Cliente cliente;
+    private Restaurante restaurante;
+    private Produto pizza;
+    private Produto suco;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void montar() {
+        arquivo = new ArquivoPedidos(jdbc, JsonMapper.builder().findAndAddModules().build());
+        shards = new ShardsPedidos(AnelShards.unico("principal"), false, transactionManager, 1, 5_000, registry);
+        // Lotes de dois: três pedidos elegíveis passam por mais de um lote
+        arquivamento = new ArquivamentoServiceImpl(pedidoRepository, arquivo, shards, registry,
+                true, 90, 2, 0, 60_000);
+        pedidoService = new PedidoServiceImpl(pedidoRepository, clienteRepository, restauranteRepository,
+                produtoRepository, mock(DespachoService.class), mock(EnderecoService.class),
+                mock(PromocaoService.class), mock(TaxaEntregaService.class), arquivo, shards,
+                mock(ObjectProvider.class), registry, 3_000);
+
+        cliente = clienteRepository.save(Cliente.builder().nome("Ana").email("ana@arquivo.com").build());
+        restaurante = restauranteRepository.save(Restaurante.builder().nome("Cantina").build());
+        pizza = produtoRepository.save(Produto.builder().nome("Pizza").preco(new BigDecimal("40.00"))
+                .restaurante(restaurante).build());
+        suco = produtoRepository.save(Produto.builder().nome("Suco").preco(new BigDecimal("8.00"))
+                .restaurante(restaurante).build());
+    }
+
+    @AfterEach
+    void limpar() {
+        for (String tabela : List.of("pedido_arquivado", "item_pedido", "pedido", "produto", "clientes", "restaurante")) {
+            jdbc.execute("delete from " + tabela);
+        }
+    }
+
+    @Test
+    void soFinalizadosAnterioresAoCorteSaemDasTabelasQuentes() {
+        Pedido entregueAntigo = salvar(StatusPedido.ENTREGUE, 120, pizza, suco);
+        Pedido canceladoAntigo = salvar(StatusPedido.CANCELADO, 100, pizza);
+        Pedido entregueMaisAntigo = salvar(StatusPedido.ENTREGUE, 200, suco);
+        Pedido abertoAntigo = salvar(StatusPedido.ENVIADO, 150, pizza);
+        Pedido entregueRecente = salvar(StatusPedido.ENTREGUE, 10, pizza);
+
+        assertEquals(3, arquivamento.arquivar());
+
+        for (Pedido movido : List.of(entregueAntigo, canceladoAntigo, entregueMaisAntigo)) {
+            assertEquals(0, contar("select count(*) from pedido where id = ?", movido.getId()));
+            assertEquals(0, contar("select count(*) from item_pedido where pedido_id = ?", movido.getId()));
+            assertEquals(1, contar("select count(*) from pedido_arquivado where id = ?", movido.getId()));
+        }
+        for (Pedido ficou : List.of(abertoAntigo, entregueRecente)) {
+            assertEquals(1, contar("select count(*) from pedido where id = ?", ficou.getId()));
+            assertEquals(1, contar("select count(*) from item_pedido where pedido_id = ?", ficou.getId()));
+            assertEquals(0, contar("select count(*) from pedido_arquivado where id = ?", ficou.getId()));
+        }
+        // Nada mais elegível: a segunda execução não mexe em nada
+        assertEquals(0, arquivamento.arquivar());
+    }
+
+    @Test
+    void fotografiaComprimidaVoltaIgual() {
+        Pedido original = salvar(StatusPedido.ENTREGUE, 120, pizza, suco);
+        PedidoArquivado esperado = PedidoArquivado.de(pedidoRepository.buscarComItens(List.of(original.getId())).get(0));
+
+        assertEquals(1, arquivamento.arquivar());
+
+        PedidoArquivado lido = arquivo.buscar(original.getId()).orElseThrow();
+        assertEquals(esperado, lido);
+        assertEquals(List.of("Pizza", "Suco"), lido.itens().stream().map(PedidoArquivado.Item::nomeProduto).sorted().toList());
+        assertEquals("Rua A", lido.enderecoEntrega().getRua());
+    }
+
+    @Test
+    void buscasDoServicoCaemNoArquivo() {
+        Pedido arquivado = salvar(StatusPedido.ENTREGUE, 120, pizza);
+        Pedido quente = salvar(StatusPedido.CRIADO, 1, suco);
+        assertEquals(1, arquivamento.arquivar());
+
+        Pedido lido = pedidoService.buscarPorId(arquivado.getId()).orElseThrow();
+        assertEquals(StatusPedido.ENTREGUE, lido.getStatus());
+        assertEquals("Pizza", lido.getItens().get(0).getProduto().getNome());
+
+        // Mais recentes primeiro, juntando as tabelas quentes e o arquivo
+        List<Long> esperados = List.of(quente.getId(), arquivado.getId());
+        assertEquals(esperados, pedidoService.listarPorCliente(cliente.getId()).stream().map(Pedido::getId).toList());
+        assertEquals(esperados,
+                pedidoService.listarPorRestaurante(restaurante.getId()).stream().map(Pedido::getId).toList());
+        assertTrue(pedidoService.buscarPorId(-1L).isEmpty());
+    }
+
+    @Test
+    void loteJaArquivadoFalhaNaChavePrimariaSemDuplicar() {
+        Pedido pedido = salvar(StatusPedido.ENTREGUE, 120, pizza);
+        // Outra instância gravou este lote no arquivo e ainda não apagou das tabelas quentes
+        shards.noShard("principal", false, () -> {
+            arquivo.gravar(List.of(PedidoArquivado.de(pedidoRepository.buscarComItens(List.of(pedido.getId())).get(0))));
+            return null;
+        });
+
+        assertEquals(0, arquivamento.arquivar());
+
+        assertEquals(1, contar("select count(*) from pedido_arquivado where id = ?", pedido.getId()));
+        // O lote inteiro voltou atrás: o pedido continua quente, com os itens
+        assertEquals(1, contar("select count(*) from pedido where id = ?", pedido.getId()));
+        assertEquals(1, contar("select count(*) from item_pedido where pedido_id = ?", pedido.getId()));
+        assertEquals(0, registry.get("delivery.arquivamento.pedidos").counter().count());
+    }
+
+    private Pedido salvar(StatusPedido status, int diasAtras, Produto... produtos) {
+        Pedido pedido = Pedido.builder().cliente(cliente).restaurante(restaurante).status(status)
+                .dataPedido(LocalDateTime.now().minusDays(diasAtras)).total(BigDecimal.TEN)
+                .enderecoEntrega(Endereco.builder().rua("Rua A").numero("10").cidade("São Paulo").build())
+                .build();
+        pedido.setItens(Arrays.stream(produtos)
+                .map(p -> ItemPedido.builder().pedido(pedido).produto(p).quantidade(2).precoUnitario(p.getPreco()).build())
+                .toList());
+        return pedidoRepository.save(pedido);
+    }
+
+    private int contar(String sql, Long id) {
+        return jdbc.queryForObject(sql, Integer.class, id);
+    }
+}
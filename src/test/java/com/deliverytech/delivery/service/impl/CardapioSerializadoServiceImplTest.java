@@ -0,0 +1,138 @@
+package com.deliverytech.delivery.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import com.deliverytech.delivery.catalog.CardapioSerializado;
+import com.deliverytech.delivery.catalog.CodificacaoConteudo;
+import com.deliverytech.delivery.mapper.ProdutoMapper;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.service.ProdutoService;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CardapioSerializadoServiceImplTest {
+
+    private final ProdutoService produtoService = mock(ProdutoService.class);
+    private final Map<Long, Long> versoes = new ConcurrentHashMap<>();
+    private final VersaoCatalogoService versaoCatalogo = new VersaoCatalogoService() {
+        @Override
+        public long versao(Long restauranteId) {
+            return versoes.getOrDefault(restauranteId, 1L);
+        }
+
+        @Override
+        public Map<Long, Long> versoes(Collection<Long> restauranteIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void incrementar(Long restauranteId) {
+            versoes.merge(restauranteId, 2L, (atual, um) -> atual + 1);
+        }
+    };
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CardapioSerializadoServiceImpl servico = new CardapioSerializadoServiceImpl(produtoService,
+            Mappers.getMapper(ProdutoMapper.class), versaoCatalogo, new ObjectMapper(),
+            new MappingJackson2CborHttpMessageConverter(), registry, 100, 1);
+
+    @AfterEach
+    void encerrar() {
+        servico.encerrar();
+    }
+
+    @Test
+    void acertoSoComAVersaoAtual() {
+        when(produtoService.buscarPorRestaurante(1L)).thenReturn(List.of(produto("Pizza")), List.of(produto("Pasta")));
+        CardapioSerializado primeiro = servico.obter(1L);
+        assertSame(primeiro, servico.obter(1L));
+
+        versaoCatalogo.incrementar(1L);
+        CardapioSerializado segundo = servico.obter(1L);
+        assertEquals(2L, segundo.versao());
+        assertTrue(texto(segundo).contains("Pasta"));
+        verify(produtoService, times(2)).buscarPorRestaurante(1L);
+    }
+
+    @Test
+    void leituraDeVersaoNovaNaoPegaCaronaEmMontagemAntiga() throws Exception {
+        CountDownLatch entrou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(produtoService.buscarPorRestaurante(1L))
+                .thenAnswer(invocacao -> {
+                    entrou.countDown();
+                    liberar.await(5, TimeUnit.SECONDS);
+                    return List.of(produto("Antigo"));
+                })
+                .thenReturn(List.of(produto("Novo")));
+
+        // Começa a montar a versão 1 e fica parada lendo os produtos
+        CompletableFuture<CardapioSerializado> antiga = CompletableFuture.supplyAsync(() -> servico.obter(1L));
+        assertTrue(entrou.await(5, TimeUnit.SECONDS));
+
+        // O catálogo mudou: quem lê a versão 2 monta a sua, sem esperar a antiga
+        versaoCatalogo.incrementar(1L);
+        CardapioSerializado nova = servico.obter(1L);
+        assertEquals(2L, nova.versao());
+        assertTrue(texto(nova).contains("Novo"));
+
+        liberar.countDown();
+        assertEquals(1L, antiga.get(5, TimeUnit.SECONDS).versao());
+        // A montagem antiga terminou depois, mas não substitui a nova no cache
+        assertSame(nova, servico.obter(1L));
+    }
+
+    @Test
+    void leiturasSimultaneasDaMesmaVersaoMontamUmaVez() throws Exception {
+        CountDownLatch entrou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(produtoService.buscarPorRestaurante(1L)).thenAnswer(invocacao -> {
+            entrou.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return List.of(produto("Pizza"));
+        });
+
+        CompletableFuture<CardapioSerializado> primeira = CompletableFuture.supplyAsync(() -> servico.obter(1L));
+        assertTrue(entrou.await(5, TimeUnit.SECONDS));
+        CompletableFuture<CardapioSerializado> segunda = CompletableFuture.supplyAsync(() -> servico.obter(1L));
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.counter("cardapio.cache.faltas").count() < 2 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        liberar.countDown();
+
+        assertSame(primeira.get(5, TimeUnit.SECONDS), segunda.get(5, TimeUnit.SECONDS));
+        verify(produtoService, times(1)).buscarPorRestaurante(1L);
+    }
+
+    private static String texto(CardapioSerializado cardapio) {
+        return new String(cardapio.json().corpo(CodificacaoConteudo.IDENTIDADE), StandardCharsets.UTF_8);
+    }
+
+    private static Produto produto(String nome) {
+        return Produto.builder().id(10L).nome(nome).preco(new BigDecimal("30.00")).build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.deliverytech.delivery.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.deliverytech.delivery.model.Endereco;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.Role;
+import com.deliverytech.delivery.model.StatusPedido;
+import com.deliverytech.delivery.model.Usuario;
+import com.deliverytech.delivery.repository.PedidoRepository;
+import com.deliverytech.delivery.repository.UsuarioRepository;
+import com.deliverytech.delivery.sharding.AnelShards;
+import com.deliverytech.delivery.sharding.ShardsPedidos;
+import com.deliverytech.delivery.writebehind.BufferStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DespachoServiceImplTest {
+
+    private final PedidoRepository pedidoRepository = mock(PedidoRepository.class);
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private DespachoServiceImpl despacho;
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    void montar() {
+        despacho = despacho(null);
+        for (long id = 1; id <= 3; id++) {
+            Usuario entregador = new Usuario();
+            entregador.setId(id);
+            entregador.setEmail(email(id));
+            entregador.setRole(Role.ENTREGADOR);
+            entregador.setAtivo(true);
+            when(usuarioRepository.findById(id)).thenReturn(Optional.of(entregador));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private DespachoServiceImpl despacho(BufferStatus bufferStatus) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ShardsPedidos shards = new ShardsPedidos(AnelShards.unico("principal"), false,
+                mock(PlatformTransactionManager.class), 1, 1000, registry);
+        ObjectProvider<BufferStatus> buffer = mock(ObjectProvider.class);
+        when(buffer.getIfAvailable()).thenReturn(bufferStatus);
+        return new DespachoServiceImpl(pedidoRepository, usuarioRepository, shards, buffer, registry,
+                0.01, 8, 10, 500, 100, 2.0, 4, 50);
+    }
+
+    @AfterEach
+    void limpar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rodadaAtribuiOEntregadorMaisProximoERetiraDoIndice() {
+        despacho.atualizarLocalizacao(1L, email(1L), -23.50, -46.60);
+        despacho.atualizarLocalizacao(2L, email(2L), -23.551, -46.631);
+        despacho.enfileirar(pedido(100L, 10L, -23.55, -46.63));
+
+        assertEquals(1, despacho.executarRodada());
+        verify(pedidoRepository).atribuirEntregador(List.of(100L), 2L);
+
+        // O entregador 2 saiu do índice: o próximo pedido vai para o 1
+        despacho.enfileirar(pedido(101L, 10L, -23.55, -46.63));
+        assertEquals(1, despacho.executarRodada());
+        verify(pedidoRepository).atribuirEntregador(List.of(101L), 1L);
+    }
+
+    @Test
+    void falhaAoGravarDevolveEntregadorEPedidos() {
+        despacho.atualizarLocalizacao(1L, email(1L), -23.551, -46.631);
+        despacho.enfileirar(pedido(100L, 10L, -23.55, -46.63));
+        when(pedidoRepository.atribuirEntregador(anyList(), anyLong()))
+                .thenThrow(new QueryTimeoutException("Banco fora"))
+                .thenReturn(1);
+
+        assertEquals(0, despacho.executarRodada());
+        assertEquals(1, despacho.executarRodada());
+        verify(pedidoRepository, times(2)).atribuirEntregador(List.of(100L), 1L);
+    }
+
+    @Test
+    void dentroDeTransacaoSoEnfileiraDepoisDoCommit() {
+        despacho.atualizarLocalizacao(1L, email(1L), -23.551, -46.631);
+        TransactionSynchronizationManager.initSynchronization();
+        despacho.enfileirar(pedido(100L, 10L, -23.55, -46.63));
+
+        assertEquals(0, despacho.executarRodada());
+        verify(pedidoRepository, never()).atribuirEntregador(anyList(), any());
+
+        List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, despacho.executarRodada());
+        verify(pedidoRepository).atribuirEntregador(eq(List.of(100L)), eq(1L));
+    }
+
+    @Test
+    void soOProprioEntregadorMexeNaSuaPosicao() {
+        assertThrows(AccessDeniedException.class, () -> despacho.atualizarLocalizacao(1L, email(2L), -23.55, -46.63));
+        assertThrows(AccessDeniedException.class, () -> despacho.atualizarLocalizacao(1L, null, -23.55, -46.63));
+
+        despacho.atualizarLocalizacao(1L, email(1L), -23.55, -46.63);
+        despacho.atualizarLocalizacao(1L, email(1L), -23.551, -46.631);
+        // Já no índice: a conferência é em memória, sem voltar ao banco
+        assertThrows(AccessDeniedException.class, () -> despacho.atualizarLocalizacao(1L, email(2L), -23.55, -46.63));
+        assertThrows(AccessDeniedException.class, () -> despacho.marcarIndisponivel(1L, email(2L)));
+        verify(usuarioRepository, times(2)).findById(1L);
+
+        despacho.enfileirar(pedido(100L, 10L, -23.55, -46.63));
+        assertEquals(1, despacho.executarRodada());
+    }
+
+    @Test
+    void bootDevolveAFilaOsEnviadosSemEntregador() {
+        Pedido enviado = pedido(100L, 10L, -23.55, -46.63);
+        enviado.setStatus(StatusPedido.ENVIADO);
+        when(pedidoRepository.buscarSemEntregador(StatusPedido.ENVIADO)).thenReturn(List.of(enviado));
+        despacho.atualizarLocalizacao(1L, email(1L), -23.551, -46.631);
+
+        assertEquals(1, despacho.recarregarPendentes());
+        // Já na fila: a segunda carga não duplica
+        assertEquals(0, despacho.recarregarPendentes());
+        assertEquals(1, despacho.executarRodada());
+        verify(pedidoRepository).atribuirEntregador(List.of(100L), 1L);
+    }
+
+    @Test
+    void bootComWriteBehindUsaOStatusAindaNaoDescarregado() {
+        try (BufferStatus buffer = new BufferStatus(diretorio, 1024 * 1024)) {
+            DespachoServiceImpl comBuffer = despacho(buffer);
+            // No banco ainda enviado, mas já entregue no log
+            Pedido entregue = pedido(100L, 10L, -23.55, -46.63);
+            entregue.setStatus(StatusPedido.ENVIADO);
+            buffer.registrar(100L, 10L, StatusPedido.ENTREGUE);
+            // No banco ainda confirmado, mas enviado no log
+            Pedido enviado = pedido(101L, 10L, -23.55, -46.63);
+            enviado.setStatus(StatusPedido.CONFIRMADO);
+            buffer.registrar(101L, 10L, StatusPedido.ENVIADO);
+            when(pedidoRepository.buscarSemEntregador(StatusPedido.ENVIADO)).thenReturn(List.of(entregue));
+            when(pedidoRepository.buscarSemEntregador(List.of(101L))).thenReturn(List.of(enviado));
+            comBuffer.atualizarLocalizacao(1L, email(1L), -23.551, -46.631);
+
+            assertEquals(1, comBuffer.recarregarPendentes());
+            assertEquals(1, comBuffer.executarRodada());
+            verify(pedidoRepository).atribuirEntregador(List.of(101L), 1L);
+        }
+    }
+
+    private static String email(long entregadorId) {
+        return "entregador" + entregadorId + "@delivery.com";
+    }
+
+    private static Pedido pedido(Long id, Long restauranteId, double lat, double lon) {
+        Restaurante restaurante = Restaurante.builder().id(restauranteId).latitude(lat).longitude(lon).build();
+        return Pedido.builder()
+                .id(id)
+                .restaurante(restaurante)
+                .enderecoEntrega(Endereco.builder().latitude(lat + 0.01).longitude(lon).build())
+                .build();
+    }
+}
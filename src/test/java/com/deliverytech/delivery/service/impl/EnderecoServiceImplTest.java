@@ -0,0 +1,109 @@
+package com.deliverytech.delivery.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import com.deliverytech.delivery.address.BaseCep;
+import com.deliverytech.delivery.exception.BusinessException;
+import com.deliverytech.delivery.model.Endereco;
+
+class EnderecoServiceImplTest {
+
+    private static final String SE = "01001000;Praça da Sé;Sé;São Paulo;SP;-23.5503;-46.6340\n";
+    private static final String CENTRO_RJ = "20040002;Av. Rio Branco;Centro;Rio de Janeiro;RJ;-22.9035;-43.1766\n";
+
+    @TempDir
+    Path pasta;
+
+    private EnderecoServiceImpl servico(Path arquivo, String csv, boolean estrita) {
+        return new EnderecoServiceImpl(arquivo, new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)), estrita);
+    }
+
+    @Test
+    void normalizarDevolveCopiaSemAlterarOOriginal() {
+        EnderecoServiceImpl servico = servico(pasta.resolve("cep.bin"), SE, false);
+        Endereco original = Endereco.builder().rua("praca da se").numero("100").cep("01001000").build();
+
+        Endereco normalizado = servico.normalizar(original);
+        assertEquals("01001-000", normalizado.getCep());
+        assertEquals("Praça da Sé", normalizado.getRua());
+        assertEquals("100", normalizado.getNumero());
+        assertEquals("São Paulo", normalizado.getCidade());
+        assertEquals(-23.5503, normalizado.getLatitude(), 1e-4);
+
+        assertEquals("01001000", original.getCep());
+        assertEquals("praca da se", original.getRua());
+        assertNull(original.getCidade());
+        assertNull(servico.normalizar(null));
+    }
+
+    @Test
+    void cepForaDaBaseSoFalhaNaValidacaoEstrita() {
+        Endereco endereco = Endereco.builder().rua("Rua X").cep("99999-999").build();
+        Endereco normalizado = servico(pasta.resolve("cep.bin"), SE, false).normalizar(endereco);
+        assertEquals("Rua X", normalizado.getRua());
+        assertEquals("99999-999", normalizado.getCep());
+
+        EnderecoServiceImpl estrito = servico(pasta.resolve("estrito.bin"), SE, true);
+        assertThrows(BusinessException.class, () -> estrito.normalizar(endereco));
+        assertThrows(BusinessException.class, () -> estrito.normalizar(Endereco.builder().cep("123").build()));
+    }
+
+    @Test
+    void recompilaQuandoAFonteMudaEReaproveitaQuandoNao() throws Exception {
+        Path arquivo = pasta.resolve("dados/cep.bin");
+        assertEquals(Optional.empty(), servico(arquivo, SE, false).coordenadas("20040-002"));
+        long modificado = Files.getLastModifiedTime(arquivo).toMillis();
+
+        // Mesma fonte: o binário é só mapeado de novo
+        Thread.sleep(20);
+        servico(arquivo, SE, false);
+        assertEquals(modificado, Files.getLastModifiedTime(arquivo).toMillis());
+
+        // Fonte nova: recompila e passa a achar o CEP acrescentado
+        EnderecoServiceImpl atualizado = servico(arquivo, SE + CENTRO_RJ, false);
+        assertEquals(-22.9035, atualizado.coordenadas("20040-002").orElseThrow()[0], 1e-4);
+    }
+
+    @Test
+    void fonteComMesmoTamanhoEDataNaoELidaDeNovo() throws Exception {
+        Path csv = pasta.resolve("cep.csv");
+        Path arquivo = pasta.resolve("cep.bin");
+        Files.writeString(csv, SE, StandardCharsets.UTF_8);
+        FileTime modificacao = Files.getLastModifiedTime(csv);
+        new EnderecoServiceImpl(arquivo, new FileSystemResource(csv), false);
+
+        // Mesmo tamanho e mesma data: o binário vale sem ler a fonte, nem para conferir o conteúdo
+        Files.writeString(csv, SE.replace("-46.6340", "-46.6341"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(csv, modificacao);
+        EnderecoServiceImpl semLer = new EnderecoServiceImpl(arquivo, new FileSystemResource(csv), false);
+        assertEquals(-46.6340, semLer.coordenadas("01001-000").orElseThrow()[1], 1e-5);
+
+        // Outra data: a impressão mostra que o conteúdo mudou
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(modificacao.toMillis() + 2_000));
+        EnderecoServiceImpl relido = new EnderecoServiceImpl(arquivo, new FileSystemResource(csv), false);
+        assertEquals(-46.6341, relido.coordenadas("01001-000").orElseThrow()[1], 1e-5);
+        assertEquals(Files.size(csv), BaseCep.mapear(arquivo).tamanhoFonte());
+        assertEquals(modificacao.toMillis() + 2_000, BaseCep.mapear(arquivo).modificacaoFonte());
+    }
+
+    @Test
+    void arquivoCorrompidoERecompilado() throws Exception {
+        Path arquivo = pasta.resolve("cep.bin");
+        Files.write(arquivo, new byte[] { 1, 2, 3 });
+        EnderecoServiceImpl servico = servico(arquivo, SE, false);
+        assertEquals(-46.6340, servico.coordenadas("01001-000").orElseThrow()[1], 1e-4);
+    }
+}
@@ -0,0 +1,188 @@
+package com.deliverytech.delivery.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.deliverytech.delivery.dispatch.Geo;
+import com.deliverytech.delivery.exception.BusinessException;
+import com.deliverytech.delivery.exception.EntityNotFoundException;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.repository.RestauranteRepository;
+import com.deliverytech.delivery.service.VersaoCatalogoService;
+
+class TaxaEntregaServiceImplTest {
+
+    // Zona 010 no centro; zona 080 a uns 25 km, fora do raio de 15 km
+    private static final String ZONAS = "# prefixo;latitude;longitude\n010;-23.5489;-46.6388\n080;-23.5000;-46.4000\n";
+
+    private final RestauranteRepository repository = mock(RestauranteRepository.class);
+    private final Map<Long, Long> versoes = new HashMap<>();
+    private final VersaoCatalogoService versaoCatalogo = new VersaoCatalogoService() {
+        @Override
+        public long versao(Long restauranteId) {
+            return versoes.getOrDefault(restauranteId, 1L);
+        }
+
+        @Override
+        public Map<Long, Long> versoes(Collection<Long> restauranteIds) {
+            Map<Long, Long> resultado = new HashMap<>();
+            restauranteIds.forEach(id -> resultado.put(id, versao(id)));
+            return resultado;
+        }
+
+        @Override
+        public void incrementar(Long restauranteId) {
+            versoes.put(restauranteId, versao(restauranteId) + 1);
+        }
+    };
+
+    private TaxaEntregaServiceImpl servico(long intervaloVerificacaoMs) {
+        return new TaxaEntregaServiceImpl(repository, versaoCatalogo,
+                new ByteArrayResource(ZONAS.getBytes(StandardCharsets.UTF_8)),
+                new BigDecimal("1.50"), 2, 15, "0=2.0", intervaloVerificacaoMs);
+    }
+
+    @AfterEach
+    void limpar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void taxaBaseMaisQuilometragemAlemDaFranquiaVezesOMultiplicador() {
+        // Restaurante a ~5,5 km do centróide da zona 010
+        Restaurante restaurante = restaurante(1L, "5.00", -23.5489, -46.5850);
+        when(repository.findById(1L)).thenReturn(Optional.of(restaurante));
+        TaxaEntregaServiceImpl servico = servico(60_000);
+
+        double km = Geo.distanciaKm(-23.5489, -46.5850, -23.5489, -46.6388);
+        long esperado = Math.round((500 + Math.round(150 * (km - 2))) * 2.0);
+        assertEquals(Optional.of(BigDecimal.valueOf(esperado, 2)), servico.cotar(1L, "01001-000"));
+        // CEP de prefixo sem zona paga a base
+        assertEquals(Optional.of(new BigDecimal("10.00")), servico.cotar(1L, "99999999"));
+        // Fora do raio
+        assertEquals(Optional.empty(), servico.cotar(1L, "08000-000"));
+        assertThrows(BusinessException.class, () -> servico.cotar(1L, "123"));
+        // Uma leitura do restaurante, as outras cotações saem da tabela
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void cargaInicialEmBlocoDispensaLeiturasPorCotacao() {
+        when(repository.findIdsAtivos()).thenReturn(List.of(1L, 2L));
+        when(repository.findByAtivoTrue()).thenReturn(List.of(
+                restaurante(1L, "5.00", -23.5489, -46.6388), restaurante(2L, "7.00", -23.5489, -46.6388)));
+        TaxaEntregaServiceImpl servico = servico(60_000);
+        servico.recalcularTodos();
+
+        assertEquals(Optional.of(new BigDecimal("14.00")), servico.cotar(2L, "01001-000"));
+        Map<Long, BigDecimal> lote = servico.cotarLote(List.of(1L, 2L), "01001-000");
+        assertEquals(new BigDecimal("10.00"), lote.get(1L));
+        verify(repository, never()).findById(2L);
+        verify(repository, never()).findAllById(anyCollection());
+    }
+
+    @Test
+    void alteracaoEmOutroNoEPercebidaPelaVersao() {
+        Restaurante antigo = restaurante(1L, "5.00", -23.5489, -46.6388);
+        when(repository.findById(1L)).thenReturn(Optional.of(antigo));
+        TaxaEntregaServiceImpl servico = servico(0);
+        assertEquals(Optional.of(new BigDecimal("10.00")), servico.cotar(1L, "01001-000"));
+
+        // Outro nó gravou a taxa nova e incrementou a versão; este nó não viu o recalcular
+        when(repository.findById(1L)).thenReturn(Optional.of(restaurante(1L, "6.00", -23.5489, -46.6388)));
+        versaoCatalogo.incrementar(1L);
+        assertEquals(Optional.of(new BigDecimal("12.00")), servico.cotar(1L, "01001-000"));
+
+        when(repository.findAllById(List.of(1L))).thenReturn(List.of(restaurante(1L, "7.00", -23.5489, -46.6388)));
+        versaoCatalogo.incrementar(1L);
+        assertEquals(new BigDecimal("14.00"), servico.cotarLote(List.of(1L), "01001-000").get(1L));
+    }
+
+    @Test
+    void versaoSoEConferidaDepoisDoIntervalo() {
+        when(repository.findById(1L)).thenReturn(Optional.of(restaurante(1L, "5.00", -23.5489, -46.6388)));
+        TaxaEntregaServiceImpl servico = servico(60_000);
+        servico.cotar(1L, "01001-000");
+        versaoCatalogo.incrementar(1L);
+        servico.cotar(1L, "01001-000");
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void idDesconhecidoSoVoltaAoBancoDepoisDoIntervalo() {
+        when(repository.findById(9L)).thenReturn(Optional.empty());
+        when(repository.findAllById(List.of(9L))).thenReturn(List.of());
+        TaxaEntregaServiceImpl servico = servico(60_000);
+
+        assertThrows(EntityNotFoundException.class, () -> servico.cotar(9L, "01001-000"));
+        assertThrows(EntityNotFoundException.class, () -> servico.cotar(9L, "01001-000"));
+        assertNull(servico.cotarLote(List.of(9L), "01001-000").get(9L));
+        verify(repository, times(1)).findById(9L);
+        verify(repository, never()).findAllById(anyCollection());
+
+        TaxaEntregaServiceImpl semIntervalo = servico(0);
+        assertThrows(EntityNotFoundException.class, () -> semIntervalo.cotar(9L, "01001-000"));
+        assertThrows(EntityNotFoundException.class, () -> semIntervalo.cotar(9L, "01001-000"));
+        verify(repository, times(3)).findById(9L);
+    }
+
+    @Test
+    void restauranteInativoNaoAtendeSemLerOBancoACadaCotacao() {
+        Restaurante inativo = restaurante(1L, "5.00", -23.5489, -46.6388);
+        inativo.setAtivo(false);
+        when(repository.findById(1L)).thenReturn(Optional.of(inativo));
+        TaxaEntregaServiceImpl servico = servico(60_000);
+
+        assertEquals(Optional.empty(), servico.cotar(1L, "01001-000"));
+        assertEquals(Optional.empty(), servico.cotar(1L, "01001-000"));
+        verify(repository, times(1)).findById(1L);
+
+        // Reativado neste nó: a recusa sai junto com o recálculo
+        servico.recalcular(restaurante(1L, "5.00", -23.5489, -46.6388));
+        assertEquals(Optional.of(new BigDecimal("10.00")), servico.cotar(1L, "01001-000"));
+    }
+
+    @Test
+    void recalcularDentroDeTransacaoEsperaOCommit() {
+        when(repository.findById(1L)).thenReturn(Optional.of(restaurante(1L, "5.00", -23.5489, -46.6388)));
+        TaxaEntregaServiceImpl servico = servico(60_000);
+        assertEquals(Optional.of(new BigDecimal("10.00")), servico.cotar(1L, "01001-000"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        servico.recalcular(restaurante(1L, "8.00", -23.5489, -46.6388));
+        assertEquals(Optional.of(new BigDecimal("10.00")), servico.cotar(1L, "01001-000"));
+
+        List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(Optional.of(new BigDecimal("16.00")), servico.cotar(1L, "01001-000"));
+    }
+
+    private static Restaurante restaurante(Long id, String taxa, double latitude, double longitude) {
+        return Restaurante.builder().id(id).taxaEntrega(new BigDecimal(taxa))
+                .latitude(latitude).longitude(longitude).build();
+    }
+}
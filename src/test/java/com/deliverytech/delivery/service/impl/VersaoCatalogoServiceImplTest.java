@@ -0,0 +1,68 @@
+package com.deliverytech.delivery.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VersaoCatalogoServiceImplTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valores = mock(ValueOperations.class);
+
+    @SuppressWarnings("unchecked")
+    private VersaoCatalogoServiceImpl servico(String modo) {
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(redis);
+        when(redis.opsForValue()).thenReturn(valores);
+        return new VersaoCatalogoServiceImpl(provider, mock(ApplicationEventPublisher.class),
+                new SimpleMeterRegistry(), modo);
+    }
+
+    @Test
+    void localSemEscritaFicaEmZeroEAPrimeiraEscritaParteDoRelogio() {
+        VersaoCatalogoServiceImpl servico = servico("local");
+        long antes = System.currentTimeMillis();
+
+        assertEquals(0, servico.versao(7L));
+        assertEquals(Map.of(7L, 0L, 8L, 0L), servico.versoes(List.of(7L, 8L)));
+
+        servico.incrementar(7L);
+        long versao = servico.versao(7L);
+        assertTrue(versao > antes);
+        servico.incrementar(7L);
+        assertEquals(versao + 1, servico.versao(7L));
+        assertEquals(0, servico.versao(8L));
+    }
+
+    @Test
+    void redisLeituraNaoCriaChave() {
+        VersaoCatalogoServiceImpl servico = servico("redis");
+        when(valores.multiGet(List.of("catalogo:versao:7", "catalogo:versao:8"))).thenReturn(Arrays.asList("42", null));
+
+        assertEquals(0, servico.versao(7L));
+        assertEquals(Map.of(7L, 42L, 8L, 0L), servico.versoes(List.of(7L, 8L)));
+        verify(valores, never()).setIfAbsent(anyString(), anyString());
+
+        servico.incrementar(7L);
+        verify(valores).setIfAbsent(eq("catalogo:versao:7"), anyString());
+        verify(valores).increment("catalogo:versao:7");
+    }
+}
@@ -0,0 +1,56 @@
+package com.deliverytech.delivery.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class AnelShardsTest {
+
+    private static final int RESTAURANTES = 100_000;
+
+    @Test
+    void distribuiRestaurantesDeFormaEquilibrada() {
+        AnelShards anel = new AnelShards(List.of("s1", "s2", "s3"), 128);
+        Map<String, Integer> contagem = new HashMap<>();
+        for (long id = 1; id <= RESTAURANTES; id++) {
+            contagem.merge(anel.shardDe(id), 1, Integer::sum);
+        }
+        for (int quantidade : contagem.values()) {
+            double fracao = quantidade / (double) RESTAURANTES;
+            assertTrue(fracao > 0.28 && fracao < 0.39, "fração fora do esperado: " + contagem);
+        }
+        double soma = anel.distribuicao().values().stream().mapToDouble(Double::doubleValue).sum();
+        assertEquals(1.0, soma, 1e-9);
+    }
+
+    @Test
+    void novoShardSoRecebeRestaurantesSemMexerNosDemais() {
+        AnelShards tres = new AnelShards(List.of("s1", "s2", "s3"), 128);
+        AnelShards quatro = new AnelShards(List.of("s1", "s2", "s3", "s4"), 128);
+        int movidos = 0;
+        for (long id = 1; id <= RESTAURANTES; id++) {
+            String antes = tres.shardDe(id);
+            String depois = quatro.shardDe(id);
+            if (!antes.equals(depois)) {
+                assertEquals("s4", depois);
+                movidos++;
+            }
+        }
+        double fracao = movidos / (double) RESTAURANTES;
+        assertTrue(fracao > 0.18 && fracao < 0.32, "movidos: " + fracao);
+    }
+
+    @Test
+    void posicoesNaoDependemDaOrdemDeConfiguracao() {
+        AnelShards a = new AnelShards(List.of("s1", "s2", "s3"), 64);
+        AnelShards b = new AnelShards(List.of("s3", "s1", "s2"), 64);
+        for (long id = 1; id <= 10_000; id++) {
+            assertEquals(a.shardDe(id), b.shardDe(id));
+        }
+    }
+}
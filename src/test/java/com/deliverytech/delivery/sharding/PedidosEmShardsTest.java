@@ -0,0 +1,135 @@
+package com.deliverytech.delivery.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.deliverytech.delivery.dto.request.AjustePrecoLoteRequest;
+import com.deliverytech.delivery.dto.request.ItemPedidoRequest;
+import com.deliverytech.delivery.dto.request.PedidoRequest;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.Endereco;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.StatusPedido;
+import com.deliverytech.delivery.model.TipoAjustePreco;
+import com.deliverytech.delivery.service.ClienteService;
+import com.deliverytech.delivery.service.PedidoService;
+import com.deliverytech.delivery.service.ProdutoService;
+import com.deliverytech.delivery.service.RestauranteService;
+
+/**
+ * O perfil "shards" de ponta a ponta, com o principal e os três shards em H2
+ * na memória: cadastros no principal chegam aos shards e o pedido vive só no
+ * shard do restaurante.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:e2e-principal;DB_CLOSE_DELAY=-1",
+        "delivery.shards.urls=jdbc:h2:mem:e2e-s1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:e2e-s2;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:e2e-s3;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("shards")
+class PedidosEmShardsTest {
+
+    @Autowired
+    private RestauranteService restauranteService;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ShardsPedidos shards;
+
+    @Autowired
+    private RoteadorShards roteador;
+
+    @Autowired
+    private ReplicacaoReferencias replicacaoReferencias;
+
+    @Test
+    void pedidoDeCadastroRecemFeitoViveNoShardDoRestaurante() {
+        Restaurante restaurante = restauranteService.cadastrar(Restaurante.builder().nome("Cantina").categoria("Italiana")
+                .taxaEntrega(new BigDecimal("5.00")).tempoEntregaMinutos(30)
+                .latitude(-23.5489).longitude(-46.6388).build());
+        Produto pizza = produtoService.cadastrar(Produto.builder().nome("Pizza").categoria("Pizzas")
+                .preco(new BigDecimal("40.00")).restaurante(restaurante).build());
+        Cliente cliente = clienteService.cadastrar(Cliente.builder().nome("Ana").email("ana@e2e.com").build());
+
+        for (DataSource shard : roteador.shards().values()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard);
+            assertEquals(1, contar(jdbc, "select count(*) from restaurante where id = ?", restaurante.getId()));
+            assertEquals(1, contar(jdbc, "select count(*) from produto where id = ?", pizza.getId()));
+            assertEquals(1, contar(jdbc, "select count(*) from clientes where id = ?", cliente.getId()));
+        }
+
+        Pedido criado = pedidoService.criar(new PedidoRequest(cliente.getId(), restaurante.getId(),
+                Endereco.builder().rua("Rua A").numero("10").cidade("São Paulo").cep("99999-999").build(),
+                List.of(new ItemPedidoRequest(pizza.getId(), 2)), null));
+        assertEquals(new BigDecimal("80.00"), criado.getTotal());
+
+        String dono = shards.shardDe(restaurante.getId());
+        for (Map.Entry<String, DataSource> shard : roteador.shards().entrySet()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard.getValue());
+            int esperado = shard.getKey().equals(dono) ? 1 : 0;
+            assertEquals(esperado, contar(jdbc, "select count(*) from pedido where id = ?", criado.getId()));
+            assertEquals(esperado, contar(jdbc, "select count(*) from item_pedido where pedido_id = ?", criado.getId()));
+        }
+        assertEquals(0, contar(new JdbcTemplate(roteador.principal()), "select count(*) from pedido where id = ?",
+                criado.getId()));
+
+        Pedido lido = pedidoService.buscarPorId(criado.getId()).orElseThrow();
+        assertEquals("Pizza", lido.getItens().get(0).getProduto().getNome());
+        assertEquals(List.of(criado.getId()),
+                pedidoService.listarPorCliente(cliente.getId()).stream().map(Pedido::getId).toList());
+        assertEquals(StatusPedido.CONFIRMADO, pedidoService.atualizarStatus(criado.getId(), StatusPedido.CONFIRMADO).getStatus());
+
+        // Reajuste em lote também chega aos shards, e o próximo pedido já sai com o preço novo
+        AjustePrecoLoteRequest reajuste = new AjustePrecoLoteRequest();
+        reajuste.setTipo(TipoAjustePreco.VALOR);
+        reajuste.setValor(new BigDecimal("-5.00"));
+        assertEquals(1, produtoService.reajustarPrecos(restaurante.getId(), reajuste));
+        Pedido segundo = pedidoService.criar(new PedidoRequest(cliente.getId(), restaurante.getId(),
+                Endereco.builder().rua("Rua A").numero("10").cidade("São Paulo").cep("99999-999").build(),
+                List.of(new ItemPedidoRequest(pizza.getId(), 1)), null));
+        assertEquals(new BigDecimal("35.00"), segundo.getTotal());
+    }
+
+    @Test
+    void sincronizacaoCompletaLevaLinhasGravadasForaDosServicos() {
+        JdbcTemplate principal = new JdbcTemplate(roteador.principal());
+        principal.update("insert into restaurante (id, nome, tempo_entrega_minutos, ativo) values (900001, 'Direto', 20, true)");
+        principal.update("insert into produto (id, nome, preco, disponivel, restaurante_id) values (900002, 'Suco', 8.00, true, 900001)");
+
+        assertTrue(replicacaoReferencias.sincronizarTudo() >= 2);
+        principal.update("update produto set preco = 9.00 where id = 900002");
+        replicacaoReferencias.sincronizarTudo();
+
+        for (DataSource shard : roteador.shards().values()) {
+            JdbcTemplate jdbc = new JdbcTemplate(shard);
+            assertEquals(new BigDecimal("9.00"),
+                    jdbc.queryForObject("select preco from produto where id = 900002", BigDecimal.class));
+        }
+    }
+
+    private static int contar(JdbcTemplate jdbc, String sql, Long id) {
+        return jdbc.queryForObject(sql, Integer.class, id);
+    }
+}
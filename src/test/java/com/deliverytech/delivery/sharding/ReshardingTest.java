@@ -0,0 +1,116 @@
+package com.deliverytech.delivery.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Três H2 em memória com o esquema das migrações. Os pedidos começam todos
+ * em s1, como se o anel tivesse acabado de ganhar s2 e s3.
+ */
+class ReshardingTest {
+
+    private static final int RESTAURANTES = 12;
+    private static final int PEDIDOS_POR_RESTAURANTE = 7;
+
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+    private final AnelShards anel = new AnelShards(List.of("s1", "s2", "s3"), 64);
+
+    @BeforeEach
+    void criarShards() {
+        for (String nome : List.of("s1", "s2", "s3")) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:resharding-" + nome + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+            Flyway.configure().dataSource(dataSource)
+                    .locations("classpath:db/migration/comum", "classpath:db/migration/h2")
+                    .load().migrate();
+            // Tabelas de referência replicadas em todos os shards
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.update("insert into clientes (id, nome, email) values (1, 'Cliente', 'c@x.com')");
+            for (long r = 1; r <= RESTAURANTES; r++) {
+                jdbc.update("insert into restaurante (id, nome, tempo_entrega_minutos) values (?, ?, 30)", r, "R" + r);
+            }
+            shards.put(nome, dataSource);
+        }
+        JdbcTemplate s1 = new JdbcTemplate(shards.get("s1"));
+        long pedidoId = 1000;
+        for (long r = 1; r <= RESTAURANTES; r++) {
+            for (int p = 0; p < PEDIDOS_POR_RESTAURANTE; p++) {
+                pedidoId++;
+                s1.update("insert into pedido (id, cliente_id, restaurante_id, status, data_pedido) values (?, 1, ?, 'CRIADO', ?)",
+                        pedidoId, r, Timestamp.valueOf(LocalDateTime.now()));
+                s1.update("insert into item_pedido (id, pedido_id, quantidade) values (?, ?, 2)", pedidoId * 10, pedidoId);
+            }
+            s1.update("insert into pedido_arquivado (id, cliente_id, restaurante_id, status, data_pedido, arquivado_em, conteudo) "
+                    + "values (?, 1, ?, 'ENTREGUE', ?, ?, ?)", 500 + r, r, Timestamp.valueOf(LocalDateTime.now()),
+                    Timestamp.valueOf(LocalDateTime.now()), new byte[] { 1 });
+        }
+    }
+
+    @Test
+    void moveCadaRestauranteParaOShardDono() {
+        Resharding.Resumo resumo = new Resharding(shards, anel, 3, 0).executar();
+
+        int fora = 0;
+        for (long r = 1; r <= RESTAURANTES; r++) {
+            if (!anel.shardDe(r).equals("s1")) {
+                fora++;
+            }
+        }
+        assertEquals(fora, resumo.restaurantes());
+        assertEquals(fora * PEDIDOS_POR_RESTAURANTE, resumo.pedidos());
+        assertEquals(fora, resumo.arquivados());
+
+        for (long r = 1; r <= RESTAURANTES; r++) {
+            for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+                JdbcTemplate jdbc = new JdbcTemplate(shard.getValue());
+                boolean dono = anel.shardDe(r).equals(shard.getKey());
+                assertEquals(dono ? PEDIDOS_POR_RESTAURANTE : 0, contar(jdbc, "select count(*) from pedido where restaurante_id = ?", r));
+                assertEquals(dono ? PEDIDOS_POR_RESTAURANTE : 0, contar(jdbc, "select count(*) from item_pedido i "
+                        + "join pedido p on p.id = i.pedido_id where p.restaurante_id = ?", r));
+                assertEquals(dono ? 1 : 0, contar(jdbc, "select count(*) from pedido_arquivado where restaurante_id = ?", r));
+            }
+        }
+    }
+
+    @Test
+    void segundaExecucaoNaoMoveNada() {
+        new Resharding(shards, anel, 3, 0).executar();
+        Resharding.Resumo resumo = new Resharding(shards, anel, 3, 0).executar();
+        assertEquals(0, resumo.restaurantes());
+    }
+
+    @Test
+    void copiaInterrompidaNaoDuplicaNaRetomada() {
+        long restaurante = 1;
+        while (anel.shardDe(restaurante).equals("s1")) {
+            restaurante++;
+        }
+        // Simula uma execução que copiou um pedido para o destino e caiu antes de apagar na origem
+        JdbcTemplate destino = new JdbcTemplate(shards.get(anel.shardDe(restaurante)));
+        long pedidoId = new JdbcTemplate(shards.get("s1"))
+                .queryForObject("select min(id) from pedido where restaurante_id = ?", Long.class, restaurante);
+        destino.update("insert into pedido (id, cliente_id, restaurante_id, status, data_pedido) values (?, 1, ?, 'CRIADO', ?)",
+                pedidoId, restaurante, Timestamp.valueOf(LocalDateTime.now()));
+
+        new Resharding(shards, anel, 3, 0).executar();
+
+        assertEquals(PEDIDOS_POR_RESTAURANTE, contar(destino, "select count(*) from pedido where restaurante_id = ?", restaurante));
+    }
+
+    private static int contar(JdbcTemplate jdbc, String sql, long restauranteId) {
+        return jdbc.queryForObject(sql, Integer.class, restauranteId);
+    }
+}
@@ -0,0 +1,27 @@
+package com.deliverytech.delivery.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ShardsPedidosTest {
+
+    @Test
+    void intercalaListasOrdenadasDeCadaShard() {
+        List<Integer> resultado = ShardsPedidos.intercalar(List.of(
+                List.of(9, 5, 1),
+                List.of(),
+                List.of(8, 7, 2),
+                List.of(6)), Comparator.reverseOrder());
+        assertEquals(List.of(9, 8, 7, 6, 5, 2, 1), resultado);
+    }
+
+    @Test
+    void umShardSoDevolveALista() {
+        List<Integer> lista = List.of(3, 2, 1);
+        assertEquals(lista, ShardsPedidos.intercalar(List.of(lista), Comparator.reverseOrder()));
+    }
+}
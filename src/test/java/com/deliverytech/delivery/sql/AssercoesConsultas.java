@@ -0,0 +1,70 @@
+package com.deliverytech.delivery.sql;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.List;
+
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import com.deliverytech.delivery.sql.ContadorConsultas.ConsultaRepetida;
+
+/**
+ * Asserções sobre os comandos SQL executados por um trecho de teste. Exigem o
+ * {@link InspetorConsultas} configurado (já está no application.properties) e
+ * que o trecho rode na thread do teste, como acontece com MockMvc:
+ *
+ * <pre>
+ * assertQueryCount(2, () -&gt; mockMvc.perform(get("/api/pedidos/1")));
+ * </pre>
+ */
+public final class AssercoesConsultas {
+
+    private AssercoesConsultas() {
+    }
+
+    public static void assertQueryCount(int esperado, Executable trecho) {
+        assertQueryCount(esperado, () -> {
+            trecho.execute();
+            return null;
+        });
+    }
+
+    public static <T> T assertQueryCount(int esperado, ThrowingSupplier<T> trecho) {
+        try (ContadorConsultas.Escopo escopo = ContadorConsultas.abrir()) {
+            T resultado = executar(trecho);
+            escopo.close();
+            if (escopo.total() != esperado) {
+                fail("Esperados " + esperado + " comandos SQL, executados " + escopo.total() + ":\n"
+                        + String.join("\n", escopo.comandos()));
+            }
+            return resultado;
+        }
+    }
+
+    /** Falha se algum comando se repetir {@code limite} vezes ou mais. */
+    public static void assertSemNMaisUm(int limite, Executable trecho) {
+        try (ContadorConsultas.Escopo escopo = ContadorConsultas.abrir()) {
+            executar(() -> {
+                trecho.execute();
+                return null;
+            });
+            escopo.close();
+            List<ConsultaRepetida> repetidas = escopo.repetidas(limite);
+            if (!repetidas.isEmpty()) {
+                ConsultaRepetida pior = repetidas.get(0);
+                fail("Suspeita de N+1: comando executado " + pior.vezes() + "x: " + pior.sql());
+            }
+        }
+    }
+
+    private static <T> T executar(ThrowingSupplier<T> trecho) {
+        try {
+            return trecho.get();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("Trecho sob contagem falhou", e);
+        }
+    }
+}
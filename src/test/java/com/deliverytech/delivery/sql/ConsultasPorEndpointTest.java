@@ -0,0 +1,92 @@
+package com.deliverytech.delivery.sql;
+
+import static com.deliverytech.delivery.sql.AssercoesConsultas.assertQueryCount;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.deliverytech.delivery.dto.request.ItemPedidoRequest;
+import com.deliverytech.delivery.dto.request.PedidoRequest;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.service.ClienteService;
+import com.deliverytech.delivery.service.PedidoService;
+import com.deliverytech.delivery.service.ProdutoService;
+import com.deliverytech.delivery.service.RestauranteService;
+
+/**
+ * Comandos SQL por endpoint, com o contexto inteiro e MockMvc na thread do
+ * teste. Os números fixam o formato das consultas: um item a mais na resposta
+ * não pode virar um comando a mais.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:consultas-endpoint;DB_CLOSE_DELAY=-1",
+        // O cardápio pré-serializado responde antes do controller; aqui interessa o caminho até o banco
+        "delivery.cardapio.cache.habilitado=false"
+})
+@AutoConfigureMockMvc
+class ConsultasPorEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestauranteService restauranteService;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    private Restaurante restaurante;
+    private Pedido pedido;
+
+    @BeforeEach
+    void cadastrar() {
+        long sufixo = System.nanoTime();
+        restaurante = restauranteService.cadastrar(Restaurante.builder().nome("Cantina " + sufixo)
+                .categoria("Italiana").taxaEntrega(new BigDecimal("5.00")).tempoEntregaMinutos(30).build());
+        Cliente cliente = clienteService.cadastrar(Cliente.builder().nome("Ana").email(sufixo + "@consultas.com").build());
+        List<ItemPedidoRequest> itens = new ArrayList<>();
+        for (String nome : List.of("Pizza", "Lasanha", "Suco")) {
+            Produto produto = produtoService.cadastrar(Produto.builder().nome(nome).categoria("Pratos")
+                    .preco(new BigDecimal("20.00")).restaurante(restaurante).build());
+            itens.add(new ItemPedidoRequest(produto.getId(), 1));
+        }
+        pedido = pedidoService.criar(new PedidoRequest(cliente.getId(), restaurante.getId(), null, itens, null));
+    }
+
+    @Test
+    void pedidoPorIdVemNumaConsultaSo() {
+        assertQueryCount(1, () -> mockMvc.perform(get("/api/pedidos/{id}", pedido.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens.length()").value(3)));
+    }
+
+    @Test
+    void cardapioDoRestauranteNaoCresceComOsProdutos() {
+        // Uma para conferir o restaurante, uma para os produtos, seja qual for o tamanho do cardápio
+        assertQueryCount(2, () -> mockMvc.perform(get("/api/produtos/restaurante/{id}", restaurante.getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3)));
+    }
+}
@@ -0,0 +1,108 @@
+package com.deliverytech.delivery.sql;
+
+import static com.deliverytech.delivery.sql.AssercoesConsultas.assertQueryCount;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.deliverytech.delivery.sql.ContadorConsultas.ConsultaRepetida;
+
+class ContadorConsultasTest {
+
+    private final InspetorConsultas inspetor = new InspetorConsultas();
+
+    @Test
+    void foraDeEscopoNaoConta() {
+        inspetor.inspect("select 1");
+        try (ContadorConsultas.Escopo escopo = ContadorConsultas.abrir()) {
+            assertEquals(0, escopo.total());
+        }
+    }
+
+    @Test
+    void apontaComandoRepetidoComoSuspeitaDeNMaisUm() {
+        try (ContadorConsultas.Escopo escopo = ContadorConsultas.abrir()) {
+            inspetor.inspect("select * from pedido");
+            for (int i = 0; i < 6; i++) {
+                inspetor.inspect("select * from restaurante where id=?");
+            }
+            assertEquals(7, escopo.total());
+            List<ConsultaRepetida> repetidas = escopo.repetidas(5);
+            assertEquals(1, repetidas.size());
+            assertEquals(6, repetidas.get(0).vezes());
+            assertTrue(escopo.repetidas(7).isEmpty());
+        }
+    }
+
+    @Test
+    void escopoInternoSomaNoExterno() {
+        try (ContadorConsultas.Escopo externo = ContadorConsultas.abrir()) {
+            inspetor.inspect("select 1");
+            try (ContadorConsultas.Escopo interno = ContadorConsultas.abrir()) {
+                inspetor.inspect("select 2");
+                inspetor.inspect("select 2");
+                assertEquals(2, interno.total());
+            }
+            inspetor.inspect("select 3");
+            assertEquals(4, externo.total());
+            assertEquals(2, externo.repetidas(2).get(0).vezes());
+        }
+    }
+
+    @Test
+    void tarefaPropagadaContaNoEscopoDeQuemAEntregou() throws Exception {
+        ExecutorService outra = Executors.newSingleThreadExecutor();
+        try (ContadorConsultas.Escopo escopo = ContadorConsultas.abrir()) {
+            inspetor.inspect("select 1");
+            Future<String> resultado = outra.submit(ContadorConsultas.propagar(() -> {
+                inspetor.inspect("select 2");
+                inspetor.inspect("select 2");
+                return "ok";
+            }));
+            assertEquals("ok", resultado.get());
+            assertEquals(3, escopo.total());
+            assertEquals(2, escopo.repetidas(2).get(0).vezes());
+
+            // A thread do pool não fica presa ao escopo da requisição
+            outra.submit(() -> inspetor.inspect("select 3")).get();
+            assertEquals(3, escopo.total());
+        } finally {
+            outra.shutdownNow();
+        }
+    }
+
+    @Test
+    void tarefaQueTerminaDepoisDoEscopoNaoConta() throws Exception {
+        ExecutorService outra = Executors.newSingleThreadExecutor();
+        ContadorConsultas.Escopo escopo = ContadorConsultas.abrir();
+        Runnable tardia = ContadorConsultas.propagar(() -> {
+            inspetor.inspect("select 1");
+        });
+        escopo.close();
+        try {
+            outra.submit(tardia).get();
+            assertEquals(0, escopo.total());
+        } finally {
+            outra.shutdownNow();
+        }
+    }
+
+    @Test
+    void assertQueryCountFalhaComContagemDiferente() {
+        assertQueryCount(2, () -> {
+            inspetor.inspect("select 1");
+            inspetor.inspect("select 2");
+        });
+        assertThrows(AssertionError.class, () -> assertQueryCount(1, () -> {
+            inspetor.inspect("select 1");
+            inspetor.inspect("select 1");
+        }));
+    }
+}
@@ -0,0 +1,156 @@
+package com.deliverytech.delivery.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.deliverytech.delivery.model.StatusPedido;
+
+class BufferStatusTest {
+
+    private static final int SEGMENTO = 1024 * 1024;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void gravaSoOUltimoStatusDeCadaPedido() {
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            for (StatusPedido status : List.of(StatusPedido.CONFIRMADO, StatusPedido.EM_PREPARACAO,
+                    StatusPedido.ENVIADO, StatusPedido.ENTREGUE)) {
+                buffer.registrar(1L, 10L, status);
+            }
+            buffer.registrar(2L, 20L, StatusPedido.CANCELADO);
+            assertEquals(Optional.of(StatusPedido.ENTREGUE), buffer.pendente(1L));
+
+            Map<Long, StatusPedido> gravados = descarregar(buffer);
+            assertEquals(Map.of(1L, StatusPedido.ENTREGUE, 2L, StatusPedido.CANCELADO), gravados);
+            assertEquals(5, buffer.registrados());
+            assertEquals(2, buffer.gravados());
+            assertEquals(Optional.empty(), buffer.pendente(1L));
+            assertEquals(0, buffer.descarregar(lote -> {
+                throw new AssertionError("Nada pendente");
+            }));
+        }
+    }
+
+    @Test
+    void recuperaDoLogOQueNaoChegouAoBanco() {
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            buffer.registrar(1L, 10L, StatusPedido.CONFIRMADO);
+            buffer.registrar(2L, 20L, StatusPedido.ENVIADO);
+            descarregar(buffer);
+            buffer.registrar(2L, 20L, StatusPedido.ENTREGUE);
+            buffer.registrar(3L, 30L, StatusPedido.EM_PREPARACAO);
+        }
+        // Reabrir equivale ao reinício depois de uma queda: só volta o que está depois do checkpoint
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            assertEquals(Optional.empty(), buffer.pendente(1L));
+            assertEquals(Map.of(2L, StatusPedido.ENTREGUE, 3L, StatusPedido.EM_PREPARACAO), descarregar(buffer));
+        }
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            assertEquals(0, buffer.pendentes());
+        }
+    }
+
+    @Test
+    void escritaRasgadaNoFimEhDescartadaEOLogContinua() throws IOException {
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            buffer.registrar(1L, 10L, StatusPedido.CONFIRMADO);
+            buffer.registrar(2L, 20L, StatusPedido.CONFIRMADO);
+        }
+        // Estraga o pedido do segundo registro: o CRC deixa de bater
+        Path segmento = segmentos().get(0);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 99L), LogStatus.TAMANHO_REGISTRO + Long.BYTES);
+        }
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            assertEquals(1, buffer.pendentes());
+            assertEquals(Optional.of(StatusPedido.CONFIRMADO), buffer.pendente(1L));
+            buffer.registrar(3L, 30L, StatusPedido.ENVIADO);
+        }
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            assertEquals(Map.of(1L, StatusPedido.CONFIRMADO, 3L, StatusPedido.ENVIADO), descarregar(buffer));
+        }
+    }
+
+    @Test
+    void checkpointApagaSegmentosJaGravados() throws IOException {
+        // Dois registros por segmento
+        try (BufferStatus buffer = new BufferStatus(diretorio, 2 * LogStatus.TAMANHO_REGISTRO)) {
+            for (long pedido = 1; pedido <= 5; pedido++) {
+                buffer.registrar(pedido, 10L, StatusPedido.CONFIRMADO);
+            }
+            assertEquals(3, segmentos().size());
+            assertEquals(5, descarregar(buffer).size());
+            assertEquals(1, segmentos().size());
+        }
+    }
+
+    @Test
+    void falhaNaGravacaoMantemOsPendentes() {
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            buffer.registrar(1L, 10L, StatusPedido.ENVIADO);
+            assertThrows(IllegalStateException.class, () -> buffer.descarregar(lote -> {
+                throw new IllegalStateException("Banco fora");
+            }));
+            assertEquals(Optional.of(StatusPedido.ENVIADO), buffer.pendente(1L));
+            assertEquals(Map.of(1L, StatusPedido.ENVIADO), descarregar(buffer));
+        }
+    }
+
+    @Test
+    void fsyncEmGrupoComEscritasConcorrentes() throws InterruptedException {
+        try (BufferStatus buffer = new BufferStatus(diretorio, SEGMENTO)) {
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            for (int t = 0; t < 16; t++) {
+                long base = t * 1000L;
+                executor.execute(() -> {
+                    for (long i = 0; i < 200; i++) {
+                        buffer.registrar(base + i % 50, 10L, StatusPedido.values()[(int) (i % 6)]);
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            assertEquals(3200, buffer.registrados());
+            // Cada fsync confirmou mais de uma mudança
+            assertTrue(buffer.sincronizacoes() < buffer.registrados());
+            assertEquals(16 * 50, descarregar(buffer).size());
+        }
+    }
+
+    private static Map<Long, StatusPedido> descarregar(BufferStatus buffer) {
+        Map<Long, StatusPedido> gravados = new HashMap<>();
+        buffer.descarregar(lote -> {
+            for (RegistroStatus registro : lote) {
+                gravados.put(registro.pedidoId(), registro.status());
+            }
+        });
+        return gravados;
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(p -> p.toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.deliverytech.delivery.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.deliverytech.delivery.config.WriteBehindConfig;
+import com.deliverytech.delivery.dto.request.ItemPedidoRequest;
+import com.deliverytech.delivery.dto.request.PedidoRequest;
+import com.deliverytech.delivery.exception.BusinessException;
+import com.deliverytech.delivery.model.Cliente;
+import com.deliverytech.delivery.model.Pedido;
+import com.deliverytech.delivery.model.Produto;
+import com.deliverytech.delivery.model.Restaurante;
+import com.deliverytech.delivery.model.StatusPedido;
+import com.deliverytech.delivery.service.ClienteService;
+import com.deliverytech.delivery.service.PedidoService;
+import com.deliverytech.delivery.service.ProdutoService;
+import com.deliverytech.delivery.service.RestauranteService;
+
+/**
+ * Write-behind ligado contra o H2: a descarga não sobrescreve um status
+ * gravado no banco depois da mudança que estava no buffer, e editar o pedido
+ * não grava o status pendente junto.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:descarga-status;DB_CLOSE_DELAY=-1",
+        "delivery.status.write-behind.habilitado=true",
+        "delivery.status.write-behind.intervalo-ms=3600000"
+})
+class DescargaStatusTest {
+
+    @TempDir
+    static Path diretorio;
+
+    @DynamicPropertySource
+    static void log(DynamicPropertyRegistry registry) {
+        registry.add("delivery.status.wal.diretorio", () -> diretorio.toString());
+    }
+
+    @Autowired
+    private RestauranteService restauranteService;
+
+    @Autowired
+    private ProdutoService produtoService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private WriteBehindConfig writeBehind;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Restaurante restaurante;
+    private Produto pizza;
+    private Cliente cliente;
+
+    @BeforeEach
+    void cadastrar() {
+        long sufixo = System.nanoTime();
+        restaurante = restauranteService.cadastrar(Restaurante.builder().nome("Cantina " + sufixo)
+                .categoria("Italiana").taxaEntrega(new BigDecimal("5.00")).tempoEntregaMinutos(30).build());
+        pizza = produtoService.cadastrar(Produto.builder().nome("Pizza").categoria("Pizzas")
+                .preco(new BigDecimal("40.00")).restaurante(restaurante).build());
+        cliente = clienteService.cadastrar(Cliente.builder().nome("Ana").email(sufixo + "@descarga.com").build());
+    }
+
+    @Test
+    void descargaNaoSobrescreveStatusGravadoDepois() {
+        Pedido superado = novoPedido();
+        Pedido atrasado = novoPedido();
+        pedidoService.atualizarStatus(superado.getId(), StatusPedido.CONFIRMADO);
+        pedidoService.atualizarStatus(atrasado.getId(), StatusPedido.CONFIRMADO);
+
+        // Outro nó cancela um deles na hora, depois da mudança que ficou no buffer
+        jdbc.update("update pedido set status = 'CANCELADO', status_atualizado_em = ? where id = ?",
+                Timestamp.valueOf(LocalDateTime.now().plusSeconds(1)), superado.getId());
+        writeBehind.descarregarStatus();
+
+        assertEquals("CANCELADO", statusNoBanco(superado.getId()));
+        assertEquals("CONFIRMADO", statusNoBanco(atrasado.getId()));
+    }
+
+    @Test
+    void editarPedidoNaoGravaOStatusPendente() {
+        Pedido pedido = novoPedido();
+        pedidoService.atualizarStatus(pedido.getId(), StatusPedido.CONFIRMADO);
+
+        BusinessException recusa = assertThrows(BusinessException.class,
+                () -> pedidoService.atualizar(pedido.getId(), requisicao(1)));
+        assertEquals("PEDIDO_NAO_EDITAVEL", recusa.getErrorCode());
+        assertEquals("CRIADO", statusNoBanco(pedido.getId()));
+        assertEquals(StatusPedido.CONFIRMADO, pedidoService.buscarPorId(pedido.getId()).orElseThrow().getStatus());
+    }
+
+    private Pedido novoPedido() {
+        return pedidoService.criar(requisicao(2));
+    }
+
+    private PedidoRequest requisicao(int quantidade) {
+        return new PedidoRequest(cliente.getId(), restaurante.getId(), null,
+                List.of(new ItemPedidoRequest(pizza.getId(), quantidade)), null);
+    }
+
+    private String statusNoBanco(Long id) {
+        return jdbc.queryForObject("select status from pedido where id = ?", String.class, id);
+    }
+}